@@ -1,7 +1,9 @@
 package com.unieats;
 
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.SchemaMigrations;
+import com.unieats.util.SchemaMigrator;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -9,12 +11,9 @@ import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 public class DatabaseManager {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
     private static DatabaseManager instance;
     private static User currentUser;
     
@@ -26,7 +25,7 @@ public class DatabaseManager {
      */
     public boolean updateUserProfilePicture(int userId, String profilePath) {
         String sql = "UPDATE users SET profile_picture = ?, updated_at = ? WHERE id = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, profilePath);
             pstmt.setString(2, LocalDateTime.now().toString());
@@ -52,7 +51,7 @@ public class DatabaseManager {
 
         Connection conn = null;
         try {
-            conn = DriverManager.getConnection(DB_URL);
+            conn = ConnectionPool.getConnection();
             conn.setAutoCommit(false); // Start transaction
 
             // 1. Update user status
@@ -103,6 +102,9 @@ public class DatabaseManager {
             }
 
             conn.commit(); // Commit the transaction
+            if (shopId != -1) {
+                com.unieats.dao.RandomItemSampler.getInstance().onShopStatusChanged(shopId, newStatus);
+            }
             
             // Broadcast shop status change via dedicated ShopStatus WS and topic hub (after commit)
             if (shopId != -1 && shopName != null) {
@@ -168,328 +170,21 @@ public class DatabaseManager {
     }
     
     private void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            // Create tables if they don't exist
-            try (Statement stmt = conn.createStatement()) {
-                // Users
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS users (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        email TEXT UNIQUE NOT NULL,
-                        password TEXT NOT NULL,
-                        full_name TEXT NOT NULL,
-                        profile_picture TEXT DEFAULT NULL,
-                        phone_no TEXT DEFAULT NULL,
-                        address TEXT DEFAULT NULL,
-                        user_category TEXT NOT NULL CHECK(user_category IN ('student', 'seller')),
-                        status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('approved','pending','rejected')),
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP
-                    )
-                """);
-
-                // Shops (stall owners)
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS shops (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        owner_id INTEGER NOT NULL,
-                        shop_name TEXT NOT NULL,
-                        status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('pending', 'approved', 'rejected')),
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(owner_id) REFERENCES users(id)
-                    )
-                """);
-
-                // Food items
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS food_items (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        shop_id INTEGER NOT NULL,
-                        name TEXT NOT NULL,
-                        price REAL NOT NULL,
-                        points_multiplier REAL NOT NULL DEFAULT 1.0,
-                        stock INTEGER NOT NULL DEFAULT 0,
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(shop_id) REFERENCES shops(id)
-                    )
-                """);
-
-                // Cart
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS cart (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        user_id INTEGER NOT NULL,
-                        item_id INTEGER NOT NULL,
-                        quantity INTEGER NOT NULL DEFAULT 1,
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(user_id) REFERENCES users(id),
-                        FOREIGN KEY(item_id) REFERENCES food_items(id)
-                    )
-                """);
-
-                // Wishlist
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS wishlist (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        user_id INTEGER NOT NULL,
-                        item_id INTEGER NOT NULL,
-                        quantity INTEGER NOT NULL DEFAULT 1,
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(user_id) REFERENCES users(id),
-                        FOREIGN KEY(item_id) REFERENCES food_items(id)
-                    )
-                """);
-
-                // Orders
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS orders (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        user_id INTEGER NOT NULL,
-                        shop_id INTEGER NOT NULL,
-                        total_price REAL NOT NULL,
-                        status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('pending','preparing','delivered','cancelled','completed')),
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(user_id) REFERENCES users(id),
-                        FOREIGN KEY(shop_id) REFERENCES shops(id)
-                    )
-                """);
-
-                // Order items
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS order_items (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        order_id INTEGER NOT NULL,
-                        item_id INTEGER NOT NULL,
-                        quantity INTEGER NOT NULL,
-                        price REAL NOT NULL,
-                        FOREIGN KEY(order_id) REFERENCES orders(id),
-                        FOREIGN KEY(item_id) REFERENCES food_items(id)
-                    )
-                """);
-
-                // Reward points (shop-wise)
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS reward_points (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        user_id INTEGER NOT NULL,
-                        shop_id INTEGER NOT NULL,
-                        points REAL NOT NULL DEFAULT 0,
-                        UNIQUE(user_id, shop_id),
-                        FOREIGN KEY(user_id) REFERENCES users(id),
-                        FOREIGN KEY(shop_id) REFERENCES shops(id)
-                    )
-                """);
-
-                // Reports (quality reports)
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS reports (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        user_id INTEGER NOT NULL,
-                        shop_id INTEGER NOT NULL,
-                        item_id INTEGER,
-                        title TEXT NOT NULL,
-                        description TEXT NOT NULL,
-                        attachments TEXT DEFAULT '[]',
-                        status TEXT NOT NULL DEFAULT 'open' CHECK(status IN ('open','reviewing','resolved','rejected')),
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(user_id) REFERENCES users(id),
-                        FOREIGN KEY(shop_id) REFERENCES shops(id),
-                        FOREIGN KEY(item_id) REFERENCES food_items(id)
-                    )
-                """);
-
-                // Reviews (shared for shops or food items)
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS reviews (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        user_id INTEGER NOT NULL,
-                        shop_id INTEGER,
-                        food_item_id INTEGER,
-                        rating INTEGER NOT NULL CHECK(rating BETWEEN 1 AND 5),
-                        comment TEXT,
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(user_id) REFERENCES users(id),
-                        FOREIGN KEY(shop_id) REFERENCES shops(id),
-                        FOREIGN KEY(food_item_id) REFERENCES food_items(id),
-                        CHECK ((shop_id IS NOT NULL AND food_item_id IS NULL) OR (shop_id IS NULL AND food_item_id IS NOT NULL))
-                    )
-                """);
-
-                // Payments
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS payments (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        order_id INTEGER NOT NULL,
-                        payment_method TEXT NOT NULL CHECK(payment_method IN ('card', 'cash', 'digital_wallet') OR payment_method LIKE 'digital_wallet_%'),
-                        amount REAL NOT NULL,
-                        status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('pending', 'completed', 'failed', 'refunded')),
-                        transaction_id TEXT,
-                        payment_details TEXT,
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(order_id) REFERENCES orders(id)
-                    )
-                """);
-
-                // Order status history
-                stmt.execute("""
-                    CREATE TABLE IF NOT EXISTS order_status_history (
-                        id INTEGER PRIMARY KEY AUTOINCREMENT,
-                        order_id INTEGER NOT NULL,
-                        status TEXT NOT NULL,
-                        notes TEXT,
-                        created_at TEXT DEFAULT CURRENT_TIMESTAMP,
-                        FOREIGN KEY(order_id) REFERENCES orders(id)
-                    )
-                """);
+        try (Connection conn = ConnectionPool.getConnection()) {
+            int applied = SchemaMigrations.migrator().migrate(conn);
+            if (applied > 0) {
+                System.out.println("Database schema migrated to version " + SchemaMigrator.currentVersion(conn));
+            }
 
-                // Ensure backward compatibility: add any missing columns in 'users' and 'reports'
-                ensureUsersTableColumns(conn);
-                ensureReportsTableColumns(conn);
-                
-                // Update payments table constraint if needed
-                updatePaymentsTableConstraint(conn);
-                
-                // Initialize reports directory
-                com.unieats.util.ReportFileManager.initializeDirectories();
+            // Initialize reports directory
+            com.unieats.util.ReportFileManager.initializeDirectories();
 
-                System.out.println("Database initialized successfully");
-            }
-            
+            System.out.println("Database initialized successfully");
         } catch (SQLException e) {
             System.err.println("Error initializing database: " + e.getMessage());
             e.printStackTrace();
         }
     }
-
-    /**
-     * Ensures the 'users' table contains all expected columns.
-     */
-    private void ensureUsersTableColumns(Connection conn) throws SQLException {
-        Set<String> columns = new HashSet<>();
-        try (Statement s = conn.createStatement(); ResultSet rs = s.executeQuery("PRAGMA table_info(users)")) {
-            while (rs.next()) {
-                String name = rs.getString("name");
-                if (name != null) columns.add(name.toLowerCase());
-            }
-        }
-
-        try (Statement s = conn.createStatement()) {
-            if (!columns.contains("profile_picture")) {
-                s.execute("ALTER TABLE users ADD COLUMN profile_picture TEXT DEFAULT NULL");
-            }
-            if (!columns.contains("phone_no")) {
-                s.execute("ALTER TABLE users ADD COLUMN phone_no TEXT DEFAULT NULL");
-            }
-            if (!columns.contains("address")) {
-                s.execute("ALTER TABLE users ADD COLUMN address TEXT DEFAULT NULL");
-            }
-            if (!columns.contains("status")) {
-                s.execute("ALTER TABLE users ADD COLUMN status TEXT NOT NULL DEFAULT 'pending'");
-            }
-        }
-    }
-
-    /**
-     * Updates the payments table constraint to allow digital_wallet_* payment methods
-     */
-    private void updatePaymentsTableConstraint(Connection conn) throws SQLException {
-        // No-op migration: preserve existing payments table to avoid data loss across restarts/logouts.
-        // Legacy databases will continue working; new installs get the correct schema via CREATE TABLE IF NOT EXISTS above.
-    }
-
-    /**
-     * Ensures the 'reports' table contains all expected columns.
-     * Adds missing columns using ALTER TABLE for databases created before these columns existed.
-     */
-    private void ensureReportsTableColumns(Connection conn) throws SQLException {
-        Set<String> columns = new HashSet<>();
-        try (Statement s = conn.createStatement(); ResultSet rs = s.executeQuery("PRAGMA table_info(reports)")) {
-            while (rs.next()) {
-                String name = rs.getString("name");
-                if (name != null) columns.add(name.toLowerCase());
-            }
-        }
-
-        try (Statement s = conn.createStatement()) {
-            // Note: When adding NOT NULL columns to existing tables, provide a DEFAULT value.
-            if (!columns.contains("item_id")) {
-                s.execute("ALTER TABLE reports ADD COLUMN item_id INTEGER");
-            }
-            if (!columns.contains("title")) {
-                s.execute("ALTER TABLE reports ADD COLUMN title TEXT DEFAULT ''");
-            }
-            if (!columns.contains("description")) {
-                s.execute("ALTER TABLE reports ADD COLUMN description TEXT DEFAULT ''");
-            }
-            if (!columns.contains("attachments")) {
-                s.execute("ALTER TABLE reports ADD COLUMN attachments TEXT DEFAULT '[]'");
-            }
-            
-            // Check if address and description columns exist in shops table, add if not
-            ResultSet shopColumns = s.executeQuery("PRAGMA table_info(shops)");
-            Set<String> shopColumnNames = new HashSet<>();
-            while (shopColumns.next()) {
-                shopColumnNames.add(shopColumns.getString("name"));
-            }
-            shopColumns.close();
-            
-            if (!shopColumnNames.contains("address")) {
-                s.execute("ALTER TABLE shops ADD COLUMN address TEXT DEFAULT ''");
-            }
-            // Add updated_at to food_items if missing
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute("ALTER TABLE food_items ADD COLUMN updated_at TEXT DEFAULT CURRENT_TIMESTAMP");
-            } catch (SQLException ignored) {
-                // Column already exists
-            }
-            
-            // Create order_requests table if it doesn't exist
-            s.execute("""
-                CREATE TABLE IF NOT EXISTS order_requests (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    customer_id INTEGER NOT NULL,
-                    customer_name TEXT NOT NULL,
-                    shop_id INTEGER NOT NULL,
-                    total_price REAL NOT NULL,
-                    status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('pending', 'accepted', 'declined')),
-                    order_time TEXT NOT NULL,
-                    updated_at TEXT NOT NULL,
-                    FOREIGN KEY(shop_id) REFERENCES shops(id)
-                )
-            """);
-            
-            // Create order_items table if it doesn't exist
-            s.execute("""
-                CREATE TABLE IF NOT EXISTS order_items (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    order_id INTEGER NOT NULL,
-                    food_item_id INTEGER NOT NULL,
-                    food_item_name TEXT NOT NULL,
-                    quantity INTEGER NOT NULL,
-                    unit_price REAL NOT NULL,
-                    total_price REAL NOT NULL,
-                    FOREIGN KEY(order_id) REFERENCES order_requests(id) ON DELETE CASCADE
-                )
-            """);
-            if (!columns.contains("status")) {
-                s.execute("ALTER TABLE reports ADD COLUMN status TEXT NOT NULL DEFAULT 'open'");
-            }
-            if (!columns.contains("created_at")) {
-                s.execute("ALTER TABLE reports ADD COLUMN created_at TEXT DEFAULT CURRENT_TIMESTAMP");
-            }
-            if (!columns.contains("updated_at")) {
-                s.execute("ALTER TABLE reports ADD COLUMN updated_at TEXT DEFAULT CURRENT_TIMESTAMP");
-            }
-        }
-    }
     
     /**
      * Create a new user
@@ -499,7 +194,7 @@ public class DatabaseManager {
     public boolean createUser(User user) {
         Connection conn = null;
         try {
-            conn = DriverManager.getConnection(DB_URL);
+            conn = ConnectionPool.getConnection();
             conn.setAutoCommit(false); // Start transaction
             
             // Insert user
@@ -587,7 +282,7 @@ public class DatabaseManager {
     public boolean createShop(int ownerId, String shopName) {
         String sql = "INSERT INTO shops (owner_id, shop_name, status, created_at, updated_at) VALUES (?, ?, 'pending', ?, ?)";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, ownerId);
@@ -618,7 +313,7 @@ public class DatabaseManager {
     public User getUserByEmail(String email) {
         String sql = "SELECT * FROM users WHERE email = ?";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, email);
@@ -645,7 +340,7 @@ public class DatabaseManager {
     public User getUserById(int id) {
         String sql = "SELECT * FROM users WHERE id = ?";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, id);
@@ -668,7 +363,7 @@ public class DatabaseManager {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM users ORDER BY created_at DESC";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -691,7 +386,7 @@ public class DatabaseManager {
             WHERE id = ?
             """;
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, user.getEmail());
@@ -720,7 +415,7 @@ public class DatabaseManager {
     public boolean deleteUser(int userId) {
         String sql = "DELETE FROM users WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -745,7 +440,7 @@ public class DatabaseManager {
     public String getShopStatus(int userId) {
         String sql = "SELECT status FROM shops WHERE owner_id = ?";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
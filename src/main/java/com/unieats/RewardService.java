@@ -1,16 +1,15 @@
 package com.unieats;
 
+import com.unieats.util.ConnectionPool;
 import java.sql.*;
 
 public class RewardService {
-	private static final String DB_URL = "jdbc:sqlite:unieats.db";
-
 	public static void addPoints(int userId, int shopId, double points) {
 		String upsert = """
 			INSERT INTO reward_points(user_id, shop_id, points) VALUES(?, ?, ?)
 			ON CONFLICT(user_id, shop_id) DO UPDATE SET points = points + excluded.points
 		""";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(upsert)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(upsert)) {
 			ps.setInt(1, userId);
 			ps.setInt(2, shopId);
 			ps.setDouble(3, points);
@@ -21,7 +20,7 @@ public class RewardService {
 	}
 
 	public static double getPoints(int userId, int shopId) {
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement("SELECT points FROM reward_points WHERE user_id=? AND shop_id=?")) {
 			ps.setInt(1, userId);
 			ps.setInt(2, shopId);
@@ -37,7 +36,7 @@ public class RewardService {
 	public static boolean redeemPoints(int userId, int shopId, double pointsToUse) {
 		String select = "SELECT points FROM reward_points WHERE user_id=? AND shop_id=?";
 		String update = "UPDATE reward_points SET points = points - ? WHERE user_id=? AND shop_id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL)) {
+		try (Connection conn = ConnectionPool.getConnection()) {
 			conn.setAutoCommit(false);
 			try (PreparedStatement ps = conn.prepareStatement(select)) {
 				ps.setInt(1, userId);
@@ -67,7 +66,7 @@ public class RewardService {
 	 */
 	public static double getTotalPoints(int userId) {
 		String sql = "SELECT COALESCE(SUM(points),0) FROM reward_points WHERE user_id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 		     PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			try (ResultSet rs = ps.executeQuery()) {
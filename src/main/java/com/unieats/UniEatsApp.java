@@ -32,10 +32,24 @@ public class UniEatsApp extends Application {
                 e.printStackTrace();
             }
 
+            // Start the realtime gateway: one WebSocket per client for every channel
+            try {
+                if (!isPortInUse(com.unieats.realtime.RealtimeGateway.port())) {
+                    com.unieats.realtime.RealtimeGateway.getInstance().start();
+                    System.out.println("✓ Realtime gateway initialized on port " + com.unieats.realtime.RealtimeGateway.port());
+                } else {
+                    System.out.println("✓ Realtime gateway already running on port " + com.unieats.realtime.RealtimeGateway.port());
+                }
+            } catch (Exception e) {
+                System.err.println("❌ Failed to start realtime gateway: " + e.getMessage());
+            }
+
             // Start lightweight WebSocket server for inventory broadcasts
             try {
                 com.unieats.util.InventoryWebSocketServer wsServer = new com.unieats.util.InventoryWebSocketServer(
                         7071);
+                // Hub messages, including those from other processes, also go out on the gateway
+                wsServer.setRelay(com.unieats.realtime.RealtimeGateway.getInstance()::relayInventory);
                 wsServer.start();
                 // Store in a singleton for access from controllers
                 com.unieats.util.SocketBus.setServer(wsServer);
@@ -31,7 +31,6 @@ import javafx.scene.control.Alert.AlertType;
 
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.concurrent.Executors;
@@ -40,6 +39,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.LinkedList;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import com.unieats.util.ConnectionPool;
 import com.unieats.util.ReportFileManager;
 import java.io.File;
 import java.util.List;
@@ -99,6 +99,24 @@ public class AdminController {
 
 	private final ObservableList<User> allUsers = FXCollections.observableArrayList();
 	private final ObservableList<Shop> allSellers = FXCollections.observableArrayList();
+	// Patch the lists from realtime deltas instead of re-running the full queries
+	private final com.unieats.realtime.DeltaApplier<Shop> sellerDeltas =
+			new com.unieats.realtime.DeltaApplier<>(allSellers, Shop::getId, id -> new com.unieats.dao.ShopDao().findById((int) id))
+					.field("shop_name", com.unieats.realtime.DeltaApplier.string(Shop::setShopName))
+					.field("status", com.unieats.realtime.DeltaApplier.string(Shop::setStatus))
+					.field("owner_id", (s, v) -> s.setOwnerId(v.getAsInt()))
+					.ignore("created_at", "updated_at");
+	private final com.unieats.realtime.DeltaApplier<User> userDeltas =
+			new com.unieats.realtime.DeltaApplier<>(allUsers, User::getId, id -> com.unieats.DatabaseManager.getInstance().getUserById((int) id))
+					.field("email", com.unieats.realtime.DeltaApplier.string(User::setEmail))
+					.field("full_name", com.unieats.realtime.DeltaApplier.string(User::setFullName))
+					.field("profile_picture", com.unieats.realtime.DeltaApplier.string(User::setProfilePicture))
+					.field("phone_no", com.unieats.realtime.DeltaApplier.string(User::setPhoneNo))
+					.field("address", com.unieats.realtime.DeltaApplier.string(User::setAddress))
+					.field("user_category", com.unieats.realtime.DeltaApplier.string(User::setUserCategory))
+					.field("status", com.unieats.realtime.DeltaApplier.string(User::setStatus))
+					.ignore("created_at", "updated_at")
+					.filter(u -> "student".equalsIgnoreCase(u.getUserCategory()));
 	
 	// Recent activities data
 	private ObservableList<RecentActivity> recentActivities;
@@ -265,7 +283,7 @@ public class AdminController {
 	}
 
     private void renderReportsAndPayments() {
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:unieats.db")) {
+        try (Connection conn = ConnectionPool.getConnection()) {
             // Reports
             if (this.reportsFlow != null) {
                 this.reportsFlow.getChildren().clear();
@@ -382,7 +400,7 @@ public class AdminController {
             XYChart.Series<String, Number> series = new XYChart.Series<>();
             series.setName("Orders");
 
-            try (Connection conn = DriverManager.getConnection("jdbc:sqlite:unieats.db")) {
+            try (Connection conn = ConnectionPool.getConnection()) {
                 String sql = """
                     SELECT s.shop_name, COUNT(o.id) as order_count
                     FROM shops s
@@ -413,7 +431,7 @@ public class AdminController {
     }
 
     private void loadRecentActivities() {
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:unieats.db")) {
+        try (Connection conn = ConnectionPool.getConnection()) {
             // Get recent users
             String userSql = "SELECT full_name, created_at FROM users WHERE created_at >= datetime('now', '-24 hours') ORDER BY created_at DESC LIMIT 3";
             try (PreparedStatement ps = conn.prepareStatement(userSql); ResultSet rs = ps.executeQuery()) {
@@ -501,34 +519,56 @@ public class AdminController {
     private void startAutoRefresh() {}
 
     private void startRealtime() {
-        // Listen to socket hub topics from InventoryWebSocketServer (ws://localhost:7071)
+        // Listen to admin topics on the realtime gateway; each topic's bursts are applied together
         try {
-            com.unieats.util.ReconnectingWebSocketClient topicClient = new com.unieats.util.ReconnectingWebSocketClient("ws://localhost:7071", message -> {
-                if (message == null || !message.contains("\"type\":\"topic\"")) return;
-                Platform.runLater(() -> {
-                    if (message.contains("\"topic\":\"shops\"")) {
-                        allSellers.clear();
-                        allSellers.addAll(new com.unieats.dao.ShopDao().listAll());
-                        renderShopCards(allSellers);
-                        populateDashboard();
-                    } else if (message.contains("\"topic\":\"users\"")) {
-                        allUsers.clear();
-                        for (User u : com.unieats.DatabaseManager.getInstance().getAllUsers()) {
-                            if ("student".equalsIgnoreCase(u.getUserCategory())) allUsers.add(u);
-                        }
-                        renderUserCards(allUsers);
-                        populateDashboard();
-                    } else if (message.contains("\"topic\":\"reports\"")) {
-                        renderReportsAndPayments();
-                    } else if (message.contains("\"topic\":\"payments\"")) {
-                        renderReportsAndPayments();
-                    }
-                });
-            });
-            topicClient.start();
+            com.unieats.realtime.RefreshCoalescer coalescer = com.unieats.realtime.RefreshCoalescer.fx();
+            com.unieats.realtime.RefreshCoalescer.Lane<String> shops = coalescer.lane("admin:shops", this::applySellerEvents);
+            com.unieats.realtime.RefreshCoalescer.Lane<String> users = coalescer.lane("admin:users", this::applyUserEvents);
+            // Reports and payments share one render
+            com.unieats.realtime.RefreshCoalescer.Lane<Object> reports = coalescer.lane("admin:reports", this::renderReportsAndPayments);
+            java.util.Map<String, java.util.function.Consumer<String>> lanes = java.util.Map.of(
+                    "shops", shops::submit,
+                    "users", users::submit,
+                    "reports", message -> reports.request(),
+                    "payments", message -> reports.request());
+            com.unieats.realtime.RealtimeGatewayClient gateway = com.unieats.realtime.RealtimeGatewayClient.getInstance();
+            for (java.util.Map.Entry<String, java.util.function.Consumer<String>> lane : lanes.entrySet()) {
+                String topic = lane.getKey();
+                java.util.function.Consumer<String> onTopic = message -> {
+                    if (message == null || !message.contains("\"type\":\"topic\"")) return;
+                    if (message.contains("\"topic\":\"" + topic + "\"")) lane.getValue().accept(message);
+                };
+                // Missed events that cannot be replayed are handled like a fresh topic event
+                gateway.subscribe(com.unieats.realtime.RealtimeGateway.Channel.ADMIN, topic, onTopic,
+                        () -> onTopic.accept("{\"type\":\"topic\",\"topic\":\"" + topic + "\"}"));
+            }
         } catch (Exception ignored) {}
     }
 
+    /** Apply a burst of shop delta envelopes, reloading if any lacks deltas. */
+    private void applySellerEvents(java.util.List<String> envelopes) {
+        if (envelopes.isEmpty() || !envelopes.stream().allMatch(sellerDeltas::apply)) {
+            allSellers.clear();
+            allSellers.addAll(new com.unieats.dao.ShopDao().listAll());
+            sellerDeltas.reset();
+        }
+        renderShopCards(allSellers);
+        populateDashboard();
+    }
+
+    /** Apply a burst of user delta envelopes, reloading if any lacks deltas. */
+    private void applyUserEvents(java.util.List<String> envelopes) {
+        if (envelopes.isEmpty() || !envelopes.stream().allMatch(userDeltas::apply)) {
+            allUsers.clear();
+            for (User u : com.unieats.DatabaseManager.getInstance().getAllUsers()) {
+                if ("student".equalsIgnoreCase(u.getUserCategory())) allUsers.add(u);
+            }
+            userDeltas.reset();
+        }
+        renderUserCards(allUsers);
+        populateDashboard();
+    }
+
 	@FXML private void showDashboard() { showOnly(dashboardPane); }
 	@FXML private void showUsers() { showOnly(usersPane); }
 	@FXML private void showSellers() { showOnly(sellersPane); }
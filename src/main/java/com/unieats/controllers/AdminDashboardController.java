@@ -1,5 +1,6 @@
 package com.unieats.controllers;
 
+import com.unieats.util.ConnectionPool;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
@@ -14,7 +15,6 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.beans.property.SimpleStringProperty;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.time.LocalDateTime;
@@ -69,7 +69,7 @@ public class AdminDashboardController {
 			XYChart.Series<String, Number> series = new XYChart.Series<>();
 			series.setName("Orders");
 
-			try (Connection conn = DriverManager.getConnection("jdbc:sqlite:unieats.db")) {
+			try (Connection conn = ConnectionPool.getConnection()) {
 				String sql = """
 					SELECT s.shop_name, COUNT(o.id) as order_count
 					FROM shops s
@@ -113,7 +113,7 @@ public class AdminDashboardController {
 	}
 
 	public void loadRecentActivities() {
-		try (Connection conn = DriverManager.getConnection("jdbc:sqlite:unieats.db")) {
+		try (Connection conn = ConnectionPool.getConnection()) {
 			// Get recent users
 			String userSql = "SELECT full_name, created_at FROM users WHERE created_at >= datetime('now', '-24 hours') ORDER BY created_at DESC LIMIT 3";
 			try (PreparedStatement ps = conn.prepareStatement(userSql); ResultSet rs = ps.executeQuery()) {
@@ -101,7 +101,11 @@ public class CartController {
                     Button plus = new Button();
                     plus.setGraphic(new FontIcon("fas-plus"));
                     plus.setOnAction(e -> {
-                        cartDao.addToCart(currentUserId, item.itemId, 1);
+                        try {
+                            cartDao.addToCart(currentUserId, item.itemId, 1);
+                        } catch (RuntimeException ex) {
+                            showAlert("Cart", ex.getMessage());
+                        }
                         refresh();
                     });
                     Label qty = new Label(String.valueOf(item.quantity));
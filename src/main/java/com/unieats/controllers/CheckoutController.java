@@ -7,6 +7,7 @@ import com.unieats.dao.CartDao;
 import com.unieats.dao.OrderDao;
 import com.unieats.dao.ShopDao;
 import com.unieats.Shop;
+import com.unieats.stock.StockReservations;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -45,6 +46,7 @@ public class CheckoutController {
     private final CartDao cartDao = new CartDao();
     private final OrderDao orderDao = new OrderDao();
     private final ShopDao shopDao = new ShopDao();
+    private final StockReservations reservations = StockReservations.getInstance();
     private int currentUserId;
     private User currentUser;
     private List<CartItemView> cartItems;
@@ -152,6 +154,12 @@ public class CheckoutController {
             return;
         }
 
+        // Entering checkout renews the hold on every line; a line that lost its hold is flagged now, not after paying
+        List<CartItemView> unheld = reservations.holdCart(currentUserId, cartItems);
+        if (!unheld.isEmpty()) {
+            showAlert("Stock Changed", describeShortages(reservations, currentUserId, unheld));
+        }
+
         // Get shop information
         int shopId = cartItems.get(0).shopId;
         currentShop = shopDao.getShopById(shopId);
@@ -167,6 +175,19 @@ public class CheckoutController {
         totalLabel.setText(String.format("$%.2f", total));
     }
 
+    /**
+     * Message listing cart lines whose quantity can no longer be held, with what is left of each.
+     */
+    static String describeShortages(StockReservations reservations, int userId, List<CartItemView> unheld) {
+        StringBuilder message = new StringBuilder("Some items in your cart are no longer available in that quantity:");
+        for (CartItemView item : unheld) {
+            message.append("\n• ").append(item.name).append(": ")
+                   .append(reservations.available(userId, item.itemId, item.stock)).append(" left, ")
+                   .append(item.quantity).append(" in cart");
+        }
+        return message.append("\nPlease update your cart before paying.").toString();
+    }
+
     private void refreshCartData() {
         loadCartData();
     }
@@ -201,6 +222,11 @@ public class CheckoutController {
         if (!validateForm()) {
             return;
         }
+        List<CartItemView> unheld = reservations.holdCart(currentUserId, cartItems);
+        if (!unheld.isEmpty()) {
+            showAlert("Stock Changed", describeShortages(reservations, currentUserId, unheld));
+            return;
+        }
 
         try {
             // Calculate totals
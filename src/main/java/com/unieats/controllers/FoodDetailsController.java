@@ -5,6 +5,7 @@ import com.unieats.Shop;
 import com.unieats.User;
 import com.unieats.dao.CartDao;
 import com.unieats.dao.ReviewDao;
+import com.unieats.stock.StockReservations;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -271,7 +272,7 @@ public class FoodDetailsController {
         }
 
         pointsLabel.setText("Points: " + foodItem.getPointsMultiplier() + "x");
-        stockLabel.setText("Stock: " + foodItem.getStock());
+        stockLabel.setText("Stock: " + availableStock(foodItem));
         descriptionLabel.setText(foodItem.getDescription() != null ? foodItem.getDescription() : "No description available.");
 
         // Load first image if available
@@ -315,10 +316,11 @@ public class FoodDetailsController {
     private void loadReviews() {
         if (foodItem == null) return;
         try {
-            double avg = reviewDao.getAverageRatingForFood(foodItem.getId());
+            ReviewDao.RatingSummary summary = reviewDao.getRatingSummaryForFood(foodItem.getId());
+            double avg = summary.average();
             List<ReviewDao.Review> items = reviewDao.listReviewsForFood(foodItem.getId(), 50);
             avgRatingLabel.setText(String.format("%.1f", avg));
-            reviewsCountLabel.setText("(" + items.size() + " reviews)");
+            reviewsCountLabel.setText("(" + summary.count() + " reviews)");
             avgStarsLabel.setText(buildStars(avg));
 
             ObservableList<String> list = FXCollections.observableArrayList();
@@ -433,6 +435,12 @@ public class FoodDetailsController {
         }
     }
 
+    // Stock less what other students hold in their carts
+    private int availableStock(FoodItem item) {
+        int userId = currentUser != null ? currentUser.getId() : -1;
+        return StockReservations.getInstance().available(userId, item.getId(), item.getStock());
+    }
+
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -13,14 +13,18 @@ import javafx.scene.image.ImageView;
 import javafx.scene.image.Image;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import com.unieats.FoodItem;
 import com.unieats.Shop;
 import com.unieats.User;
 import com.unieats.dao.FoodItemDao;
 import com.unieats.dao.ShopDao;
+import com.unieats.realtime.RefreshCoalescer;
 import com.unieats.services.StockUpdateService;
 import com.unieats.services.RealTimeStockBroadcaster;
+import com.unieats.stock.StockReservations;
 import org.kordamp.ikonli.javafx.FontIcon;
 
 public class FoodItemsController {
@@ -41,6 +45,15 @@ public class FoodItemsController {
     private ShopDao shopDao;
     private Integer shopFilterId = null;
     private boolean isShowingSearchResults = false;
+    // Stock, shop status and catalog events arrive in bursts; each burst causes one reload
+    private final RefreshCoalescer.Lane<Object> reloadLane = RefreshCoalescer.fx().lane("foodItems", () -> {
+        System.out.println("FoodItemsController: Food items changed - refreshing display");
+        if (!isShowingSearchResults) {
+            foodItemsContainer.getChildren().clear();
+            loadFoodItems();
+        }
+    });
+    private final RefreshCoalescer.Lane<int[]> stockLane = RefreshCoalescer.fx().lane("foodItems-stock", this::applyStockChanges);
 
     public void setShopFilter(int shopId) {
         this.shopFilterId = shopId;
@@ -68,11 +81,7 @@ public class FoodItemsController {
         RealTimeStockBroadcaster.getInstance().addListener(new RealTimeStockBroadcaster.StockChangeListener() {
             @Override
             public void onStockChanged(int itemId, int oldStock, int newStock) {
-                Platform.runLater(() -> {
-                    // Update the specific item in the display
-                    updateFoodItemStockInDisplay(itemId, newStock);
-                    System.out.println("FoodItems real-time update: Item " + itemId + " stock changed from " + oldStock + " to " + newStock);
-                });
+                stockLane.submit(new int[] {itemId, newStock});
             }
         });
         
@@ -80,14 +89,7 @@ public class FoodItemsController {
         StockUpdateService.getInstance().addListener(new StockUpdateService.StockUpdateListener() {
             @Override
             public void onStockUpdated(int itemId, int quantityReduced) {
-                Platform.runLater(() -> {
-                    // Only refresh if we're not showing search results
-                    if (!isShowingSearchResults) {
-                        // Refresh the food items display
-                        foodItemsContainer.getChildren().clear();
-                        loadFoodItems();
-                    }
-                });
+                reloadLane.request();
             }
             
             @Override
@@ -99,13 +101,7 @@ public class FoodItemsController {
             
             @Override
             public void onAllItemsRefreshed() {
-                Platform.runLater(() -> {
-                    // Only refresh if we're not showing search results
-                    if (!isShowingSearchResults) {
-                        foodItemsContainer.getChildren().clear();
-                        loadFoodItems();
-                    }
-                });
+                reloadLane.request();
             }
         });
         
@@ -121,15 +117,10 @@ public class FoodItemsController {
                 
                 if (shopStatusClient != null) {
                     shopStatusClient.addShopStatusListener(statusMsg -> {
-                        Platform.runLater(() -> {
-                            System.out.println("FoodItemsController: Shop status changed - " + statusMsg);
-                            // Refresh food items when a shop is approved/rejected
-                            // This will show/hide food items based on shop status
-                            if (!isShowingSearchResults) {
-                                foodItemsContainer.getChildren().clear();
-                                loadFoodItems();
-                            }
-                        });
+                        System.out.println("FoodItemsController: Shop status changed - " + statusMsg);
+                        // Refresh food items when a shop is approved/rejected
+                        // This will show/hide food items based on shop status
+                        reloadLane.request();
                     });
                     System.out.println("FoodItemsController: Shop status listener registered");
                 } else {
@@ -154,14 +145,8 @@ public class FoodItemsController {
                 if (realtimeService != null) {
                     realtimeService.onEvent(topic -> {
                         if ("foodItems".equals(topic)) {
-                            Platform.runLater(() -> {
-                                System.out.println("FoodItemsController: Food items changed - refreshing display");
-                                // Refresh food items when new items are available from approved shops
-                                if (!isShowingSearchResults) {
-                                    foodItemsContainer.getChildren().clear();
-                                    loadFoodItems();
-                                }
-                            });
+                            // Refresh food items when new items are available from approved shops
+                            reloadLane.request();
                         }
                     });
                     System.out.println("FoodItemsController: Food items listener registered");
@@ -378,7 +363,7 @@ public class FoodItemsController {
         Label priceLabel = new Label("৳" + String.format("%.2f", foodItem.getPrice()));
         priceLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #ff6b35;");
         
-        Label stockLabel = new Label("Stock: " + foodItem.getStock());
+        Label stockLabel = new Label("Stock: " + availableStock(foodItem));
         stockLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: #6c757d;");
         
         Label pointsLabel = new Label("Points: " + foodItem.getPointsMultiplier() + "x");
@@ -477,10 +462,7 @@ public class FoodItemsController {
             List<FoodItem> searchResults;
 
             // Check if search term matches a shop name exactly (case-insensitive)
-            Shop matchingShop = shopDao.getApprovedShops().stream()
-                .filter(shop -> shop.getShopName().toLowerCase().equals(searchTerm.toLowerCase()))
-                .findFirst()
-                .orElse(null);
+            Shop matchingShop = shopDao.findApprovedByName(searchTerm);
 
             if (matchingShop != null) {
                 // If search term exactly matches a shop name, show all items from that shop
@@ -650,7 +632,7 @@ public class FoodItemsController {
                         return false;
                     }
                     // Stock filter
-                    if (options.inStockOnly && item.getStock() <= 0) {
+                    if (options.inStockOnly && availableStock(item) <= 0) {
                         return false;
                     }
                     return true;
@@ -705,6 +687,20 @@ public class FoodItemsController {
         boolean inStockOnly;
     }
     
+    /** Show the latest stock of each item changed in a burst; {itemId, newStock} pairs. */
+    private void applyStockChanges(List<int[]> changes) {
+        if (changes.isEmpty()) {
+            reloadLane.request();
+            return;
+        }
+        Map<Integer, Integer> latest = new HashMap<>();
+        for (int[] change : changes) latest.put(change[0], change[1]);
+        for (Map.Entry<Integer, Integer> e : latest.entrySet()) {
+            updateFoodItemStockInDisplay(e.getKey(), e.getValue());
+        }
+        System.out.println("FoodItems real-time update: " + latest.size() + " item stock level(s) changed");
+    }
+
     /**
      * Update stock display for a specific food item in real-time
      */
@@ -838,6 +834,12 @@ public class FoodItemsController {
         showAlert("Favorite", "Added " + foodItem.getName() + " to favorites!");
     }
 
+    // Stock less what other students hold in their carts
+    private int availableStock(FoodItem item) {
+        int userId = currentUser != null ? currentUser.getId() : -1;
+        return StockReservations.getInstance().available(userId, item.getId(), item.getStock());
+    }
+
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -8,13 +8,17 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.stage.Stage;
-import com.unieats.util.ReconnectingWebSocketClient;
+import com.unieats.realtime.DeltaApplier;
+import com.unieats.realtime.RealtimeGateway;
+import com.unieats.realtime.RealtimeGatewayClient;
+import com.unieats.realtime.RefreshCoalescer;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.util.converter.DoubleStringConverter;
 
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 
 public class InventoryController implements Initializable {
@@ -38,7 +42,9 @@ public class InventoryController implements Initializable {
 
     private ObservableList<DatabaseHelper.FoodItem_seller> foodItems;
     private int shop_id; // Dynamic shop ID
-    private ReconnectingWebSocketClient wsClient;
+    private RealtimeGatewayClient.Subscription wsSubscription;
+    private DeltaApplier<DatabaseHelper.FoodItem_seller> foodDeltas;
+    private final RefreshCoalescer.Lane<String> refreshLane = RefreshCoalescer.fx().lane("inventory", this::applyInventoryEvents);
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -51,12 +57,23 @@ public class InventoryController implements Initializable {
     /** Set the shop ID dynamically and load inventory */
     public void setShopId(int shop_id) {
         this.shop_id = shop_id;
+        foodDeltas.scope("shop_id", shop_id);
         loadInventory();
+        if (wsSubscription != null)
+            wsSubscription.moveTo(RealtimeGateway.Channel.INVENTORY.key(inventoryTopic()));
     }
 
     private void setupTable() {
         foodItems = FXCollections.observableArrayList();
         inventoryTable.setItems(foodItems);
+        // Row changes for this shop patch the table; stock and bookkeeping columns are not shown
+        foodDeltas = new DeltaApplier<>(foodItems, DatabaseHelper.FoodItem_seller::getId,
+                id -> DatabaseHelper.getFoodForSeller((int) id))
+                .field("name", DeltaApplier.string(DatabaseHelper.FoodItem_seller::setName))
+                .field("price", (item, value) -> item.setPrice(value.getAsDouble()))
+                .ignore("shop_id", "stock", "points_multiplier", "created_at", "updated_at")
+                .scope("shop_id", shop_id)
+                .filter(item -> item.getShopId() == shop_id);
 
         // Bind columns to the correct properties
         idColumn.setCellValueFactory(
@@ -128,6 +145,7 @@ public class InventoryController implements Initializable {
         try {
             foodItems.clear();
             foodItems.addAll(DatabaseHelper.getFoodsBySeller(shop_id));
+            foodDeltas.reset();
 
             for (DatabaseHelper.FoodItem_seller f : foodItems) {
                 System.out.println("Loaded: " + f.getId() + " | " + f.getName() + " | " + f.getPrice());
@@ -147,14 +165,36 @@ public class InventoryController implements Initializable {
     }
 
     private void startSocketListener() {
-        wsClient = new ReconnectingWebSocketClient("ws://localhost:7071", message -> {
+        wsSubscription = RealtimeGatewayClient.getInstance().subscribe(RealtimeGateway.Channel.INVENTORY, inventoryTopic(), message -> {
+            if (message != null && message.contains("\"type\":\"topic\"") && message.contains("\"topic\":\"foodItems\"")) {
+                refreshLane.submit(message);
+                return;
+            }
             if (message == null || !message.contains("inventory_update"))
                 return;
             if (shop_id > 0 && !message.contains("\"shopId\":" + shop_id))
                 return;
-            javafx.application.Platform.runLater(this::loadInventory);
-        });
-        wsClient.start();
+            refreshLane.request();
+        }, refreshLane::request);
+    }
+
+    /** Apply a burst of delta envelopes; an empty burst or one without deltas reloads. */
+    private void applyInventoryEvents(List<String> envelopes) {
+        for (String envelope : envelopes) {
+            if (!foodDeltas.apply(envelope)) {
+                loadInventory();
+                return;
+            }
+        }
+        if (envelopes.isEmpty()) {
+            loadInventory();
+        } else {
+            inventoryTable.refresh();
+        }
+    }
+
+    private String inventoryTopic() {
+        return shop_id > 0 ? "foodItems:shop:" + shop_id : "foodItems";
     }
 
     private void handleDeleteFood(DatabaseHelper.FoodItem_seller foodItem) {
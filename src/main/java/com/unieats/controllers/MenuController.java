@@ -15,6 +15,8 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
@@ -24,9 +26,12 @@ import com.unieats.User;
 import com.unieats.FoodItem;
 import com.unieats.Shop;
 import com.unieats.dao.FoodItemDao;
+import com.unieats.dao.ReviewDao;
 import com.unieats.dao.ShopDao;
+import com.unieats.realtime.RefreshCoalescer;
 import com.unieats.services.StockUpdateService;
 import com.unieats.services.RealTimeStockBroadcaster;
+import com.unieats.stock.StockReservations;
 import org.kordamp.ikonli.javafx.FontIcon;
 
 public class MenuController {
@@ -58,13 +63,23 @@ public class MenuController {
     
     private final FoodItemDao foodItemDao = new FoodItemDao();
     private final ShopDao shopDao = new ShopDao();
+    private final ReviewDao reviewDao = new ReviewDao();
     private static final int ITEMS_PER_PAGE = 1; // Show one item at a time
     private static final int AUTO_SWITCH_DELAY = 4; // seconds
     private Timeline carouselTimeline;
     private int currentPage = 0;
     private int totalPages = 0;
     private boolean isShowingSearchResults = false;
+    // Stock, shop status and catalog events arrive in bursts; each burst causes one reload
+    private final RefreshCoalescer.Lane<Object> reloadLane = RefreshCoalescer.fx().lane("menu", () -> {
+        System.out.println("MenuController: Food items changed - refreshing display");
+        if (!isShowingSearchResults) {
+            loadRandomFoodItems();
+        }
+    });
+    private final RefreshCoalescer.Lane<int[]> stockLane = RefreshCoalescer.fx().lane("menu-stock", this::applyStockChanges);
     private List<FoodItem> allFoodItems = new ArrayList<>();
+    private Map<Integer, ReviewDao.RatingSummary> ratingSummaries = new HashMap<>();
 
     // Food item buttons
     @FXML private Button favoriteButton1;
@@ -104,11 +119,7 @@ public class MenuController {
         RealTimeStockBroadcaster.getInstance().addListener(new RealTimeStockBroadcaster.StockChangeListener() {
             @Override
             public void onStockChanged(int itemId, int oldStock, int newStock) {
-                Platform.runLater(() -> {
-                    // Update the specific item in the display
-                    updateFoodItemStock(itemId, newStock);
-                    System.out.println("Real-time update: Item " + itemId + " stock changed from " + oldStock + " to " + newStock);
-                });
+                stockLane.submit(new int[] {itemId, newStock});
             }
         });
         
@@ -116,13 +127,7 @@ public class MenuController {
         StockUpdateService.getInstance().addListener(new StockUpdateService.StockUpdateListener() {
             @Override
             public void onStockUpdated(int itemId, int quantityReduced) {
-                Platform.runLater(() -> {
-                    // Only refresh if we're not showing search results
-                    if (!isShowingSearchResults) {
-                        // Refresh the food items display
-                        loadRandomFoodItems();
-                    }
-                });
+                reloadLane.request();
             }
             
             @Override
@@ -134,12 +139,7 @@ public class MenuController {
             
             @Override
             public void onAllItemsRefreshed() {
-                Platform.runLater(() -> {
-                    // Only refresh if we're not showing search results
-                    if (!isShowingSearchResults) {
-                        loadRandomFoodItems();
-                    }
-                });
+                reloadLane.request();
             }
         });
         
@@ -155,14 +155,10 @@ public class MenuController {
                 
                 if (shopStatusClient != null) {
                     shopStatusClient.addShopStatusListener(statusMsg -> {
-                        Platform.runLater(() -> {
-                            System.out.println("MenuController: Shop status changed - " + statusMsg);
-                            // Refresh food items when a shop is approved/rejected
-                            // This will show/hide food items based on shop status
-                            if (!isShowingSearchResults) {
-                                loadRandomFoodItems();
-                            }
-                        });
+                        System.out.println("MenuController: Shop status changed - " + statusMsg);
+                        // Refresh food items when a shop is approved/rejected
+                        // This will show/hide food items based on shop status
+                        reloadLane.request();
                     });
                     System.out.println("MenuController: Shop status listener registered");
                 } else {
@@ -187,13 +183,8 @@ public class MenuController {
                 if (realtimeService != null) {
                     realtimeService.onEvent(topic -> {
                         if ("foodItems".equals(topic)) {
-                            Platform.runLater(() -> {
-                                System.out.println("MenuController: Food items changed - refreshing display");
-                                // Refresh food items when new items are available from approved shops
-                                if (!isShowingSearchResults) {
-                                    loadRandomFoodItems();
-                                }
-                            });
+                            // Refresh food items when new items are available from approved shops
+                            reloadLane.request();
                         }
                     });
                     System.out.println("MenuController: Food items listener registered");
@@ -210,6 +201,20 @@ public class MenuController {
         loadRandomFoodItems();
     }
 
+    /** Show the latest stock of each item changed in a burst; {itemId, newStock} pairs. */
+    private void applyStockChanges(List<int[]> changes) {
+        if (changes.isEmpty()) {
+            reloadLane.request();
+            return;
+        }
+        Map<Integer, Integer> latest = new HashMap<>();
+        for (int[] change : changes) latest.put(change[0], change[1]);
+        for (Map.Entry<Integer, Integer> e : latest.entrySet()) {
+            updateFoodItemStock(e.getKey(), e.getValue());
+        }
+        System.out.println("Real-time update: " + latest.size() + " item stock level(s) changed");
+    }
+
     private void setupEventHandlers() {
         // Search functionality
         searchField.setOnAction(e -> handleSearch());
@@ -388,10 +393,7 @@ public class MenuController {
                     List<FoodItem> searchResults;
 
                     // Check if search term matches a shop name exactly (case-insensitive)
-                    Shop matchingShop = shopDao.getApprovedShops().stream()
-                        .filter(shop -> shop.getShopName().toLowerCase().equals(searchTerm.toLowerCase()))
-                        .findFirst()
-                        .orElse(null);
+                    Shop matchingShop = shopDao.findApprovedByName(searchTerm);
 
                     if (matchingShop != null) {
                         // If search term exactly matches a shop name, show all items from that shop
@@ -400,6 +402,7 @@ public class MenuController {
                         // Otherwise, use the regular search (food name or shop name partial match)
                         searchResults = foodItemDao.searchItems(searchTerm);
                     }
+                    Map<Integer, ReviewDao.RatingSummary> searchRatings = loadRatingSummaries(searchResults);
 
                     // Update UI on JavaFX Application Thread
                     Platform.runLater(() -> {
@@ -410,6 +413,7 @@ public class MenuController {
                             showNoResultsMessage(searchTerm);
                         } else {
                             allFoodItems = searchResults;
+                            ratingSummaries = searchRatings;
                             totalPages = (int) Math.ceil((double) allFoodItems.size() / ITEMS_PER_PAGE);
                             isShowingSearchResults = true; // Set flag to indicate we're showing search results
                             showPage(0);
@@ -832,6 +836,7 @@ public class MenuController {
                 try {
                     // Get random food items from the database
                     allFoodItems = foodItemDao.getRandomItems(10); // Load items for carousel
+                    ratingSummaries = loadRatingSummaries(allFoodItems);
                     totalPages = (int) Math.ceil((double) allFoodItems.size() / ITEMS_PER_PAGE);
                     
                     // Update UI on JavaFX Application Thread
@@ -854,6 +859,18 @@ public class MenuController {
         }
     }
     
+    /**
+     * One query for the ratings of every card instead of an aggregate per card.
+     */
+    private Map<Integer, ReviewDao.RatingSummary> loadRatingSummaries(List<FoodItem> items) {
+        try {
+            return reviewDao.getRatingSummariesForFoods(items.stream().map(FoodItem::getId).toList());
+        } catch (Exception e) {
+            System.err.println("Error loading ratings: " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
     private void showPage(int page) {
         if (allFoodItems == null || allFoodItems.isEmpty() || page < 0 || page >= totalPages) {
             return;
@@ -964,6 +981,16 @@ public class MenuController {
         
         nameBox.getChildren().addAll(nameLabel, shopLabel);
         
+        // Rating
+        ReviewDao.RatingSummary rating = ratingSummaries.getOrDefault(item.getId(), ReviewDao.RatingSummary.EMPTY);
+        Label ratingLabel = new Label(rating.count() == 0 ? "No reviews yet"
+            : String.format("★ %.1f (%d)", rating.average(), rating.count()));
+        ratingLabel.setStyle(
+            "-fx-font-size: 13px; " +
+            "-fx-text-fill: " + (rating.count() == 0 ? "#adb5bd" : "#f39c12") + ";"
+        );
+        nameBox.getChildren().add(ratingLabel);
+        
         // Info row (Price, Stock, Points)
         HBox infoRow = new HBox();
         infoRow.setSpacing(12);
@@ -979,7 +1006,8 @@ public class MenuController {
         );
         
         // Stock
-        Label stockLabel = new Label("• " + (item.getStock() > 0 ? item.getStock() + " in stock" : "Out of stock"));
+        int available = availableStock(item);
+        Label stockLabel = new Label("• " + (available > 0 ? available + " in stock" : "Out of stock"));
         stockLabel.setStyle(
             "-fx-font-size: 13px; " +
             "-fx-text-fill: #6c757d;"
@@ -1257,6 +1285,12 @@ public class MenuController {
         }
     }
     
+    // Stock less what other students hold in their carts
+    private int availableStock(FoodItem item) {
+        int userId = currentUser != null ? currentUser.getId() : -1;
+        return StockReservations.getInstance().available(userId, item.getId(), item.getStock());
+    }
+
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
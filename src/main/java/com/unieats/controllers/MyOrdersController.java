@@ -3,6 +3,7 @@ package com.unieats.controllers;
 import com.unieats.OrderInfo;
 import com.unieats.User;
 import com.unieats.dao.OrderDao;
+import com.unieats.dao.Page;
 import com.unieats.util.ThreadSafeUtils;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -18,6 +19,7 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 public class MyOrdersController {
@@ -52,9 +54,13 @@ public class MyOrdersController {
     
     // Pagination state
     private static final int ORDERS_PER_PAGE = 10;
+    private static final int COUNT_ESTIMATE_CAP = ORDERS_PER_PAGE * 20;
     private int currentPage = 1;
     private int totalPages = 1;
     private int totalOrders = 0;
+    // pageTokens.get(i) is the continuation token for page i + 1 (null for the first page)
+    private final List<String> pageTokens = new ArrayList<>();
+    private boolean hasNextPage = false;
 
     @FXML
     private void initialize() {
@@ -110,8 +116,19 @@ public class MyOrdersController {
                     currentOrdersEmpty.setVisible(currentOrders.isEmpty());
                 });
                 
-                // Load order history with pagination
-                loadOrderHistoryPage();
+                // Count is only an estimate for the page label, taken once rather than per page
+                int estimate = orderDao.estimateOrderHistoryCount(currentUser.getId(), COUNT_ESTIMATE_CAP);
+
+                // Paging state is only touched on the JavaFX thread
+                ThreadSafeUtils.runOnFXThread(() -> {
+                    totalOrders = estimate;
+                    currentPage = 1;
+                    pageTokens.clear();
+                    pageTokens.add(null);
+
+                    // Load order history with pagination
+                    loadOrderHistoryPage();
+                });
             },
             () -> {
                 // UI update completed
@@ -124,26 +141,31 @@ public class MyOrdersController {
 
     private void loadOrderHistoryPage() {
         if (currentUser == null) return;
+
+        // Called on the JavaFX thread: take the page and its token before going to the background
+        if (pageTokens.isEmpty()) pageTokens.add(null);
+        // Only pages whose token we have seen are reachable
+        if (currentPage > pageTokens.size()) currentPage = pageTokens.size();
+        if (currentPage < 1) currentPage = 1;
+        final int page = currentPage;
+        final String token = pageTokens.get(page - 1);
         
         // Load order history in background thread
         ThreadSafeUtils.runAsyncWithErrorHandling(
             () -> {
-                // Background task
-                totalOrders = orderDao.getOrderHistoryCount(currentUser.getId());
-                totalPages = (int) Math.ceil((double) totalOrders / ORDERS_PER_PAGE);
-                if (totalPages == 0) totalPages = 1;
-                
-                // Ensure current page is within bounds
-                if (currentPage > totalPages) currentPage = totalPages;
-                if (currentPage < 1) currentPage = 1;
-                
-                // Load paginated order history
-                int offset = (currentPage - 1) * ORDERS_PER_PAGE;
-                List<OrderInfo> orderHistory = orderDao.getOrderHistoryByUserId(currentUser.getId(), offset, ORDERS_PER_PAGE);
+                // Background task - load paginated order history
+                Page<OrderInfo> result = orderDao.getOrderHistoryPage(currentUser.getId(), token, ORDERS_PER_PAGE);
+                List<OrderInfo> orderHistory = result.items();
                 ObservableList<OrderInfo> orderHistoryObservable = FXCollections.observableArrayList(orderHistory);
                 
-                // Update UI on JavaFX thread
+                // Update paging state and UI on JavaFX thread
                 ThreadSafeUtils.runOnFXThread(() -> {
+                    // A newer page was asked for while this one loaded
+                    if (page != currentPage) return;
+                    hasNextPage = result.hasMore();
+                    if (hasNextPage && page == pageTokens.size()) pageTokens.add(result.nextToken());
+                    totalPages = Math.max(pageTokens.size(), (int) Math.ceil((double) totalOrders / ORDERS_PER_PAGE));
+                    if (totalPages == 0) totalPages = 1;
                     orderHistoryList.setItems(orderHistoryObservable);
                     updatePaginationUI();
                     orderHistoryEmpty.setVisible(orderHistory.isEmpty());
@@ -160,7 +182,9 @@ public class MyOrdersController {
 
     private void updatePaginationUI() {
         if (pageInfoLabel != null) {
-            pageInfoLabel.setText(String.format("Page %d of %d (%d orders)", currentPage, totalPages, totalOrders));
+            boolean capped = totalOrders >= COUNT_ESTIMATE_CAP;
+            pageInfoLabel.setText(String.format("Page %d of %d%s (%d%s orders)", currentPage, totalPages, capped ? "+" : "",
+                    totalOrders, capped ? "+" : ""));
         }
         
         if (prevPageButton != null) {
@@ -168,7 +192,7 @@ public class MyOrdersController {
         }
         
         if (nextPageButton != null) {
-            nextPageButton.setDisable(currentPage >= totalPages);
+            nextPageButton.setDisable(!hasNextPage);
         }
         
         // Update page number buttons
@@ -177,7 +201,7 @@ public class MyOrdersController {
             
             // Show up to 5 page numbers around current page
             int startPage = Math.max(1, currentPage - 2);
-            int endPage = Math.min(totalPages, currentPage + 2);
+            int endPage = Math.min(pageTokens.size(), currentPage + 2);
             
             for (int i = startPage; i <= endPage; i++) {
                 Button pageButton = new Button(String.valueOf(i));
@@ -207,14 +231,14 @@ public class MyOrdersController {
     }
 
     private void goToNextPage() {
-        if (currentPage < totalPages) {
+        if (hasNextPage) {
             currentPage++;
             loadOrderHistoryPage();
         }
     }
 
     private void goToPage(int page) {
-        if (page >= 1 && page <= totalPages) {
+        if (page >= 1 && page <= pageTokens.size()) {
             currentPage = page;
             loadOrderHistoryPage();
         }
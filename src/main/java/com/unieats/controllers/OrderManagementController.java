@@ -6,7 +6,9 @@ import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import com.unieats.util.ReconnectingWebSocketClient;
+import com.unieats.realtime.RealtimeGateway;
+import com.unieats.realtime.RealtimeGatewayClient;
+import com.unieats.realtime.RefreshCoalescer;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
@@ -45,7 +47,9 @@ public class OrderManagementController implements Initializable {
 
     private ObservableList<DatabaseHelper.Order_seller> orders;
     private int shopId = 1; // default; can be set dynamically
-    private ReconnectingWebSocketClient wsClient;
+    private RealtimeGatewayClient.Subscription wsSubscription;
+    // A checkout or bulk status change is many events; reload the table once per burst
+    private final RefreshCoalescer.Lane<Object> refreshLane = RefreshCoalescer.fx().lane("orders", this::loadOrders);
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -58,6 +62,8 @@ public class OrderManagementController implements Initializable {
     public void setShopId(int shopId) {
         this.shopId = shopId;
         loadOrders();
+        if (wsSubscription != null)
+            wsSubscription.moveTo(RealtimeGateway.Channel.INVENTORY.key(ordersTopic()));
     }
 
     private void setupTable() {
@@ -204,14 +210,17 @@ public class OrderManagementController implements Initializable {
     }
 
     private void startSocketListener() {
-        wsClient = new ReconnectingWebSocketClient("ws://localhost:7071", message -> {
+        wsSubscription = RealtimeGatewayClient.getInstance().subscribe(RealtimeGateway.Channel.INVENTORY, ordersTopic(), message -> {
             if (message == null || !message.contains("order_update"))
                 return;
             if (shopId > 0 && !message.contains("\"shopId\":" + shopId))
                 return;
-            javafx.application.Platform.runLater(this::loadOrders);
-        });
-        wsClient.start();
+            refreshLane.request();
+        }, refreshLane::request);
+    }
+
+    private String ordersTopic() {
+        return shopId > 0 ? "orders:shop:" + shopId : "orders";
     }
 
     @FXML
@@ -3,13 +3,11 @@ package com.unieats.controllers;
 import com.unieats.User;
 import com.unieats.CartItemView;
 import com.unieats.Shop;
-import com.unieats.dao.CartDao;
-import com.unieats.dao.OrderDao;
-import com.unieats.dao.PaymentDao;
 import com.unieats.dao.RewardDao;
-import com.unieats.dao.FoodItemDao;
+import com.unieats.services.CheckoutService;
 import com.unieats.services.StockUpdateService;
 import com.unieats.services.RealTimeStockBroadcaster;
+import com.unieats.stock.StockReservations;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -51,11 +49,8 @@ public class PaymentController {
     @FXML private VBox navFav;
     @FXML private VBox navProfile;
 
-    private final OrderDao orderDao = new OrderDao();
-    private final PaymentDao paymentDao = new PaymentDao();
     private final RewardDao rewardDao = new RewardDao();
-    private final CartDao cartDao = new CartDao();
-    private final FoodItemDao foodItemDao = new FoodItemDao();
+    private final CheckoutService checkoutService = new CheckoutService();
     private int orderId;
     private double totalAmount;
     private User currentUser;
@@ -189,6 +184,13 @@ public class PaymentController {
         if (!validatePaymentForm()) {
             return;
         }
+        // Make sure the holds taken at checkout are still ours before any money moves
+        StockReservations reservations = StockReservations.getInstance();
+        java.util.List<CartItemView> unheld = reservations.holdCart(currentUserId, cartItems);
+        if (!unheld.isEmpty()) {
+            showAlert("Stock Changed", CheckoutController.describeShortages(reservations, currentUserId, unheld) + "\nNo payment was taken.");
+            return;
+        }
 
         try {
             // Determine payment method
@@ -198,9 +200,11 @@ public class PaymentController {
             System.out.println("Processing payment with method: " + paymentMethod + ", amount: " + totalAmount);
 
             boolean paymentSuccess = false;
+            double pointsToRedeem = 0;
             if ("points".equals(paymentMethod)) {
-                // Handle points payment
-                paymentSuccess = processPointsPayment();
+                // Points are deducted inside the checkout transaction
+                paymentSuccess = hasEnoughPoints();
+                pointsToRedeem = totalAmount;
             } else {
                 // Simulate payment processing for other methods
                 paymentSuccess = simulatePaymentProcessing(paymentMethod);
@@ -208,47 +212,35 @@ public class PaymentController {
             System.out.println("Payment processing result: " + paymentSuccess);
 
             if (paymentSuccess) {
-                // Create order only after successful payment
-                int orderId = orderDao.createOrder(currentUserId, currentShop.getId(), totalAmount, "preparing");
-                System.out.println("Order created with ID: " + orderId);
-
-                // Add order items and update stock
-                for (CartItemView item : cartItems) {
-                    System.out.println("Processing item: " + item.itemId + ", quantity: " + item.quantity);
-                    orderDao.addOrderItem(orderId, item.itemId, item.quantity, item.price);
-                    
-                    // Get current stock before updating
-                    com.unieats.FoodItem currentItem = foodItemDao.getById(item.itemId);
-                    int oldStock = currentItem != null ? currentItem.getStock() : 0;
-                    
-                    // Update stock using the real-time service
+                // Order, items, stock, payment, cart and reward points commit together
+                CheckoutService.CheckoutResult result;
+                try {
+                    result = checkoutService.checkout(currentUserId, currentShop.getId(), cartItems, totalAmount,
+                            paymentMethod, transactionId, pointsToRedeem);
+                } catch (CheckoutService.InsufficientStockException | CheckoutService.InsufficientPointsException e) {
+                    showAlert("Checkout Failed", e.getMessage() + "\nNo payment was taken.");
+                    return;
+                }
+                int orderId = result.orderId();
+                int paymentId = result.paymentId();
+                System.out.println("Order " + orderId + " and payment " + paymentId + " committed; awarded " + result.rewardPoints() + " reward points");
+
+                // Publish the committed stock changes to in-app listeners
+                for (CheckoutService.StockChange change : result.stockChanges()) {
                     try {
-                        StockUpdateService.getInstance().updateStock(item.itemId, item.quantity);
-                        
-                        // Also notify the real-time broadcaster for immediate updates
-                        int newStock = oldStock - item.quantity;
-                        RealTimeStockBroadcaster.getInstance().notifyStockChange(item.itemId, oldStock, newStock);
-                        
-                        System.out.println("Real-time stock update: Item " + item.itemId + " stock changed from " + oldStock + " to " + newStock);
+                        StockUpdateService.getInstance().applyCommittedStockChange(change.itemId(), change.oldStock() - change.newStock(), change.newStock());
+                        RealTimeStockBroadcaster.getInstance().notifyStockChange(change.itemId(), change.oldStock(), change.newStock());
                     } catch (Exception e) {
-                        System.err.println("Failed to update stock for item " + item.itemId + ": " + e.getMessage());
-                        // Continue with other items even if one fails
+                        System.err.println("Failed to publish stock change for item " + change.itemId() + ": " + e.getMessage());
                     }
                 }
-                System.out.println("Order items added and stock updated via real-time service with immediate broadcasting");
-
-                // Create payment record
-                int paymentId = paymentDao.createPayment(orderId, paymentMethod, totalAmount, transactionId);
-                System.out.println("Payment created with ID: " + paymentId);
-
-                // Update payment status
-                paymentDao.updatePaymentStatus(paymentId, "completed");
-                System.out.println("Payment status updated to completed");
 
                 // Broadcast order update to sellers in real-time via WebSocket hub (port 7071)
                 try {
                     String orderUpdateJson = String.format(
-                        "{\"type\":\"order_update\",\"orderId\":%d,\"shopId\":%d,\"status\":\"%s\"}",
+                        "{\"type\":\"order_update\",\"topics\":[\"orders:shop:%d\",\"orders:user:%d\"],\"orderId\":%d,\"shopId\":%d,\"status\":\"%s\"}",
+                        currentShop != null ? currentShop.getId() : -1,
+                        currentUserId,
                         orderId,
                         currentShop != null ? currentShop.getId() : -1,
                         "preparing"
@@ -267,13 +259,6 @@ public class PaymentController {
                     System.err.println("Failed to broadcast order_update: " + ex.getMessage());
                 }
 
-                // Clear cart after successful payment
-                cartDao.clearCart(currentUserId);
-                System.out.println("Cart cleared for user: " + currentUserId);
-
-                // Award reward points
-                awardRewardPoints(orderId);
-
                 // Navigate to order confirmation
                 navigateToOrderConfirmation(orderId);
             } else {
@@ -324,27 +309,16 @@ public class PaymentController {
         }
     }
 
-    private boolean processPointsPayment() {
+    private boolean hasEnoughPoints() {
         try {
-            // Get user's points for this shop
             double userPoints = rewardDao.getUserRewardPoints(currentUserId, currentShop.getId());
-            
             if (userPoints >= totalAmount) {
-                // Deduct points
-                boolean deducted = rewardDao.redeemRewardPoints(currentUserId, currentShop.getId(), totalAmount);
-                if (deducted) {
-                    System.out.println("Deducted " + totalAmount + " points from user " + currentUserId + " for shop " + currentShop.getId());
-                    return true;
-                } else {
-                    showAlert("Payment Error", "Failed to deduct points. Please try again.");
-                    return false;
-                }
-            } else {
-                showAlert("Insufficient Points", "You don't have enough points. You have " + userPoints + " points, but need " + totalAmount + " points for this order.");
-                return false;
+                return true;
             }
+            showAlert("Insufficient Points", "You don't have enough points. You have " + userPoints + " points, but need " + totalAmount + " points for this order.");
+            return false;
         } catch (Exception e) {
-            System.err.println("Error processing points payment: " + e.getMessage());
+            System.err.println("Error checking points balance: " + e.getMessage());
             showAlert("Payment Error", "Failed to process points payment: " + e.getMessage());
             return false;
         }
@@ -408,33 +382,6 @@ public class PaymentController {
         }
     }
 
-    private void awardRewardPoints(int orderId) {
-        try {
-            // Get order details to find user and shop
-            com.unieats.OrderInfo orderInfo = orderDao.getOrderById(orderId);
-            if (orderInfo == null) {
-                System.err.println("Order not found for reward points: " + orderId);
-                return;
-            }
-
-            // Calculate reward points based on order items and their multipliers
-            double rewardPoints = rewardDao.calculateRewardPoints(orderId);
-            
-            if (rewardPoints > 0) {
-                // Award points to the user for this shop
-                rewardDao.awardRewardPoints(orderInfo.getUserId(), orderInfo.getShopId(), rewardPoints);
-                System.out.println("Awarded " + rewardPoints + " reward points to user " + orderInfo.getUserId() + " for shop " + orderInfo.getShopId());
-            } else {
-                System.out.println("No reward points to award for order " + orderId);
-            }
-            
-        } catch (Exception e) {
-            System.err.println("Error awarding reward points for order " + orderId + ": " + e.getMessage());
-            e.printStackTrace();
-            // Don't throw exception - reward points failure shouldn't break payment flow
-        }
-    }
-
     private void showAlert(String title, String content) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
@@ -13,7 +13,6 @@ import javafx.collections.ObservableList;
 import java.io.IOException;
 import java.io.File;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -24,10 +23,10 @@ import com.unieats.User;
 import com.unieats.dao.ShopDao;
 import com.unieats.dao.FoodItemDao;
 import com.unieats.dao.ReportDao;
+import com.unieats.util.ConnectionPool;
 import org.kordamp.ikonli.javafx.FontIcon;
 
 public class ReportController {
-    
     @FXML private Button backButton;
     @FXML private RadioButton shopReportRadio;
     @FXML private RadioButton foodItemReportRadio;
@@ -303,7 +302,7 @@ public class ReportController {
     
     private void updateReportAttachments(int reportId, String attachmentsJson) {
         String sql = "UPDATE reports SET attachments = ? WHERE id = ?";
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:unieats.db");
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, attachmentsJson);
             ps.setInt(2, reportId);
@@ -108,10 +108,11 @@ public class ShopDetailsController {
 
 	private void loadReviews() {
 		if (shop == null) return;
-		double avg = reviewDao.getAverageRatingForShop(shop.getId());
+		ReviewDao.RatingSummary summary = reviewDao.getRatingSummaryForShop(shop.getId());
+		double avg = summary.average();
 		List<ReviewDao.Review> items = reviewDao.listReviewsForShop(shop.getId(), 50);
 		avgRatingLabel.setText(String.format("%.1f", avg));
-		reviewsCountLabel.setText("(" + items.size() + " reviews)");
+		reviewsCountLabel.setText("(" + summary.count() + " reviews)");
 		avgStarsLabel.setText(buildStars(avg));
 		ObservableList<String> list = FXCollections.observableArrayList();
 		for (ReviewDao.Review r : items) {
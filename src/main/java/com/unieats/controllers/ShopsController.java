@@ -32,7 +32,19 @@ public class ShopsController {
     private ShopDao shopDao;
     private FoodItemDao foodItemDao;
     // Fallback generic topic client (listens to hub broadcasts on inventory WS)
-    private com.unieats.util.ReconnectingWebSocketClient topicClient;
+    private com.unieats.realtime.RealtimeGatewayClient.Subscription topicSubscription;
+    // Approved shops as last loaded, kept current from realtime deltas
+    private final javafx.collections.ObservableList<Shop> approvedShops = javafx.collections.FXCollections.observableArrayList();
+    private final com.unieats.realtime.DeltaApplier<Shop> shopDeltas =
+            new com.unieats.realtime.DeltaApplier<>(approvedShops, Shop::getId, id -> shopDao.findById((int) id))
+                    .field("shop_name", com.unieats.realtime.DeltaApplier.string(Shop::setShopName))
+                    .field("status", com.unieats.realtime.DeltaApplier.string(Shop::setStatus))
+                    .field("owner_id", (s, v) -> s.setOwnerId(v.getAsInt()))
+                    .ignore("created_at", "updated_at")
+                    .filter(s -> "approved".equalsIgnoreCase(s.getStatus()));
+    // Status changes and shop edits arrive in bursts; re-render the cards once per burst
+    private final com.unieats.realtime.RefreshCoalescer.Lane<String> refreshLane =
+            com.unieats.realtime.RefreshCoalescer.fx().lane("shops", this::applyShopEvents);
     
     @FXML
     public void initialize() {
@@ -52,19 +64,13 @@ public class ShopsController {
                 
                 if (shopStatusClient != null) {
                     shopStatusClient.addShopStatusListener(statusMsg -> {
-                        javafx.application.Platform.runLater(() -> {
-                            System.out.println("━━━ ShopsController: RECEIVED shop status change ━━━");
-                            System.out.println("Shop ID: " + statusMsg.getShopId());
-                            System.out.println("Shop Name: " + statusMsg.getShopName());
-                            System.out.println("New Status: " + statusMsg.getStatus());
-                            System.out.println("Action: " + statusMsg.getAction());
-                            // Always refresh the shops list so newly pending/rejected shops disappear immediately
-                            System.out.println("Clearing and reloading shops...");
-                            shopsContainer.getChildren().clear();
-                            loadShops();
-                            System.out.println("Shops reload complete!");
-                            System.out.println("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
-                        });
+                        System.out.println("━━━ ShopsController: RECEIVED shop status change ━━━");
+                        System.out.println("Shop ID: " + statusMsg.getShopId());
+                        System.out.println("Shop Name: " + statusMsg.getShopName());
+                        System.out.println("New Status: " + statusMsg.getStatus());
+                        System.out.println("Action: " + statusMsg.getAction());
+                        // Always refresh the shops list so newly pending/rejected shops disappear immediately
+                        refreshLane.request();
                     });
                     System.out.println("ShopsController: Shop status listener registered");
                     
@@ -83,17 +89,14 @@ public class ShopsController {
             }
         }).start();
 
-        // Also listen to generic topic broadcasts ("shops") via Inventory WS hub (port 7071)
+        // Also listen to generic topic broadcasts ("shops") on the gateway's inventory channel
         try {
-            topicClient = new com.unieats.util.ReconnectingWebSocketClient("ws://localhost:7071", message -> {
+            topicSubscription = com.unieats.realtime.RealtimeGatewayClient.getInstance().subscribe(
+                    com.unieats.realtime.RealtimeGateway.Channel.INVENTORY, "shops", message -> {
                 if (message == null || !message.contains("\"type\":\"topic\"")) return;
                 if (!message.contains("\"topic\":\"shops\"")) return;
-                javafx.application.Platform.runLater(() -> {
-                    shopsContainer.getChildren().clear();
-                    loadShops();
-                });
-            });
-            topicClient.start();
+                refreshLane.submit(message);
+            }, refreshLane::request);
         } catch (Exception ignored) {
         }
         
@@ -236,13 +239,9 @@ public class ShopsController {
                 System.out.println("  - " + shop.getShopName() + " (ID: " + shop.getId() + ", Status: " + shop.getStatus() + ")");
             }
             
-            if (shops.isEmpty()) {
-                showNoShopsMessage();
-            } else {
-                for (Shop shop : shops) {
-                    createShopCard(shop);
-                }
-            }
+            approvedShops.setAll(shops);
+            shopDeltas.reset();
+            renderShops();
             
         } catch (Exception e) {
             System.err.println("Error loading shops: " + e.getMessage());
@@ -251,6 +250,32 @@ public class ShopsController {
         }
     }
     
+    /** Apply a burst of delta envelopes; an empty burst or one without deltas reloads. */
+    private void applyShopEvents(List<String> envelopes) {
+        shopsContainer.getChildren().clear();
+        for (String envelope : envelopes) {
+            if (!shopDeltas.apply(envelope)) {
+                loadShops();
+                return;
+            }
+        }
+        if (envelopes.isEmpty()) {
+            loadShops();
+        } else {
+            renderShops();
+        }
+    }
+    
+    private void renderShops() {
+        if (approvedShops.isEmpty()) {
+            showNoShopsMessage();
+        } else {
+            for (Shop shop : approvedShops) {
+                createShopCard(shop);
+            }
+        }
+    }
+    
     private void createShopCard(Shop shop) {
         VBox card = new VBox(12);
         card.setStyle("-fx-background-color: #ffffff; -fx-background-radius: 16; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.08), 10, 0, 0, 2); -fx-padding: 16; -fx-min-width: 320;");
@@ -1,16 +1,26 @@
 package com.unieats.dao;
 
+import com.unieats.stock.StockReservations;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
 import java.sql.*;
 
+/**
+ * Cart rows. Every change to a line's quantity also moves the user's stock hold on that item
+ * (see {@link StockReservations}); an add the remaining stock cannot cover is refused.
+ */
 public class CartDao {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
+    private static final String NOT_ENOUGH_STOCK = "Not enough stock left for this item. The rest is already in other carts.";
+
+    private final DatabaseWriter writer = DatabaseWriter.getInstance();
+    private final StockReservations reservations = StockReservations.getInstance();
 
     /**
      * Check if a specific item is already present in user's cart
      */
     public boolean isInCart(int userId, int itemId) {
         String sql = "SELECT 1 FROM cart WHERE user_id=? AND item_id=? LIMIT 1";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, userId);
             ps.setInt(2, itemId);
@@ -34,7 +44,7 @@ public class CartDao {
             ORDER BY c.id 
             LIMIT 1
         """;
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -55,7 +65,7 @@ public class CartDao {
      */
     public int getFoodItemShopId(int itemId) {
         String sql = "SELECT shop_id FROM food_items WHERE id = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, itemId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -69,6 +79,21 @@ public class CartDao {
         }
     }
 
+    /**
+     * Quantity of an item in the user's cart, 0 if it is not there
+     */
+    public int getQuantity(int userId, int itemId) {
+        String sql = "SELECT quantity FROM cart WHERE user_id=? AND item_id=?";
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            ps.setInt(2, itemId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) { throw new RuntimeException(e); }
+    }
+
     public void addToCart(int userId, int itemId, int quantity) {
         // Check shop restriction: only allow items from the same shop as the first cart item
         int firstCartShopId = getFirstCartItemShopId(userId);
@@ -77,32 +102,32 @@ public class CartDao {
         if (firstCartShopId != -1 && firstCartShopId != itemShopId) {
             throw new RuntimeException("You can only add items from the same shop. Please clear your cart first to add items from a different shop.");
         }
-        
-        String select = "SELECT quantity FROM cart WHERE user_id=? AND item_id=?";
-        String insert = "INSERT INTO cart(user_id,item_id,quantity) VALUES(?,?,?)";
+
+        // The hold and the cart row change in one write command, so they cannot disagree
         String update = "UPDATE cart SET quantity = quantity + ? WHERE user_id=? AND item_id=?";
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            try (PreparedStatement ps = conn.prepareStatement(select)) {
-                ps.setInt(1, userId);
-                ps.setInt(2, itemId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        try (PreparedStatement up = conn.prepareStatement(update)) {
-                            up.setInt(1, quantity);
-                            up.setInt(2, userId);
-                            up.setInt(3, itemId);
-                            up.executeUpdate();
-                        }
-                    } else {
-                        try (PreparedStatement ins = conn.prepareStatement(insert)) {
-                            ins.setInt(1, userId);
-                            ins.setInt(2, itemId);
-                            ins.setInt(3, quantity);
-                            ins.executeUpdate();
-                        }
+        String insert = "INSERT INTO cart(user_id,item_id,quantity) VALUES(?,?,?)";
+        try {
+            boolean held = reservations.holdAndWrite(userId, itemId,
+                conn -> {
+                    Integer current = lineQuantity(conn, userId, itemId);
+                    return (current != null ? current : 0) + quantity;
+                },
+                conn -> {
+                    try (PreparedStatement up = conn.prepareStatement(update)) {
+                        up.setInt(1, quantity);
+                        up.setInt(2, userId);
+                        up.setInt(3, itemId);
+                        if (up.executeUpdate() > 0) return null;
                     }
-                }
-            }
+                    try (PreparedStatement ins = conn.prepareStatement(insert)) {
+                        ins.setInt(1, userId);
+                        ins.setInt(2, itemId);
+                        ins.setInt(3, quantity);
+                        ins.executeUpdate();
+                    }
+                    return null;
+                });
+            if (!held) throw new RuntimeException(NOT_ENOUGH_STOCK);
         } catch (SQLException e) { throw new RuntimeException(e); }
     }
 
@@ -110,40 +135,42 @@ public class CartDao {
      * Update quantity by delta. If resulting quantity <= 0, remove the row.
      */
     public void updateQuantity(int userId, int itemId, int delta) {
-        String select = "SELECT quantity FROM cart WHERE user_id=? AND item_id=?";
-        String update = "UPDATE cart SET quantity=? WHERE user_id=? AND item_id=?";
-        String delete = "DELETE FROM cart WHERE user_id=? AND item_id=?";
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            try (PreparedStatement ps = conn.prepareStatement(select)) {
-                ps.setInt(1, userId);
-                ps.setInt(2, itemId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (!rs.next()) return; // nothing to do
-                    int q = rs.getInt(1) + delta;
-                    if (q <= 0) {
-                        try (PreparedStatement del = conn.prepareStatement(delete)) {
-                            del.setInt(1, userId);
-                            del.setInt(2, itemId);
-                            del.executeUpdate();
-                        }
-                    } else {
-                        try (PreparedStatement up = conn.prepareStatement(update)) {
-                            up.setInt(1, q);
-                            up.setInt(2, userId);
-                            up.setInt(3, itemId);
-                            up.executeUpdate();
-                        }
+        String update = "UPDATE cart SET quantity = quantity + ? WHERE user_id=? AND item_id=?";
+        String delete = "DELETE FROM cart WHERE user_id=? AND item_id=? AND quantity <= 0";
+        try {
+            // Quantities at or below zero release the hold; a missing row holds nothing
+            boolean held = reservations.holdAndWrite(userId, itemId,
+                conn -> {
+                    Integer current = lineQuantity(conn, userId, itemId);
+                    return current != null ? current + delta : null;
+                },
+                conn -> {
+                    try (PreparedStatement up = conn.prepareStatement(update)) {
+                        up.setInt(1, delta);
+                        up.setInt(2, userId);
+                        up.setInt(3, itemId);
+                        up.executeUpdate();
                     }
-                }
-            }
+                    try (PreparedStatement del = conn.prepareStatement(delete)) {
+                        del.setInt(1, userId);
+                        del.setInt(2, itemId);
+                        del.executeUpdate();
+                    }
+                    return null;
+                });
+            if (!held) throw new RuntimeException(NOT_ENOUGH_STOCK);
         } catch (SQLException e) { throw new RuntimeException(e); }
     }
 
     public void clearCart(int userId) {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement ps = conn.prepareStatement("DELETE FROM cart WHERE user_id=?")) {
-            ps.setInt(1, userId);
-            ps.executeUpdate();
+        reservations.releaseAll(userId);
+        try {
+            writer.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM cart WHERE user_id=?")) {
+                    ps.setInt(1, userId);
+                    return ps.executeUpdate();
+                }
+            });
         } catch (SQLException e) { throw new RuntimeException(e); }
     }
 
@@ -151,12 +178,27 @@ public class CartDao {
      * Remove a specific item from the user's cart
      */
     public void removeFromCart(int userId, int itemId) {
+        reservations.release(userId, itemId);
         String sql = "DELETE FROM cart WHERE user_id=? AND item_id=?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try {
+            writer.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, userId);
+                    ps.setInt(2, itemId);
+                    return ps.executeUpdate();
+                }
+            });
+        } catch (SQLException e) { throw new RuntimeException(e); }
+    }
+
+    // Read on the writer's connection, so it sees the command's own changes
+    private static Integer lineQuantity(Connection conn, int userId, int itemId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT quantity FROM cart WHERE user_id=? AND item_id=?")) {
             ps.setInt(1, userId);
             ps.setInt(2, itemId);
-            ps.executeUpdate();
-        } catch (SQLException e) { throw new RuntimeException(e); }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
     }
 }
@@ -1,14 +1,13 @@
 package com.unieats.dao;
 
 import com.unieats.CartItemView;
+import com.unieats.util.ConnectionPool;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CartQueryDao {
-	private static final String DB_URL = "jdbc:sqlite:unieats.db";
-
 	public List<CartItemView> listCartItems(int userId) {
 		String sql = """
 			SELECT fi.id as item_id, fi.shop_id, fi.name, fi.price, fi.points_multiplier, c.quantity, s.shop_name, fi.stock
@@ -18,7 +17,7 @@ public class CartQueryDao {
 			WHERE c.user_id=?
 		""";
 		List<CartItemView> items = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
@@ -1,6 +1,7 @@
 package com.unieats.dao;
 
 import com.unieats.FoodItem;
+import com.unieats.util.ConnectionPool;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -8,19 +9,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class FoodItemDao {
-	private static final String DB_URL = "jdbc:sqlite:unieats.db";
+	/** Page size used by the single-argument search. */
+	public static final int MAX_SEARCH_RESULTS = 200;
 
 	public int create(FoodItem item) {
-		String sql = "INSERT INTO food_items(shop_id,name,price,points_multiplier,stock,created_at,updated_at) VALUES(?,?,?,?,?,?,?)";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+		String sql = "INSERT INTO food_items(shop_id,name,price,points_multiplier,stock,created_at,updated_at) VALUES(?,?,?,?,?,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP)";
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			ps.setInt(1, item.getShopId());
 			ps.setString(2, item.getName());
 			ps.setDouble(3, item.getPrice());
 			ps.setDouble(4, item.getPointsMultiplier());
 			ps.setInt(5, item.getStock());
-			String now = LocalDateTime.now().toString();
-			ps.setString(6, now);
-			ps.setString(7, now);
 			ps.executeUpdate();
 			try (ResultSet rs = ps.getGeneratedKeys()) {
 				if (rs.next()) return rs.getInt(1);
@@ -32,14 +31,13 @@ public class FoodItemDao {
 	}
 
 	public void update(FoodItem item) {
-		String sql = "UPDATE food_items SET name=?, price=?, points_multiplier=?, stock=?, updated_at=? WHERE id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		String sql = "UPDATE food_items SET name=?, price=?, points_multiplier=?, stock=?, updated_at=CURRENT_TIMESTAMP WHERE id=?";
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setString(1, item.getName());
 			ps.setDouble(2, item.getPrice());
 			ps.setDouble(3, item.getPointsMultiplier());
 			ps.setInt(4, item.getStock());
-			ps.setString(5, LocalDateTime.now().toString());
-			ps.setInt(6, item.getId());
+			ps.setInt(5, item.getId());
 			ps.executeUpdate();
 		} catch (SQLException e) {
 			throw new RuntimeException("Failed to update food item", e);
@@ -48,9 +46,10 @@ public class FoodItemDao {
 
 	public void delete(int id) {
 		String sql = "DELETE FROM food_items WHERE id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, id);
 			ps.executeUpdate();
+			RandomItemSampler.getInstance().onItemRemoved(id);
 		} catch (SQLException e) {
 			throw new RuntimeException("Failed to delete food item", e);
 		}
@@ -59,7 +58,7 @@ public class FoodItemDao {
 	public List<FoodItem> listByShop(int shopId) {
 		String sql = "SELECT * FROM food_items WHERE shop_id=? ORDER BY updated_at DESC";
 		List<FoodItem> list = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, shopId);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) list.add(map(rs));
@@ -72,7 +71,7 @@ public class FoodItemDao {
 
 	public FoodItem getById(int id) {
 		String sql = "SELECT * FROM food_items WHERE id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, id);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) return map(rs);
@@ -83,7 +82,7 @@ public class FoodItemDao {
 		}
 	}
 
-	private FoodItem map(ResultSet rs) throws SQLException {
+	FoodItem map(ResultSet rs) throws SQLException {
 		FoodItem fi = new FoodItem(
 			rs.getInt("shop_id"),
 			rs.getString("name"),
@@ -102,24 +101,28 @@ public class FoodItemDao {
 		return fi;
 	}
 
+	private static final java.time.format.DateTimeFormatter SQL_DATETIME = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
 	private static LocalDateTime parseFlexibleDateTime(String dateTimeStr) {
 		if (dateTimeStr == null || dateTimeStr.isEmpty()) {
 			return LocalDateTime.now();
 		}
 		try {
+			// SQLite CURRENT_TIMESTAMP values use a space separator; skip the ISO attempt (and its exception) for them
+			if (dateTimeStr.length() == 19 && dateTimeStr.charAt(10) == ' ') {
+				return LocalDateTime.parse(dateTimeStr, SQL_DATETIME);
+			}
 			return LocalDateTime.parse(dateTimeStr);
 		} catch (Exception e1) {
 			try {
-				java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-				return LocalDateTime.parse(dateTimeStr, formatter);
+				return LocalDateTime.parse(dateTimeStr, SQL_DATETIME);
 			} catch (Exception e2) {
 				try {
 					String normalized = dateTimeStr.replace("T", " ");
 					if (normalized.contains(".")) {
 						normalized = normalized.substring(0, normalized.indexOf("."));
 					}
-					java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-					return LocalDateTime.parse(normalized, formatter);
+					return LocalDateTime.parse(normalized, SQL_DATETIME);
 				} catch (Exception e3) {
 					return LocalDateTime.now();
 				}
@@ -127,37 +130,100 @@ public class FoodItemDao {
 		}
 	}
 
+	/**
+	 * Random items from approved shops, drawn from the in-memory id index instead of ORDER BY RANDOM().
+	 */
 	public List<FoodItem> getRandomItems(int limit) {
-		String sql = "SELECT fi.* FROM food_items fi " +
-					"JOIN shops s ON fi.shop_id = s.id " +
-					"WHERE s.status = 'approved' " +
-					"ORDER BY RANDOM() LIMIT ?";
-		List<FoodItem> items = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL); 
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, limit);
+		return RandomItemSampler.getInstance().sample(limit);
+	}
+
+	/**
+	 * Fetch the given items in one query, whatever their shop's status. Unknown ids are skipped.
+	 */
+	public List<FoodItem> listByIds(int[] ids) {
+		List<FoodItem> items = new ArrayList<>(ids.length);
+		if (ids.length == 0) return items;
+		StringBuilder sql = new StringBuilder("SELECT * FROM food_items WHERE id IN (");
+		for (int i = 0; i < ids.length; i++) sql.append(i == 0 ? "?" : ",?");
+		sql.append(')');
+		try (Connection conn = ConnectionPool.getConnection();
+			 PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+			for (int i = 0; i < ids.length; i++) ps.setInt(i + 1, ids[i]);
 			try (ResultSet rs = ps.executeQuery()) {
-				while (rs.next()) {
-					items.add(map(rs));
-				}
+				while (rs.next()) items.add(map(rs));
+			}
+			return items;
+		} catch (SQLException e) {
+			throw new RuntimeException("Failed to fetch food items by id", e);
+		}
+	}
+
+	/**
+	 * Fetch the given items in one query, keeping only those whose shop is approved.
+	 */
+	public List<FoodItem> listApprovedByIds(int[] ids) {
+		List<FoodItem> items = new ArrayList<>(ids.length);
+		if (ids.length == 0) return items;
+		// CROSS JOIN pins food_items as the outer loop so the IN list drives primary-key lookups
+		StringBuilder sql = new StringBuilder("SELECT fi.* FROM food_items fi CROSS JOIN shops s ON fi.shop_id = s.id WHERE s.status = 'approved' AND fi.id IN (");
+		for (int i = 0; i < ids.length; i++) sql.append(i == 0 ? "?" : ",?");
+		sql.append(')');
+		try (Connection conn = ConnectionPool.getConnection();
+			 PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+			for (int i = 0; i < ids.length; i++) ps.setInt(i + 1, ids[i]);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) items.add(map(rs));
 			}
 			return items;
 		} catch (SQLException e) {
-			throw new RuntimeException("Failed to fetch random food items", e);
+			throw new RuntimeException("Failed to fetch food items by id", e);
+		}
+	}
+
+	/**
+	 * Stock level of one item as of its last write; see {@link #listStockChangedSince}.
+	 */
+	public record StockRow(int id, int stock, String updatedAt) {}
+
+	/**
+	 * Items written at or after {@code since}, in (updated_at, id) order: the first
+	 * {@code limit} rows after the row ({@code since}, {@code afterId}). Pass the last row's
+	 * updatedAt and id to read the next page. Timestamps are in {@link #timestampNow()} form.
+	 */
+	public List<StockRow> listStockChangedSince(String since, int afterId, int limit) {
+		String sql = "SELECT id, stock, updated_at FROM food_items WHERE (updated_at, id) > (?, ?) ORDER BY updated_at, id LIMIT ?";
+		List<StockRow> rows = new ArrayList<>();
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, since);
+			ps.setInt(2, afterId);
+			ps.setInt(3, limit);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) rows.add(new StockRow(rs.getInt(1), rs.getInt(2), rs.getString(3)));
+			}
+			return rows;
+		} catch (SQLException e) {
+			throw new RuntimeException("Failed to list changed stock", e);
 		}
 	}
 
+	/**
+	 * The current time as SQLite's CURRENT_TIMESTAMP writes it (UTC, "yyyy-MM-dd HH:mm:ss"), the
+	 * one form updated_at is stored in so that comparing it as text orders it by time.
+	 */
+	public static String timestampNow() {
+		return LocalDateTime.now(java.time.ZoneOffset.UTC).format(SQL_DATETIME);
+	}
+
 	/**
 	 * Update stock quantity for a food item by reducing the ordered quantity
 	 */
 	public void updateStock(int itemId, int quantityToReduce) {
-		String sql = "UPDATE food_items SET stock = stock - ?, updated_at = ? WHERE id = ? AND stock >= ?";
-		try (Connection conn = DriverManager.getConnection(DB_URL); 
+		String sql = "UPDATE food_items SET stock = stock - ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND stock >= ?";
+		try (Connection conn = ConnectionPool.getConnection(); 
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, quantityToReduce);
-			ps.setString(2, LocalDateTime.now().toString());
-			ps.setInt(3, itemId);
-			ps.setInt(4, quantityToReduce); // Ensure we have enough stock
+			ps.setInt(2, itemId);
+			ps.setInt(3, quantityToReduce); // Ensure we have enough stock
 			int rowsAffected = ps.executeUpdate();
 			if (rowsAffected == 0) {
 				// Check if item exists and has enough stock
@@ -181,17 +247,29 @@ public class FoodItemDao {
 	 * Search food items by name or shop name
 	 */
 	public List<FoodItem> searchItems(String searchTerm) {
-		String sql = "SELECT fi.* FROM food_items fi " +
-					"JOIN shops s ON fi.shop_id = s.id " +
-					"WHERE (LOWER(fi.name) LIKE LOWER(?) OR LOWER(s.shop_name) LIKE LOWER(?)) " +
-					"AND s.status = 'approved' " +
-					"ORDER BY fi.updated_at DESC";
+		return searchItems(searchTerm, 0, MAX_SEARCH_RESULTS);
+	}
+
+	/**
+	 * Full-text search over item names, descriptions and shop names of approved shops.
+	 * Words match by prefix and results are ranked by relevance (BM25), name hits first.
+	 */
+	public List<FoodItem> searchItems(String searchTerm, int offset, int limit) {
 		List<FoodItem> items = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL); 
+		String match = SearchQuery.prefixMatch(searchTerm);
+		if (match == null || limit <= 0) return items;
+		// Column weights: name, description, shop_name
+		String sql = "SELECT fi.* FROM food_search " +
+					"JOIN food_items fi ON fi.id = food_search.rowid " +
+					"JOIN shops s ON fi.shop_id = s.id " +
+					"WHERE food_search MATCH ? AND s.status = 'approved' " +
+					"ORDER BY bm25(food_search, 10.0, 1.0, 4.0), fi.updated_at DESC " +
+					"LIMIT ? OFFSET ?";
+		try (Connection conn = ConnectionPool.getConnection(); 
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			String searchPattern = "%" + searchTerm + "%";
-			ps.setString(1, searchPattern);
-			ps.setString(2, searchPattern);
+			ps.setString(1, match);
+			ps.setInt(2, limit);
+			ps.setInt(3, Math.max(offset, 0));
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
 					items.add(map(rs));
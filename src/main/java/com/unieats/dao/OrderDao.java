@@ -1,6 +1,8 @@
 package com.unieats.dao;
 
 import com.unieats.OrderInfo;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -8,35 +10,37 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class OrderDao {
-	private static final String DB_URL = "jdbc:sqlite:unieats.db";
+	private final DatabaseWriter writer = DatabaseWriter.getInstance();
 
 	public int createOrder(int userId, int shopId, double totalPrice, String status) {
-		String sql = "INSERT INTO orders(user_id,shop_id,total_price,status) VALUES(?,?,?,?)";
-		String selectSql = "SELECT last_insert_rowid()";
-		try (Connection conn = DriverManager.getConnection(DB_URL)) {
-			try (PreparedStatement ps = conn.prepareStatement(sql)) {
-				ps.setInt(1, userId);
-				ps.setInt(2, shopId);
-				ps.setDouble(3, totalPrice);
-				ps.setString(4, status);
-				ps.executeUpdate();
-			}
-			try (PreparedStatement ps = conn.prepareStatement(selectSql);
-				 ResultSet rs = ps.executeQuery()) {
-				if (rs.next()) return rs.getInt(1);
-			}
-			return -1;
+		String sql = "INSERT INTO orders(user_id,shop_id,total_price,status) VALUES(?,?,?,?) RETURNING id";
+		try {
+			return writer.execute(conn -> {
+				try (PreparedStatement ps = conn.prepareStatement(sql)) {
+					ps.setInt(1, userId);
+					ps.setInt(2, shopId);
+					ps.setDouble(3, totalPrice);
+					ps.setString(4, status);
+					try (ResultSet rs = ps.executeQuery()) {
+						return rs.next() ? rs.getInt(1) : -1;
+					}
+				}
+			});
 		} catch (SQLException e) { throw new RuntimeException(e); }
 	}
 
 	public void addOrderItem(int orderId, int itemId, int quantity, double price) {
 		String sql = "INSERT INTO order_items(order_id,item_id,quantity,price) VALUES(?,?,?,?)";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, orderId);
-			ps.setInt(2, itemId);
-			ps.setInt(3, quantity);
-			ps.setDouble(4, price);
-			ps.executeUpdate();
+		try {
+			writer.execute(conn -> {
+				try (PreparedStatement ps = conn.prepareStatement(sql)) {
+					ps.setInt(1, orderId);
+					ps.setInt(2, itemId);
+					ps.setInt(3, quantity);
+					ps.setDouble(4, price);
+					return ps.executeUpdate();
+				}
+			});
 		} catch (SQLException e) { throw new RuntimeException(e); }
 	}
 
@@ -50,7 +54,7 @@ public class OrderDao {
 			JOIN shops s ON o.shop_id = s.id 
 			WHERE o.id = ?
 		""";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, orderId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -93,7 +97,7 @@ public class OrderDao {
 			WHERE oi.order_id = ?
 		""";
 		List<OrderInfo.OrderItemInfo> items = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, orderId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -117,14 +121,17 @@ public class OrderDao {
 	 */
 	public void updateOrderStatus(int orderId, String status) {
 		String sql = "UPDATE orders SET status = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setString(1, status);
-			ps.setInt(2, orderId);
-			ps.executeUpdate();
-			
-			// Add to status history
-			addStatusHistory(orderId, status, null);
+		try {
+			writer.execute(conn -> {
+				try (PreparedStatement ps = conn.prepareStatement(sql)) {
+					ps.setString(1, status);
+					ps.setInt(2, orderId);
+					ps.executeUpdate();
+				}
+				// Add to status history, in the same transaction
+				addStatusHistory(conn, orderId, status, null);
+				return null;
+			});
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
@@ -133,16 +140,13 @@ public class OrderDao {
 	/**
 	 * Add status history entry
 	 */
-	private void addStatusHistory(int orderId, String status, String notes) {
+	private void addStatusHistory(Connection conn, int orderId, String status, String notes) throws SQLException {
 		String sql = "INSERT INTO order_status_history(order_id, status, notes) VALUES(?,?,?)";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, orderId);
 			ps.setString(2, status);
 			ps.setString(3, notes);
 			ps.executeUpdate();
-		} catch (SQLException e) {
-			throw new RuntimeException(e);
 		}
 	}
 
@@ -158,7 +162,7 @@ public class OrderDao {
 			ORDER BY o.created_at DESC
 		""";
 		List<OrderInfo> orders = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -195,7 +199,7 @@ public class OrderDao {
 			ORDER BY o.created_at DESC
 		""";
 		List<OrderInfo> orders = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -232,7 +236,7 @@ public class OrderDao {
 			ORDER BY o.created_at DESC
 		""";
 		List<OrderInfo> orders = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -257,26 +261,43 @@ public class OrderDao {
 	}
 
 	/**
-	 * Get paginated order history for a specific user
+	 * Get one page of order history for a specific user, newest first.
+	 * Pass null as the token for the first page and {@link Page#nextToken()} afterwards.
 	 */
-	public List<OrderInfo> getOrderHistoryByUserId(int userId, int offset, int limit) {
+	public Page<OrderInfo> getOrderHistoryPage(int userId, String pageToken, int limit) {
+		Page.Cursor cursor = Page.Cursor.decode(pageToken);
+		limit = Math.max(limit, 1);
+		// (created_at, id) matches idx_orders_user_created, whose entries end in the rowid
 		String sql = """
 			SELECT o.*, s.shop_name 
 			FROM orders o 
 			JOIN shops s ON o.shop_id = s.id 
 			WHERE o.user_id = ? 
 			AND o.status IN ('delivered', 'cancelled', 'completed')
-			ORDER BY o.created_at DESC
-			LIMIT ? OFFSET ?
-		""";
+			%s
+			ORDER BY o.created_at DESC, o.id DESC
+			LIMIT ?
+		""".formatted(cursor == null ? "" : "AND (o.created_at, o.id) < (?, ?)");
 		List<OrderInfo> orders = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		String lastCreatedAt = null;
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, userId);
-			ps.setInt(2, limit);
-			ps.setInt(3, offset);
+			int p = 1;
+			ps.setInt(p++, userId);
+			if (cursor != null) {
+				ps.setString(p++, cursor.createdAt());
+				ps.setInt(p++, cursor.id());
+			}
+			// One extra row tells us whether another page exists
+			ps.setInt(p, limit + 1);
+			boolean more = false;
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) {
+					if (orders.size() == limit) {
+						more = true;
+						break;
+					}
+					lastCreatedAt = rs.getString("created_at");
 					OrderInfo order = new OrderInfo(
 						rs.getInt("id"),
 						rs.getInt("user_id"),
@@ -284,31 +305,38 @@ public class OrderDao {
 						rs.getString("shop_name"),
 						rs.getDouble("total_price"),
 						rs.getString("status"),
-						parseDateTime(rs.getString("created_at")),
+						parseDateTime(lastCreatedAt),
 						parseDateTime(rs.getString("updated_at"))
 					);
 					orders.add(order);
 				}
 			}
-			return orders;
+			String next = more ? new Page.Cursor(lastCreatedAt, orders.get(orders.size() - 1).getId()).encode() : null;
+			return new Page<>(orders, next);
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
 	/**
-	 * Get total count of order history for a specific user
+	 * Count a user's order history, stopping at {@code cap}. Only the first {@code cap}
+	 * index entries are read, so this stays cheap for users with long histories; a result
+	 * equal to {@code cap} means "at least cap".
 	 */
-	public int getOrderHistoryCount(int userId) {
+	public int estimateOrderHistoryCount(int userId, int cap) {
 		String sql = """
-			SELECT COUNT(*) 
-			FROM orders o 
-			WHERE o.user_id = ? 
-			AND o.status IN ('delivered', 'cancelled', 'completed')
+			SELECT COUNT(*) FROM (
+				SELECT 1 
+				FROM orders o 
+				WHERE o.user_id = ? 
+				AND o.status IN ('delivered', 'cancelled', 'completed')
+				LIMIT ?
+			)
 		""";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
+			ps.setInt(2, cap);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) {
 					return rs.getInt(1);
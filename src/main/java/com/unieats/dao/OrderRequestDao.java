@@ -2,17 +2,16 @@ package com.unieats.dao;
 
 import com.unieats.OrderRequest;
 import com.unieats.OrderItem;
+import com.unieats.util.ConnectionPool;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class OrderRequestDao {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
-    
     public int createOrderRequest(OrderRequest orderRequest) {
         String sql = "INSERT INTO order_requests(customer_id, customer_name, shop_id, total_price, status, order_time, updated_at) VALUES(?,?,?,?,?,?,?)";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             ps.setInt(1, orderRequest.getCustomerId());
@@ -43,7 +42,7 @@ public class OrderRequestDao {
     
     private void insertOrderItems(int orderId, List<OrderItem> items) throws SQLException {
         String sql = "INSERT INTO order_items(order_id, food_item_id, food_item_name, quantity, unit_price, total_price) VALUES(?,?,?,?,?,?)";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             for (OrderItem item : items) {
@@ -63,7 +62,7 @@ public class OrderRequestDao {
         String sql = "SELECT * FROM order_requests WHERE shop_id = ? AND status = 'pending' ORDER BY order_time DESC";
         List<OrderRequest> orders = new ArrayList<>();
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setInt(1, shopId);
@@ -84,7 +83,7 @@ public class OrderRequestDao {
     public int getPendingOrderCount(int shopId) {
         String sql = "SELECT COUNT(*) FROM order_requests WHERE shop_id = ? AND status = 'pending'";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setInt(1, shopId);
@@ -103,7 +102,7 @@ public class OrderRequestDao {
     public boolean updateOrderStatus(int orderId, String status) {
         String sql = "UPDATE order_requests SET status = ?, updated_at = ? WHERE id = ?";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setString(1, status);
@@ -121,7 +120,7 @@ public class OrderRequestDao {
         String sql = "SELECT * FROM order_items WHERE order_id = ?";
         List<OrderItem> items = new ArrayList<>();
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setInt(1, orderId);
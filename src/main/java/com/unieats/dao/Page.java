@@ -0,0 +1,45 @@
+package com.unieats.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * {@code nextToken} is an opaque continuation token to pass back for the following page,
+ * or null when this is the last page. Tokens encode the (created_at, id) of the last row,
+ * so fetching page N costs the same as fetching page 1.
+ */
+public record Page<T>(List<T> items, String nextToken) {
+
+	public boolean hasMore() {
+		return nextToken != null;
+	}
+
+	/**
+	 * Decoded continuation position: rows strictly older than (createdAt, id) come next.
+	 */
+	record Cursor(String createdAt, int id) {
+
+		String encode() {
+			String raw = id + "|" + createdAt;
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * @return the cursor, or null for a null/empty token (first page)
+		 * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+		 */
+		static Cursor decode(String token) {
+			if (token == null || token.isEmpty()) return null;
+			try {
+				String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+				int sep = raw.indexOf('|');
+				return new Cursor(raw.substring(sep + 1), Integer.parseInt(raw.substring(0, sep)));
+			} catch (RuntimeException e) {
+				throw new IllegalArgumentException("Invalid page token", e);
+			}
+		}
+	}
+}
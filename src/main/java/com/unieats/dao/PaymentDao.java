@@ -1,17 +1,16 @@
 package com.unieats.dao;
 
+import com.unieats.util.ConnectionPool;
 import java.sql.*;
 
 public class PaymentDao {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
-
     /**
      * Create a new payment record
      */
     public int createPayment(int orderId, String paymentMethod, double amount, String transactionId) {
         String sql = "INSERT INTO payments(order_id, payment_method, amount, transaction_id, status) VALUES(?,?,?,?,?)";
         String selectSql = "SELECT last_insert_rowid()";
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        try (Connection conn = ConnectionPool.getConnection()) {
             System.out.println("Creating payment record: orderId=" + orderId + ", method=" + paymentMethod + ", amount=" + amount + ", transactionId=" + transactionId);
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 ps.setInt(1, orderId);
@@ -44,7 +43,7 @@ public class PaymentDao {
      */
     public void updatePaymentStatus(int paymentId, String status) {
         String sql = "UPDATE payments SET status = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, status);
             ps.setInt(2, paymentId);
@@ -59,7 +58,7 @@ public class PaymentDao {
      */
     public PaymentInfo getPaymentByOrderId(int orderId) {
         String sql = "SELECT * FROM payments WHERE order_id = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, orderId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -97,7 +96,7 @@ public class PaymentDao {
      */
     public double getTotalPaymentsSum() {
         String sql = "SELECT COALESCE(SUM(amount), 0) as total FROM payments WHERE status IN ('completed', 'success')";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             if (rs.next()) {
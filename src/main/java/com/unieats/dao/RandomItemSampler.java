@@ -0,0 +1,209 @@
+package com.unieats.dao;
+
+import com.unieats.FoodItem;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.IntIntMap;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws random food items from approved shops without {@code ORDER BY RANDOM()}.
+ *
+ * Keeps a compact array of approved item ids in memory. New items are picked up
+ * with a cheap {@code id > lastSeenId} range query, removals and shop status changes
+ * are applied incrementally, and a full rebuild only happens on first use or every
+ * {@link #REBUILD_INTERVAL_MS} to catch changes made by other app instances.
+ * Sampling k distinct ids is O(k) (Floyd's algorithm) and the rows are fetched with
+ * a single {@code IN (...)} query.
+ */
+public class RandomItemSampler {
+	private static final long REBUILD_INTERVAL_MS = 5 * 60 * 1000L;
+
+	private static final RandomItemSampler INSTANCE = new RandomItemSampler(new FoodItemDao());
+
+	private final FoodItemDao foodItemDao;
+	private int[] ids = new int[64];
+	private int size;
+	private final IntIntMap positions = new IntIntMap(64); // id -> index in ids
+	private int lastSeenId;
+	private long lastRebuild;
+	private boolean loaded;
+
+	RandomItemSampler(FoodItemDao foodItemDao) {
+		this.foodItemDao = foodItemDao;
+	}
+
+	public static RandomItemSampler getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Return up to {@code k} distinct random items from approved shops, in random order.
+	 */
+	public List<FoodItem> sample(int k) {
+		int[] picked = pickIds(k);
+		if (picked.length == 0) return new ArrayList<>();
+
+		List<FoodItem> rows = foodItemDao.listApprovedByIds(picked);
+		Map<Integer, FoodItem> byId = new HashMap<>(rows.size() * 2);
+		for (FoodItem item : rows) byId.put(item.getId(), item);
+
+		List<FoodItem> result = new ArrayList<>(picked.length);
+		for (int id : picked) {
+			FoodItem item = byId.get(id);
+			if (item != null) {
+				result.add(item);
+			} else {
+				// Deleted or shop no longer approved (possibly by another instance)
+				onItemRemoved(id);
+			}
+		}
+		return result;
+	}
+
+	private synchronized int[] pickIds(int k) {
+		try {
+			long now = System.currentTimeMillis();
+			if (!loaded || now - lastRebuild > REBUILD_INTERVAL_MS) {
+				rebuild();
+			} else {
+				catchUp();
+			}
+		} catch (SQLException e) {
+			throw new RuntimeException("Failed to refresh random item index", e);
+		}
+
+		int n = size;
+		int count = Math.min(Math.max(k, 0), n);
+		int[] picked = new int[count];
+		if (count == n) {
+			System.arraycopy(ids, 0, picked, 0, n);
+			shuffle(picked);
+			return picked;
+		}
+		// Floyd's algorithm: count distinct positions in O(count) expected time
+		ThreadLocalRandom rnd = ThreadLocalRandom.current();
+		Set<Integer> chosen = new HashSet<>(count * 2);
+		int out = 0;
+		for (int j = n - count; j < n; j++) {
+			int t = rnd.nextInt(j + 1);
+			int pos = chosen.add(t) ? t : j;
+			if (pos == j) chosen.add(j);
+			picked[out++] = ids[pos];
+		}
+		shuffle(picked);
+		return picked;
+	}
+
+	/**
+	 * Forget an item that was deleted.
+	 */
+	public synchronized void onItemRemoved(int itemId) {
+		int pos = positions.remove(itemId, -1);
+		if (pos < 0) return;
+		int last = --size;
+		if (pos != last) {
+			int moved = ids[last];
+			ids[pos] = moved;
+			positions.put(moved, pos);
+		}
+	}
+
+	/**
+	 * Add or drop every item of a shop after its approval status changed.
+	 */
+	public synchronized void onShopStatusChanged(int shopId, String status) {
+		if (!loaded) return; // the first sample() will do a full load anyway
+		try (Connection conn = ConnectionPool.getConnection();
+			 PreparedStatement ps = conn.prepareStatement("SELECT id FROM food_items WHERE shop_id = ?")) {
+			ps.setInt(1, shopId);
+			boolean approved = "approved".equalsIgnoreCase(status);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					int id = rs.getInt(1);
+					if (approved) add(id);
+					else onItemRemoved(id);
+				}
+			}
+		} catch (SQLException e) {
+			// Fall back to a rebuild on next use rather than serving a wrong index
+			loaded = false;
+		}
+	}
+
+	/**
+	 * Drop the index; the next sample rebuilds it from the database.
+	 */
+	public synchronized void invalidate() {
+		loaded = false;
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	private void rebuild() throws SQLException {
+		size = 0;
+		positions.clear();
+		lastSeenId = 0;
+		loadApprovedIdsAbove(0);
+		lastRebuild = System.currentTimeMillis();
+		loaded = true;
+	}
+
+	private void catchUp() throws SQLException {
+		loadApprovedIdsAbove(lastSeenId);
+	}
+
+	private void loadApprovedIdsAbove(int minExclusive) throws SQLException {
+		String sql = "SELECT fi.id FROM food_items fi JOIN shops s ON fi.shop_id = s.id " +
+					"WHERE fi.id > ? AND fi.id <= ? AND s.status = 'approved'";
+		try (Connection conn = ConnectionPool.getConnection()) {
+			// Read the high-water mark first so rows inserted meanwhile are picked up next time
+			int maxId;
+			try (PreparedStatement ps = conn.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM food_items");
+				 ResultSet rs = ps.executeQuery()) {
+				maxId = rs.next() ? rs.getInt(1) : 0;
+			}
+			if (maxId <= minExclusive) return;
+			try (PreparedStatement ps = conn.prepareStatement(sql)) {
+				ps.setInt(1, minExclusive);
+				ps.setInt(2, maxId);
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) add(rs.getInt(1));
+				}
+			}
+			// Ids of unapproved shops are skipped too; onShopStatusChanged adds them on approval
+			lastSeenId = maxId;
+		}
+	}
+
+	private void add(int id) {
+		if (positions.containsKey(id)) return;
+		if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+		ids[size] = id;
+		positions.put(id, size);
+		size++;
+	}
+
+	private static void shuffle(int[] a) {
+		ThreadLocalRandom rnd = ThreadLocalRandom.current();
+		for (int i = a.length - 1; i > 0; i--) {
+			int j = rnd.nextInt(i + 1);
+			int tmp = a[i];
+			a[i] = a[j];
+			a[j] = tmp;
+		}
+	}
+}
@@ -1,14 +1,13 @@
 package com.unieats.dao;
 
+import com.unieats.util.ConnectionPool;
 import java.sql.*;
 
 public class ReportDao {
-	private static final String DB_URL = "jdbc:sqlite:unieats.db";
-
 	public int submitReport(int userId, int shopId, Integer itemId, String title, String description, String attachmentsJson) {
 		String sql = "INSERT INTO reports(user_id, shop_id, item_id, title, description, attachments) VALUES(?,?,?,?,?,?)";
 		String selectSql = "SELECT last_insert_rowid()";
-		try (Connection conn = DriverManager.getConnection(DB_URL)) {
+		try (Connection conn = ConnectionPool.getConnection()) {
 			try (PreparedStatement ps = conn.prepareStatement(sql)) {
 				ps.setInt(1, userId);
 				ps.setInt(2, shopId);
@@ -36,7 +35,7 @@ public class ReportDao {
 
     public int countPending() {
         String sql = "SELECT COUNT(*) FROM reports WHERE status='open' OR status='reviewing'";
-        try (Connection conn = DriverManager.getConnection(DB_URL); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
             if (rs.next()) return rs.getInt(1);
             return 0;
         } catch (SQLException e) { throw new RuntimeException(e); }
@@ -47,7 +46,7 @@ public class ReportDao {
      */
     public int getTotalReportsCount() {
         String sql = "SELECT COUNT(*) FROM reports";
-        try (Connection conn = DriverManager.getConnection(DB_URL); 
+        try (Connection conn = ConnectionPool.getConnection(); 
              Statement st = conn.createStatement(); 
              ResultSet rs = st.executeQuery(sql)) {
             if (rs.next()) return rs.getInt(1);
@@ -1,86 +1,171 @@
 package com.unieats.dao;
 
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ReviewDao {
-	private static final String DB_URL = "jdbc:sqlite:unieats.db";
-
 	public record Review(int id, int userId, String userName, Integer shopId, Integer foodItemId, int rating, String comment, String createdAt) {}
 
+	/**
+	 * Aggregate ratings of one shop or food item. {@code histogram[n - 1]} holds the number of n-star reviews.
+	 */
+	public record RatingSummary(int count, long sum, int[] histogram) {
+		public static final RatingSummary EMPTY = new RatingSummary(0, 0, new int[5]);
+
+		public double average() {
+			return count == 0 ? 0.0 : (double) sum / count;
+		}
+
+		public int stars(int rating) {
+			return histogram[rating - 1];
+		}
+	}
+
 	public void addShopReview(int userId, int shopId, int rating, String comment) {
-		String sql = "INSERT INTO reviews(user_id, shop_id, rating, comment) VALUES(?,?,?,?)";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, userId);
-			ps.setInt(2, shopId);
-			ps.setInt(3, rating);
-			ps.setString(4, comment);
-			ps.executeUpdate();
-		} catch (SQLException e) { throw new RuntimeException(e); }
+		addReview("shop_id", "shop_rating_summary", userId, shopId, rating, comment);
 	}
 
 	public void addFoodReview(int userId, int foodItemId, int rating, String comment) {
-		String sql = "INSERT INTO reviews(user_id, food_item_id, rating, comment) VALUES(?,?,?,?)";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, userId);
-			ps.setInt(2, foodItemId);
-			ps.setInt(3, rating);
-			ps.setString(4, comment);
-			ps.executeUpdate();
+		addReview("food_item_id", "food_rating_summary", userId, foodItemId, rating, comment);
+	}
+
+	/**
+	 * Insert the review and bump its target's summary row in one transaction.
+	 */
+	private void addReview(String targetColumn, String summaryTable, int userId, int targetId, int rating, String comment) {
+		if (rating < 1 || rating > 5) throw new IllegalArgumentException("Rating must be between 1 and 5");
+		String sql = "INSERT INTO reviews(user_id, " + targetColumn + ", rating, comment) VALUES(?,?,?,?)";
+		String stars = "stars_" + rating;
+		String summarySql = "INSERT INTO " + summaryTable + "(" + targetColumn + ", review_count, rating_sum, " + stars + ") VALUES(?, 1, ?, 1) " +
+				"ON CONFLICT(" + targetColumn + ") DO UPDATE SET review_count = review_count + 1, " +
+				"rating_sum = rating_sum + excluded.rating_sum, " + stars + " = " + stars + " + 1";
+		try {
+			// Both statements run in the writer's transaction (and savepoint), so they commit together
+			DatabaseWriter.getInstance().execute(conn -> {
+				try (PreparedStatement ps = conn.prepareStatement(sql);
+					 PreparedStatement summary = conn.prepareStatement(summarySql)) {
+					ps.setInt(1, userId);
+					ps.setInt(2, targetId);
+					ps.setInt(3, rating);
+					ps.setString(4, comment);
+					ps.executeUpdate();
+					summary.setInt(1, targetId);
+					summary.setInt(2, rating);
+					return summary.executeUpdate();
+				}
+			});
 		} catch (SQLException e) { throw new RuntimeException(e); }
 	}
 
 	public double getAverageRatingForShop(int shopId) {
-		String sql = "SELECT AVG(rating) FROM reviews WHERE shop_id = ?";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, shopId);
-			try (ResultSet rs = ps.executeQuery()) {
-				return rs.next() ? rs.getDouble(1) : 0.0;
-			}
-		} catch (SQLException e) { throw new RuntimeException(e); }
+		return getRatingSummaryForShop(shopId).average();
 	}
 
 	public double getAverageRatingForFood(int foodItemId) {
-		String sql = "SELECT AVG(rating) FROM reviews WHERE food_item_id = ?";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, foodItemId);
-			try (ResultSet rs = ps.executeQuery()) {
-				return rs.next() ? rs.getDouble(1) : 0.0;
-			}
-		} catch (SQLException e) { throw new RuntimeException(e); }
+		return getRatingSummaryForFood(foodItemId).average();
 	}
 
-	public List<Review> listReviewsForShop(int shopId, int limit) {
-		String sql = "SELECT r.*, u.full_name as user_name FROM reviews r JOIN users u ON u.id = r.user_id WHERE r.shop_id = ? ORDER BY r.created_at DESC LIMIT ?";
-		List<Review> out = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+	public RatingSummary getRatingSummaryForShop(int shopId) {
+		return getRatingSummaries("shop_rating_summary", "shop_id", List.of(shopId)).getOrDefault(shopId, RatingSummary.EMPTY);
+	}
+
+	public RatingSummary getRatingSummaryForFood(int foodItemId) {
+		return getRatingSummaries("food_rating_summary", "food_item_id", List.of(foodItemId)).getOrDefault(foodItemId, RatingSummary.EMPTY);
+	}
+
+	/**
+	 * Summaries for many food items in one primary-key lookup query, e.g. for a grid of cards.
+	 * Items without reviews are absent from the map.
+	 */
+	public Map<Integer, RatingSummary> getRatingSummariesForFoods(Collection<Integer> foodItemIds) {
+		return getRatingSummaries("food_rating_summary", "food_item_id", foodItemIds);
+	}
+
+	private Map<Integer, RatingSummary> getRatingSummaries(String table, String keyColumn, Collection<Integer> ids) {
+		Map<Integer, RatingSummary> out = new HashMap<>();
+		if (ids.isEmpty()) return out;
+		String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+		String sql = "SELECT * FROM " + table + " WHERE " + keyColumn + " IN (" + placeholders + ")";
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, shopId);
-			ps.setInt(2, limit);
+			int p = 1;
+			for (Integer id : ids) ps.setInt(p++, id);
 			try (ResultSet rs = ps.executeQuery()) {
-				while (rs.next()) out.add(map(rs));
+				while (rs.next()) {
+					int[] histogram = new int[5];
+					for (int n = 1; n <= 5; n++) histogram[n - 1] = rs.getInt("stars_" + n);
+					out.put(rs.getInt(keyColumn), new RatingSummary(rs.getInt("review_count"), rs.getLong("rating_sum"), histogram));
+				}
 			}
 			return out;
 		} catch (SQLException e) { throw new RuntimeException(e); }
 	}
 
+	public List<Review> listReviewsForShop(int shopId, int limit) {
+		return pageReviewsForShop(shopId, null, limit).items();
+	}
+
 	public List<Review> listReviewsForFood(int foodItemId, int limit) {
-		String sql = "SELECT r.*, u.full_name as user_name FROM reviews r JOIN users u ON u.id = r.user_id WHERE r.food_item_id = ? ORDER BY r.created_at DESC LIMIT ?";
+		return pageReviewsForFood(foodItemId, null, limit).items();
+	}
+
+	/**
+	 * Newest-first page of a shop's reviews. Pass null for the first page, then the previous
+	 * page's {@link Page#nextToken()}.
+	 */
+	public Page<Review> pageReviewsForShop(int shopId, String pageToken, int limit) {
+		return pageReviews("shop_id", shopId, pageToken, limit);
+	}
+
+	/**
+	 * Newest-first page of a food item's reviews. Pass null for the first page, then the previous
+	 * page's {@link Page#nextToken()}.
+	 */
+	public Page<Review> pageReviewsForFood(int foodItemId, String pageToken, int limit) {
+		return pageReviews("food_item_id", foodItemId, pageToken, limit);
+	}
+
+	private Page<Review> pageReviews(String ownerColumn, int ownerId, String pageToken, int limit) {
+		Page.Cursor cursor = Page.Cursor.decode(pageToken);
+		limit = Math.max(limit, 1);
+		// Walks idx_reviews_shop_created / idx_reviews_food_created from the cursor position
+		String sql = "SELECT r.*, u.full_name as user_name FROM reviews r JOIN users u ON u.id = r.user_id WHERE r." + ownerColumn + " = ? " +
+				(cursor == null ? "" : "AND (r.created_at, r.id) < (?, ?) ") +
+				"ORDER BY r.created_at DESC, r.id DESC LIMIT ?";
 		List<Review> out = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		boolean more = false;
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, foodItemId);
-			ps.setInt(2, limit);
+			int p = 1;
+			ps.setInt(p++, ownerId);
+			if (cursor != null) {
+				ps.setString(p++, cursor.createdAt());
+				ps.setInt(p++, cursor.id());
+			}
+			ps.setInt(p, limit + 1);
 			try (ResultSet rs = ps.executeQuery()) {
-				while (rs.next()) out.add(map(rs));
+				while (rs.next()) {
+					if (out.size() == limit) {
+						more = true;
+						break;
+					}
+					out.add(map(rs));
+				}
 			}
-			return out;
 		} catch (SQLException e) { throw new RuntimeException(e); }
+		String next = null;
+		if (more) {
+			Review last = out.get(out.size() - 1);
+			next = new Page.Cursor(last.createdAt(), last.id()).encode();
+		}
+		return new Page<>(out, next);
 	}
 
 	private Review map(ResultSet rs) throws SQLException {
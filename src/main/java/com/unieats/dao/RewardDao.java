@@ -1,10 +1,10 @@
 package com.unieats.dao;
 
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
 import java.sql.*;
 
 public class RewardDao {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
-
     /**
      * Award reward points to a user for a specific shop
      */
@@ -16,15 +16,16 @@ public class RewardDao {
             DO UPDATE SET points = points + ?
         """;
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            
-            ps.setInt(1, userId);
-            ps.setInt(2, shopId);
-            ps.setDouble(3, points);
-            ps.setDouble(4, points);
-            
-            int rowsAffected = ps.executeUpdate();
+        try {
+            int rowsAffected = DatabaseWriter.getInstance().execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, userId);
+                    ps.setInt(2, shopId);
+                    ps.setDouble(3, points);
+                    ps.setDouble(4, points);
+                    return ps.executeUpdate();
+                }
+            });
             System.out.println("Reward points awarded: " + points + " to user " + userId + " for shop " + shopId + " (rows affected: " + rowsAffected + ")");
             
         } catch (SQLException e) {
@@ -46,7 +47,7 @@ public class RewardDao {
             WHERE oi.order_id = ?
         """;
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setInt(1, orderId);
@@ -73,7 +74,7 @@ public class RewardDao {
     public double getUserRewardPoints(int userId, int shopId) {
         String sql = "SELECT points FROM reward_points WHERE user_id = ? AND shop_id = ?";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setInt(1, userId);
@@ -99,7 +100,7 @@ public class RewardDao {
     public double getTotalUserRewardPoints(int userId) {
         String sql = "SELECT SUM(points) as total_points FROM reward_points WHERE user_id = ?";
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setInt(1, userId);
@@ -128,7 +129,7 @@ public class RewardDao {
             WHERE user_id = ? AND shop_id = ? AND points >= ?
         """;
         
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             
             ps.setDouble(1, pointsToRedeem);
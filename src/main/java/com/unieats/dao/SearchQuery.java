@@ -0,0 +1,43 @@
+package com.unieats.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns free text from the search box into an FTS5 MATCH expression.
+ *
+ * Every word becomes a quoted prefix term ({@code "bur"*}), so partial words match and
+ * FTS5 operators or stray quotes typed by users cannot break the query. Terms are ANDed.
+ */
+final class SearchQuery {
+	private static final int MAX_TERMS = 8;
+
+	private SearchQuery() {
+	}
+
+	/**
+	 * @return the MATCH expression, or null when the input has no searchable words
+	 */
+	static String prefixMatch(String input) {
+		if (input == null) return null;
+		List<String> terms = new ArrayList<>();
+		StringBuilder word = new StringBuilder();
+		for (int i = 0; i <= input.length() && terms.size() < MAX_TERMS; i++) {
+			int cp = i < input.length() ? input.codePointAt(i) : ' ';
+			if (Character.isLetterOrDigit(cp)) {
+				word.appendCodePoint(cp);
+				if (Character.isSupplementaryCodePoint(cp)) i++;
+			} else if (word.length() > 0) {
+				terms.add(word.toString());
+				word.setLength(0);
+			}
+		}
+		if (terms.isEmpty()) return null;
+		StringBuilder match = new StringBuilder();
+		for (String term : terms) {
+			if (match.length() > 0) match.append(' ');
+			match.append('"').append(term).append("\"*");
+		}
+		return match.toString();
+	}
+}
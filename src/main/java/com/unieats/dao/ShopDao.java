@@ -1,6 +1,7 @@
 package com.unieats.dao;
 
 import com.unieats.Shop;
+import com.unieats.util.ConnectionPool;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -8,11 +9,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class ShopDao {
-	private static final String DB_URL = "jdbc:sqlite:unieats.db";
+	/** Page size used by the single-argument search. */
+	public static final int MAX_SEARCH_RESULTS = 200;
 
 	public int createShop(Shop shop) {
 		String sql = "INSERT INTO shops(owner_id, shop_name, status, created_at, updated_at) VALUES(?,?,?,?,?)";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			ps.setInt(1, shop.getOwnerId());
 			ps.setString(2, shop.getShopName());
@@ -32,11 +34,12 @@ public class ShopDao {
 
 	public void updateStatus(int shopId, String status) {
 		String sql = "UPDATE shops SET status=?, updated_at=? WHERE id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setString(1, status);
 			ps.setString(2, LocalDateTime.now().toString());
 			ps.setInt(3, shopId);
 			ps.executeUpdate();
+			RandomItemSampler.getInstance().onShopStatusChanged(shopId, status);
             com.unieats.services.EventNotifier.notifyChange("shops");
 		} catch (SQLException e) {
 			throw new RuntimeException("Failed to update shop status", e);
@@ -54,7 +57,7 @@ public class ShopDao {
 	private List<Shop> listByStatus(String status) {
 		String sql = "SELECT * FROM shops WHERE status=? ORDER BY created_at DESC";
 		List<Shop> shops = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setString(1, status);
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) shops.add(map(rs));
@@ -68,7 +71,7 @@ public class ShopDao {
 	public List<Shop> listAll() {
 		String sql = "SELECT * FROM shops ORDER BY created_at DESC";
 		List<Shop> shops = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
 			while (rs.next()) shops.add(map(rs));
 			return shops;
 		} catch (SQLException e) {
@@ -78,7 +81,7 @@ public class ShopDao {
 
 	public Shop findById(int id) {
 		String sql = "SELECT * FROM shops WHERE id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, id);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) return map(rs);
@@ -95,7 +98,7 @@ public class ShopDao {
 
 	public Shop getShopByOwnerId(int ownerId) {
 		String sql = "SELECT * FROM shops WHERE owner_id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, ownerId);
 			try (ResultSet rs = ps.executeQuery()) {
 				if (rs.next()) return map(rs);
@@ -108,7 +111,7 @@ public class ShopDao {
 
 	public void updateShop(Shop shop) {
 		String sql = "UPDATE shops SET shop_name=?, address=?, description=?, updated_at=? WHERE id=?";
-		try (Connection conn = DriverManager.getConnection(DB_URL); PreparedStatement ps = conn.prepareStatement(sql)) {
+		try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setString(1, shop.getShopName());
 			ps.setString(2, shop.getAddress());
 			ps.setString(3, shop.getDescription());
@@ -172,11 +175,24 @@ public class ShopDao {
 	}
 
 	public List<Shop> searchShops(String searchTerm) {
-		String sql = "SELECT * FROM shops WHERE LOWER(shop_name) LIKE LOWER(?) AND status = 'approved' ORDER BY shop_name ASC";
+		return searchShops(searchTerm, 0, MAX_SEARCH_RESULTS);
+	}
+
+	/**
+	 * Full-text prefix search over approved shop names, best matches first.
+	 */
+	public List<Shop> searchShops(String searchTerm, int offset, int limit) {
 		List<Shop> shops = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL); 
+		String match = SearchQuery.prefixMatch(searchTerm);
+		if (match == null || limit <= 0) return shops;
+		String sql = "SELECT s.* FROM shop_search JOIN shops s ON s.id = shop_search.rowid " +
+					"WHERE shop_search MATCH ? AND s.status = 'approved' " +
+					"ORDER BY bm25(shop_search), s.shop_name ASC LIMIT ? OFFSET ?";
+		try (Connection conn = ConnectionPool.getConnection(); 
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setString(1, "%" + searchTerm + "%");
+			ps.setString(1, match);
+			ps.setInt(2, limit);
+			ps.setInt(3, Math.max(offset, 0));
 			try (ResultSet rs = ps.executeQuery()) {
 				while (rs.next()) shops.add(map(rs));
 			}
@@ -185,4 +201,20 @@ public class ShopDao {
 			throw new RuntimeException("Failed to search shops", e);
 		}
 	}
+
+	/**
+	 * Approved shop whose name equals the given text ignoring case, or null.
+	 */
+	public Shop findApprovedByName(String shopName) {
+		String sql = "SELECT * FROM shops WHERE shop_name = ? COLLATE NOCASE AND status = 'approved' LIMIT 1";
+		try (Connection conn = ConnectionPool.getConnection(); 
+			 PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, shopName == null ? "" : shopName.trim());
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() ? map(rs) : null;
+			}
+		} catch (SQLException e) {
+			throw new RuntimeException("Failed to find shop by name", e);
+		}
+	}
 }
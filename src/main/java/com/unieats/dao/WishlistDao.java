@@ -2,6 +2,8 @@ package com.unieats.dao;
 
 import com.unieats.FoodItem;
 import com.unieats.WishlistItemView;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -10,19 +12,22 @@ import java.util.List;
 import java.util.Set;
 
 public class WishlistDao {
-	private static final String DB_URL = "jdbc:sqlite:unieats.db";
+	private final DatabaseWriter writer = DatabaseWriter.getInstance();
 
 	public void addToWishlist(int userId, int itemId, int quantity) {
 		String sql = """
 			INSERT INTO wishlist(user_id, item_id, quantity)
 			VALUES (?, ?, ?)
 		""";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, userId);
-			ps.setInt(2, itemId);
-			ps.setInt(3, Math.max(1, quantity));
-			ps.executeUpdate();
+		try {
+			writer.execute(conn -> {
+				try (PreparedStatement ps = conn.prepareStatement(sql)) {
+					ps.setInt(1, userId);
+					ps.setInt(2, itemId);
+					ps.setInt(3, Math.max(1, quantity));
+					return ps.executeUpdate();
+				}
+			});
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
@@ -30,11 +35,14 @@ public class WishlistDao {
 
 	public void removeFromWishlist(int userId, int itemId) {
 		String sql = "DELETE FROM wishlist WHERE user_id = ? AND item_id = ?";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
-			 PreparedStatement ps = conn.prepareStatement(sql)) {
-			ps.setInt(1, userId);
-			ps.setInt(2, itemId);
-			ps.executeUpdate();
+		try {
+			writer.execute(conn -> {
+				try (PreparedStatement ps = conn.prepareStatement(sql)) {
+					ps.setInt(1, userId);
+					ps.setInt(2, itemId);
+					return ps.executeUpdate();
+				}
+			});
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
@@ -42,7 +50,7 @@ public class WishlistDao {
 
 	public boolean isInWishlist(int userId, int itemId) {
 		String sql = "SELECT 1 FROM wishlist WHERE user_id = ? AND item_id = ? LIMIT 1";
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			ps.setInt(2, itemId);
@@ -55,7 +63,7 @@ public class WishlistDao {
 	public Set<Integer> getWishlistItemIds(int userId) {
 		String sql = "SELECT item_id FROM wishlist WHERE user_id = ?";
 		Set<Integer> ids = new HashSet<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -74,7 +82,7 @@ public class WishlistDao {
 			ORDER BY w.created_at DESC
 		""";
 		List<FoodItem> items = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -109,7 +117,7 @@ public class WishlistDao {
 			ORDER BY w.created_at DESC
 		""";
 		List<WishlistItemView> items = new ArrayList<>();
-		try (Connection conn = DriverManager.getConnection(DB_URL);
+		try (Connection conn = ConnectionPool.getConnection();
 			 PreparedStatement ps = conn.prepareStatement(sql)) {
 			ps.setInt(1, userId);
 			try (ResultSet rs = ps.executeQuery()) {
@@ -292,6 +292,12 @@ public class RealTimeStockDemoClient extends Application implements StockWebSock
         alert.showAndWait();
     }
     
+    @Override
+    public void onSnapshotRequired() {
+        log("Missed updates while disconnected; refreshing stock");
+        wsClient.queryStock(getDemoItemId());
+    }
+    
     @Override
     public void onDisconnected() {
         // This is called on JavaFX UI thread
@@ -4,9 +4,9 @@ import com.unieats.DatabaseManager;
 import com.unieats.FoodItem;
 import com.unieats.dao.FoodItemDao;
 import com.unieats.stock.StockWebSocketServer;
+import com.unieats.util.ConnectionPool;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 
@@ -21,7 +21,6 @@ import java.sql.ResultSet;
  * Run this FIRST before starting any clients.
  */
 public class RealTimeStockServer {
-    
     private static final int WEBSOCKET_PORT = 8080;
     private static final String DEMO_ITEM_NAME = "Demo Burger";
     private static int demoItemId = -1;
@@ -117,7 +116,7 @@ public class RealTimeStockServer {
      */
     private static int findDemoItem() {
         String sql = "SELECT id FROM food_items WHERE name = ?";
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:unieats.db");
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, DEMO_ITEM_NAME);
             try (ResultSet rs = ps.executeQuery()) {
@@ -138,7 +137,7 @@ public class RealTimeStockServer {
         String checkSql = "SELECT id FROM shops LIMIT 1";
         String insertSql = "INSERT INTO shops (shop_name, seller_id, location, status, created_at, updated_at) VALUES (?, ?, ?, ?, datetime('now'), datetime('now'))";
         
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:unieats.db")) {
+        try (Connection conn = ConnectionPool.getConnection()) {
             // Check if any shop exists
             try (PreparedStatement ps = conn.prepareStatement(checkSql);
                  ResultSet rs = ps.executeQuery()) {
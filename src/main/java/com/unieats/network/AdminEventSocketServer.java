@@ -1,148 +1,291 @@
 package com.unieats.network;
 
-import java.io.BufferedWriter;
+import com.unieats.util.OutboundQueue;
+
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Lightweight TCP server for broadcasting admin realtime events to multiple clients.
- * Each client connection is handled on its own thread; broadcasts are written
- * concurrently using a thread-safe client set.
+ * The protocol is one topic name per line, server to client.
+ *
+ * All connections share one selector thread with non-blocking channels. {@link #broadcast}
+ * only enqueues into each client's bounded {@link OutboundQueue} and wakes the selector, which
+ * packs queued lines into the connection's write buffer and writes as much as the socket takes,
+ * waiting for OP_WRITE when it is full. Reads are drained and discarded; end-of-stream closes
+ * the connection, so disconnects are noticed immediately.
  */
 public class AdminEventSocketServer {
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+
     private final int port;
-    private final ExecutorService acceptorExecutor;
-    private final ExecutorService clientExecutor;
+    private final int queueCapacity = Integer.getInteger("unieats.ws.queueCapacity", 256);
+    private final OutboundQueue.SlowConsumerPolicy policy = OutboundQueue.SlowConsumerPolicy.parse(
+            System.getProperty("unieats.ws.admin.policy"), OutboundQueue.SlowConsumerPolicy.COALESCE_BY_KEY);
+
     private volatile boolean running = false;
-    private ServerSocket serverSocket;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
 
-    // Track all connected clients' writers for broadcast
-    private final Set<ClientConnection> clients = Collections.synchronizedSet(new HashSet<>());
+    // Connected clients, and those with new output for the selector to pick up
+    private final Set<ClientConnection> clients = ConcurrentHashMap.newKeySet();
+    private final Queue<ClientConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readScratch = ByteBuffer.allocate(1024);
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong messagesOut = new AtomicLong();
 
     public AdminEventSocketServer(int port) {
         this.port = port;
-        this.acceptorExecutor = Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r, "admin-sock-acceptor");
-            t.setDaemon(true);
-            return t;
-        });
-        this.clientExecutor = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "admin-sock-client");
-            t.setDaemon(true);
-            return t;
-        });
-    }
-
-    public void start() {
+    }
+
+    public synchronized void start() {
         if (running) return;
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            // Bind to localhost only for safety
+            serverChannel.bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            System.err.println("AdminEventSocketServer: failed to bind port " + port + ": " + e.getMessage());
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+            return;
+        }
         running = true;
-        acceptorExecutor.submit(this::acceptLoop);
+        selectorThread = new Thread(this::selectLoop, "admin-sock-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
     }
 
-    public void stop() {
+    public synchronized void stop() {
+        if (!running) return;
         running = false;
-        try { if (serverSocket != null) serverSocket.close(); } catch (IOException ignored) {}
-        synchronized (clients) {
-            for (ClientConnection c : clients) { c.closeQuietly(); }
-            clients.clear();
+        selector.wakeup();
+        try {
+            selectorThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Port actually bound, useful when constructed with port 0.
+     */
+    public int getLocalPort() {
+        try {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (Exception e) {
+            return -1;
         }
-        clientExecutor.shutdownNow();
-        acceptorExecutor.shutdownNow();
     }
 
     public void broadcast(String message) {
+        if (!running) return;
         String payload = message == null ? "" : message;
-        synchronized (clients) {
-            clients.removeIf(c -> !c.isOpen());
-            for (ClientConnection c : clients) {
-                c.sendAsync(payload);
+        boolean queued = false;
+        for (ClientConnection c : clients) {
+            if (!c.queue.offer(payload, payload)) {
+                c.evict = true;
+            }
+            if (c.scheduled.compareAndSet(false, true)) {
+                pendingWrites.add(c);
+                queued = true;
             }
         }
+        if (queued) selector.wakeup();
     }
 
-    private void acceptLoop() {
-        try (ServerSocket ss = new ServerSocket()) {
-            this.serverSocket = ss;
-            // Bind to localhost only for safety
-            ss.bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port));
-            ss.setReuseAddress(true);
-            while (running && !Thread.currentThread().isInterrupted()) {
-                try {
-                    Socket socket = ss.accept();
-                    socket.setTcpNoDelay(true);
-                    socket.setKeepAlive(true);
-                    ClientConnection connection = new ClientConnection(socket);
-                    clients.add(connection);
-                    // Handle client lifecycle on a worker thread (read loop for graceful close)
-                    clientExecutor.submit(connection::run);
-                } catch (IOException ignored) {
-                    if (!running) break;
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select();
+                ClientConnection pending;
+                while ((pending = pendingWrites.poll()) != null) {
+                    pending.scheduled.set(false);
+                    if (pending.evict) {
+                        evicted.incrementAndGet();
+                        close(pending);
+                    } else {
+                        flush(pending);
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    ClientConnection c = (ClientConnection) key.attachment();
+                    if (key.isReadable()) read(c);
+                    if (key.isValid() && key.isWritable()) flush(c);
                 }
             }
-        } catch (IOException ignored) {
-            // swallow; server stop or bind failure
+        } catch (IOException e) {
+            System.err.println("AdminEventSocketServer: selector failed: " + e.getMessage());
+        } finally {
+            for (ClientConnection c : clients) close(c);
+            clients.clear();
+            pendingWrites.clear();
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+            running = false;
         }
     }
 
-    private static class ClientConnection {
-        private final Socket socket;
-        private final BufferedWriter writer;
-        private volatile boolean open = true;
+    private void accept() {
+        SocketChannel channel;
+        try {
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+                ClientConnection c = new ClientConnection(channel, new OutboundQueue<>(queueCapacity, policy));
+                c.key = channel.register(selector, SelectionKey.OP_READ, c);
+                clients.add(c);
+                accepted.incrementAndGet();
+            }
+        } catch (IOException ignored) {
+            // a failed accept only affects that client
+        }
+    }
 
-        ClientConnection(Socket socket) throws IOException {
-            this.socket = socket;
-            this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    private void read(ClientConnection c) {
+        try {
+            int n;
+            do {
+                readScratch.clear();
+                n = c.channel.read(readScratch);
+            } while (n > 0);
+            if (n < 0) close(c);
+        } catch (IOException e) {
+            close(c);
         }
+    }
 
-        void run() {
-            // Optionally read to detect client disconnects; here we just block on read with timeout
-            try {
-                // Block until the socket is closed by peer
-                while (open && !socket.isClosed()) {
-                    try {
-                        // Sleep a bit; writes occur from broadcast
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-                    if (!socket.isConnected()) break;
+    /**
+     * Write queued lines until the queue is empty or the socket stops accepting bytes.
+     */
+    private void flush(ClientConnection c) {
+        if (!c.channel.isOpen()) return;
+        try {
+            while (true) {
+                if (!c.out.hasRemaining() && !refill(c)) {
+                    c.key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                int written = c.channel.write(c.out);
+                bytesOut.addAndGet(written);
+                if (c.out.hasRemaining()) {
+                    c.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
                 }
-            } finally {
-                closeQuietly();
             }
+        } catch (IOException e) {
+            close(c);
         }
+    }
 
-        boolean isOpen() {
-            return open && !socket.isClosed();
-        }
-
-        void sendAsync(String message) {
-            try {
-                writer.write(message);
-                writer.write('\n');
-                writer.flush();
-            } catch (IOException e) {
-                closeQuietly();
+    /**
+     * Pack as many queued lines as fit into the write buffer; false if there was nothing to send.
+     */
+    private boolean refill(ClientConnection c) {
+        c.out.clear();
+        while (true) {
+            byte[] line = c.carry;
+            c.carry = null;
+            if (line == null) {
+                String message = c.queue.poll();
+                if (message == null) break;
+                line = (message + "\n").getBytes(StandardCharsets.UTF_8);
+                messagesOut.incrementAndGet();
             }
+            if (line.length > c.out.remaining()) {
+                if (c.out.position() > 0) {
+                    c.carry = line;
+                    break;
+                }
+                // A single line larger than the buffer gets a buffer of its own
+                c.out = ByteBuffer.allocate(Math.max(WRITE_BUFFER_SIZE, line.length));
+            }
+            c.out.put(line);
         }
+        c.out.flip();
+        return c.out.hasRemaining();
+    }
 
-        void closeQuietly() {
-            open = false;
-            try { writer.close(); } catch (IOException ignored) {}
-            try { socket.close(); } catch (IOException ignored) {}
-        }
+    private void close(ClientConnection c) {
+        clients.remove(c);
+        if (c.key != null) c.key.cancel();
+        closeQuietly(c.channel);
     }
-}
 
+    private static void closeQuietly(Closeable closeable) {
+        try { if (closeable != null) closeable.close(); } catch (IOException ignored) {}
+    }
 
+    public int connectionCount() {
+        return clients.size();
+    }
+
+    /**
+     * Per-client queue depth, lag and drop counts.
+     */
+    public List<OutboundQueue.Stats> clientStats() {
+        List<OutboundQueue.Stats> stats = new ArrayList<>(clients.size());
+        for (ClientConnection c : clients) stats.add(c.queue.stats());
+        return stats;
+    }
+
+    public Stats stats() {
+        return new Stats(clients.size(), accepted.get(), evicted.get(), messagesOut.get(), bytesOut.get());
+    }
+
+    /**
+     * Connection and output totals since start.
+     */
+    public record Stats(int connections, long accepted, long evicted, long messagesOut, long bytesOut) {}
+
+    private static final class ClientConnection {
+        final SocketChannel channel;
+        final OutboundQueue<String> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean evict;
+        SelectionKey key;
+        // Selector thread only
+        ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE).flip();
+        byte[] carry;
+
+        ClientConnection(SocketChannel channel, OutboundQueue<String> queue) {
+            this.channel = channel;
+            this.queue = queue;
+        }
+    }
+}
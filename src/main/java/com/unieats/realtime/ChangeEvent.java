@@ -0,0 +1,35 @@
+package com.unieats.realtime;
+
+/**
+ * One row-level change read from change_log.
+ *
+ * @param seq   change_log sequence number, increasing in commit order
+ * @param table table the row belongs to
+ * @param rowId id of the changed row
+ * @param op    what happened to it
+ */
+public record ChangeEvent(long seq, String table, long rowId, Op op) {
+
+    public enum Op {
+        INSERT, UPDATE, DELETE;
+
+        static Op fromCode(String code) {
+            return switch (code) {
+                case "I" -> INSERT;
+                case "D" -> DELETE;
+                default -> UPDATE;
+            };
+        }
+    }
+
+    /**
+     * Realtime topic for this change, matching the names listeners already use.
+     */
+    public String topic() {
+        return topicFor(table);
+    }
+
+    public static String topicFor(String table) {
+        return "food_items".equals(table) ? "foodItems" : table;
+    }
+}
@@ -0,0 +1,71 @@
+package com.unieats.realtime;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tails the trigger-maintained change_log table by sequence number.
+ *
+ * Each {@link #poll} is one primary-key range read past the last sequence seen, so an idle
+ * database costs a single empty index probe. Not thread-safe; owned by one poller.
+ */
+public final class ChangeFeed {
+    private static final String TAIL =
+            "SELECT seq, table_name, row_id, op FROM change_log WHERE seq > ? ORDER BY seq LIMIT ?";
+
+    private long lastSeq;
+
+    /**
+     * Start after {@code lastSeq}; use {@link #latestSequence} to skip history.
+     */
+    public ChangeFeed(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public static long latestSequence(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM change_log")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Changes committed since the previous call, oldest first, at most {@code limit}.
+     */
+    public List<ChangeEvent> poll(Connection conn, int limit) throws SQLException {
+        List<ChangeEvent> events = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(TAIL)) {
+            ps.setLong(1, lastSeq);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    events.add(new ChangeEvent(rs.getLong("seq"), rs.getString("table_name"),
+                            rs.getLong("row_id"), ChangeEvent.Op.fromCode(rs.getString("op"))));
+                }
+            }
+        }
+        if (!events.isEmpty()) lastSeq = events.get(events.size() - 1).seq();
+        return events;
+    }
+
+    public long lastSequence() {
+        return lastSeq;
+    }
+
+    /**
+     * Delete all but the newest {@code keep} entries. The newest row always survives, so
+     * sequence numbers are never reused.
+     */
+    public static int prune(Connection conn, long keep) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "DELETE FROM change_log WHERE seq <= (SELECT MAX(seq) FROM change_log) - ?")) {
+            ps.setLong(1, Math.max(1, keep));
+            return ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.unieats.realtime;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Patches an {@link ObservableList} in place from the entity deltas in a topic envelope (see
+ * {@link RealtimeBroadcastHub#broadcastChanges}).
+ *
+ * An update to a row already in the list is applied through the registered field setters
+ * and then re-set at its index, so bound views refresh that one row. Inserts, rows not yet in the
+ * list, and updates touching a column with no setter fall back to {@code loader}, a single-row
+ * lookup by id. A row that stops matching {@code filter} is removed. Deltas not newer than the
+ * version already applied for a row are ignored.
+ *
+ * Call {@link #apply} on the thread that owns the list (the FX thread for a bound list).
+ *
+ * @param <T> list element type
+ */
+public final class DeltaApplier<T> {
+    private final ObservableList<T> list;
+    private final ToLongFunction<T> idOf;
+    private final LongFunction<T> loader;
+    private final Map<String, BiConsumer<T, JsonElement>> setters = new HashMap<>();
+    private final Map<Long, Long> versions = new HashMap<>();
+    private Predicate<T> filter = item -> true;
+    private String scopeColumn;
+    private Object scopeValue;
+
+    private long patched;
+    private long loaded;
+    private long removed;
+    private long stale;
+
+    public DeltaApplier(ObservableList<T> list, ToLongFunction<T> idOf, LongFunction<T> loader) {
+        this.list = Objects.requireNonNull(list);
+        this.idOf = Objects.requireNonNull(idOf);
+        this.loader = Objects.requireNonNull(loader);
+    }
+
+    /**
+     * Apply changes to {@code column} with {@code setter} instead of reloading the row.
+     */
+    public DeltaApplier<T> field(String column, BiConsumer<T, JsonElement> setter) {
+        setters.put(column, setter);
+        return this;
+    }
+
+    /**
+     * Columns whose changes do not affect this view.
+     */
+    public DeltaApplier<T> ignore(String... columns) {
+        for (String column : columns) setters.put(column, (item, value) -> {});
+        return this;
+    }
+
+    /**
+     * Keep only rows matching {@code filter}; others are removed or never added.
+     */
+    public DeltaApplier<T> filter(Predicate<T> filter) {
+        this.filter = Objects.requireNonNull(filter);
+        return this;
+    }
+
+    /**
+     * Skip deltas whose {@code column} is present with another value, without a lookup; used
+     * with a routing column the sender always includes, such as a food item's {@code shop_id}.
+     */
+    public DeltaApplier<T> scope(String column, Object value) {
+        this.scopeColumn = column;
+        this.scopeValue = value;
+        return this;
+    }
+
+    /**
+     * Apply a topic envelope.
+     *
+     * @return false if it carries no deltas (a plain topic event or a truncated batch), in
+     *         which case the caller should reload the list
+     */
+    public boolean apply(String envelope) {
+        JsonObject json;
+        try {
+            JsonElement parsed = JsonParser.parseString(envelope);
+            if (!parsed.isJsonObject()) return false;
+            json = parsed.getAsJsonObject();
+        } catch (RuntimeException e) {
+            return false;
+        }
+        JsonElement changes = json.get("changes");
+        if (changes == null || !changes.isJsonArray()) return false;
+        for (JsonElement element : changes.getAsJsonArray()) {
+            JsonObject change = element.getAsJsonObject();
+            JsonElement version = change.get("version");
+            // A bare {"id","op"} change has no fields to apply
+            if (version == null) return false;
+            JsonElement fields = change.get("fields");
+            apply(change.get("id").getAsLong(), change.get("op").getAsString(), version.getAsLong(),
+                    fields != null && fields.isJsonObject() ? fields.getAsJsonObject() : new JsonObject());
+        }
+        return true;
+    }
+
+    private void apply(long id, String op, long version, JsonObject fields) {
+        Long applied = versions.get(id);
+        if (applied != null && applied >= version) {
+            stale++;
+            return;
+        }
+        versions.put(id, version);
+        if (scopeColumn != null && fields.has(scopeColumn) && !matchesScope(fields.get(scopeColumn))) return;
+
+        int index = indexOf(id);
+        if ("delete".equals(op)) {
+            if (index >= 0) {
+                list.remove(index);
+                removed++;
+            }
+            return;
+        }
+        T item;
+        if (index >= 0 && "update".equals(op) && setters.keySet().containsAll(fields.keySet())) {
+            item = list.get(index);
+            for (Map.Entry<String, JsonElement> e : fields.entrySet()) setters.get(e.getKey()).accept(item, e.getValue());
+            patched++;
+        } else {
+            item = loader.apply(id);
+            loaded++;
+        }
+        if (item == null || !filter.test(item)) {
+            if (index >= 0) {
+                list.remove(index);
+                removed++;
+            }
+        } else if (index >= 0) {
+            list.set(index, item);
+        } else {
+            list.add(item);
+        }
+    }
+
+    private boolean matchesScope(JsonElement value) {
+        if (value == null || value.isJsonNull()) return scopeValue == null;
+        return value.getAsString().equals(String.valueOf(scopeValue));
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < list.size(); i++) {
+            if (idOf.applyAsLong(list.get(i)) == id) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Forget applied versions, after the caller has reloaded the whole list.
+     */
+    public void reset() {
+        versions.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(patched, loaded, removed, stale);
+    }
+
+    /**
+     * Rows patched from fields, rows read with the loader, rows removed, and stale deltas skipped.
+     */
+    public record Stats(long patched, long loaded, long removed, long stale) {}
+
+    /** Setter adapter for a nullable string column. */
+    public static <T> BiConsumer<T, JsonElement> string(BiConsumer<T, String> setter) {
+        return (item, value) -> setter.accept(item, value == null || value.isJsonNull() ? null : value.getAsString());
+    }
+}
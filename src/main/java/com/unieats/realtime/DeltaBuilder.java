@@ -0,0 +1,142 @@
+package com.unieats.realtime;
+
+import com.unieats.util.SchemaMigrations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Turns change_log entries into {@link EntityDelta}s by reading the changed rows once, on the
+ * server, so that clients can patch their lists instead of each re-running the full query.
+ *
+ * The last row sent for each id is remembered (up to {@code cachedRows}, least recently used
+ * first out) so updates carry only the columns that differ. Only the columns listed for a table
+ * in {@link #SENT_COLUMNS} are read and sent, and a table's routing columns (such as a food
+ * item's {@code shop_id}) are always sent. Rows of {@link #isAdminOnly admin-only} tables carry
+ * personal data and must only be published on the admin channel.
+ */
+public final class DeltaBuilder {
+    // The columns the views patch or knowingly ignore; anything else (emails, reporters' text,
+    // transaction ids) is never read. Payments go out as id and op only.
+    private static final Map<String, List<String>> SENT_COLUMNS = Map.of(
+            "food_items", List.of("shop_id", "name", "price", "stock", "points_multiplier", "created_at", "updated_at"),
+            "shops", List.of("owner_id", "shop_name", "status", "created_at", "updated_at"),
+            "reports", List.of("shop_id", "item_id", "status", "created_at", "updated_at"),
+            "users", List.of("email", "full_name", "profile_picture", "phone_no", "address", "user_category", "status",
+                    "created_at", "updated_at"),
+            "payments", List.of());
+    private static final Set<String> ADMIN_ONLY_TABLES = Set.of("users");
+    private static final Map<String, Set<String>> ALWAYS_SENT = Map.of(
+            "food_items", Set.of("shop_id"),
+            "reports", Set.of("shop_id"));
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    private final int cachedRows;
+    private final Map<String, Map<String, Object>> lastSent;
+
+    public DeltaBuilder(int cachedRows) {
+        this.cachedRows = cachedRows;
+        this.lastSent = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+                return size() > DeltaBuilder.this.cachedRows;
+            }
+        };
+    }
+
+    /**
+     * Net deltas for changes to one table, one per row, in order of each row's first change.
+     */
+    public synchronized List<EntityDelta> build(Connection conn, String table, List<ChangeEvent> changes) throws SQLException {
+        if (!SchemaMigrations.CHANGE_LOGGED_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Not a change-logged table: " + table);
+        }
+        Map<Long, ChangeEvent> latest = new LinkedHashMap<>();
+        Map<Long, Boolean> insertedHere = new HashMap<>();
+        for (ChangeEvent change : changes) {
+            latest.put(change.rowId(), change);
+            insertedHere.putIfAbsent(change.rowId(), change.op() == ChangeEvent.Op.INSERT);
+        }
+        List<Long> live = new ArrayList<>();
+        for (ChangeEvent change : latest.values()) {
+            if (change.op() != ChangeEvent.Op.DELETE) live.add(change.rowId());
+        }
+        Map<Long, Map<String, Object>> rows = load(conn, table, live);
+
+        List<EntityDelta> deltas = new ArrayList<>(latest.size());
+        for (ChangeEvent change : latest.values()) {
+            String cacheKey = table + ":" + change.rowId();
+            Map<String, Object> row = rows.get(change.rowId());
+            if (row == null) {
+                // Deleted, possibly after the change we were told about
+                lastSent.remove(cacheKey);
+                deltas.add(new EntityDelta(table, change.rowId(), ChangeEvent.Op.DELETE, change.seq(), Map.of()));
+                continue;
+            }
+            boolean insert = insertedHere.get(change.rowId());
+            Map<String, Object> previous = lastSent.put(cacheKey, row);
+            Map<String, Object> fields = insert || previous == null ? row : changedFields(table, previous, row);
+            deltas.add(new EntityDelta(table, change.rowId(), insert ? ChangeEvent.Op.INSERT : ChangeEvent.Op.UPDATE,
+                    change.seq(), fields));
+        }
+        return deltas;
+    }
+
+    /**
+     * Whether deltas for {@code table} may only go to admin subscribers.
+     */
+    public static boolean isAdminOnly(String table) {
+        return ADMIN_ONLY_TABLES.contains(table);
+    }
+
+    private static Map<String, Object> changedFields(String table, Map<String, Object> previous, Map<String, Object> row) {
+        Set<String> always = ALWAYS_SENT.getOrDefault(table, Set.of());
+        Map<String, Object> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : row.entrySet()) {
+            if (always.contains(e.getKey()) || !Objects.equals(previous.get(e.getKey()), e.getValue())) {
+                changed.put(e.getKey(), e.getValue());
+            }
+        }
+        return changed;
+    }
+
+    private static Map<Long, Map<String, Object>> load(Connection conn, String table, List<Long> ids) throws SQLException {
+        if (ids.isEmpty()) return Collections.emptyMap();
+        List<String> columns = SENT_COLUMNS.getOrDefault(table, List.of());
+        String select = columns.isEmpty() ? "id" : "id, " + String.join(", ", columns);
+        Map<Long, Map<String, Object>> rows = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+            String sql = "SELECT " + select + " FROM " + table + " WHERE id IN (" + "?,".repeat(chunk.size() - 1) + "?)";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) ps.setLong(i + 1, chunk.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int c = 1; c <= meta.getColumnCount(); c++) {
+                            row.put(meta.getColumnLabel(c), rs.getObject(c));
+                        }
+                        rows.put(rs.getLong("id"), Collections.unmodifiableMap(row));
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    public synchronized int cachedRowCount() {
+        return lastSent.size();
+    }
+}
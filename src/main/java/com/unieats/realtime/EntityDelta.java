@@ -0,0 +1,17 @@
+package com.unieats.realtime;
+
+import java.util.Map;
+
+/**
+ * The net change to one row over a batch of change_log entries, as sent to realtime clients.
+ *
+ * @param entity  table the row belongs to
+ * @param id      id of the row
+ * @param op      INSERT or UPDATE carry {@code fields}; DELETE carries none
+ * @param version change_log sequence number of the row's latest change; a receiver ignores a
+ *                delta whose version is not newer than the one it already applied
+ * @param fields  column values: the whole row for an insert or a row the sender has not seen
+ *                before, otherwise only the columns that changed
+ */
+public record EntityDelta(String entity, long id, ChangeEvent.Op op, long version, Map<String, Object> fields) {
+}
@@ -1,17 +1,34 @@
 package com.unieats.realtime;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.unieats.network.AdminEventSocketServer;
 import com.unieats.util.InventoryWebSocketServer;
 import com.unieats.util.SocketBus;
 import com.unieats.websocket.ShopStatusWebSocketServer;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Central coordinator to synchronize realtime broadcasts across admin (TCP),
  * user (inventory WebSocket), and seller (shop status WebSocket) channels.
+ *
+ * Each event goes to the {@link RealtimeGateway} once, under both its inventory and admin
+ * routing keys; the dedicated legacy servers still receive a copy for clients that have not
+ * moved to the gateway, which costs nothing while they have no subscribers.
  */
 public final class RealtimeBroadcastHub {
     private static final RealtimeBroadcastHub INSTANCE = new RealtimeBroadcastHub();
 
+    public static final int MAX_CHANGES_PER_ENVELOPE = 100;
+
+    // Nulls are sent so a cleared column reaches clients
+    private static final Gson GSON = new GsonBuilder().serializeNulls().create();
+
     private volatile AdminEventSocketServer adminTcp;
 
     private RealtimeBroadcastHub() {
@@ -35,7 +52,77 @@ public final class RealtimeBroadcastHub {
      */
     public void broadcastTopic(String topic) {
         String safeTopic = topic == null ? "" : topic;
-        String jsonEnvelope = "{\"type\":\"topic\",\"topic\":\"" + escapeJson(safeTopic) + "\"}";
+        broadcast(safeTopic, topicEnvelope(safeTopic));
+    }
+
+    /**
+     * Broadcast row-level deltas to one topic. WebSocket listeners get the usual topic envelope
+     * plus {@code "entity"}, {@code "seq"} and a {@code "changes"} list of
+     * {@code {"id":..,"op":"..","version":..,"fields":{..}}} that {@link DeltaApplier} patches into
+     * a list; past {@value #MAX_CHANGES_PER_ENVELOPE} rows the list is omitted and
+     * {@code "truncated":true} tells clients to reload. Changes to rows with a {@code shop_id}
+     * are also routed to {@code <topic>:shop:<id>} subscribers. Admin TCP clients still receive
+     * just the topic name. Deltas of {@link DeltaBuilder#isAdminOnly admin-only} tables go to
+     * admin gateway subscribers only; every other channel gets the bare topic envelope.
+     */
+    public void broadcastChanges(String topic, List<EntityDelta> deltas) {
+        String safeTopic = topic == null ? "" : topic;
+        if (!deltas.isEmpty() && DeltaBuilder.isAdminOnly(deltas.get(0).entity())) {
+            try {
+                RealtimeGateway.getInstance().publish(List.of(RealtimeGateway.Channel.ADMIN.key(safeTopic)),
+                        envelope(safeTopic, deltas, new LinkedHashSet<>()));
+            } catch (Exception ignored) {}
+            broadcast(safeTopic, List.of(RealtimeGateway.Channel.INVENTORY.key(safeTopic)), topicEnvelope(safeTopic));
+            return;
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(RealtimeGateway.Channel.INVENTORY.key(safeTopic));
+        keys.add(RealtimeGateway.Channel.ADMIN.key(safeTopic));
+        String json = envelope(safeTopic, deltas, keys);
+        broadcast(safeTopic, List.copyOf(keys), json);
+    }
+
+    /**
+     * The JSON envelope for {@link #broadcastChanges}; adds the shop routing keys of the rows to
+     * {@code keys}.
+     */
+    static String envelope(String safeTopic, List<EntityDelta> deltas, Set<String> keys) {
+        JsonObject envelope = new JsonObject();
+        envelope.addProperty("type", "topic");
+        envelope.addProperty("topic", safeTopic);
+        if (!deltas.isEmpty()) {
+            envelope.addProperty("entity", deltas.get(0).entity());
+            envelope.addProperty("seq", deltas.stream().mapToLong(EntityDelta::version).max().getAsLong());
+        }
+        if (deltas.size() > MAX_CHANGES_PER_ENVELOPE) {
+            envelope.addProperty("truncated", true);
+        } else {
+            JsonArray changes = new JsonArray(deltas.size());
+            for (EntityDelta d : deltas) {
+                JsonObject change = new JsonObject();
+                change.addProperty("id", d.id());
+                change.addProperty("op", d.op().name().toLowerCase());
+                change.addProperty("version", d.version());
+                if (!d.fields().isEmpty()) change.add("fields", GSON.toJsonTree(d.fields()));
+                changes.add(change);
+                Object shopId = d.fields().get("shop_id");
+                if (shopId != null) keys.add(RealtimeGateway.Channel.INVENTORY.key(safeTopic + ":shop:" + shopId));
+            }
+            envelope.add("changes", changes);
+        }
+        return GSON.toJson(envelope);
+    }
+
+    private void broadcast(String safeTopic, String jsonEnvelope) {
+        broadcast(safeTopic, List.of(
+                RealtimeGateway.Channel.INVENTORY.key(safeTopic),
+                RealtimeGateway.Channel.ADMIN.key(safeTopic)), jsonEnvelope);
+    }
+
+    private void broadcast(String safeTopic, List<String> gatewayKeys, String jsonEnvelope) {
+        try {
+            RealtimeGateway.getInstance().publish(gatewayKeys, jsonEnvelope);
+        } catch (Exception ignored) {}
 
         // Admin TCP (newline-delimited plain text)
         AdminEventSocketServer admin = this.adminTcp;
@@ -48,13 +135,17 @@ public final class RealtimeBroadcastHub {
             ShopStatusWebSocketServer.getInstance().broadcastRaw(jsonEnvelope);
         } catch (Exception ignored) {}
 
-        // User WS (inventory) via SocketBus
+        // User WS (inventory) via SocketBus; already on the gateway, so not relayed again
         try {
             InventoryWebSocketServer inv = SocketBus.getServer();
-            if (inv != null) inv.broadcastJson(jsonEnvelope);
+            if (inv != null) inv.broadcastLocal(jsonEnvelope);
         } catch (Exception ignored) {}
     }
 
+    private static String topicEnvelope(String safeTopic) {
+        return "{\"type\":\"topic\",\"topic\":\"" + escapeJson(safeTopic) + "\"}";
+    }
+
     private static String escapeJson(String s) {
         return s.replace("\\", "\\\\").replace("\"", "\\\"");
     }
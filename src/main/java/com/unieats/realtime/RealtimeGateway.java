@@ -0,0 +1,261 @@
+package com.unieats.realtime;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.unieats.util.OutboundQueue;
+import com.unieats.util.TopicRegistry;
+import com.unieats.util.WebSocketOutbox;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single realtime endpoint that multiplexes every channel over one WebSocket per client.
+ *
+ * Routing keys are a {@link Channel} id optionally followed by a topic path, for example
+ * {@code inventory:orders:shop:3}, {@code shopStatus} or {@code stock:item:42}; matching follows
+ * {@link TopicRegistry}, so subscribing to a channel id receives its whole channel. Clients send
+ * {@code {"type":"subscribe","topics":[...]}} / {@code "unsubscribe"} with such keys.
+ *
+ * Every event is wrapped once as {@code {"seq":n,"keys":[...],"data":...}} and handed to the
+ * outbox, which encodes it once for all recipients. An event published under several keys (say
+ * the inventory and admin view of the same topic) reaches each connection once.
+ *
+ * Sequence numbers increase across all channels, and recent events are kept per key in a
+ * {@link ReplayBuffer}. A new connection is greeted with {@code {"type":"hello","epoch":e,"seq":n}}.
+ * A client that reconnects adds {@code "epoch"} and {@code "since"} to its subscribe message and
+ * is sent only the events it missed. Keys whose gap is no longer retained are named in a
+ * {@code {"type":"snapshot_required","topics":[...]}} reply and should be reloaded.
+ */
+public class RealtimeGateway extends WebSocketServer {
+    public static final int DEFAULT_PORT = 7070;
+    private static final int MAX_KEYS_PER_CONNECTION = 256;
+    private static final int QUEUE_CAPACITY = Integer.getInteger("unieats.ws.queueCapacity", 256);
+
+    private static RealtimeGateway instance;
+
+    public enum Channel {
+        INVENTORY("inventory"),
+        SHOP_STATUS("shopStatus"),
+        STOCK("stock"),
+        ADMIN("admin");
+
+        private final String id;
+
+        Channel(String id) {
+            this.id = id;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        /** Routing key for a topic on this channel; the bare channel id when topic is empty. */
+        public String key(String topic) {
+            return topic == null || topic.isEmpty() ? id : id + ":" + topic;
+        }
+    }
+
+    private final TopicRegistry<WebSocket> keys = new TopicRegistry<>(MAX_KEYS_PER_CONNECTION);
+    private final WebSocketOutbox outbox =
+            WebSocketOutbox.fromSystemProperties("gateway", OutboundQueue.SlowConsumerPolicy.COALESCE_BY_KEY);
+    private final ReplayBuffer replay = new ReplayBuffer(
+            Integer.getInteger("unieats.gateway.replayPerTopic", 256),
+            Integer.getInteger("unieats.gateway.replayTopics", 1024));
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong snapshotsRequired = new AtomicLong();
+    private volatile boolean started;
+
+    public RealtimeGateway(int port) {
+        super(new InetSocketAddress(port));
+        setReuseAddr(true);
+    }
+
+    /**
+     * Process-wide gateway on {@code unieats.gateway.port} (default {@value #DEFAULT_PORT}).
+     * It is created unstarted; publishing to it before {@link #start()} is a cheap no-op.
+     */
+    public static synchronized RealtimeGateway getInstance() {
+        if (instance == null) instance = new RealtimeGateway(port());
+        return instance;
+    }
+
+    public static int port() {
+        return Integer.getInteger("unieats.gateway.port", DEFAULT_PORT);
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        outbox.register(conn);
+        outbox.send(conn, null, "{\"type\":\"hello\",\"epoch\":" + replay.epoch() + ",\"seq\":" + replay.latestSequence() + "}");
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        keys.removeConnection(conn);
+        outbox.unregister(conn);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        JsonObject json;
+        try {
+            JsonElement parsed = JsonParser.parseString(message);
+            if (!parsed.isJsonObject()) return;
+            json = parsed.getAsJsonObject();
+        } catch (RuntimeException e) {
+            return;
+        }
+        JsonElement type = json.get("type");
+        if (type == null || !type.isJsonPrimitive()) return;
+        List<String> requested = stringsOf(json.get("topics"));
+        if ("subscribe".equals(type.getAsString())) {
+            // Subscribing and replaying under the publish lock keeps the gap and live events in order
+            synchronized (replay) {
+                List<String> accepted = new ArrayList<>(requested.size());
+                for (String key : requested) {
+                    if (keys.subscribe(conn, key)) {
+                        accepted.add(key);
+                    } else {
+                        try { conn.send("{\"type\":\"error\",\"reason\":\"subscription rejected\",\"topic\":\"" + key.replace("\"", "") + "\"}"); } catch (Exception ignored) {}
+                    }
+                }
+                JsonElement since = json.get("since");
+                JsonElement epoch = json.get("epoch");
+                if (since != null && since.isJsonPrimitive() && !accepted.isEmpty()) {
+                    resume(conn, accepted, epoch != null && epoch.isJsonPrimitive() ? epoch.getAsLong() : 0, since.getAsLong());
+                }
+            }
+        } else if ("unsubscribe".equals(type.getAsString())) {
+            for (String key : requested) keys.unsubscribe(conn, key);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        System.err.println("RealtimeGateway error: " + ex.getMessage());
+    }
+
+    @Override
+    public void onStart() {
+        started = true;
+        System.out.println("RealtimeGateway started on port " + getPort());
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Publish a JSON value to the subscribers of one topic on one channel.
+     */
+    public void publish(Channel channel, String topic, String json) {
+        publish(List.of(channel.key(topic)), json);
+    }
+
+    /**
+     * Publish a JSON value under several routing keys; each subscriber receives it once.
+     */
+    public void publish(Collection<String> routingKeys, String json) {
+        if (routingKeys.isEmpty()) return;
+        synchronized (replay) {
+            ReplayBuffer.Event event = replay.append(routingKeys, seq -> envelope(seq, routingKeys, json));
+            if (outbox.connectionCount() == 0) return;
+            Collection<WebSocket> subscribers = keys.subscribers(routingKeys);
+            if (subscribers.isEmpty()) return;
+            // A lagging client keeps only the newest copy of identical data
+            outbox.broadcast(subscribers, json, event.frame());
+        }
+    }
+
+    private void resume(WebSocket conn, List<String> subscriptions, long epoch, long since) {
+        ReplayBuffer.Replay gap = replay.since(epoch, since, subscriptions);
+        List<String> snapshot = gap.snapshotRequired();
+        // Replaying more than the client queue holds would silently drop part of the gap
+        if (gap.events().size() > QUEUE_CAPACITY / 2) {
+            snapshot = subscriptions;
+        } else {
+            for (ReplayBuffer.Event event : gap.events()) outbox.send(conn, null, event.frame());
+            replayed.addAndGet(gap.events().size());
+        }
+        if (!snapshot.isEmpty()) {
+            snapshotsRequired.incrementAndGet();
+            outbox.send(conn, null, "{\"type\":\"snapshot_required\",\"topics\":" + jsonArray(snapshot)
+                    + ",\"epoch\":" + replay.epoch() + ",\"seq\":" + replay.latestSequence() + "}");
+        }
+    }
+
+    /**
+     * Relay a hub message published to the given inventory topics; untopiced messages go to
+     * the bare inventory channel.
+     */
+    public void relayInventory(List<String> topics, String json) {
+        if (topics.isEmpty()) {
+            publish(List.of(Channel.INVENTORY.id()), json);
+            return;
+        }
+        List<String> routingKeys = new ArrayList<>(topics.size());
+        for (String topic : topics) routingKeys.add(Channel.INVENTORY.key(topic));
+        publish(routingKeys, json);
+    }
+
+    static String envelope(long seq, Collection<String> routingKeys, String json) {
+        return "{\"seq\":" + seq + ",\"keys\":" + jsonArray(routingKeys) + ",\"data\":" + json + "}";
+    }
+
+    private static String jsonArray(Collection<String> values) {
+        StringBuilder array = new StringBuilder(32 * values.size() + 2).append('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) array.append(',');
+            array.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            first = false;
+        }
+        return array.append(']').toString();
+    }
+
+    private static List<String> stringsOf(JsonElement element) {
+        List<String> result = new ArrayList<>();
+        if (element == null || !element.isJsonArray()) return result;
+        JsonArray array = element.getAsJsonArray();
+        for (JsonElement e : array) {
+            if (e.isJsonPrimitive()) result.add(e.getAsString());
+        }
+        return result;
+    }
+
+    public TopicRegistry<WebSocket> getKeys() {
+        return keys;
+    }
+
+    public WebSocketOutbox.Stats getOutboxStats() {
+        return outbox.stats();
+    }
+
+    public ReplayBuffer getReplayBuffer() {
+        return replay;
+    }
+
+    /**
+     * Events resent to resuming clients, and resumes answered with a snapshot request.
+     */
+    public ReplayStats getReplayStats() {
+        return new ReplayStats(replay.latestSequence(), replay.topicCount(), replayed.get(), snapshotsRequired.get());
+    }
+
+    public record ReplayStats(long latestSeq, int topics, long replayed, long snapshotsRequired) {}
+
+    @Override
+    public void stop(int timeout, String closeMessage) throws InterruptedException {
+        super.stop(timeout, closeMessage);
+        outbox.shutdown();
+    }
+}
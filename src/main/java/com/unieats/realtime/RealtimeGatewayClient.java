@@ -0,0 +1,219 @@
+package com.unieats.realtime;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.unieats.util.ReconnectingWebSocketClient;
+import com.unieats.util.TopicRegistry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * One shared connection to the {@link RealtimeGateway} for the whole process.
+ *
+ * Views subscribe with a routing key and get back the unwrapped {@code data} of matching
+ * frames, so a handler written for a dedicated server sees the same JSON it did before.
+ * The socket reconnects on its own and re-sends the union of live subscriptions, resuming
+ * from the last sequence number seen so events published during the outage are replayed.
+ * When the gateway can no longer replay a gap, the affected subscriptions' snapshot callbacks
+ * run so their views reload once.
+ */
+public final class RealtimeGatewayClient {
+    private static RealtimeGatewayClient instance;
+
+    private final ReconnectingWebSocketClient socket;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean started;
+    // Resume position; written only by the socket's read thread
+    private volatile long epoch;
+    private volatile long lastSeq = -1;
+
+    RealtimeGatewayClient(String url) {
+        this.socket = new ReconnectingWebSocketClient(url, List.of(), this::dispatch);
+        this.socket.setResumeFields(this::resumeFields);
+    }
+
+    public static synchronized RealtimeGatewayClient getInstance() {
+        if (instance == null) instance = new RealtimeGatewayClient("ws://localhost:" + RealtimeGateway.port());
+        return instance;
+    }
+
+    /**
+     * Receive the data of every frame routed to {@code key} or to a topic below it.
+     */
+    public Subscription subscribe(String key, Consumer<String> handler) {
+        return subscribe(key, handler, () -> {});
+    }
+
+    /**
+     * As {@link #subscribe(String, Consumer)}, running {@code onSnapshotRequired} when events
+     * for this key were missed and cannot be replayed.
+     */
+    public Subscription subscribe(String key, Consumer<String> handler, Runnable onSnapshotRequired) {
+        Subscription subscription = new Subscription(Objects.requireNonNull(key), Objects.requireNonNull(handler),
+                Objects.requireNonNull(onSnapshotRequired));
+        subscriptions.add(subscription);
+        resubscribe();
+        return subscription;
+    }
+
+    public Subscription subscribe(RealtimeGateway.Channel channel, String topic, Consumer<String> handler) {
+        return subscribe(channel.key(topic), handler);
+    }
+
+    public Subscription subscribe(RealtimeGateway.Channel channel, String topic, Consumer<String> handler,
+                                  Runnable onSnapshotRequired) {
+        return subscribe(channel.key(topic), handler, onSnapshotRequired);
+    }
+
+    /**
+     * Sequence number of the last event received, or -1 before the first greeting.
+     */
+    public long lastSequence() {
+        return lastSeq;
+    }
+
+    private Map<String, Object> resumeFields() {
+        long since = lastSeq;
+        return since < 0 ? Map.of() : Map.of("epoch", epoch, "since", since);
+    }
+
+    public boolean isConnected() {
+        return socket.isOpen();
+    }
+
+    public int subscriptionCount() {
+        return subscriptions.size();
+    }
+
+    public synchronized void stop() {
+        started = false;
+        socket.stop();
+    }
+
+    private synchronized void resubscribe() {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Subscription s : subscriptions) keys.add(s.key);
+        socket.setTopics(keys);
+        if (!started) {
+            started = true;
+            socket.start();
+        }
+    }
+
+    private void dispatch(String frame) {
+        JsonObject json;
+        try {
+            JsonElement parsed = JsonParser.parseString(frame);
+            if (!parsed.isJsonObject()) return;
+            json = parsed.getAsJsonObject();
+        } catch (RuntimeException e) {
+            return;
+        }
+        JsonElement type = json.get("type");
+        if (type != null && type.isJsonPrimitive()) {
+            if ("hello".equals(type.getAsString())) {
+                onHello(json.get("epoch").getAsLong(), json.get("seq").getAsLong());
+            } else if ("snapshot_required".equals(type.getAsString())) {
+                onSnapshotRequired(stringsOf(json.get("topics")));
+            }
+            return;
+        }
+        JsonElement seq = json.get("seq");
+        JsonElement payload = json.get("data");
+        if (seq == null || payload == null) return;
+        long n = seq.getAsLong();
+        // A replayed event can overlap one already delivered live
+        if (n <= lastSeq) return;
+        lastSeq = n;
+        List<String> frameKeys = stringsOf(json.get("keys"));
+        String data = payload.isJsonPrimitive() ? payload.getAsString() : payload.toString();
+        for (Subscription s : subscriptions) {
+            if (!s.matchesAny(frameKeys)) continue;
+            try {
+                s.handler.accept(data);
+            } catch (Exception e) {
+                System.err.println("RealtimeGatewayClient: handler for " + s.key + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void onHello(long serverEpoch, long serverSeq) {
+        // A different epoch is a restarted gateway; its numbering starts over
+        if (lastSeq < 0 || serverEpoch != epoch) {
+            epoch = serverEpoch;
+            lastSeq = serverSeq;
+        }
+    }
+
+    private void onSnapshotRequired(List<String> keys) {
+        for (Subscription s : subscriptions) {
+            if (!keys.contains(s.key)) continue;
+            try {
+                s.onSnapshotRequired.run();
+            } catch (Exception e) {
+                System.err.println("RealtimeGatewayClient: snapshot reload for " + s.key + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static List<String> stringsOf(JsonElement element) {
+        List<String> result = new ArrayList<>();
+        if (element == null || !element.isJsonArray()) return result;
+        for (JsonElement e : element.getAsJsonArray()) {
+            if (e.isJsonPrimitive()) result.add(e.getAsString());
+        }
+        return result;
+    }
+
+    /**
+     * True if {@code frameKey} is {@code key} or lies below it.
+     */
+    static boolean matches(String key, String frameKey) {
+        return TopicRegistry.covers(key, frameKey);
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private volatile String key;
+        private final Consumer<String> handler;
+        private final Runnable onSnapshotRequired;
+
+        private Subscription(String key, Consumer<String> handler, Runnable onSnapshotRequired) {
+            this.key = key;
+            this.handler = handler;
+            this.onSnapshotRequired = onSnapshotRequired;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /**
+         * Point this subscription at another key, keeping its handler.
+         */
+        public void moveTo(String newKey) {
+            key = Objects.requireNonNull(newKey);
+            resubscribe();
+        }
+
+        private boolean matchesAny(List<String> frameKeys) {
+            String current = key;
+            for (String frameKey : frameKeys) {
+                if (matches(current, frameKey)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void close() {
+            if (subscriptions.remove(this)) resubscribe();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.unieats.realtime;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Merges bursts of realtime events into one refresh per view.
+ *
+ * Each view asks for a {@link Lane} per thing it refreshes (a table, a card list). Events
+ * submitted to a lane are held for {@code windowMillis} ms after the first one and then
+ * handed to the lane's handler together, on the coalescer's executor. A lane never has two
+ * refreshes in flight: events that arrive while one runs are kept and trigger exactly one
+ * trailing refresh when it finishes, so the view always ends up showing the latest state.
+ *
+ * A handler that receives an empty batch should reload from scratch; that is what
+ * {@link Lane#request()} asks for, and what a lane falls back to when more than
+ * {@code maxEvents} events piled up.
+ */
+public final class RefreshCoalescer {
+    private static final long DEFAULT_WINDOW_MS = Long.getLong("unieats.refresh.windowMs", 100);
+    private static final int DEFAULT_MAX_EVENTS = Integer.getInteger("unieats.refresh.maxEvents", 256);
+
+    private static RefreshCoalescer fx;
+
+    private final long windowMillis;
+    private final int maxEvents;
+    private final Executor executor;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "refresh-coalescer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+
+    /**
+     * @param windowMillis how long to gather events before refreshing
+     * @param maxEvents    events kept per lane before it falls back to a full reload
+     * @param executor     where handlers run, such as {@code Platform::runLater}
+     */
+    public RefreshCoalescer(long windowMillis, int maxEvents, Executor executor) {
+        this.windowMillis = Math.max(0, windowMillis);
+        this.maxEvents = Math.max(1, maxEvents);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Shared coalescer running handlers on the JavaFX application thread, with the window from
+     * {@code unieats.refresh.windowMs} (default 100).
+     */
+    public static synchronized RefreshCoalescer fx() {
+        if (fx == null) fx = new RefreshCoalescer(DEFAULT_WINDOW_MS, DEFAULT_MAX_EVENTS, Platform::runLater);
+        return fx;
+    }
+
+    /**
+     * A lane whose handler ignores the individual events and just reloads.
+     */
+    public Lane<Object> lane(String name, Runnable reload) {
+        Objects.requireNonNull(reload);
+        return lane(name, events -> reload.run());
+    }
+
+    /**
+     * A lane whose handler receives the events gathered since its last run, oldest first.
+     */
+    public <E> Lane<E> lane(String name, Consumer<List<E>> handler) {
+        return new Lane<>(name, handler);
+    }
+
+    public Stats stats() {
+        return new Stats(received.get(), executed.get());
+    }
+
+    /**
+     * Events submitted and refreshes run, across all lanes.
+     */
+    public record Stats(long received, long executed) {}
+
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public final class Lane<E> {
+        private final String name;
+        private final Consumer<List<E>> handler;
+        private List<E> pending = new ArrayList<>();
+        private boolean reloadAll;
+        private boolean scheduled;
+        private boolean running;
+        private long laneReceived;
+        private long laneExecuted;
+
+        private Lane(String name, Consumer<List<E>> handler) {
+            this.name = Objects.requireNonNull(name);
+            this.handler = Objects.requireNonNull(handler);
+        }
+
+        /**
+         * Queue an event for the next refresh.
+         */
+        public void submit(E event) {
+            received.incrementAndGet();
+            synchronized (this) {
+                laneReceived++;
+                if (event == null || reloadAll || pending.size() >= maxEvents) {
+                    // A full reload covers every event, so stop keeping them
+                    reloadAll = true;
+                    pending.clear();
+                } else {
+                    pending.add(event);
+                }
+                if (!scheduled && !running) schedule();
+            }
+        }
+
+        /**
+         * Ask for a full reload.
+         */
+        public void request() {
+            submit(null);
+        }
+
+        // Called with the lane's lock held
+        private void schedule() {
+            scheduled = true;
+            timer.schedule(this::fire, windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void fire() {
+            List<E> batch;
+            synchronized (this) {
+                scheduled = false;
+                running = true;
+                batch = reloadAll ? List.of() : pending;
+                pending = new ArrayList<>();
+                reloadAll = false;
+            }
+            try {
+                executor.execute(() -> run(batch));
+            } catch (RuntimeException e) {
+                System.err.println("RefreshCoalescer: could not run " + name + ": " + e.getMessage());
+                finish();
+            }
+        }
+
+        private void run(List<E> batch) {
+            try {
+                handler.accept(batch);
+            } catch (Exception e) {
+                System.err.println("RefreshCoalescer: refresh of " + name + " failed: " + e.getMessage());
+            } finally {
+                executed.incrementAndGet();
+                finish();
+            }
+        }
+
+        private synchronized void finish() {
+            laneExecuted++;
+            running = false;
+            // Trailing refresh for whatever arrived meanwhile
+            if (reloadAll || !pending.isEmpty()) schedule();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public synchronized Stats stats() {
+            return new Stats(laneReceived, laneExecuted);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.unieats.realtime;
+
+import com.unieats.util.TopicRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+
+/**
+ * Sequence numbers and a bounded replay history for a realtime server.
+ *
+ * Every appended event takes the next sequence number and is kept in a ring of the last
+ * {@code perTopic} events for each of its routing keys. At most {@code maxTopics} rings are
+ * kept; the least recently published is evicted first. A reconnecting client presents the
+ * epoch and last sequence number it saw and gets back only the events after it, or the
+ * subscriptions whose gap is no longer retained and need a fresh snapshot.
+ */
+public final class ReplayBuffer {
+
+    /** One published event and the exact frame that was sent for it. */
+    public record Event(long seq, String frame) {}
+
+    /** Events to resend in sequence order, and subscriptions that must reload instead. */
+    public record Replay(List<Event> events, List<String> snapshotRequired) {}
+
+    private final int perTopic;
+    private final int maxTopics;
+    private final long epoch = System.currentTimeMillis();
+    private final LinkedHashMap<String, Ring> rings = new LinkedHashMap<>(64, 0.75f, true);
+    private long seq;
+    // Highest sequence number held by a ring that has been evicted
+    private long evictedThrough;
+
+    public ReplayBuffer(int perTopic, int maxTopics) {
+        this.perTopic = Math.max(1, perTopic);
+        this.maxTopics = Math.max(1, maxTopics);
+    }
+
+    /**
+     * Identifies this buffer's sequence; it changes when the server restarts.
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    public synchronized long latestSequence() {
+        return seq;
+    }
+
+    /**
+     * Assign the next sequence number, build the frame for it and retain it under each key.
+     */
+    public synchronized Event append(Collection<String> keys, LongFunction<String> frameFor) {
+        long next = ++seq;
+        Event event = new Event(next, frameFor.apply(next));
+        for (String key : keys) {
+            Ring ring = rings.get(key);
+            if (ring == null) {
+                ring = new Ring(perTopic);
+                rings.put(key, ring);
+                if (rings.size() > maxTopics) evictEldest();
+            }
+            ring.add(event);
+        }
+        return event;
+    }
+
+    private void evictEldest() {
+        Map.Entry<String, Ring> eldest = rings.entrySet().iterator().next();
+        evictedThrough = Math.max(evictedThrough, eldest.getValue().newestSeq());
+        rings.remove(eldest.getKey());
+    }
+
+    /**
+     * Events after {@code since} routed to any of {@code subscriptions}.
+     */
+    public synchronized Replay since(long clientEpoch, long since, Collection<String> subscriptions) {
+        TreeMap<Long, Event> events = new TreeMap<>();
+        List<String> snapshot = new ArrayList<>();
+        // Another epoch, a future position or an evicted topic means the gap cannot be proven complete
+        boolean stale = clientEpoch != epoch || since > seq || evictedThrough > since;
+        for (String subscription : subscriptions) {
+            if (stale) {
+                snapshot.add(subscription);
+                continue;
+            }
+            TreeMap<Long, Event> found = new TreeMap<>();
+            boolean gap = false;
+            for (Map.Entry<String, Ring> entry : rings.entrySet()) {
+                if (!TopicRegistry.covers(subscription, entry.getKey())) continue;
+                Ring ring = entry.getValue();
+                if (ring.droppedThrough > since) {
+                    gap = true;
+                    break;
+                }
+                ring.collectAfter(since, found);
+            }
+            if (gap) {
+                snapshot.add(subscription);
+            } else {
+                events.putAll(found);
+            }
+        }
+        return new Replay(new ArrayList<>(events.values()), snapshot);
+    }
+
+    public synchronized int topicCount() {
+        return rings.size();
+    }
+
+    private static final class Ring {
+        final Event[] slots;
+        int head;
+        int size;
+        // Highest sequence number overwritten in this ring
+        long droppedThrough;
+
+        Ring(int capacity) {
+            slots = new Event[capacity];
+        }
+
+        void add(Event event) {
+            int tail = (head + size) % slots.length;
+            if (size == slots.length) {
+                droppedThrough = slots[head].seq();
+                head = (head + 1) % slots.length;
+            } else {
+                size++;
+            }
+            slots[tail] = event;
+        }
+
+        long newestSeq() {
+            return size == 0 ? 0 : slots[(head + size - 1) % slots.length].seq();
+        }
+
+        void collectAfter(long since, Map<Long, Event> into) {
+            for (int i = 0; i < size; i++) {
+                Event event = slots[(head + i) % slots.length];
+                if (event.seq() > since) into.put(event.seq(), event);
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.unieats.services;
+
+import com.unieats.CartItemView;
+import com.unieats.stock.StockReservations;
+import com.unieats.util.DatabaseWriter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the whole checkout (order, order items, stock, payment, cart, stock holds, reward points)
+ * as one unit on the database writer. Either everything is written or nothing is.
+ */
+public class CheckoutService {
+
+    private static final String INSERT_ORDER = "INSERT INTO orders(user_id, shop_id, total_price, status) VALUES(?,?,?,?) RETURNING id";
+    // The buyer's own holds are theirs to take; other users' unexpired holds are not
+    private static final String DECREMENT_STOCK = "UPDATE food_items SET stock = stock - ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND stock - "
+            + StockReservations.HELD_BY_OTHERS + " >= ? RETURNING stock";
+    private static final String SELECT_AVAILABLE = "SELECT MAX(0, stock - " + StockReservations.HELD_BY_OTHERS + ") FROM food_items WHERE id = ?";
+    private static final String INSERT_ORDER_ITEM = "INSERT INTO order_items(order_id, item_id, quantity, price) VALUES(?,?,?,?)";
+    private static final String INSERT_PAYMENT = "INSERT INTO payments(order_id, payment_method, amount, transaction_id, status) VALUES(?,?,?,?,'completed') RETURNING id";
+    private static final String REDEEM_POINTS = "UPDATE reward_points SET points = points - ? WHERE user_id = ? AND shop_id = ? AND points >= ?";
+    private static final String AWARD_POINTS = """
+        INSERT INTO reward_points (user_id, shop_id, points)
+        VALUES (?, ?, ?)
+        ON CONFLICT(user_id, shop_id)
+        DO UPDATE SET points = points + excluded.points
+    """;
+    private static final String CLEAR_CART = "DELETE FROM cart WHERE user_id = ?";
+    private static final String CLEAR_HOLDS = "DELETE FROM stock_holds WHERE user_id = ?";
+
+    /**
+     * Thrown when a cart line asks for more than is in stock. The transaction has been rolled back.
+     */
+    public static class InsufficientStockException extends RuntimeException {
+        private final int itemId;
+        private final int requested;
+        private final int available;
+
+        public InsufficientStockException(int itemId, String itemName, int requested, int available) {
+            super("Insufficient stock for " + (itemName != null ? itemName : "item " + itemId)
+                    + ". Available: " + available + ", Required: " + requested);
+            this.itemId = itemId;
+            this.requested = requested;
+            this.available = available;
+        }
+
+        public int getItemId() { return itemId; }
+        public int getRequested() { return requested; }
+        public int getAvailable() { return available; }
+    }
+
+    /**
+     * Thrown when a points payment finds the balance too low at commit time.
+     */
+    public static class InsufficientPointsException extends RuntimeException {
+        public InsufficientPointsException(double required) {
+            super("Not enough reward points to cover " + required);
+        }
+    }
+
+    public record StockChange(int itemId, int oldStock, int newStock) {}
+
+    public record CheckoutResult(int orderId, int paymentId, double rewardPoints, List<StockChange> stockChanges) {}
+
+    /**
+     * Place an order for the given cart lines and record its completed payment.
+     *
+     * @param pointsToRedeem reward points to deduct for this shop as payment, or 0 for other methods
+     * @throws InsufficientStockException if any line cannot be fulfilled
+     * @throws InsufficientPointsException if a points payment cannot be covered
+     */
+    public CheckoutResult checkout(int userId, int shopId, List<CartItemView> items, double totalAmount,
+                                   String paymentMethod, String transactionId, double pointsToRedeem) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        try {
+            // The writer runs this inside its own savepoint: any failure undoes the whole checkout
+            CheckoutResult result = DatabaseWriter.getInstance().execute(conn ->
+                    runCheckout(conn, userId, shopId, items, totalAmount, paymentMethod, transactionId, pointsToRedeem));
+            // The held units are now taken from stock, so the holds go too
+            StockReservations.getInstance().converted(userId);
+            EventNotifier.notifyChange("payments");
+            return result;
+        } catch (SQLException e) {
+            throw new RuntimeException("Checkout failed: " + e.getMessage(), e);
+        }
+    }
+
+    private CheckoutResult runCheckout(Connection conn, int userId, int shopId, List<CartItemView> items, double totalAmount,
+                                       String paymentMethod, String transactionId, double pointsToRedeem) throws SQLException {
+        int orderId;
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_ORDER)) {
+            ps.setInt(1, userId);
+            ps.setInt(2, shopId);
+            ps.setDouble(3, totalAmount);
+            ps.setString(4, "preparing");
+            orderId = returnedId(ps);
+        }
+
+        List<StockChange> stockChanges = new ArrayList<>(items.size());
+        long heldAfter = System.currentTimeMillis();
+        try (PreparedStatement ps = conn.prepareStatement(DECREMENT_STOCK)) {
+            for (CartItemView item : items) {
+                ps.setInt(1, item.quantity);
+                ps.setInt(2, item.itemId);
+                ps.setInt(3, item.itemId);
+                ps.setInt(4, userId);
+                ps.setLong(5, heldAfter);
+                ps.setInt(6, item.quantity);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new InsufficientStockException(item.itemId, item.name, item.quantity, availableStock(conn, item.itemId, userId, heldAfter));
+                    }
+                    int newStock = rs.getInt(1);
+                    stockChanges.add(new StockChange(item.itemId, newStock + item.quantity, newStock));
+                }
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_ORDER_ITEM)) {
+            for (CartItemView item : items) {
+                ps.setInt(1, orderId);
+                ps.setInt(2, item.itemId);
+                ps.setInt(3, item.quantity);
+                ps.setDouble(4, item.price);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        if (pointsToRedeem > 0) {
+            try (PreparedStatement ps = conn.prepareStatement(REDEEM_POINTS)) {
+                ps.setDouble(1, pointsToRedeem);
+                ps.setInt(2, userId);
+                ps.setInt(3, shopId);
+                ps.setDouble(4, pointsToRedeem);
+                if (ps.executeUpdate() == 0) throw new InsufficientPointsException(pointsToRedeem);
+            }
+        }
+
+        int paymentId;
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_PAYMENT)) {
+            ps.setInt(1, orderId);
+            ps.setString(2, paymentMethod);
+            ps.setDouble(3, totalAmount);
+            ps.setString(4, transactionId);
+            paymentId = returnedId(ps);
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(CLEAR_CART)) {
+            ps.setInt(1, userId);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(CLEAR_HOLDS)) {
+            ps.setInt(1, userId);
+            ps.executeUpdate();
+        }
+
+        // Points = quantity × points_multiplier, same rule as RewardDao.calculateRewardPoints
+        double rewardPoints = 0;
+        for (CartItemView item : items) rewardPoints += item.quantity * item.pointsMultiplier;
+        if (rewardPoints > 0) {
+            try (PreparedStatement ps = conn.prepareStatement(AWARD_POINTS)) {
+                ps.setInt(1, userId);
+                ps.setInt(2, shopId);
+                ps.setDouble(3, rewardPoints);
+                ps.executeUpdate();
+            }
+        }
+
+        return new CheckoutResult(orderId, paymentId, rewardPoints, stockChanges);
+    }
+
+    private static int returnedId(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            if (rs.next()) return rs.getInt(1);
+        }
+        throw new SQLException("INSERT did not return an id");
+    }
+
+    private static int availableStock(Connection conn, int itemId, int userId, long heldAfter) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_AVAILABLE)) {
+            ps.setInt(1, itemId);
+            ps.setInt(2, userId);
+            ps.setLong(3, heldAfter);
+            ps.setInt(4, itemId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+}
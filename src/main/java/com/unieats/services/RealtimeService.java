@@ -5,40 +5,51 @@ import java.nio.file.*;
 import java.sql.*;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.function.Consumer;
 
 // Threaded TCP broadcast server for admin events
 import com.unieats.network.AdminEventSocketServer;
+import com.unieats.realtime.ChangeEvent;
+import com.unieats.realtime.ChangeFeed;
+import com.unieats.realtime.DeltaBuilder;
+import com.unieats.realtime.EntityDelta;
 import com.unieats.realtime.RealtimeBroadcastHub;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
 
 /**
- * Polls the database and watches the attachments directory to emit lightweight
+ * Tails the database change log and watches the attachments directory to emit lightweight
  * change events to listeners so the admin UI can refresh in near real-time
  * without blocking the JavaFX thread.
+ *
+ * Row changes come from change_log (filled by triggers, see SchemaMigrations); each tail is one
+ * primary-key probe past the last sequence seen, so an idle database costs next to nothing.
+ * Topic listeners get one event per changed table per pass; row listeners get every change.
+ * Remote clients get the changed rows' fields as entity deltas, read once here.
  */
 public class RealtimeService {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
     private static final Path ATTACHMENTS_DIR = Paths.get("src/main/resources/reports/attachments");
 
+    private static final int TAIL_BATCH = 500;
+    private static final long RETAINED_CHANGES = 10_000;
+    private static final int DELTA_CACHE_ROWS = 10_000;
+
     private static RealtimeService instance;
 
     private final ScheduledExecutorService scheduler;
     private final ExecutorService worker;
     private final List<Consumer<String>> listeners;
+    private final List<Consumer<ChangeEvent>> changeListeners;
+    private ChangeFeed changeFeed;
+    private final DeltaBuilder deltaBuilder = new DeltaBuilder(DELTA_CACHE_ROWS);
     private DatagramSocketReceiver udpReceiver;
     private volatile boolean started = false;
     private AdminEventSocketServer tcpServer;
 
-    // State snapshots for change detection
-    private volatile String usersSig = "";
-    private volatile String shopsSig = "";
-    private volatile String reportsSig = "";
-    private volatile String paymentsSig = "";
-    private volatile String foodItemsSig = "";
-
     private RealtimeService() {
         this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "rt-scheduler");
@@ -51,6 +62,7 @@ public class RealtimeService {
             return t;
         });
         this.listeners = new CopyOnWriteArrayList<>();
+        this.changeListeners = new CopyOnWriteArrayList<>();
     }
 
     public static synchronized RealtimeService getInstance() {
@@ -66,12 +78,24 @@ public class RealtimeService {
         listeners.remove(listener);
     }
 
+    /**
+     * Receive every row-level change, in commit order, on the realtime scheduler thread.
+     */
+    public void onChange(Consumer<ChangeEvent> listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<ChangeEvent> listener) {
+        changeListeners.remove(listener);
+    }
+
     public synchronized void start() {
         if (started) return;
         started = true;
 
-        // Poll DB every 3 seconds
-        scheduler.scheduleAtFixedRate(this::pollDatabase, 0, 1, TimeUnit.SECONDS);
+        // Tail the change log every second; trim it every 10 minutes
+        scheduler.scheduleWithFixedDelay(this::tailChanges, 0, 1, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::pruneChangeLog, 10, 10, TimeUnit.MINUTES);
 
         // Start filesystem watcher in background
         worker.submit(this::watchAttachments);
@@ -99,42 +123,58 @@ public class RealtimeService {
         started = false;
     }
 
-    private void pollDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            String u = signature(conn, "users");
-            String s = signature(conn, "shops");
-            String r = signature(conn, "reports");
-            String p = signature(conn, "payments");
-            String f = foodItemsSignature(conn);
-
-            if (!Objects.equals(u, usersSig)) { usersSig = u; emit("users"); }
-            if (!Objects.equals(s, shopsSig)) { shopsSig = s; emit("shops"); }
-            if (!Objects.equals(r, reportsSig)) { reportsSig = r; emit("reports"); }
-            if (!Objects.equals(p, paymentsSig)) { paymentsSig = p; emit("payments"); }
-            if (!Objects.equals(f, foodItemsSig)) { foodItemsSig = f; emit("foodItems"); }
-        } catch (SQLException ignored) {}
+    private void tailChanges() {
+        try (Connection conn = ConnectionPool.getConnection()) {
+            if (changeFeed == null) {
+                // Only report changes made after startup
+                changeFeed = new ChangeFeed(ChangeFeed.latestSequence(conn));
+            }
+            List<ChangeEvent> changes;
+            do {
+                changes = changeFeed.poll(conn, TAIL_BATCH);
+                if (!changes.isEmpty()) dispatch(conn, changes);
+            } while (changes.size() == TAIL_BATCH);
+        } catch (SQLException e) {
+            System.err.println("RealtimeService: change log tail failed: " + e.getMessage());
+        }
     }
 
-    private String signature(Connection conn, String table) {
-        String sql = "SELECT COUNT(*) c, COALESCE(MAX(updated_at), '') m FROM " + table;
-        try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-            if (rs.next()) {
-                return rs.getInt("c") + "|" + rs.getString("m");
+    private void dispatch(Connection conn, List<ChangeEvent> changes) {
+        for (ChangeEvent change : changes) {
+            for (Consumer<ChangeEvent> l : changeListeners) {
+                try { l.accept(change); } catch (Exception ignored) {}
             }
-        } catch (SQLException ignored) {}
-        return "";
+        }
+        Map<String, List<ChangeEvent>> byTopic = new LinkedHashMap<>();
+        for (ChangeEvent change : changes) {
+            byTopic.computeIfAbsent(change.topic(), t -> new ArrayList<>()).add(change);
+        }
+        for (Map.Entry<String, List<ChangeEvent>> e : byTopic.entrySet()) {
+            notifyListeners(e.getKey());
+            RealtimeBroadcastHub.getInstance().broadcastChanges(e.getKey(), deltasFor(conn, e.getValue()));
+        }
     }
 
-    private String foodItemsSignature(Connection conn) {
-        // Poll food items for approved shops only to avoid unnecessary updates
-        String sql = "SELECT COUNT(*) c, COALESCE(MAX(updated_at), '') m FROM food_items fi " +
-                     "INNER JOIN shops s ON fi.shop_id = s.id WHERE s.status = 'approved'";
-        try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-            if (rs.next()) {
-                return rs.getInt("c") + "|" + rs.getString("m");
+    /**
+     * Row deltas for one topic's changes; past the envelope limit clients reload anyway, so the
+     * rows are not read and only the net operation per row is kept.
+     */
+    private List<EntityDelta> deltasFor(Connection conn, List<ChangeEvent> changes) {
+        String table = changes.get(0).table();
+        if (changes.size() <= RealtimeBroadcastHub.MAX_CHANGES_PER_ENVELOPE) {
+            try {
+                return deltaBuilder.build(conn, table, changes);
+            } catch (SQLException e) {
+                System.err.println("RealtimeService: reading changed rows failed: " + e.getMessage());
             }
-        } catch (SQLException ignored) {}
-        return "";
+        }
+        List<EntityDelta> bare = new ArrayList<>(changes.size());
+        for (ChangeEvent c : changes) bare.add(new EntityDelta(table, c.rowId(), c.op(), c.seq(), Map.of()));
+        return bare;
+    }
+
+    private void pruneChangeLog() {
+        DatabaseWriter.getInstance().submit(conn -> ChangeFeed.prune(conn, RETAINED_CHANGES));
     }
 
     private void watchAttachments() {
@@ -144,9 +184,8 @@ public class RealtimeService {
             while (!Thread.currentThread().isInterrupted()) {
                 WatchKey key = ws.poll(5, TimeUnit.SECONDS);
                 if (key == null) continue;
-                for (WatchEvent<?> ev : key.pollEvents()) {
-                    emit("reports"); // attachments affect reports rendering
-                }
+                // Attachments affect reports rendering; one event covers the whole batch
+                if (!key.pollEvents().isEmpty()) emit("reports");
                 key.reset();
             }
         } catch (InterruptedException ignored) {
@@ -156,12 +195,16 @@ public class RealtimeService {
     }
 
     private void emit(String topic) {
+        notifyListeners(topic);
+        // Synchronized cross-channel broadcast (admin TCP + user/seller websockets)
+        RealtimeBroadcastHub.getInstance().broadcastTopic(topic);
+    }
+
+    private void notifyListeners(String topic) {
         // Broadcast to in-app listeners
-        for (Consumer<String> l : new ArrayList<>(listeners)) {
+        for (Consumer<String> l : listeners) {
             try { l.accept(topic); } catch (Exception ignored) {}
         }
-        // Synchronized cross-channel broadcast (admin TCP + user/seller websockets)
-        RealtimeBroadcastHub.getInstance().broadcastTopic(topic);
     }
 }
 
@@ -2,10 +2,12 @@ package com.unieats.services;
 
 import com.unieats.FoodItem;
 import com.unieats.dao.FoodItemDao;
+import com.unieats.util.IntIntMap;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
@@ -13,29 +15,44 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for managing real-time stock updates across multiple users
  * Provides thread-safe, real-time stock synchronization
+ *
+ * Stock changes arrive as {@code (itemId, newStock)} deltas and are applied to the stock table
+ * and to the item in {@link #getAllFoodItems()} without reading the database. Setting
+ * {@code unieats.stock.reconcileSeconds} above 0 also runs {@link #reconcile()} on that period
+ * to pick up writes made elsewhere.
  */
 public class StockUpdateService {
+    private static final int NOT_TRACKED = Integer.MIN_VALUE;
+    private static final long RECONCILE_SECONDS = Long.getLong("unieats.stock.reconcileSeconds", 0);
+    private static final int RECONCILE_PAGE = 500;
+
     private static volatile StockUpdateService instance;
     private final FoodItemDao foodItemDao;
     private final List<StockUpdateListener> listeners;
     private final ScheduledExecutorService scheduler;
     private final ObservableList<FoodItem> allFoodItems;
-    private final Map<Integer, Integer> stockCache; // itemId -> stock
+    private final IntIntMap stockTable; // itemId -> stock, guarded by stockLock
+    private final IntIntMap itemIndex; // itemId -> position in allFoodItems, FX thread only
     private final ReadWriteLock stockLock;
+    // updated_at of the newest write already reflected in the stock table
+    private volatile String reconciledThrough = "";
     private volatile boolean isRunning = false;
     
     private StockUpdateService() {
         this.foodItemDao = new FoodItemDao();
         this.listeners = new CopyOnWriteArrayList<>();
-        this.scheduler = Executors.newScheduledThreadPool(4);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-reconcile");
+            t.setDaemon(true);
+            return t;
+        });
         this.allFoodItems = FXCollections.observableArrayList();
-        this.stockCache = new ConcurrentHashMap<>();
+        this.stockTable = new IntIntMap(1024);
+        this.itemIndex = new IntIntMap(1024);
         this.stockLock = new ReentrantReadWriteLock();
         loadAllFoodItems();
     }
@@ -60,7 +77,12 @@ public class StockUpdateService {
         
         isRunning = true;
         System.out.println("Real-time stock update service started (WebSocket mode)");
-        System.out.println("Stock updates via WebSocket - no polling");
+        if (RECONCILE_SECONDS > 0) {
+            scheduler.scheduleWithFixedDelay(this::reconcile, RECONCILE_SECONDS, RECONCILE_SECONDS, TimeUnit.SECONDS);
+            System.out.println("Reconciling stock every " + RECONCILE_SECONDS + "s");
+        } else {
+            System.out.println("Stock updates via WebSocket - no polling");
+        }
     }
     
     /**
@@ -93,6 +115,19 @@ public class StockUpdateService {
         return allFoodItems;
     }
     
+    /**
+     * Cached stock of an item, or -1 if the service does not track it
+     */
+    public int getCachedStock(int itemId) {
+        stockLock.readLock().lock();
+        try {
+            int stock = stockTable.get(itemId, NOT_TRACKED);
+            return stock == NOT_TRACKED ? -1 : stock;
+        } finally {
+            stockLock.readLock().unlock();
+        }
+    }
+    
     /**
      * Update stock for a specific item and notify all listeners
      * Thread-safe method that ensures real-time updates across all users
@@ -101,25 +136,21 @@ public class StockUpdateService {
         stockLock.writeLock().lock();
         try {
             // Check current stock in cache first
-            Integer currentStock = stockCache.get(itemId);
-            if (currentStock != null && currentStock < quantityToReduce) {
+            int currentStock = stockTable.get(itemId, NOT_TRACKED);
+            if (currentStock != NOT_TRACKED && currentStock < quantityToReduce) {
                 throw new RuntimeException("Insufficient stock. Available: " + currentStock + ", Required: " + quantityToReduce);
             }
             
             // Update stock in database
             foodItemDao.updateStock(itemId, quantityToReduce);
             
-            // Update local cache
-            if (currentStock != null) {
+            // Update local cache and the item in the list; untracked items are not in the list either
+            if (currentStock != NOT_TRACKED) {
                 int newStock = currentStock - quantityToReduce;
-                stockCache.put(itemId, newStock);
+                stockTable.put(itemId, newStock);
+                Platform.runLater(() -> updateFoodItemInList(itemId, newStock));
             }
             
-            // Update UI immediately on JavaFX thread
-            Platform.runLater(() -> {
-                updateFoodItemInList(itemId);
-            });
-            
             // Notify all listeners immediately
             notifyStockUpdated(itemId, quantityToReduce);
             
@@ -134,22 +165,91 @@ public class StockUpdateService {
     }
     
     /**
-     * Update a specific food item in the observable list
+     * Publish a stock decrement that has already been committed to the database
+     * (e.g. by {@link CheckoutService}) to the cache, the item list and all listeners.
+     */
+    public void applyCommittedStockChange(int itemId, int quantityReduced, int newStock) {
+        applyStockDelta(itemId, newStock);
+        notifyStockUpdated(itemId, quantityReduced);
+    }
+    
+    /**
+     * Set a tracked item's stock to {@code newStock} in the stock table and the item list,
+     * without reading the database. Listeners are not notified.
+     *
+     * @return the previous stock, or -1 if the item is not tracked
+     */
+    public int applyStockDelta(int itemId, int newStock) {
+        int previous;
+        stockLock.writeLock().lock();
+        try {
+            if (!stockTable.containsKey(itemId)) return -1;
+            previous = stockTable.put(itemId, newStock, NOT_TRACKED);
+        } finally {
+            stockLock.writeLock().unlock();
+        }
+        Platform.runLater(() -> updateFoodItemInList(itemId, newStock));
+        return previous;
+    }
+    
+    /**
+     * Apply every stock write made since the last pass, found by paging through updated_at.
+     * Listeners are notified of each item whose stock actually changed.
      */
-    private void updateFoodItemInList(int itemId) {
-        for (int i = 0; i < allFoodItems.size(); i++) {
-            FoodItem item = allFoodItems.get(i);
-            if (item.getId() == itemId) {
-                FoodItem updatedItem = foodItemDao.getById(itemId);
-                if (updatedItem != null) {
-                    allFoodItems.set(i, updatedItem);
-                    System.out.println("UI updated for item " + itemId + " with stock: " + updatedItem.getStock());
+    public void reconcile() {
+        try {
+            // updated_at has whole seconds, so rows stamped at the watermark are read again:
+            // a write committed later in that second would otherwise be skipped
+            String from = reconciledThrough;
+            int afterId = 0;
+            List<int[]> changes = new ArrayList<>();
+            List<FoodItemDao.StockRow> rows;
+            do {
+                rows = foodItemDao.listStockChangedSince(from, afterId, RECONCILE_PAGE);
+                if (rows.isEmpty()) break;
+                stockLock.writeLock().lock();
+                try {
+                    for (FoodItemDao.StockRow row : rows) {
+                        int cached = stockTable.get(row.id(), NOT_TRACKED);
+                        if (cached != NOT_TRACKED && cached != row.stock()) {
+                            stockTable.put(row.id(), row.stock());
+                            changes.add(new int[]{row.id(), cached, row.stock()});
+                        }
+                    }
+                } finally {
+                    stockLock.writeLock().unlock();
                 }
-                break;
+                // Rows come in (updated_at, id) order
+                FoodItemDao.StockRow last = rows.get(rows.size() - 1);
+                from = last.updatedAt();
+                afterId = last.id();
+            } while (rows.size() == RECONCILE_PAGE);
+            reconciledThrough = from;
+            for (int[] change : changes) {
+                int itemId = change[0];
+                int newStock = change[2];
+                Platform.runLater(() -> updateFoodItemInList(itemId, newStock));
+                notifyStockUpdated(itemId, change[1] - newStock);
+                System.out.println("Detected stock change for item " + itemId + ": " + change[1] + " -> " + newStock);
             }
+        } catch (Exception e) {
+            System.err.println("Error reconciling stock: " + e.getMessage());
         }
     }
     
+    /**
+     * Set the stock of a specific food item in the observable list. Runs on the FX thread.
+     */
+    private void updateFoodItemInList(int itemId, int newStock) {
+        int index = itemIndex.get(itemId, -1);
+        if (index < 0 || index >= allFoodItems.size()) return;
+        FoodItem item = allFoodItems.get(index);
+        if (item.getId() != itemId || item.getStock() == newStock) return;
+        item.setStock(newStock);
+        // Re-setting the element fires a replace change so bound views redraw that row
+        allFoodItems.set(index, item);
+    }
+    
     /**
      * Refresh all food items from database
      */
@@ -160,15 +260,18 @@ public class StockUpdateService {
     
     private void loadAllFoodItems() {
         try {
+            // Taken before the read so writes racing with it are reconciled again rather than missed
+            String loadedAt = FoodItemDao.timestampNow();
             List<FoodItem> items = foodItemDao.getRandomItems(1000); // Get all items
             
             // Update stock cache
             stockLock.writeLock().lock();
             try {
-                stockCache.clear();
+                stockTable.clear();
                 for (FoodItem item : items) {
-                    stockCache.put(item.getId(), item.getStock());
+                    stockTable.put(item.getId(), item.getStock());
                 }
+                reconciledThrough = loadedAt;
             } finally {
                 stockLock.writeLock().unlock();
             }
@@ -176,6 +279,10 @@ public class StockUpdateService {
             Platform.runLater(() -> {
                 allFoodItems.clear();
                 allFoodItems.addAll(items);
+                itemIndex.clear();
+                for (int i = 0; i < items.size(); i++) {
+                    itemIndex.put(items.get(i).getId(), i);
+                }
                 System.out.println("Loaded " + items.size() + " food items with real-time stock tracking");
             });
         } catch (Exception e) {
@@ -183,43 +290,6 @@ public class StockUpdateService {
         }
     }
     
-    private void checkForStockUpdates() {
-        if (!isRunning) return;
-        
-        try {
-            // Check for stock changes by comparing with database
-            stockLock.readLock().lock();
-            try {
-                for (Map.Entry<Integer, Integer> entry : stockCache.entrySet()) {
-                    int itemId = entry.getKey();
-                    int cachedStock = entry.getValue();
-                    
-                    // Get current stock from database
-                    FoodItem currentItem = foodItemDao.getById(itemId);
-                    if (currentItem != null && currentItem.getStock() != cachedStock) {
-                        // Stock has changed, update cache and notify listeners
-                        int newStock = currentItem.getStock();
-                        int difference = cachedStock - newStock;
-                        
-                        stockCache.put(itemId, newStock);
-                        
-                        // Notify listeners about the change
-                        Platform.runLater(() -> {
-                            updateFoodItemInList(itemId);
-                            notifyStockUpdated(itemId, difference);
-                        });
-                        
-                        System.out.println("Detected stock change for item " + itemId + ": " + cachedStock + " -> " + newStock);
-                    }
-                }
-            } finally {
-                stockLock.readLock().unlock();
-            }
-        } catch (Exception e) {
-            System.err.println("Error checking for stock updates: " + e.getMessage());
-        }
-    }
-    
     private void notifyStockUpdated(int itemId, int quantityReduced) {
         Platform.runLater(() -> {
             for (StockUpdateListener listener : listeners) {
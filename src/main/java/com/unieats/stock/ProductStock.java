@@ -1,12 +1,51 @@
 package com.unieats.stock;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// Cache-line padding around the stock counter. Superclass fields are laid out first, but since
+// JDK 15 a subclass field may fill a gap the superclass left, such as the 4 bytes after a 12-byte
+// object header: with long padding the counter landed there, next to the mark word that
+// safeOrder's monitor writes. Byte padding leaves no gap (as in JCTools). With compressed class
+// pointers the 64 bytes before occupy offsets 12-75, the counter 76-79 and the 64 bytes after
+// 80-143, so neither the header, the previous object nor the next one shares its cache line.
+abstract class ProductStockPadBefore {
+    byte b000, b001, b002, b003, b004, b005, b006, b007, b008, b009, b010, b011, b012, b013, b014, b015;
+    byte b016, b017, b018, b019, b020, b021, b022, b023, b024, b025, b026, b027, b028, b029, b030, b031;
+    byte b032, b033, b034, b035, b036, b037, b038, b039, b040, b041, b042, b043, b044, b045, b046, b047;
+    byte b048, b049, b050, b051, b052, b053, b054, b055, b056, b057, b058, b059, b060, b061, b062, b063;
+}
+
+abstract class ProductStockCounter extends ProductStockPadBefore {
+    volatile int stockQuantity;
+}
+
+abstract class ProductStockPadAfter extends ProductStockCounter {
+    byte b100, b101, b102, b103, b104, b105, b106, b107, b108, b109, b110, b111, b112, b113, b114, b115;
+    byte b116, b117, b118, b119, b120, b121, b122, b123, b124, b125, b126, b127, b128, b129, b130, b131;
+    byte b132, b133, b134, b135, b136, b137, b138, b139, b140, b141, b142, b143, b144, b145, b146, b147;
+    byte b148, b149, b150, b151, b152, b153, b154, b155, b156, b157, b158, b159, b160, b161, b162, b163;
+}
+
 /**
  * Represents a product with stock quantity that needs to be managed in a thread-safe manner.
+ *
+ * {@link #tryReserve} and {@link #release} update the counter with a compare-and-set loop and
+ * never block; use them for anything that has to scale with concurrent buyers.
  */
-public class ProductStock {
+public class ProductStock extends ProductStockPadAfter {
+    private static final VarHandle STOCK;
+
+    static {
+        try {
+            STOCK = MethodHandles.lookup().findVarHandle(ProductStockCounter.class, "stockQuantity", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String productId;
     private String name;
-    private volatile int stockQuantity;
 
     public ProductStock(String productId, String name, int initialStock) {
         this.productId = productId;
@@ -26,6 +65,32 @@ public class ProductStock {
         return stockQuantity;
     }
 
+    /**
+     * Take {@code quantity} units if that many are left, without blocking.
+     *
+     * @return the remaining stock, or -1 if there were fewer than {@code quantity} units
+     */
+    public int tryReserve(int quantity) {
+        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        int current = (int) STOCK.getVolatile(this);
+        while (current >= quantity) {
+            int witness = (int) STOCK.compareAndExchange(this, current, current - quantity);
+            if (witness == current) return current - quantity;
+            current = witness;
+        }
+        return -1;
+    }
+
+    /**
+     * Put back {@code quantity} units, such as a reservation that was not paid for.
+     *
+     * @return the stock after the release
+     */
+    public int release(int quantity) {
+        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        return (int) STOCK.getAndAdd(this, quantity) + quantity;
+    }
+
     // Unsafe method - no synchronization
     public boolean unsafeOrder(int quantity) {
         if (stockQuantity >= quantity) {
@@ -50,14 +115,14 @@ public class ProductStock {
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-            stockQuantity -= quantity;
-            return true;
+            // tryReserve callers do not take the monitor, so re-check while decrementing
+            return tryReserve(quantity) >= 0;
         }
         return false;
     }
 
     // Method to simulate real-time stock updates
-    public synchronized void updateStock(int newQuantity) {
-        this.stockQuantity = newQuantity;
+    public void updateStock(int newQuantity) {
+        STOCK.setVolatile(this, newQuantity);
     }
 }
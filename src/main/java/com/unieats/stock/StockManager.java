@@ -3,17 +3,22 @@ package com.unieats.stock;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Manages product stock and notifies observers of changes.
+ *
+ * Listeners are called on {@code unieats.stock.notifyWorkers} threads (default 4), each
+ * holding up to {@code unieats.stock.notifyQueue} pending notifications (default 1024); see
+ * {@link StockNotificationDispatcher}.
  */
 public class StockManager {
     private static StockManager instance;
     private final Map<String, ProductStock> products = new ConcurrentHashMap<>();
     private final Map<String, CopyOnWriteArraySet<StockUpdateListener>> listeners = new ConcurrentHashMap<>();
-    private final ExecutorService notificationExecutor = Executors.newCachedThreadPool();
+    private final StockNotificationDispatcher dispatcher = new StockNotificationDispatcher(
+            Integer.getInteger("unieats.stock.notifyWorkers", 4),
+            Integer.getInteger("unieats.stock.notifyQueue", 1024),
+            products::get);
 
     private StockManager() {
         // Private constructor for singleton
@@ -34,6 +39,32 @@ public class StockManager {
         return products.get(productId);
     }
 
+    /**
+     * Take {@code quantity} units of a product without blocking and notify its listeners.
+     *
+     * @return the remaining stock, or -1 if the product is unknown or has fewer units left
+     */
+    public int tryReserve(String productId, int quantity) {
+        ProductStock product = products.get(productId);
+        if (product == null) return -1;
+        int remaining = product.tryReserve(quantity);
+        if (remaining >= 0) notifyStockUpdate(product);
+        return remaining;
+    }
+
+    /**
+     * Return {@code quantity} units of a product and notify its listeners.
+     *
+     * @return the stock after the release, or -1 if the product is unknown
+     */
+    public int release(String productId, int quantity) {
+        ProductStock product = products.get(productId);
+        if (product == null) return -1;
+        int stock = product.release(quantity);
+        notifyStockUpdate(product);
+        return stock;
+    }
+
     public void registerListener(String productId, StockUpdateListener listener) {
         listeners.computeIfAbsent(productId, k -> new CopyOnWriteArraySet<>()).add(listener);
     }
@@ -42,17 +73,22 @@ public class StockManager {
         if (listeners.containsKey(productId)) {
             listeners.get(productId).remove(listener);
         }
+        dispatcher.forget(productId, listener);
     }
 
     public void notifyStockUpdate(ProductStock product) {
         if (listeners.containsKey(product.getProductId())) {
             for (StockUpdateListener listener : listeners.get(product.getProductId())) {
-                notificationExecutor.submit(() -> listener.onStockUpdate(product));
+                dispatcher.dispatch(product.getProductId(), listener);
             }
         }
     }
 
+    public StockNotificationDispatcher.Stats getNotificationStats() {
+        return dispatcher.stats();
+    }
+
     public void shutdown() {
-        notificationExecutor.shutdown();
+        dispatcher.shutdown();
     }
 }
@@ -0,0 +1,186 @@
+package com.unieats.stock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Delivers stock notifications to {@link StockUpdateListener}s on a fixed set of worker threads.
+ *
+ * Each product always goes to the same worker, so a listener sees one product's updates one
+ * at a time and in order. A listener has at most one pending notification per product: while
+ * one is queued, further updates only mark it as still due, and the product is looked up by id
+ * when the notification runs, so the listener gets the current {@link ProductStock} and its
+ * latest stock. When a worker's queue is full the caller waits for room instead of another
+ * thread being started. A caller that is itself a dispatcher worker must not wait, since two
+ * workers waiting on each other's full queues would never wake, and must not deliver inline,
+ * since the product's own worker may be running the same listener; it leaves the notification
+ * on the worker's overflow list, which only that worker drains.
+ */
+public final class StockNotificationDispatcher {
+    // Set on the threads of every dispatcher's workers
+    private static final ThreadLocal<Boolean> ON_WORKER = ThreadLocal.withInitial(() -> false);
+
+    private final List<Worker> workers;
+    private final Function<String, ProductStock> products;
+    // Pending-notification slot per product and listener
+    private final Map<String, Map<StockUpdateListener, Slot>> slots = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * @param workerCount   threads delivering notifications
+     * @param queueCapacity pending notifications each worker holds before callers wait
+     * @param products      the current product for an id, or null once it is gone
+     */
+    public StockNotificationDispatcher(int workerCount, int queueCapacity, Function<String, ProductStock> products) {
+        this.products = products;
+        int count = Math.max(1, workerCount);
+        List<Worker> created = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Worker worker = new Worker(Math.max(1, queueCapacity), "stock-notify-" + i);
+            created.add(worker);
+            worker.thread.start();
+        }
+        this.workers = List.copyOf(created);
+    }
+
+    /**
+     * Notify {@code listener} that a product changed, unless a notification for it is already
+     * pending.
+     */
+    public void dispatch(String productId, StockUpdateListener listener) {
+        if (!running) return;
+        submitted.incrementAndGet();
+        Slot slot = slots.computeIfAbsent(productId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(listener, l -> new Slot(productId, l));
+        if (!slot.queued.compareAndSet(false, true)) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        Worker worker = workerFor(productId);
+        if (worker.queue.offer(slot)) return;
+        if (ON_WORKER.get()) {
+            worker.overflow(slot);
+            return;
+        }
+        blocked.incrementAndGet();
+        try {
+            worker.queue.put(slot);
+        } catch (InterruptedException e) {
+            slot.queued.set(false);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Drop the pending-notification slot of a listener that was removed.
+     */
+    public void forget(String productId, StockUpdateListener listener) {
+        Map<StockUpdateListener, Slot> forProduct = slots.get(productId);
+        if (forProduct == null) return;
+        Slot slot = forProduct.remove(listener);
+        if (slot != null) slot.cancelled = true;
+    }
+
+    /**
+     * Stop the workers once they have delivered what is queued.
+     */
+    public void shutdown() {
+        running = false;
+    }
+
+    public Stats stats() {
+        int depth = 0;
+        for (Worker worker : workers) depth += worker.queue.size() + worker.overflow.size();
+        return new Stats(depth, submitted.get(), coalesced.get(), delivered.get(), blocked.get(), failed.get());
+    }
+
+    /**
+     * Notifications waiting now, and since startup: notifications asked for, those merged into
+     * one already pending, those delivered, times a caller had to wait for queue room, and
+     * listener calls that threw.
+     */
+    public record Stats(int queueDepth, long submitted, long coalesced, long delivered, long blocked, long failed) {}
+
+    private Worker workerFor(String productId) {
+        return workers.get(Math.floorMod(productId.hashCode(), workers.size()));
+    }
+
+    // Queued to wake a worker polling an empty queue; delivers nothing
+    private static final Slot WAKE = new Slot("", product -> { });
+
+    private static final class Slot {
+        final String productId;
+        final StockUpdateListener listener;
+        final AtomicBoolean queued = new AtomicBoolean();
+        volatile boolean cancelled;
+
+        Slot(String productId, StockUpdateListener listener) {
+            this.productId = productId;
+            this.listener = listener;
+        }
+    }
+
+    private final class Worker {
+        final BlockingQueue<Slot> queue;
+        // Notifications from other workers that found the queue full
+        final Queue<Slot> overflow = new ConcurrentLinkedQueue<>();
+        final Thread thread;
+
+        Worker(int capacity, String name) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+        }
+
+        void overflow(Slot slot) {
+            overflow.add(slot);
+            // If the queue is still full this worker is busy and checks overflow before it next
+            // polls; if it has room the worker may be polling, so wake it
+            queue.offer(WAKE);
+        }
+
+        private void run() {
+            ON_WORKER.set(true);
+            while (running || !queue.isEmpty() || !overflow.isEmpty()) {
+                try {
+                    Slot slot = overflow.poll();
+                    if (slot == null) slot = queue.poll(200, TimeUnit.MILLISECONDS);
+                    if (slot != null && slot != WAKE) deliver(slot);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void deliver(Slot slot) {
+            // Cleared first, so an update made while the listener runs queues one more call
+            slot.queued.set(false);
+            if (slot.cancelled) return;
+            ProductStock product = products.apply(slot.productId);
+            if (product == null) return;
+            try {
+                slot.listener.onStockUpdate(product);
+                delivered.incrementAndGet();
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                System.err.println("StockNotificationDispatcher: listener for " + slot.productId + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
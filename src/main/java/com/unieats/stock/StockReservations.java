@@ -0,0 +1,481 @@
+package com.unieats.stock;
+
+import com.unieats.CartItemView;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-limited holds on stock for items sitting in a cart.
+ *
+ * Adding an item to the cart (and entering checkout) holds the cart line's quantity for
+ * {@code unieats.holds.ttlSeconds} seconds (default 600). A hold is only granted while
+ * {@code stock - holds of other users} covers it, so a student who got a hold can pay for it;
+ * the students behind them are told the item is gone when they add it, not after paying.
+ * Checkout turns a hold into the real stock decrement and drops it in the same transaction.
+ *
+ * {@code stock_holds} is the source of truth, since other processes may share the database:
+ * a hold is checked against the stock and the other users' unexpired rows and saved in one
+ * conditional upsert on the database writer. The total held per item is kept in memory so
+ * {@link #available} is a map lookup for the menus: each hold or release sets its item's total
+ * from the rows as of its commit, and every tick of the timer (every
+ * {@code unieats.holds.tickMillis} ms) reloads all totals, picking up other processes' holds.
+ * This process's own holds expire through a hashed timer wheel on the same tick.
+ */
+public final class StockReservations {
+    private static final long DEFAULT_TTL_MS = TimeUnit.SECONDS.toMillis(Long.getLong("unieats.holds.ttlSeconds", 600));
+    private static final long DEFAULT_TICK_MS = Long.getLong("unieats.holds.tickMillis", 1000);
+    private static final int WHEEL_SLOTS = 512;
+
+    /**
+     * Units of item {@code ?1} held by users other than {@code ?2} in holds ending after
+     * {@code ?3} (epoch ms). Embedded in a stock check so it sees the same rows as the update.
+     */
+    public static final String HELD_BY_OTHERS =
+            "(SELECT COALESCE(SUM(quantity), 0) FROM stock_holds WHERE item_id = ? AND user_id <> ? AND expires_at > ?)";
+
+    /** User id for buyers without an account; every hold counts against them. */
+    public static final int NO_USER = 0;
+
+    private static final String HOLD_IF_AVAILABLE = """
+        INSERT INTO stock_holds(user_id, item_id, quantity, expires_at)
+        SELECT ?, f.id, ?, ? FROM food_items f WHERE f.id = ? AND ? <= f.stock - %s
+        ON CONFLICT(user_id, item_id) DO UPDATE SET quantity = excluded.quantity, expires_at = excluded.expires_at
+    """.formatted(HELD_BY_OTHERS);
+    private static final String SHRINK_HOLD =
+            "UPDATE stock_holds SET quantity = ?, expires_at = ? WHERE user_id = ? AND item_id = ? AND quantity >= ? AND expires_at > ?";
+    private static final String SELECT_ITEM_HELD = "SELECT COALESCE(SUM(quantity), 0) FROM stock_holds WHERE item_id = ? AND expires_at > ?";
+    private static final String SELECT_ALL_HELD = "SELECT item_id, SUM(quantity) FROM stock_holds WHERE expires_at > ? GROUP BY item_id";
+    private static final String DELETE_HOLD = "DELETE FROM stock_holds WHERE user_id = ? AND item_id = ?";
+    private static final String DELETE_EXPIRED_HOLD = "DELETE FROM stock_holds WHERE user_id = ? AND item_id = ? AND expires_at <= ?";
+    private static final String DELETE_USER_HOLDS = "DELETE FROM stock_holds WHERE user_id = ?";
+
+    private static StockReservations instance;
+
+    private final DatabaseWriter writer;
+    private final LongSupplier clock;
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final ScheduledExecutorService timer;
+
+    // Guarded by this
+    private final Map<Long, Hold> holds = new HashMap<>();
+    private final Map<Integer, Set<Integer>> itemsByUser = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Hold>[] wheel = new ArrayDeque[WHEEL_SLOTS];
+    private long currentTick;
+
+    // Units held per item in stock_holds as last read; written under the lock, read without it
+    private final Map<Integer, Integer> heldByItem = new ConcurrentHashMap<>();
+
+    private long placed;
+    private long rejected;
+    private long expired;
+    private long converted;
+
+    private StockReservations() {
+        this(DatabaseWriter.getInstance(), System::currentTimeMillis, DEFAULT_TTL_MS, DEFAULT_TICK_MS, true);
+    }
+
+    /**
+     * @param startTimer false to leave expiry to explicit {@link #expireDue()} calls
+     */
+    StockReservations(DatabaseWriter writer, LongSupplier clock, long ttlMillis, long tickMillis, boolean startTimer) {
+        this.writer = writer;
+        this.clock = clock;
+        this.ttlMillis = Math.max(1, ttlMillis);
+        this.tickMillis = Math.max(1, tickMillis);
+        for (int i = 0; i < WHEEL_SLOTS; i++) wheel[i] = new ArrayDeque<>();
+        this.currentTick = clock.getAsLong() / this.tickMillis;
+        if (startTimer) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "stock-holds");
+                t.setDaemon(true);
+                return t;
+            });
+            timer.scheduleAtFixedRate(this::tick, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+        } else {
+            timer = null;
+        }
+    }
+
+    /**
+     * Get singleton instance, loading the holds that were active at the last shutdown
+     */
+    public static synchronized StockReservations getInstance() {
+        if (instance == null) {
+            instance = new StockReservations();
+            instance.load();
+        }
+        return instance;
+    }
+
+    /**
+     * Hold {@code quantity} units of an item for a user, replacing their previous hold on it
+     * and restarting its timer. A quantity of 0 or less releases the hold.
+     *
+     * @return false if the item does not exist or other users' holds leave fewer than
+     *         {@code quantity} units; the previous hold is then kept as it was
+     */
+    public boolean hold(int userId, int itemId, int quantity) {
+        if (quantity <= 0) {
+            release(userId, itemId);
+            return true;
+        }
+        try {
+            return holdAndWrite(userId, itemId, conn -> quantity, null);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Set a user's hold on an item and make the write it covers in one command on the
+     * database writer. {@code quantity} reads the new quantity to hold on the writer's
+     * connection (null for nothing to do, 0 or less to release); {@code write}, if given,
+     * runs only once the hold is granted. Lowering a live hold is always granted, whatever
+     * has happened to stock since; only growing it is checked against availability. If either throws, the command is rolled back and
+     * the previous hold stays as it was.
+     *
+     * @return false if other users' holds leave too little stock; nothing was written
+     */
+    public boolean holdAndWrite(int userId, int itemId, DatabaseWriter.WriteCommand<Integer> quantity,
+                                DatabaseWriter.WriteCommand<?> write) throws SQLException {
+        long now = clock.getAsLong();
+        long expiresAt = now + ttlMillis;
+        int[] held = {-1};
+        int[] itemTotal = {-1};
+        boolean granted = writer.execute(conn -> {
+            Integer wanted = quantity.apply(conn);
+            if (wanted == null) return true;
+            if (wanted > 0 && shrink(conn, userId, itemId, wanted, expiresAt, now)) {
+                itemTotal[0] = itemHeld(conn, itemId, now);
+            } else if (wanted > 0) {
+                try (PreparedStatement ps = conn.prepareStatement(HOLD_IF_AVAILABLE)) {
+                    bind(ps, userId, wanted, expiresAt, itemId, wanted, itemId, userId, now);
+                    int written = ps.executeUpdate();
+                    itemTotal[0] = itemHeld(conn, itemId, now);
+                    if (written == 0) return false;
+                }
+            } else {
+                try (PreparedStatement ps = conn.prepareStatement(DELETE_HOLD)) {
+                    bind(ps, userId, itemId);
+                    ps.executeUpdate();
+                }
+            }
+            if (write != null) write.apply(conn);
+            held[0] = Math.max(0, wanted);
+            if (itemTotal[0] < 0) itemTotal[0] = itemHeld(conn, itemId, now);
+            return true;
+        });
+        // Committed: mirror it in memory
+        synchronized (this) {
+            if (itemTotal[0] >= 0) setHeld(itemId, itemTotal[0]);
+            if (!granted) {
+                rejected++;
+            } else if (held[0] > 0) {
+                put(new Hold(userId, itemId, held[0], expiresAt));
+                placed++;
+            } else if (held[0] == 0) {
+                remove(key(userId, itemId));
+            }
+        }
+        return granted;
+    }
+
+    // Lower a live hold in place; false if there is none or it would have to grow
+    private static boolean shrink(Connection conn, int userId, int itemId, int wanted, long expiresAt, long now)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SHRINK_HOLD)) {
+            bind(ps, wanted, expiresAt, userId, itemId, wanted, now);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Hold every line of a cart, as on entering checkout.
+     *
+     * @return the lines that could not be held; empty if the whole cart is held
+     */
+    public List<CartItemView> holdCart(int userId, List<CartItemView> items) {
+        List<CartItemView> failed = new ArrayList<>();
+        for (CartItemView item : items) {
+            if (!hold(userId, item.itemId, item.quantity)) failed.add(item);
+        }
+        return failed;
+    }
+
+    // The rows may have been written by another process, so they are deleted even when not in memory
+    public void release(int userId, int itemId) {
+        long now = clock.getAsLong();
+        int total;
+        try {
+            total = writer.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(DELETE_HOLD)) {
+                    bind(ps, userId, itemId);
+                    ps.executeUpdate();
+                }
+                return itemHeld(conn, itemId, now);
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        synchronized (this) {
+            remove(key(userId, itemId));
+            setHeld(itemId, total);
+        }
+    }
+
+    public void releaseAll(int userId) {
+        try {
+            writer.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(DELETE_USER_HOLDS)) {
+                    bind(ps, userId);
+                    return ps.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        synchronized (this) {
+            dropUser(userId);
+        }
+        refreshHeld();
+    }
+
+    /**
+     * Forget a user's holds after a checkout that already deleted their rows and took the stock.
+     */
+    public void converted(int userId) {
+        synchronized (this) {
+            converted += dropUser(userId);
+        }
+        refreshHeld();
+    }
+
+    /**
+     * Units of an item currently held across all users, as of the last hold, release or tick.
+     */
+    public int held(int itemId) {
+        Integer held = heldByItem.get(itemId);
+        return held != null ? held : 0;
+    }
+
+    /**
+     * Units of an item a buyer can still put in their cart, given its stock.
+     */
+    public int available(int itemId, int stock) {
+        return Math.max(0, stock - held(itemId));
+    }
+
+    /**
+     * Like {@link #available(int, int)}, but counting the user's own hold as theirs.
+     */
+    public int available(int userId, int itemId, int stock) {
+        int mine;
+        synchronized (this) {
+            Hold hold = holds.get(key(userId, itemId));
+            mine = hold != null ? hold.quantity : 0;
+        }
+        return Math.max(0, stock - held(itemId) + mine);
+    }
+
+    /**
+     * Reload every item's held total from {@code stock_holds}.
+     */
+    void refreshHeld() {
+        long now = clock.getAsLong();
+        Map<Integer, Integer> totals = new HashMap<>();
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_ALL_HELD)) {
+            ps.setLong(1, now);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) totals.put(rs.getInt(1), rs.getInt(2));
+            }
+        } catch (SQLException e) {
+            System.err.println("StockReservations: could not read held totals: " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            heldByItem.keySet().retainAll(totals.keySet());
+            heldByItem.putAll(totals);
+        }
+    }
+
+    private void tick() {
+        expireDue();
+        refreshHeld();
+    }
+
+    /**
+     * Expire every hold whose deadline has passed. Runs on the timer; exposed for tests.
+     */
+    synchronized void expireDue() {
+        long now = clock.getAsLong();
+        long nowTick = now / tickMillis;
+        // After a long pause one pass over every slot covers all skipped ticks
+        long from = Math.max(currentTick + 1, nowTick - WHEEL_SLOTS + 1);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Iterator<Hold> it = wheel[slot(tick)].iterator();
+            while (it.hasNext()) {
+                Hold hold = it.next();
+                if (hold.tick > nowTick) continue; // a later round of the wheel
+                it.remove();
+                // Replaced or released holds are left in the wheel and skipped here
+                if (holds.get(hold.key()) != hold) continue;
+                remove(hold.key());
+                setHeld(hold.itemId, held(hold.itemId) - hold.quantity);
+                expired++;
+                persist(DELETE_EXPIRED_HOLD, hold.userId, hold.itemId, hold.expiresAt);
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+    }
+
+    /**
+     * Replace the in-memory holds with the unexpired rows of {@code stock_holds}.
+     */
+    void load() {
+        long now = clock.getAsLong();
+        List<Hold> rows = new ArrayList<>();
+        try (Connection conn = ConnectionPool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT user_id, item_id, quantity, expires_at FROM stock_holds WHERE expires_at > ?")) {
+            ps.setLong(1, now);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Hold(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getLong(4)));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("StockReservations: could not load holds: " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            for (Long key : new ArrayList<>(holds.keySet())) remove(key);
+            for (Hold hold : rows) put(hold);
+        }
+        refreshHeld();
+        writer.submit(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM stock_holds WHERE expires_at <= ?")) {
+                ps.setLong(1, now);
+                return ps.executeUpdate();
+            }
+        });
+        System.out.println("StockReservations: restored " + rows.size() + " holds");
+    }
+
+    public void shutdown() {
+        if (timer != null) timer.shutdownNow();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(holds.size(), placed, rejected, expired, converted);
+    }
+
+    /**
+     * Holds active now, and holds granted, refused, expired and paid for since startup.
+     */
+    public record Stats(int active, long placed, long rejected, long expired, long converted) {}
+
+    // Called with the lock held
+    private void put(Hold hold) {
+        holds.put(hold.key(), hold);
+        itemsByUser.computeIfAbsent(hold.userId, u -> new HashSet<>()).add(hold.itemId);
+        hold.tick = Math.max(currentTick + 1, (hold.expiresAt + tickMillis - 1) / tickMillis);
+        wheel[slot(hold.tick)].add(hold);
+    }
+
+    private Hold remove(long key) {
+        Hold hold = holds.remove(key);
+        if (hold == null) return null;
+        Set<Integer> items = itemsByUser.get(hold.userId);
+        if (items != null && items.remove(hold.itemId) && items.isEmpty()) itemsByUser.remove(hold.userId);
+        return hold;
+    }
+
+    private int dropUser(int userId) {
+        Set<Integer> items = itemsByUser.get(userId);
+        if (items == null) return 0;
+        int dropped = 0;
+        for (int itemId : new ArrayList<>(items)) {
+            if (remove(key(userId, itemId)) != null) dropped++;
+        }
+        return dropped;
+    }
+
+    // Queued while the lock is held so the rows change in the same order as the map
+    private void persist(String sql, Object... args) {
+        writer.submit(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                bind(ps, args);
+                return ps.executeUpdate();
+            }
+        }).exceptionally(e -> {
+            System.err.println("StockReservations: could not save hold change: " + e.getMessage());
+            return null;
+        });
+    }
+
+    // Called with the lock held
+    private void setHeld(int itemId, int total) {
+        if (total > 0) heldByItem.put(itemId, total);
+        else heldByItem.remove(itemId);
+    }
+
+    private static int itemHeld(Connection conn, int itemId, long now) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_ITEM_HELD)) {
+            bind(ps, itemId, now);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Object... args) throws SQLException {
+        for (int i = 0; i < args.length; i++) ps.setObject(i + 1, args[i]);
+    }
+
+    private static int slot(long tick) {
+        return (int) (tick % WHEEL_SLOTS);
+    }
+
+    private static long key(int userId, int itemId) {
+        return ((long) userId << 32) | (itemId & 0xffffffffL);
+    }
+
+    private static final class Hold {
+        final int userId;
+        final int itemId;
+        final int quantity;
+        final long expiresAt;
+        long tick; // wheel tick at which it expires
+
+        Hold(int userId, int itemId, int quantity, long expiresAt) {
+            this.userId = userId;
+            this.itemId = itemId;
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+
+        long key() {
+            return StockReservations.key(userId, itemId);
+        }
+    }
+}
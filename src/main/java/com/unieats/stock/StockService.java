@@ -2,27 +2,47 @@ package com.unieats.stock;
 
 import com.unieats.FoodItem;
 import com.unieats.dao.FoodItemDao;
-import java.util.concurrent.locks.ReentrantLock;
+import com.unieats.util.DatabaseWriter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Thread-safe service for managing food item stock.
- * Uses locking to ensure only one transaction can modify stock at a time.
+ *
+ * Purchases are a single conditional decrement ({@code stock = stock - ? WHERE stock - held >= ?})
+ * executed on the database writer, so the check and the update are one atomic step and no
+ * Java lock is needed. Purchases of different items never wait on each other beyond sharing
+ * group commits; overselling is impossible because the database refuses the decrement. Units
+ * sitting in carts under an unexpired {@link StockReservations} hold are not for sale here.
  */
 public class StockService {
-    
+
+    private static final String DECREMENT = "UPDATE food_items SET stock = stock - ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND stock - "
+            + StockReservations.HELD_BY_OTHERS + " >= ? RETURNING stock";
+
     // Singleton instance
     private static StockService instance;
-    
-    // DAO for database operations
+
+    // DAO for database reads
     private final FoodItemDao foodItemDao;
-    
-    // Lock to ensure thread-safe stock operations (prevent race conditions)
-    private final ReentrantLock stockLock = new ReentrantLock();
-    
+
+    private final DatabaseWriter writer;
+
     private StockService() {
-        this.foodItemDao = new FoodItemDao();
+        this(new FoodItemDao(), DatabaseWriter.getInstance());
+    }
+
+    StockService(FoodItemDao foodItemDao, DatabaseWriter writer) {
+        this.foodItemDao = foodItemDao;
+        this.writer = writer;
     }
-    
+
     /**
      * Get singleton instance of StockService
      */
@@ -32,7 +52,27 @@ public class StockService {
         }
         return instance;
     }
-    
+
+    /**
+     * Thrown inside a multi-item purchase to roll back every line when one cannot be filled.
+     */
+    private static final class SoldOut extends RuntimeException {
+        final int itemId;
+
+        SoldOut(int itemId) {
+            super(null, null, false, false);
+            this.itemId = itemId;
+        }
+    }
+
+    /**
+     * Outcome of {@link #purchaseItems}. On success {@code newStock} maps every item to its
+     * remaining stock; on failure it is empty and {@code failedItemId} names the first line
+     * that could not be filled. {@code error} means the database failed before any line could
+     * be judged; {@code failedItemId} is then -1 and no item is known to be out of stock.
+     */
+    public record PurchaseResult(boolean success, Map<Integer, Integer> newStock, int failedItemId, boolean error) {}
+
     /**
      * Get current stock for a food item
      * @param itemId The food item ID
@@ -42,52 +82,98 @@ public class StockService {
         FoodItem item = foodItemDao.getById(itemId);
         return item != null ? item.getStock() : -1;
     }
-    
+
     /**
      * Attempt to purchase an item (reduce stock by 1).
      * This method is thread-safe and will only succeed if stock is available.
-     * 
+     *
      * @param itemId The food item ID to purchase
      * @return true if purchase successful, false if out of stock or item not found
      */
     public boolean purchaseItem(int itemId) {
-        // Acquire lock to prevent concurrent modifications
-        stockLock.lock();
+        return tryPurchase(itemId, 1) >= 0;
+    }
+
+    /**
+     * Atomically take {@code quantity} units of an item.
+     *
+     * @return the remaining stock, or -1 if the item does not exist or has fewer units left
+     */
+    public int tryPurchase(int itemId, int quantity) {
+        if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
         try {
-            // Get current item from database
-            FoodItem item = foodItemDao.getById(itemId);
-            
-            if (item == null) {
-                System.err.println("Item not found: " + itemId);
-                return false;
-            }
-            
-            // Check if stock is available
-            if (item.getStock() <= 0) {
-                System.out.println("Out of stock for item: " + itemId);
-                return false;
-            }
-            
-            // Reduce stock by 1
-            item.setStock(item.getStock() - 1);
-            
-            // Update in database
-            foodItemDao.update(item);
-            
-            System.out.println("Successfully purchased item " + itemId + 
-                             ". New stock: " + item.getStock());
-            return true;
-            
-        } catch (Exception e) {
-            System.err.println("Error purchasing item: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        } finally {
-            // Always release the lock
-            stockLock.unlock();
+            long heldAfter = System.currentTimeMillis();
+            return writer.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(DECREMENT)) {
+                    bindDecrement(ps, itemId, quantity, heldAfter);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rs.next() ? rs.getInt(1) : -1;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error purchasing item " + itemId + ": " + e.getMessage());
+            return -1;
         }
     }
-    
+
+    /**
+     * Purchase several items at once, all or nothing.
+     *
+     * @param quantities item id to quantity; lines are applied in ascending item id order
+     */
+    public PurchaseResult purchaseItems(Map<Integer, Integer> quantities) {
+        for (int quantity : quantities.values()) {
+            if (quantity <= 0) throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Map<Integer, Integer> ordered = new TreeMap<>(quantities);
+        long heldAfter = System.currentTimeMillis();
+        try {
+            Map<Integer, Integer> newStock = writer.execute(conn -> {
+                Map<Integer, Integer> stocks = new LinkedHashMap<>();
+                try (PreparedStatement ps = conn.prepareStatement(DECREMENT)) {
+                    for (Map.Entry<Integer, Integer> line : ordered.entrySet()) {
+                        bindDecrement(ps, line.getKey(), line.getValue(), heldAfter);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            // Throwing rolls the writer back to before the first line
+                            if (!rs.next()) throw new SoldOut(line.getKey());
+                            stocks.put(line.getKey(), rs.getInt(1));
+                        }
+                    }
+                }
+                return stocks;
+            });
+            return new PurchaseResult(true, newStock, -1, false);
+        } catch (SoldOut e) {
+            return new PurchaseResult(false, Map.of(), e.itemId, false);
+        } catch (SQLException e) {
+            System.err.println("Error purchasing items: " + e.getMessage());
+            return new PurchaseResult(false, Map.of(), -1, true);
+        }
+    }
+
+    // These buyers have no cart, so every unexpired hold counts against them
+    private static void bindDecrement(PreparedStatement ps, int itemId, int quantity, long heldAfter) throws SQLException {
+        ps.setInt(1, quantity);
+        ps.setInt(2, itemId);
+        ps.setInt(3, itemId);
+        ps.setInt(4, StockReservations.NO_USER);
+        ps.setLong(5, heldAfter);
+        ps.setInt(6, quantity);
+    }
+
+    /**
+     * Get several food items in one query
+     * @param itemIds The food item IDs
+     * @return the items found, by id in ascending order
+     */
+    public Map<Integer, FoodItem> getItems(Collection<Integer> itemIds) {
+        int[] ids = itemIds.stream().mapToInt(Integer::intValue).distinct().toArray();
+        Map<Integer, FoodItem> items = new TreeMap<>();
+        for (FoodItem item : foodItemDao.listByIds(ids)) items.put(item.getId(), item);
+        return items;
+    }
+
     /**
      * Get food item by ID
      * @param itemId The food item ID
@@ -0,0 +1,108 @@
+package com.unieats.stock;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects stock updates for a short window and hands on only the latest value per item.
+ *
+ * The first update after a flush starts the window; every update until it closes replaces
+ * any earlier one for the same item. A popular item selling hundreds of units a second then
+ * costs one broadcast per window instead of one per purchase. A window of 0 passes each update
+ * straight through.
+ */
+public final class StockUpdateBatcher {
+    private final long windowMillis;
+    private final Consumer<List<StockUpdateMessage>> sink;
+    private final ScheduledExecutorService timer;
+    // Latest pending update per item, in order of each item's first update in the window
+    private Map<Integer, StockUpdateMessage> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+
+    private long offered;
+    private long batches;
+    private long updates;
+
+    public StockUpdateBatcher(long windowMillis, Consumer<List<StockUpdateMessage>> sink) {
+        this.windowMillis = Math.max(0, windowMillis);
+        this.sink = sink;
+        this.timer = this.windowMillis == 0 ? null : Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-update-batcher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public void offer(StockUpdateMessage update) {
+        offerAll(List.of(update));
+    }
+
+    /**
+     * Offer updates that belong together, such as the lines of one multi-item purchase. They
+     * always land in the same batch, even with a window of 0.
+     */
+    public void offerAll(List<StockUpdateMessage> group) {
+        if (group.isEmpty()) return;
+        if (timer == null) {
+            synchronized (this) {
+                offered += group.size();
+                batches++;
+                updates += group.size();
+            }
+            sink.accept(List.copyOf(group));
+            return;
+        }
+        synchronized (this) {
+            offered += group.size();
+            for (StockUpdateMessage update : group) pending.put(update.getItemId(), update);
+            if (!scheduled) {
+                scheduled = true;
+                timer.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Hand on whatever is pending now.
+     */
+    public void flush() {
+        List<StockUpdateMessage> batch;
+        synchronized (this) {
+            scheduled = false;
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+            batches++;
+            updates += batch.size();
+        }
+        try {
+            sink.accept(batch);
+        } catch (Exception e) {
+            System.err.println("StockUpdateBatcher: broadcasting " + batch.size() + " updates failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flush pending updates and stop the timer.
+     */
+    public void shutdown() {
+        if (timer != null) timer.shutdownNow();
+        flush();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(offered, batches, updates);
+    }
+
+    /**
+     * Updates offered, batches handed on, and updates in those batches; offered minus updates
+     * is the number superseded within a window.
+     */
+    public record Stats(long offered, long batches, long updates) {}
+}
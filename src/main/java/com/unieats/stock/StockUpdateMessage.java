@@ -1,5 +1,12 @@
 package com.unieats.stock;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Message object for WebSocket stock updates.
  * This is sent to all connected clients when stock changes.
@@ -9,6 +16,7 @@ public class StockUpdateMessage {
     private String itemName;
     private int newStock;
     private String timestamp;
+    private long seq; // server sequence number, 0 for direct replies
     
     public StockUpdateMessage() {
     }
@@ -52,6 +60,14 @@ public class StockUpdateMessage {
         this.timestamp = timestamp;
     }
     
+    public long getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+    
     /**
      * Convert to JSON string manually (simple approach without external library)
      */
@@ -65,6 +81,85 @@ public class StockUpdateMessage {
         );
     }
     
+    /**
+     * JSON for a broadcast update carrying its sequence number.
+     */
+    public String toJson(long seq) {
+        return "{\"type\":\"STOCK_UPDATE\",\"seq\":" + seq + "," + toJson().substring("{\"type\":\"STOCK_UPDATE\",".length());
+    }
+    
+    /**
+     * JSON acknowledging the buyer's own purchase; same fields as an update, sent only to them.
+     */
+    public String toAckJson() {
+        return "{\"type\":\"PURCHASE_OK\"," + toJson().substring("{\"type\":\"STOCK_UPDATE\",".length());
+    }
+    
+    /**
+     * JSON for several updates broadcast together under one sequence number (omitted when 0,
+     * for frames relayed elsewhere). Each entry carries
+     * only the item, its name and its new stock; the batch has one timestamp.
+     */
+    public static String toBatchJson(long seq, List<StockUpdateMessage> updates) {
+        return updatesJson("STOCK_BATCH", seq, updates);
+    }
+    
+    /**
+     * JSON acknowledging the buyer's own {@code PURCHASE_BATCH}: every line's new stock, in the
+     * same shape as a {@code STOCK_BATCH} but without a sequence number.
+     */
+    public static String toBatchAckJson(List<StockUpdateMessage> updates) {
+        return updatesJson("PURCHASE_BATCH_OK", 0, updates);
+    }
+    
+    /**
+     * JSON answering a {@code GET_STOCK_BATCH} query, in the same shape as a {@code STOCK_BATCH}.
+     */
+    public static String toStockLevelsJson(List<StockUpdateMessage> updates) {
+        return updatesJson("STOCK_LEVELS", 0, updates);
+    }
+    
+    private static String updatesJson(String type, long seq, List<StockUpdateMessage> updates) {
+        StringBuilder json = new StringBuilder(64 + updates.size() * 48)
+            .append("{\"type\":\"").append(type).append("\",");
+        if (seq > 0) json.append("\"seq\":").append(seq).append(',');
+        json.append("\"updates\":[");
+        for (int i = 0; i < updates.size(); i++) {
+            StockUpdateMessage u = updates.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"itemId\":").append(u.itemId)
+                .append(",\"itemName\":\"").append(u.itemName.replace("\"", "\\\"")).append('"')
+                .append(",\"newStock\":").append(u.newStock).append('}');
+        }
+        String timestamp = updates.isEmpty() ? "" : updates.get(updates.size() - 1).timestamp;
+        return json.append("],\"timestamp\":\"").append(timestamp).append("\"}").toString();
+    }
+    
+    /**
+     * Parse a STOCK_BATCH, PURCHASE_BATCH_OK or STOCK_LEVELS frame into one message per item,
+     * each carrying the batch's sequence number and timestamp. Returns an empty list if the
+     * frame is malformed.
+     */
+    public static List<StockUpdateMessage> fromBatchJson(String json) {
+        List<StockUpdateMessage> result = new ArrayList<>();
+        try {
+            JsonObject batch = JsonParser.parseString(json).getAsJsonObject();
+            long seq = batch.has("seq") ? batch.get("seq").getAsLong() : 0;
+            String timestamp = batch.has("timestamp") ? batch.get("timestamp").getAsString() : null;
+            for (JsonElement element : batch.getAsJsonArray("updates")) {
+                JsonObject u = element.getAsJsonObject();
+                StockUpdateMessage msg = new StockUpdateMessage(u.get("itemId").getAsInt(),
+                    u.get("itemName").getAsString(), u.get("newStock").getAsInt(), timestamp);
+                msg.seq = seq;
+                result.add(msg);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error parsing stock batch: " + e.getMessage());
+            result.clear();
+        }
+        return result;
+    }
+    
     /**
      * Parse JSON string to StockUpdateMessage (simple approach)
      */
@@ -95,6 +190,14 @@ public class StockUpdateMessage {
             int timestampEnd = json.indexOf("\"", timestampStart);
             msg.timestamp = json.substring(timestampStart, timestampEnd);
             
+            // Extract seq, present on broadcasts only
+            int seqAt = json.indexOf("\"seq\":");
+            if (seqAt >= 0) {
+                int seqStart = seqAt + 6;
+                int seqEnd = json.indexOf(",", seqStart);
+                msg.seq = Long.parseLong(json.substring(seqStart, seqEnd).trim());
+            }
+            
             return msg;
         } catch (Exception e) {
             System.err.println("Error parsing JSON: " + e.getMessage());
@@ -1,5 +1,14 @@
 package com.unieats.stock;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.unieats.FoodItem;
+import com.unieats.realtime.RealtimeGateway;
+import com.unieats.realtime.ReplayBuffer;
+import com.unieats.util.OutboundQueue;
+import com.unieats.util.TopicRegistry;
+import com.unieats.util.WebSocketOutbox;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
@@ -7,18 +16,55 @@ import org.java_websocket.server.WebSocketServer;
 import java.net.InetSocketAddress;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * WebSocket Server for broadcasting real-time stock updates to all connected clients.
  * When a user purchases an item, this server broadcasts the new stock to all clients instantly.
+ * Updates are queued per client; a lagging client only keeps the latest stock per item.
+ * Each update is also published on the gateway's stock channel as {@code stock:item:<id>}.
+ *
+ * Updates are batched for {@code unieats.stock.batchWindowMs} (default 50) and only the latest
+ * stock per item is broadcast, as one {@code STOCK_BATCH} frame (or a plain {@code STOCK_UPDATE}
+ * when a single item changed). The buyer gets a {@code PURCHASE_OK} with the new stock at once.
+ *
+ * Updates carry a sequence number and the recent ones are kept per item. The CONNECTED greeting
+ * states the server epoch and latest sequence; a client that reconnects sends
+ * {@code {"type":"RESUME","epoch":e,"since":n}} and receives the updates it missed before this
+ * connection opened, or {@code SNAPSHOT_REQUIRED} if they are no longer retained.
+ *
+ * {@code {"type":"PURCHASE_BATCH","items":[{"itemId":1,"qty":2},...]}} buys every line in one
+ * database transaction or none of them, answering {@code PURCHASE_BATCH_OK} with each item's new
+ * stock or {@code PURCHASE_BATCH_FAILED} naming the first line that could not be filled. The
+ * lines reach other clients in a single batch. {@code {"type":"GET_STOCK_BATCH","itemIds":[...]}}
+ * answers {@code STOCK_LEVELS} for the items that exist. Either request takes at most
+ * {@code unieats.stock.maxBatchItems} items (default 100).
  */
 public class StockWebSocketServer extends WebSocketServer {
     
     // Thread-safe set to track all connected clients
-    private final Set<WebSocket> clients = Collections.synchronizedSet(new HashSet<>());
+    private final Set<WebSocket> clients = ConcurrentHashMap.newKeySet();
+
+    // Per-client outbound queues for broadcasts
+    private final WebSocketOutbox outbox =
+            WebSocketOutbox.fromSystemProperties("stock", OutboundQueue.SlowConsumerPolicy.COALESCE_BY_KEY);
+    
+    // Recent updates for resuming clients
+    private final ReplayBuffer replay = new ReplayBuffer(
+            Integer.getInteger("unieats.stock.replayPerItem", 16),
+            Integer.getInteger("unieats.stock.replayItems", 4096));
+    
+    // Collapses bursts of updates into one broadcast per window
+    private final StockUpdateBatcher batcher =
+            new StockUpdateBatcher(Long.getLong("unieats.stock.batchWindowMs", 50), this::broadcastBatch);
+    
+    private static final int MAX_BATCH_ITEMS = Integer.getInteger("unieats.stock.maxBatchItems", 100);
     
     // Reference to stock service
     private final StockService stockService;
@@ -31,18 +77,23 @@ public class StockWebSocketServer extends WebSocketServer {
     
     @Override
     public void onOpen(WebSocket conn, ClientHandshake handshake) {
-        // New client connected
-        clients.add(conn);
+        // New client connected; updates after the recorded sequence reach it live, after the welcome
+        synchronized (replay) {
+            clients.add(conn);
+            outbox.register(conn);
+            long connectedAt = replay.latestSequence();
+            conn.setAttachment(connectedAt);
+            outbox.send(conn, null, "{\"type\":\"CONNECTED\",\"message\":\"Connected to stock update server\",\"epoch\":"
+                    + replay.epoch() + ",\"seq\":" + connectedAt + "}");
+        }
         System.out.println("New client connected. Total clients: " + clients.size());
-        
-        // Send welcome message
-        conn.send("{\"type\":\"CONNECTED\",\"message\":\"Connected to stock update server\"}");
     }
     
     @Override
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
         // Client disconnected
         clients.remove(conn);
+        outbox.unregister(conn);
         System.out.println("Client disconnected. Total clients: " + clients.size());
     }
     
@@ -54,8 +105,14 @@ public class StockWebSocketServer extends WebSocketServer {
             // Parse message type
             if (message.contains("\"type\":\"PURCHASE\"")) {
                 handlePurchaseRequest(conn, message);
+            } else if (message.contains("\"type\":\"PURCHASE_BATCH\"")) {
+                handlePurchaseBatch(conn, message);
             } else if (message.contains("\"type\":\"GET_STOCK\"")) {
                 handleStockQuery(conn, message);
+            } else if (message.contains("\"type\":\"GET_STOCK_BATCH\"")) {
+                handleStockBatchQuery(conn, message);
+            } else if (message.contains("\"type\":\"RESUME\"")) {
+                handleResume(conn, message);
             } else {
                 conn.send("{\"type\":\"ERROR\",\"message\":\"Unknown message type\"}");
             }
@@ -79,26 +136,27 @@ public class StockWebSocketServer extends WebSocketServer {
             }
             int itemId = Integer.parseInt(message.substring(itemIdStart, itemIdEnd).trim());
             
-            // Attempt to purchase (thread-safe)
-            boolean success = stockService.purchaseItem(itemId);
+            // Attempt to purchase (atomic conditional decrement)
+            int newStock = stockService.tryPurchase(itemId, 1);
             
-            if (success) {
+            if (newStock >= 0) {
                 // Get updated item info
                 var item = stockService.getItem(itemId);
                 
-                // Create stock update message
+                // Create stock update message; the stock is the value our decrement produced
                 String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
                 StockUpdateMessage updateMsg = new StockUpdateMessage(
                     itemId, 
-                    item.getName(), 
-                    item.getStock(),
+                    item != null ? item.getName() : "Item " + itemId, 
+                    newStock,
                     timestamp
                 );
                 
-                // Broadcast to ALL connected clients (including the purchaser)
+                // The buyer hears back now; everyone else gets the next batch
+                outbox.send(conn, null, updateMsg.toAckJson());
                 broadcastStockUpdate(updateMsg);
                 
-                System.out.println("Purchase successful. Broadcasted update to " + clients.size() + " clients");
+                System.out.println("Purchase successful. Queued update for " + clients.size() + " clients");
             } else {
                 // Send failure response only to requesting client
                 conn.send("{\"type\":\"PURCHASE_FAILED\",\"itemId\":" + itemId + ",\"message\":\"Out of stock or item not found\"}");
@@ -111,6 +169,78 @@ public class StockWebSocketServer extends WebSocketServer {
         }
     }
     
+    /**
+     * Handle a multi-item purchase: all lines in one transaction, one reply, one broadcast
+     */
+    private void handlePurchaseBatch(WebSocket conn, String message) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        try {
+            for (JsonElement element : JsonParser.parseString(message).getAsJsonObject().getAsJsonArray("items")) {
+                JsonObject line = element.getAsJsonObject();
+                int qty = line.has("qty") ? line.get("qty").getAsInt() : 1;
+                if (qty <= 0) throw new IllegalArgumentException("qty must be positive");
+                // Repeated items are bought as one line
+                quantities.merge(line.get("itemId").getAsInt(), qty, Math::addExact);
+            }
+        } catch (RuntimeException e) {
+            conn.send("{\"type\":\"ERROR\",\"message\":\"Invalid purchase batch\"}");
+            return;
+        }
+        if (quantities.isEmpty() || quantities.size() > MAX_BATCH_ITEMS) {
+            conn.send("{\"type\":\"ERROR\",\"message\":\"A purchase batch needs 1 to " + MAX_BATCH_ITEMS + " items\"}");
+            return;
+        }
+
+        StockService.PurchaseResult result = stockService.purchaseItems(quantities);
+        if (result.error()) {
+            conn.send("{\"type\":\"ERROR\",\"message\":\"Purchase could not be processed, please try again\"}");
+            return;
+        }
+        if (!result.success()) {
+            // Nothing was bought, so there is nothing to broadcast
+            conn.send("{\"type\":\"PURCHASE_BATCH_FAILED\",\"itemId\":" + result.failedItemId()
+                    + ",\"message\":\"Out of stock or item not found\"}");
+            return;
+        }
+
+        Map<Integer, FoodItem> items = stockService.getItems(result.newStock().keySet());
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        List<StockUpdateMessage> updates = new ArrayList<>(result.newStock().size());
+        for (Map.Entry<Integer, Integer> entry : result.newStock().entrySet()) {
+            FoodItem item = items.get(entry.getKey());
+            updates.add(new StockUpdateMessage(entry.getKey(),
+                    item != null ? item.getName() : "Item " + entry.getKey(), entry.getValue(), timestamp));
+        }
+        outbox.send(conn, null, StockUpdateMessage.toBatchAckJson(updates));
+        batcher.offerAll(updates);
+        System.out.println("Batch purchase of " + updates.size() + " items successful. Queued update for " + clients.size() + " clients");
+    }
+    
+    /**
+     * Handle a stock query for several items, answered from one database read
+     */
+    private void handleStockBatchQuery(WebSocket conn, String message) {
+        Set<Integer> itemIds = new LinkedHashSet<>();
+        try {
+            for (JsonElement id : JsonParser.parseString(message).getAsJsonObject().getAsJsonArray("itemIds")) {
+                itemIds.add(id.getAsInt());
+            }
+        } catch (RuntimeException e) {
+            conn.send("{\"type\":\"ERROR\",\"message\":\"Invalid stock query\"}");
+            return;
+        }
+        if (itemIds.size() > MAX_BATCH_ITEMS) {
+            conn.send("{\"type\":\"ERROR\",\"message\":\"A stock query takes at most " + MAX_BATCH_ITEMS + " items\"}");
+            return;
+        }
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        List<StockUpdateMessage> levels = new ArrayList<>(itemIds.size());
+        for (FoodItem item : stockService.getItems(itemIds).values()) {
+            levels.add(new StockUpdateMessage(item.getId(), item.getName(), item.getStock(), timestamp));
+        }
+        conn.send(StockUpdateMessage.toStockLevelsJson(levels));
+    }
+    
     /**
      * Handle stock query from a client
      */
@@ -147,20 +277,68 @@ public class StockWebSocketServer extends WebSocketServer {
     }
     
     /**
-     * Broadcast stock update to all connected clients
+     * Replay the updates a reconnecting client missed, up to the moment this connection opened.
+     */
+    private void handleResume(WebSocket conn, String message) {
+        long epoch = longField(message, "epoch");
+        long since = longField(message, "since");
+        long connectedAt = conn.<Long>getAttachment() != null ? conn.<Long>getAttachment() : replay.latestSequence();
+        ReplayBuffer.Replay gap = replay.since(epoch, since, List.of(TopicRegistry.ALL));
+        if (!gap.snapshotRequired().isEmpty()) {
+            outbox.send(conn, null, "{\"type\":\"SNAPSHOT_REQUIRED\",\"epoch\":" + replay.epoch()
+                    + ",\"seq\":" + connectedAt + "}");
+            return;
+        }
+        for (ReplayBuffer.Event event : gap.events()) {
+            if (event.seq() > connectedAt) break;
+            outbox.send(conn, null, event.frame());
+        }
+    }
+
+    private static long longField(String message, String name) {
+        int start = message.indexOf("\"" + name + "\":");
+        if (start < 0) return -1;
+        start += name.length() + 3;
+        int end = start;
+        while (end < message.length() && (Character.isDigit(message.charAt(end)) || message.charAt(end) == '-')) end++;
+        return Long.parseLong(message.substring(start, end));
+    }
+    
+    /**
+     * Broadcast stock update to all connected clients with the next batch
      */
     public void broadcastStockUpdate(StockUpdateMessage message) {
-        String json = message.toJson();
-        
-        synchronized (clients) {
-            for (WebSocket client : clients) {
-                try {
-                    client.send(json);
-                } catch (Exception e) {
-                    System.err.println("Error sending to client: " + e.getMessage());
-                }
+        batcher.offer(message);
+    }
+
+    private void broadcastBatch(List<StockUpdateMessage> updates) {
+        List<String> keys = new ArrayList<>(updates.size());
+        for (StockUpdateMessage update : updates) keys.add("item:" + update.getItemId());
+        if (updates.size() == 1) {
+            StockUpdateMessage only = updates.get(0);
+            synchronized (replay) {
+                ReplayBuffer.Event event = replay.append(keys, only::toJson);
+                outbox.broadcast("stock:" + only.getItemId(), event.frame());
             }
+            RealtimeGateway.getInstance().publish(RealtimeGateway.Channel.STOCK, keys.get(0), only.toJson());
+            return;
+        }
+        synchronized (replay) {
+            ReplayBuffer.Event event = replay.append(keys, seq -> StockUpdateMessage.toBatchJson(seq, updates));
+            // A batch spans items, so it never replaces another frame in a lagging client's queue
+            outbox.broadcast(null, event.frame());
         }
+        List<String> gatewayKeys = new ArrayList<>(keys.size());
+        for (String key : keys) gatewayKeys.add(RealtimeGateway.Channel.STOCK.key(key));
+        RealtimeGateway.getInstance().publish(gatewayKeys, StockUpdateMessage.toBatchJson(0, updates));
+    }
+
+    public WebSocketOutbox.Stats getOutboxStats() {
+        return outbox.stats();
+    }
+
+    public StockUpdateBatcher.Stats getBatchStats() {
+        return batcher.stats();
     }
     
     @Override
@@ -174,4 +352,11 @@ public class StockWebSocketServer extends WebSocketServer {
         System.out.println("✓ StockWebSocketServer started successfully on port " + getPort());
         System.out.println("Waiting for client connections...");
     }
+
+    @Override
+    public void stop(int timeout, String closeMessage) throws InterruptedException {
+        batcher.shutdown();
+        super.stop(timeout, closeMessage);
+        outbox.shutdown();
+    }
 }
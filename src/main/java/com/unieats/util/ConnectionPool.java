@@ -0,0 +1,230 @@
+package com.unieats.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Central, bounded pool of pre-tuned SQLite connections used by every DAO.
+ *
+ * Physical connections are opened once in WAL mode with tuned pragmas and then
+ * handed out as lightweight wrappers: calling {@code close()} on the wrapper returns
+ * the physical connection to the pool instead of closing the database file, so the
+ * existing try-with-resources call sites keep working unchanged.
+ *
+ * Pool size and acquire timeout can be tuned with the {@code unieats.db.poolSize}
+ * and {@code unieats.db.acquireTimeoutMs} system properties.
+ */
+public final class ConnectionPool {
+
+    public static final String DB_URL = System.getProperty("unieats.db.url", "jdbc:sqlite:unieats.db");
+
+    private static final int MAX_SIZE = Math.max(1, Integer.getInteger("unieats.db.poolSize", 8));
+    private static final long ACQUIRE_TIMEOUT_MS = Long.getLong("unieats.db.acquireTimeoutMs", 10_000L);
+
+    private static final String[] PRAGMAS = {
+        "PRAGMA journal_mode=WAL",
+        "PRAGMA synchronous=NORMAL",
+        "PRAGMA cache_size=-16000",      // ~16 MB page cache per connection
+        "PRAGMA mmap_size=268435456",    // 256 MB memory-mapped I/O
+        "PRAGMA busy_timeout=5000",
+        "PRAGMA temp_store=MEMORY"
+    };
+
+    private static final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private static final AtomicInteger opened = new AtomicInteger();
+    private static final AtomicInteger inUse = new AtomicInteger();
+    private static final AtomicInteger peakInUse = new AtomicInteger();
+    private static final AtomicLong acquisitions = new AtomicLong();
+    private static final AtomicLong waits = new AtomicLong();
+    private static final AtomicLong totalWaitNanos = new AtomicLong();
+    private static final AtomicLong maxWaitNanos = new AtomicLong();
+    private static final AtomicLong timeouts = new AtomicLong();
+    private static volatile boolean shutdown;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConnectionPool::shutdown, "db-pool-shutdown"));
+    }
+
+    private ConnectionPool() {
+    }
+
+    /**
+     * Borrow a connection from the pool. Closing the returned connection releases it.
+     * @throws SQLException if the database cannot be opened or no connection frees up in time
+     */
+    public static Connection getConnection() throws SQLException {
+        if (shutdown) throw new SQLException("Connection pool has been shut down");
+        long start = System.nanoTime();
+        Connection physical = idle.pollFirst();
+        if (physical == null) physical = openIfBelowLimit();
+        if (physical == null) {
+            waits.incrementAndGet();
+            try {
+                physical = idle.pollFirst(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (physical == null) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + ACQUIRE_TIMEOUT_MS + " ms waiting for a database connection (pool size " + MAX_SIZE + ")");
+            }
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        acquisitions.incrementAndGet();
+        peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+        return wrap(physical);
+    }
+
+    private static Connection openIfBelowLimit() throws SQLException {
+        while (true) {
+            int current = opened.get();
+            if (current >= MAX_SIZE) return null;
+            if (opened.compareAndSet(current, current + 1)) break;
+        }
+        try {
+            Connection conn = DriverManager.getConnection(DB_URL);
+            try (Statement st = conn.createStatement()) {
+                for (String pragma : PRAGMAS) st.execute(pragma);
+            }
+            return conn;
+        } catch (SQLException e) {
+            opened.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private static void release(Connection physical, List<Statement> statements) {
+        inUse.decrementAndGet();
+        boolean healthy = true;
+        for (Statement st : statements) {
+            try {
+                if (!st.isClosed()) st.close();
+            } catch (SQLException ignored) {}
+        }
+        try {
+            if (physical.isClosed()) {
+                healthy = false;
+            } else if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        if (healthy && !shutdown) {
+            idle.offerFirst(physical);
+        } else {
+            discard(physical);
+        }
+    }
+
+    private static boolean isClosedQuietly(Statement st) {
+        try {
+            return st.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void discard(Connection physical) {
+        opened.decrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException ignored) {}
+    }
+
+    /**
+     * Close every idle connection. Connections still borrowed are closed when released.
+     */
+    public static void shutdown() {
+        shutdown = true;
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) discard(conn);
+    }
+
+    /**
+     * Snapshot of pool usage and wait metrics.
+     */
+    public static Stats stats() {
+        long count = acquisitions.get();
+        return new Stats(MAX_SIZE, opened.get(), idle.size(), inUse.get(), peakInUse.get(), count,
+                waits.get(), timeouts.get(),
+                count == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / count,
+                maxWaitNanos.get() / 1_000_000.0);
+    }
+
+    public record Stats(int maxSize, int opened, int idle, int inUse, int peakInUse, long acquisitions,
+                        long waits, long timeouts, double avgWaitMillis, double maxWaitMillis) {}
+
+    private static Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    /**
+     * Delegates to the physical connection, tracks statements so none leak an open
+     * read snapshot into the next borrower, and turns close() into a release.
+     */
+    private static final class PooledConnectionHandler implements InvocationHandler {
+        private static final int PRUNE_THRESHOLD = 64;
+
+        private final Connection physical;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean closed;
+
+        PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(physical, statements);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+            if (closed) throw new SQLException("Connection is closed");
+            try {
+                Object result = method.invoke(physical, args);
+                if (result instanceof Statement st) {
+                    // Long-lived borrowers (the database writer) would otherwise grow this without bound
+                    if (statements.size() >= PRUNE_THRESHOLD) statements.removeIf(ConnectionPool::isClosedQuietly);
+                    statements.add(st);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
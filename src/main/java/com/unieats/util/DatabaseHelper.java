@@ -7,13 +7,11 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 public class DatabaseHelper {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
-
     // =========================================================
     // =============== INITIALIZATION ==========================
     // =========================================================
     public static void initializeTables() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              Statement stmt = conn.createStatement()) {
             try {
                 stmt.execute("SELECT shop_id FROM food_items LIMIT 1");
@@ -35,7 +33,7 @@ public class DatabaseHelper {
                                          String description, String images,
                                          double discount, int shop_id) {
         String sql = "INSERT INTO food_items (name, price, stock, description, images, discount, shop_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, name);
@@ -55,20 +53,16 @@ public class DatabaseHelper {
 
     public static ObservableList<FoodItem_seller> getFoodsBySeller(int shopId) {
         ObservableList<FoodItem_seller> foodItems = FXCollections.observableArrayList();
-        String query = "SELECT id, name, price FROM food_items WHERE shop_id = ?";
+        String query = "SELECT id, name, price, shop_id FROM food_items WHERE shop_id = ?";
 
-        try (Connection connection = DriverManager.getConnection(DB_URL);
+        try (Connection connection = ConnectionPool.getConnection();
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setInt(1, shopId);
             ResultSet rs = statement.executeQuery();
 
             while (rs.next()) {
-                FoodItem_seller item = new FoodItem_seller();
-                item.setId(rs.getInt("id"));
-                item.setName(rs.getString("name"));
-                item.setPrice(rs.getDouble("price"));
-                foodItems.add(item);
+                foodItems.add(mapFoodItemSeller(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -76,9 +70,35 @@ public class DatabaseHelper {
         return foodItems;
     }
 
+    /** One food item as listed by {@link #getFoodsBySeller}, or null if it no longer exists. */
+    public static FoodItem_seller getFoodForSeller(int foodId) {
+        String query = "SELECT id, name, price, shop_id FROM food_items WHERE id = ?";
+
+        try (Connection connection = ConnectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setInt(1, foodId);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) return mapFoodItemSeller(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private static FoodItem_seller mapFoodItemSeller(ResultSet rs) throws SQLException {
+        FoodItem_seller item = new FoodItem_seller();
+        item.setId(rs.getInt("id"));
+        item.setName(rs.getString("name"));
+        item.setPrice(rs.getDouble("price"));
+        item.setShopId(rs.getInt("shop_id"));
+        return item;
+    }
+
     public static boolean updateFoodPrice(int foodId, double newPrice) {
         String sql = "UPDATE food_items SET price = ? WHERE id = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setDouble(1, newPrice);
             pstmt.setInt(2, foodId);
@@ -92,10 +112,12 @@ public class DatabaseHelper {
 
     public static boolean deleteFood(int foodId) {
         String sql = "DELETE FROM food_items WHERE id = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, foodId);
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            if (deleted) com.unieats.dao.RandomItemSampler.getInstance().onItemRemoved(foodId);
+            return deleted;
         } catch (SQLException e) {
             System.err.println("Error deleting food item: " + e.getMessage());
             e.printStackTrace();
@@ -124,7 +146,7 @@ public class DatabaseHelper {
             ORDER BY o.created_at DESC
         """;
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
 
@@ -168,7 +190,7 @@ public class DatabaseHelper {
             ORDER BY o.created_at DESC
         """;
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, shopId);
@@ -199,7 +221,7 @@ public class DatabaseHelper {
 
     public static boolean updateOrderStatus(int orderId, String newStatus) {
         String sql = "UPDATE orders SET status = ?, updated_at = ? WHERE id = ?";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, newStatus);
             pstmt.setString(2, java.time.LocalDateTime.now().toString());
@@ -213,7 +235,7 @@ public class DatabaseHelper {
     }
 
     public static void addSampleOrders(int shopId) {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        try (Connection conn = ConnectionPool.getConnection()) {
             conn.setAutoCommit(false);
 
             int userId;
@@ -298,7 +320,7 @@ public class DatabaseHelper {
     ObservableList<Review> reviews = FXCollections.observableArrayList();
     String sql = "SELECT id, user_id, food_item_id, rating, comment, created_at FROM reviews";
 
-    try (Connection conn = DriverManager.getConnection(DB_URL);
+    try (Connection conn = ConnectionPool.getConnection();
          PreparedStatement pstmt = conn.prepareStatement(sql);
          ResultSet rs = pstmt.executeQuery()) {
 
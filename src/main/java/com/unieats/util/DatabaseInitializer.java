@@ -4,7 +4,6 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 
@@ -13,8 +12,6 @@ import java.sql.Statement;
  * Handles database setup and table creation
  */
 public class DatabaseInitializer {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
-    
     /**
      * Initialize the database with required tables
      * This method should be called once at application startup
@@ -39,7 +36,7 @@ public class DatabaseInitializer {
      * Add sample data if the tables are empty
      */
     private static void addSampleDataIfNeeded() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              Statement stmt = conn.createStatement()) {
             
             // Check if food_items table is empty
@@ -99,7 +96,7 @@ public class DatabaseInitializer {
      * Test database connection
      */
     public static boolean testConnection() {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        try (Connection conn = ConnectionPool.getConnection()) {
             return conn != null && !conn.isClosed();
         } catch (Exception e) {
             System.err.println("Database connection test failed: " + e.getMessage());
@@ -6,7 +6,7 @@ import java.sql.*;
  * Database test utility to debug database issues
  */
 public class DatabaseTest {
-    private static final String DB_URL = "jdbc:sqlite:unieats.db";
+    private static final String DB_URL = ConnectionPool.DB_URL;
     
     public static void main(String[] args) {
         testDatabaseConnection();
@@ -17,7 +17,7 @@ public class DatabaseTest {
     
     public static void testDatabaseConnection() {
         System.out.println("=== Testing Database Connection ===");
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        try (Connection conn = ConnectionPool.getConnection()) {
             System.out.println("✅ Database connection successful!");
             System.out.println("Database URL: " + DB_URL);
         } catch (SQLException e) {
@@ -27,7 +27,7 @@ public class DatabaseTest {
     
     public static void testTables() {
         System.out.println("\n=== Testing Tables ===");
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = ConnectionPool.getConnection();
              Statement stmt = conn.createStatement()) {
             
             // Test food_items table
@@ -0,0 +1,253 @@
+package com.unieats.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer thread for the SQLite database.
+ *
+ * SQLite allows one writer at a time, so independent writers committing on their own
+ * connections mostly wait on each other (and on {@code SQLITE_BUSY}). Instead, callers
+ * hand write commands to this queue. The writer thread drains up to
+ * {@code unieats.db.writer.maxBatch} queued commands and runs them in one transaction
+ * with one commit (group commit). Commands that queue up while a batch is running form
+ * the next batch; {@code unieats.db.writer.maxLatencyMicros} (default 0) additionally lets
+ * the writer wait that long after the first command for more to arrive. Each command runs inside its
+ * own savepoint, so a failing command is rolled back alone and only its caller sees
+ * the error. Results are delivered through futures once the batch has committed.
+ *
+ * Commands must not commit, roll back or change auto-commit themselves. A command may
+ * call {@link #execute} again (e.g. a DAO method calling another); that nested call
+ * runs inline in the same transaction.
+ */
+public final class DatabaseWriter {
+
+    /**
+     * A unit of write work. Runs on the writer thread inside the batch transaction.
+     */
+    @FunctionalInterface
+    public interface WriteCommand<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    private static final DatabaseWriter INSTANCE = new DatabaseWriter(
+            Integer.getInteger("unieats.db.writer.maxBatch", 64),
+            Long.getLong("unieats.db.writer.maxLatencyMicros", 0L));
+
+    private static final long IDLE_POLL_MS = 200;
+
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private Connection conn; // borrowed from the pool for the writer's lifetime, writer thread only
+
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong failedCommands = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+
+    DatabaseWriter(int maxBatchSize, long maxLatencyMicros) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxLatencyNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxLatencyMicros));
+        this.thread = new Thread(this::run, "db-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "db-writer-shutdown"));
+    }
+
+    public static DatabaseWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queue a write command. The future completes after the batch containing it commits,
+     * or exceptionally with the command's own error (or the commit's).
+     */
+    public <T> CompletableFuture<T> submit(WriteCommand<T> command) {
+        Pending<T> pending = new Pending<>(command);
+        queue.add(pending);
+        // Re-check after enqueueing so a command racing with shutdown() is never stranded
+        if (!running && queue.remove(pending)) {
+            pending.future.completeExceptionally(new SQLException("Database writer has been shut down"));
+        }
+        return pending.future;
+    }
+
+    /**
+     * Run a write command through the queue and wait for it to commit.
+     * Called from the writer thread itself (a nested write), the command runs inline.
+     */
+    public <T> T execute(WriteCommand<T> command) throws SQLException {
+        if (Thread.currentThread() == thread) {
+            return command.apply(conn);
+        }
+        try {
+            return submit(command).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sql) throw sql;
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new SQLException(cause);
+        }
+    }
+
+    /**
+     * Stop accepting commands, finish the queued ones and return the connection to the pool.
+     */
+    public void shutdown() {
+        running = false;
+        if (Thread.currentThread() == thread) return;
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Pending<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<?> first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = first.enqueuedNanos + maxLatencyNanos;
+                while (batch.size() < maxBatchSize) {
+                    Pending<?> next = queue.poll();
+                    if (next == null) {
+                        long wait = deadline - System.nanoTime();
+                        if (wait <= 0 || !running) break;
+                        next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                        if (next == null) break;
+                    }
+                    batch.add(next);
+                }
+                runBatch(batch);
+            } catch (InterruptedException e) {
+                // Only shutdown() stops the writer
+            } catch (Throwable t) {
+                System.err.println("Database writer error: " + t.getMessage());
+                for (Pending<?> p : batch) p.future.completeExceptionally(t);
+            } finally {
+                batch.clear();
+            }
+        }
+        Pending<?> late;
+        while ((late = queue.poll()) != null) {
+            late.future.completeExceptionally(new SQLException("Database writer has been shut down"));
+        }
+        closeConnection();
+    }
+
+    private void runBatch(List<Pending<?>> batch) {
+        batches.incrementAndGet();
+        commands.addAndGet(batch.size());
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+        try {
+            Connection c = connection();
+            c.setAutoCommit(false);
+            try {
+                for (Pending<?> p : batch) runInSavepoint(c, p);
+                long start = System.nanoTime();
+                c.commit();
+                totalCommitNanos.addAndGet(System.nanoTime() - start);
+            } catch (SQLException | RuntimeException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            failedBatches.incrementAndGet();
+            System.err.println("Database write batch failed: " + e.getMessage());
+            closeConnection();
+            for (Pending<?> p : batch) {
+                if (p.error == null) {
+                    p.error = e;
+                    failedCommands.incrementAndGet();
+                }
+            }
+        }
+        for (Pending<?> p : batch) p.complete();
+    }
+
+    private void runInSavepoint(Connection c, Pending<?> p) throws SQLException {
+        Savepoint savepoint = c.setSavepoint();
+        try {
+            p.run(c);
+            c.releaseSavepoint(savepoint);
+        } catch (Exception e) {
+            c.rollback(savepoint);
+            c.releaseSavepoint(savepoint);
+            p.error = e;
+            failedCommands.incrementAndGet();
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (conn == null || conn.isClosed()) {
+            conn = ConnectionPool.getConnection();
+        }
+        return conn;
+    }
+
+    private void closeConnection() {
+        if (conn == null) return;
+        try {
+            conn.close();
+        } catch (SQLException ignored) {}
+        conn = null;
+    }
+
+    /**
+     * Snapshot of queue depth and batching metrics.
+     */
+    public Stats stats() {
+        long b = batches.get();
+        return new Stats(queue.size(), commands.get(), failedCommands.get(), b, failedBatches.get(),
+                b == 0 ? 0.0 : (double) commands.get() / b, largestBatch.get(),
+                b == 0 ? 0.0 : totalCommitNanos.get() / 1_000_000.0 / b);
+    }
+
+    public record Stats(int queueDepth, long commands, long failedCommands, long batches, long failedBatches,
+                        double avgBatchSize, int largestBatch, double avgCommitMillis) {}
+
+    private static final class Pending<T> {
+        final WriteCommand<T> command;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long enqueuedNanos = System.nanoTime();
+        T result;
+        Exception error;
+
+        Pending(WriteCommand<T> command) {
+            this.command = command;
+        }
+
+        void run(Connection c) throws SQLException {
+            result = command.apply(c);
+        }
+
+        void complete() {
+            if (error != null) future.completeExceptionally(error);
+            else future.complete(result);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.unieats.util;
+
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.framing.Framedata;
+
+import java.util.List;
+
+/**
+ * A text message encoded into WebSocket frames once and shared by every recipient.
+ *
+ * {@code WebSocket.send(String)} re-encodes the string to UTF-8 and builds new frames for each
+ * connection; a broadcast through {@link WebSocketOutbox} builds them once per draft and hands
+ * the same frames to each connection, the way {@code WebSocketServer.broadcast} does. Frames
+ * must only be sent from one thread at a time (the outbox drainer).
+ */
+public final class EncodedMessage {
+    private record Encoded(Draft draft, List<Framedata> frames) {}
+
+    private final String text;
+    private volatile Encoded encoded;
+
+    public EncodedMessage(String text) {
+        this.text = text;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Frames for a connection using {@code draft}; encoded on first use and reused while the
+     * draft matches (all connections of a server normally share an equal draft).
+     */
+    public List<Framedata> framesFor(Draft draft) {
+        Encoded e = encoded;
+        if (e == null || !e.draft().equals(draft)) {
+            e = new Encoded(draft, draft.createFrames(text, false));
+            encoded = e;
+        }
+        return e.frames();
+    }
+}
@@ -0,0 +1,192 @@
+package com.unieats.util;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.TextFrame;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived publisher to the inventory hub ({@code ws://localhost:7071} by default).
+ *
+ * {@link #publish(String)} only enqueues and never blocks. A single daemon thread keeps one
+ * WebSocket connection open, reconnecting with exponential backoff, and drains the queue in
+ * batches that are written as one group of frames. When the queue is full the oldest message
+ * is dropped: realtime events are superseded by newer ones.
+ *
+ * Tunables: {@code unieats.hub.url}, {@code unieats.hub.queueCapacity},
+ * {@code unieats.hub.maxBatch}.
+ */
+public final class HubPublisher {
+
+    private static final HubPublisher INSTANCE = new HubPublisher(
+            URI.create(System.getProperty("unieats.hub.url", "ws://localhost:7071")),
+            Integer.getInteger("unieats.hub.queueCapacity", 1024),
+            Integer.getInteger("unieats.hub.maxBatch", 64));
+
+    private static final long CONNECT_TIMEOUT_MS = 2_000;
+    private static final long MIN_BACKOFF_MS = 250;
+    private static final long MAX_BACKOFF_MS = 10_000;
+
+    private final URI uri;
+    private final int maxBatch;
+    private final LinkedBlockingDeque<String> queue;
+    private volatile WebSocketClient client;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong failedConnects = new AtomicLong();
+
+    HubPublisher(URI uri, int queueCapacity, int maxBatch) {
+        this.uri = uri;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.queue = new LinkedBlockingDeque<>(Math.max(1, queueCapacity));
+    }
+
+    public static HubPublisher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queue a message for the hub. Returns immediately; drops the oldest queued message if full.
+     */
+    public void publish(String json) {
+        if (!running || json == null) return;
+        startIfNeeded();
+        published.incrementAndGet();
+        while (!queue.offerLast(json)) {
+            if (queue.pollFirst() != null) dropped.incrementAndGet();
+        }
+    }
+
+    private synchronized void startIfNeeded() {
+        if (thread != null) return;
+        thread = new Thread(this::run, "hub-publisher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the sender thread and close the connection. Queued messages are discarded.
+     */
+    public void shutdown() {
+        running = false;
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t != null) t.interrupt();
+        closeClient();
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MS;
+        List<String> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                // Only connect when there is something to send
+                String first = queue.pollFirst(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+
+                WebSocketClient c = client;
+                if (c == null || !c.isOpen()) {
+                    c = connect();
+                    if (c == null) {
+                        requeue(batch);
+                        Thread.sleep(backoff);
+                        backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+                        continue;
+                    }
+                    backoff = MIN_BACKOFF_MS;
+                }
+                try {
+                    c.sendFrame(toFrames(batch));
+                    sent.addAndGet(batch.size());
+                    batches.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // Connection dropped between the check and the write; retry after reconnecting
+                    closeClient();
+                    requeue(batch);
+                }
+            } catch (InterruptedException e) {
+                if (!running) break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private WebSocketClient connect() throws InterruptedException {
+        closeClient();
+        WebSocketClient c = new WebSocketClient(uri) {
+            @Override public void onOpen(ServerHandshake handshake) { }
+            @Override public void onMessage(String message) { }
+            @Override public void onClose(int code, String reason, boolean remote) { }
+            @Override public void onError(Exception ex) { }
+        };
+        c.setConnectionLostTimeout(30);
+        if (c.connectBlocking(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            connects.incrementAndGet();
+            client = c;
+            return c;
+        }
+        failedConnects.incrementAndGet();
+        try { c.close(); } catch (Exception ignored) {}
+        return null;
+    }
+
+    private void closeClient() {
+        WebSocketClient c = client;
+        client = null;
+        if (c != null) {
+            try { c.close(); } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Put an unsent batch back at the head of the queue, oldest first, dropping what no longer fits.
+     */
+    private void requeue(List<String> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(batch.get(i))) dropped.incrementAndGet();
+        }
+    }
+
+    private static List<Framedata> toFrames(List<String> messages) {
+        List<Framedata> frames = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            TextFrame frame = new TextFrame();
+            frame.setPayload(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+            frame.setFin(true);
+            frames.add(frame);
+        }
+        return frames;
+    }
+
+    /**
+     * Snapshot of queue depth, throughput and connection metrics.
+     */
+    public Stats stats() {
+        WebSocketClient c = client;
+        return new Stats(queue.size(), published.get(), sent.get(), dropped.get(), batches.get(),
+                connects.get(), failedConnects.get(), c != null && c.isOpen());
+    }
+
+    public record Stats(int queueDepth, long published, long sent, long dropped, long batches,
+                        long connects, long failedConnects, boolean connected) {}
+}
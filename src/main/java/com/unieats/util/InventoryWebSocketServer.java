@@ -1,16 +1,40 @@
 package com.unieats.util;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 
 import java.net.InetSocketAddress;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
 
+/**
+ * Topic-routed pub-sub hub on port 7071.
+ *
+ * Clients subscribe with {@code {"type":"subscribe","topics":["shops","orders:shop:3"]}} and
+ * leave with {@code "type":"unsubscribe"}. Any other message is published: it is delivered
+ * unchanged to the subscribers of its {@code "topic"} field and/or {@code "topics"} array
+ * (see {@link TopicRegistry} for matching). Messages without a topic only reach subscribers
+ * of {@link TopicRegistry#ALL}.
+ *
+ * Deliveries go through a {@link WebSocketOutbox}; identical queued messages to a lagging
+ * client are coalesced. Published messages are also handed to the relay, if one is set, so
+ * the realtime gateway carries them on its inventory channel.
+ */
 public class InventoryWebSocketServer extends WebSocketServer {
-    private final Set<WebSocket> clients = Collections.synchronizedSet(new HashSet<>());
+    private static final int MAX_TOPICS_PER_CONNECTION = 64;
+
+    private final TopicRegistry<WebSocket> topics = new TopicRegistry<>(MAX_TOPICS_PER_CONNECTION);
+    private final WebSocketOutbox outbox =
+            WebSocketOutbox.fromSystemProperties("inventory", OutboundQueue.SlowConsumerPolicy.COALESCE_BY_KEY);
+    private volatile boolean started;
+    private volatile BiConsumer<List<String>, String> relay;
 
     public InventoryWebSocketServer(int port) {
         super(new InetSocketAddress(port));
@@ -18,30 +42,37 @@ public class InventoryWebSocketServer extends WebSocketServer {
 
     @Override
     public void onOpen(WebSocket conn, ClientHandshake handshake) {
-        clients.add(conn);
+        outbox.register(conn);
     }
 
     @Override
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
-        clients.remove(conn);
+        topics.removeConnection(conn);
+        outbox.unregister(conn);
     }
 
     @Override
     public void onMessage(WebSocket conn, String message) {
-        // Act as a simple pub-sub hub: rebroadcast any received message to all clients
+        JsonObject json;
         try {
-            synchronized (clients) {
-                for (WebSocket ws : clients) {
-                    try {
-                        if (ws.isOpen()) {
-                            ws.send(message);
-                        }
-                    } catch (Exception ignored) {}
+            JsonElement parsed = JsonParser.parseString(message);
+            if (!parsed.isJsonObject()) return;
+            json = parsed.getAsJsonObject();
+        } catch (RuntimeException e) {
+            try { conn.send("error"); } catch (Exception ignored) {}
+            return;
+        }
+        String type = json.has("type") && json.get("type").isJsonPrimitive() ? json.get("type").getAsString() : "";
+        if ("subscribe".equals(type)) {
+            for (String topic : topicsOf(json)) {
+                if (!topics.subscribe(conn, topic)) {
+                    try { conn.send("{\"type\":\"error\",\"reason\":\"subscription rejected\",\"topic\":\"" + topic.replace("\"", "") + "\"}"); } catch (Exception ignored) {}
                 }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            try { conn.send("error"); } catch (Exception ignored) {}
+        } else if ("unsubscribe".equals(type)) {
+            for (String topic : topicsOf(json)) topics.unsubscribe(conn, topic);
+        } else {
+            deliver(topicsOf(json), message, true);
         }
     }
 
@@ -53,18 +84,100 @@ public class InventoryWebSocketServer extends WebSocketServer {
 
     @Override
     public void onStart() {
-        // Server started
+        started = true;
         System.out.println("InventoryWebSocketServer started on port " + getPort());
     }
 
+    /**
+     * True once this instance is listening; false if it has not started or failed to bind.
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Forward every published message, with its topics, to {@code relay}; null to stop.
+     */
+    public void setRelay(BiConsumer<List<String>, String> relay) {
+        this.relay = relay;
+    }
+
+    /**
+     * Publish a JSON message to the subscribers of the topic(s) it names.
+     */
     public void broadcastJson(String json) {
-        synchronized (clients) {
-            for (WebSocket ws : clients) {
-                try {
-                    ws.send(json);
-                } catch (Exception ignored) {
-                }
+        deliver(parseTopics(json), json, true);
+    }
+
+    /**
+     * Like {@link #broadcastJson} but skips the relay, for callers that already published the
+     * message to the gateway themselves.
+     */
+    public void broadcastLocal(String json) {
+        deliver(parseTopics(json), json, false);
+    }
+
+    private static List<String> parseTopics(String json) {
+        List<String> messageTopics;
+        try {
+            JsonElement parsed = JsonParser.parseString(json);
+            messageTopics = parsed.isJsonObject() ? topicsOf(parsed.getAsJsonObject()) : List.of();
+        } catch (RuntimeException e) {
+            messageTopics = List.of();
+        }
+        return messageTopics;
+    }
+
+    /**
+     * Publish a message to the subscribers of {@code topic}.
+     */
+    public void publish(String topic, String json) {
+        deliver(List.of(topic), json, true);
+    }
+
+    private void deliver(List<String> messageTopics, String message, boolean relayed) {
+        Collection<WebSocket> subscribers = messageTopics.isEmpty()
+                ? topics.subscribers(TopicRegistry.ALL)
+                : topics.subscribers(messageTopics);
+        outbox.broadcast(subscribers, message, message);
+        BiConsumer<List<String>, String> r = relay;
+        if (relayed && r != null) {
+            try {
+                r.accept(messageTopics, message);
+            } catch (Exception e) {
+                System.err.println("InventoryWebSocketServer: relay failed: " + e.getMessage());
+            }
+        }
+    }
+
+    public TopicRegistry<WebSocket> getTopics() {
+        return topics;
+    }
+
+    public WebSocketOutbox getOutbox() {
+        return outbox;
+    }
+
+    @Override
+    public void stop(int timeout, String closeMessage) throws InterruptedException {
+        super.stop(timeout, closeMessage);
+        outbox.shutdown();
+    }
+
+    /**
+     * Topics named by a message: its {@code "topic"} string and {@code "topics"} array.
+     */
+    static List<String> topicsOf(JsonObject json) {
+        List<String> result = new ArrayList<>(1);
+        JsonElement topic = json.get("topic");
+        if (topic != null && topic.isJsonPrimitive()) result.add(topic.getAsString());
+        JsonElement many = json.get("topics");
+        if (many != null && many.isJsonArray()) {
+            JsonArray array = many.getAsJsonArray();
+            for (JsonElement e : array) {
+                if (e.isJsonPrimitive() && !result.contains(e.getAsString())) result.add(e.getAsString());
             }
         }
+        return result;
     }
 }
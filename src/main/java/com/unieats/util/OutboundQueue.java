@@ -0,0 +1,167 @@
+package com.unieats.util;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded outbound message queue for one client connection.
+ *
+ * Producers never block: when the queue is full the {@link SlowConsumerPolicy} decides what
+ * gives. Under {@link SlowConsumerPolicy#COALESCE_BY_KEY} a message whose key is already
+ * queued drops the queued copy and joins the tail, so a slow reader still sees the latest state
+ * per key and messages leave in the order they were offered (sequence numbers only go up).
+ * Lag is the age of the oldest message still queued.
+ *
+ * @param <M> message type
+ */
+public final class OutboundQueue<M> {
+
+    public enum SlowConsumerPolicy {
+        /** Drop the oldest queued message to make room. */
+        DROP_OLDEST,
+        /** Drop a queued message with the same key before queueing; drop the oldest when still full. */
+        COALESCE_BY_KEY,
+        /** Refuse the message; the owner should close the connection. */
+        DISCONNECT;
+
+        /** Parse a policy name, falling back to {@code fallback} when unset or unknown. */
+        public static SlowConsumerPolicy parse(String name, SlowConsumerPolicy fallback) {
+            if (name == null || name.isBlank()) return fallback;
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return fallback;
+            }
+        }
+    }
+
+    private static final class Entry<M> {
+        final String key;
+        final long enqueuedNanos;
+        final M message;
+        // Superseded by a later message with the same key; skipped when it reaches the head
+        boolean dead;
+
+        Entry(String key, M message, long enqueuedNanos) {
+            this.key = key;
+            this.message = message;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    private final int capacity;
+    private final SlowConsumerPolicy policy;
+    private final ArrayDeque<Entry<M>> entries = new ArrayDeque<>();
+    private final Map<String, Entry<M>> byKey = new HashMap<>();
+    // Live entries; the deque also holds dead ones until they reach the head or are compacted
+    private int size;
+
+    private long enqueued;
+    private long sent;
+    private long dropped;
+    private long coalesced;
+
+    public OutboundQueue(int capacity, SlowConsumerPolicy policy) {
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+    }
+
+    /**
+     * Queue a message without blocking.
+     *
+     * @param key coalescing key, or null if the message never replaces another
+     * @return false only under {@link SlowConsumerPolicy#DISCONNECT} when the queue is full
+     */
+    public synchronized boolean offer(String key, M message) {
+        if (policy == SlowConsumerPolicy.COALESCE_BY_KEY && key != null) {
+            Entry<M> queued = byKey.remove(key);
+            if (queued != null) {
+                // Not replaced in place: that would send it ahead of messages offered after the old copy
+                queued.dead = true;
+                size--;
+                coalesced++;
+            }
+        }
+        if (size >= capacity) {
+            if (policy == SlowConsumerPolicy.DISCONNECT) {
+                dropped++;
+                return false;
+            }
+            removeHead();
+            dropped++;
+        }
+        // Dead entries outnumber live ones by now, so this costs O(1) per offer over time
+        if (entries.size() >= 2 * capacity) entries.removeIf(e -> e.dead);
+        Entry<M> entry = new Entry<>(key, message, System.nanoTime());
+        entries.addLast(entry);
+        size++;
+        if (policy == SlowConsumerPolicy.COALESCE_BY_KEY && key != null) byKey.put(key, entry);
+        enqueued++;
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Take the next message, or null if the queue is empty.
+     */
+    public synchronized M poll() {
+        Entry<M> entry = removeHead();
+        if (entry == null) return null;
+        sent++;
+        return entry.message;
+    }
+
+    /**
+     * Take the next message, waiting up to {@code timeout} for one to arrive.
+     */
+    public synchronized M poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (size == 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return null;
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return poll();
+    }
+
+    private Entry<M> head() {
+        while (!entries.isEmpty() && entries.peekFirst().dead) entries.pollFirst();
+        return entries.peekFirst();
+    }
+
+    private Entry<M> removeHead() {
+        if (head() == null) return null;
+        Entry<M> entry = entries.pollFirst();
+        size--;
+        if (entry.key != null && byKey.get(entry.key) == entry) byKey.remove(entry.key);
+        return entry;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public SlowConsumerPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Age of the oldest queued message in milliseconds, 0 when the client is caught up.
+     */
+    public synchronized long lagMillis() {
+        Entry<M> head = head();
+        return head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedNanos);
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(size, enqueued, sent, dropped, coalesced, lagMillis());
+    }
+
+    public record Stats(int depth, long enqueued, long sent, long dropped, long coalesced, long lagMillis) {}
+}
@@ -3,15 +3,25 @@ package com.unieats.util;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
+import com.google.gson.Gson;
+
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Minimal reconnecting WebSocket client with backoff.
+ * Topic subscriptions (see {@link InventoryWebSocketServer}) are re-sent on every reconnect,
+ * together with any resume fields supplied through {@link #setResumeFields}.
  */
 public final class ReconnectingWebSocketClient {
     private final URI uri;
@@ -23,12 +33,61 @@ public final class ReconnectingWebSocketClient {
     });
     private volatile WebSocketClient client;
     private volatile boolean stopped = false;
+    private volatile List<String> topics;
+    private volatile Supplier<Map<String, Object>> resumeFields = Map::of;
 
     public ReconnectingWebSocketClient(String url, Consumer<String> messageHandler) {
+        this(url, List.of(), messageHandler);
+    }
+
+    public ReconnectingWebSocketClient(String url, Collection<String> topics, Consumer<String> messageHandler) {
         this.uri = URI.create(Objects.requireNonNull(url));
+        this.topics = List.copyOf(topics);
         this.messageHandler = Objects.requireNonNull(messageHandler);
     }
 
+    /**
+     * Replace the subscribed topics, updating the live connection if there is one. Only the
+     * difference is sent, so topics kept across the change never miss a message.
+     */
+    public void setTopics(Collection<String> newTopics) {
+        List<String> previous = topics;
+        topics = List.copyOf(newTopics);
+        WebSocketClient c = client;
+        if (c == null || !c.isOpen())
+            return;
+        List<String> removed = new ArrayList<>(previous);
+        removed.removeAll(topics);
+        List<String> added = new ArrayList<>(topics);
+        added.removeAll(previous);
+        try {
+            if (!removed.isEmpty())
+                c.send(subscription("unsubscribe", removed, Map.of()));
+            if (!added.isEmpty())
+                c.send(subscription("subscribe", added, Map.of()));
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Extra fields (such as a resume position) added to the subscribe message sent on connect.
+     */
+    public void setResumeFields(Supplier<Map<String, Object>> fields) {
+        this.resumeFields = Objects.requireNonNull(fields);
+    }
+
+    private static String subscription(String type, List<String> topics, Map<String, Object> extra) {
+        Map<String, Object> message = new LinkedHashMap<>(extra);
+        message.put("type", type);
+        message.put("topics", topics);
+        return new Gson().toJson(message);
+    }
+
+    public boolean isOpen() {
+        WebSocketClient c = client;
+        return c != null && c.isOpen();
+    }
+
     public void start() {
         stopped = false;
         connectNow(0);
@@ -52,7 +111,10 @@ public final class ReconnectingWebSocketClient {
                 client = new WebSocketClient(uri) {
                     @Override
                     public void onOpen(ServerHandshake serverHandshake) {
-                        /* connected */ }
+                        List<String> current = topics;
+                        if (!current.isEmpty())
+                            send(subscription("subscribe", current, resumeFields.get()));
+                    }
 
                     @Override
                     public void onMessage(String s) {
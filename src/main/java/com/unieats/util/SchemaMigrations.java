@@ -0,0 +1,586 @@
+package com.unieats.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The ordered list of schema migrations for the UniEats database.
+ * New schema changes must be appended as a new version; never edit a shipped one.
+ */
+public final class SchemaMigrations {
+
+    private SchemaMigrations() {
+    }
+
+    public static List<SchemaMigrator.Migration> all() {
+        return List.of(
+            new SchemaMigrator.Migration(1, "baseline tables", SchemaMigrations::createBaseSchema),
+            new SchemaMigrator.Migration(2, "hot-path indexes", SchemaMigrations::createHotPathIndexes),
+            new SchemaMigrator.Migration(3, "full-text search index", SchemaMigrations::createSearchIndex),
+            new SchemaMigrator.Migration(4, "rating summaries", SchemaMigrations::createRatingSummaries),
+            new SchemaMigrator.Migration(5, "change log", SchemaMigrations::createChangeLog),
+            new SchemaMigrator.Migration(6, "stock holds", SchemaMigrations::createStockHolds),
+            new SchemaMigrator.Migration(7, "stock holds by item", SchemaMigrations::createStockHoldsItemIndex),
+            new SchemaMigrator.Migration(8, "food item write times", SchemaMigrations::normalizeFoodItemUpdatedAt)
+        );
+    }
+
+    public static SchemaMigrator migrator() {
+        return new SchemaMigrator(all());
+    }
+
+    /**
+     * Version 1: the tables that used to be created on every startup. Also patches
+     * databases created before the version was tracked.
+     */
+    private static void createBaseSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // Users
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS users (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    email TEXT UNIQUE NOT NULL,
+                    password TEXT NOT NULL,
+                    full_name TEXT NOT NULL,
+                    profile_picture TEXT DEFAULT NULL,
+                    phone_no TEXT DEFAULT NULL,
+                    address TEXT DEFAULT NULL,
+                    user_category TEXT NOT NULL CHECK(user_category IN ('student', 'seller')),
+                    status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('approved','pending','rejected')),
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+
+            // Shops (stall owners)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS shops (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    owner_id INTEGER NOT NULL,
+                    shop_name TEXT NOT NULL,
+                    status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('pending', 'approved', 'rejected')),
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(owner_id) REFERENCES users(id)
+                )
+            """);
+
+            // Food items
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS food_items (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    shop_id INTEGER NOT NULL,
+                    name TEXT NOT NULL,
+                    price REAL NOT NULL,
+                    points_multiplier REAL NOT NULL DEFAULT 1.0,
+                    stock INTEGER NOT NULL DEFAULT 0,
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(shop_id) REFERENCES shops(id)
+                )
+            """);
+
+            // Cart
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS cart (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    user_id INTEGER NOT NULL,
+                    item_id INTEGER NOT NULL,
+                    quantity INTEGER NOT NULL DEFAULT 1,
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(user_id) REFERENCES users(id),
+                    FOREIGN KEY(item_id) REFERENCES food_items(id)
+                )
+            """);
+
+            // Wishlist
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS wishlist (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    user_id INTEGER NOT NULL,
+                    item_id INTEGER NOT NULL,
+                    quantity INTEGER NOT NULL DEFAULT 1,
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(user_id) REFERENCES users(id),
+                    FOREIGN KEY(item_id) REFERENCES food_items(id)
+                )
+            """);
+
+            // Orders
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS orders (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    user_id INTEGER NOT NULL,
+                    shop_id INTEGER NOT NULL,
+                    total_price REAL NOT NULL,
+                    status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('pending','preparing','delivered','cancelled','completed')),
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(user_id) REFERENCES users(id),
+                    FOREIGN KEY(shop_id) REFERENCES shops(id)
+                )
+            """);
+
+            // Order items
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS order_items (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    order_id INTEGER NOT NULL,
+                    item_id INTEGER NOT NULL,
+                    quantity INTEGER NOT NULL,
+                    price REAL NOT NULL,
+                    FOREIGN KEY(order_id) REFERENCES orders(id),
+                    FOREIGN KEY(item_id) REFERENCES food_items(id)
+                )
+            """);
+
+            // Reward points (shop-wise)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS reward_points (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    user_id INTEGER NOT NULL,
+                    shop_id INTEGER NOT NULL,
+                    points REAL NOT NULL DEFAULT 0,
+                    UNIQUE(user_id, shop_id),
+                    FOREIGN KEY(user_id) REFERENCES users(id),
+                    FOREIGN KEY(shop_id) REFERENCES shops(id)
+                )
+            """);
+
+            // Reports (quality reports)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS reports (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    user_id INTEGER NOT NULL,
+                    shop_id INTEGER NOT NULL,
+                    item_id INTEGER,
+                    title TEXT NOT NULL,
+                    description TEXT NOT NULL,
+                    attachments TEXT DEFAULT '[]',
+                    status TEXT NOT NULL DEFAULT 'open' CHECK(status IN ('open','reviewing','resolved','rejected')),
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(user_id) REFERENCES users(id),
+                    FOREIGN KEY(shop_id) REFERENCES shops(id),
+                    FOREIGN KEY(item_id) REFERENCES food_items(id)
+                )
+            """);
+
+            // Reviews (shared for shops or food items)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS reviews (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    user_id INTEGER NOT NULL,
+                    shop_id INTEGER,
+                    food_item_id INTEGER,
+                    rating INTEGER NOT NULL CHECK(rating BETWEEN 1 AND 5),
+                    comment TEXT,
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(user_id) REFERENCES users(id),
+                    FOREIGN KEY(shop_id) REFERENCES shops(id),
+                    FOREIGN KEY(food_item_id) REFERENCES food_items(id),
+                    CHECK ((shop_id IS NOT NULL AND food_item_id IS NULL) OR (shop_id IS NULL AND food_item_id IS NOT NULL))
+                )
+            """);
+
+            // Payments
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS payments (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    order_id INTEGER NOT NULL,
+                    payment_method TEXT NOT NULL CHECK(payment_method IN ('card', 'cash', 'digital_wallet') OR payment_method LIKE 'digital_wallet_%'),
+                    amount REAL NOT NULL,
+                    status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('pending', 'completed', 'failed', 'refunded')),
+                    transaction_id TEXT,
+                    payment_details TEXT,
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(order_id) REFERENCES orders(id)
+                )
+            """);
+
+            // Order status history
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS order_status_history (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    order_id INTEGER NOT NULL,
+                    status TEXT NOT NULL,
+                    notes TEXT,
+                    created_at TEXT DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY(order_id) REFERENCES orders(id)
+                )
+            """);
+
+            // Ensure backward compatibility: add any missing columns in 'users' and 'reports'
+            ensureUsersTableColumns(conn);
+            ensureReportsTableColumns(conn);
+
+            // Update payments table constraint if needed
+            updatePaymentsTableConstraint(conn);
+        }
+    }
+
+    /**
+     * Version 2: indexes matching the WHERE/ORDER BY clauses of the DAO hot paths.
+     * reward_points(user_id) is already served by the UNIQUE(user_id, shop_id) index.
+     */
+    private static void createHotPathIndexes(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // FoodItemDao.listByShop, food_items ⨝ shops joins
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_food_items_shop_updated ON food_items(shop_id, updated_at)");
+            // CartDao / WishlistDao lookups by user and item
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_cart_user_item ON cart(user_id, item_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_wishlist_user_item ON wishlist(user_id, item_id)");
+            // OrderDao order history
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_user_created ON orders(user_id, created_at)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items(order_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_payments_order ON payments(order_id)");
+            // ReviewDao listings and averages
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reviews_shop_created ON reviews(shop_id, created_at)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_reviews_food_created ON reviews(food_item_id, created_at)");
+            // OrderRequestDao pending requests per shop
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_order_requests_shop_status ON order_requests(shop_id, status, order_time)");
+            // ShopDao / DatabaseManager shop lookups by owner and status
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_shops_owner ON shops(owner_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_shops_status_created ON shops(status, created_at)");
+        }
+    }
+
+    /**
+     * Version 3: FTS5 indexes for item and shop search, kept in sync by triggers.
+     * food_search rows share rowids with food_items and shop_search rows with shops.
+     */
+    private static void createSearchIndex(Connection conn) throws SQLException {
+        // Older databases never got the catalog columns that DatabaseHelper and ShopDao write
+        Set<String> itemColumns = columnNames(conn, "food_items");
+        Set<String> shopColumns = columnNames(conn, "shops");
+        try (Statement stmt = conn.createStatement()) {
+            if (!itemColumns.contains("description")) stmt.execute("ALTER TABLE food_items ADD COLUMN description TEXT");
+            if (!itemColumns.contains("images")) stmt.execute("ALTER TABLE food_items ADD COLUMN images TEXT");
+            if (!itemColumns.contains("discount")) stmt.execute("ALTER TABLE food_items ADD COLUMN discount REAL DEFAULT 0.0");
+            if (!shopColumns.contains("description")) stmt.execute("ALTER TABLE shops ADD COLUMN description TEXT DEFAULT ''");
+
+            stmt.execute("""
+                CREATE VIRTUAL TABLE IF NOT EXISTS food_search USING fts5(
+                    name, description, shop_name,
+                    tokenize = 'unicode61 remove_diacritics 2',
+                    prefix = '2 3'
+                )
+            """);
+            stmt.execute("""
+                CREATE VIRTUAL TABLE IF NOT EXISTS shop_search USING fts5(
+                    shop_name,
+                    tokenize = 'unicode61 remove_diacritics 2',
+                    prefix = '2 3'
+                )
+            """);
+
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_food_search_insert AFTER INSERT ON food_items BEGIN
+                    INSERT INTO food_search(rowid, name, description, shop_name)
+                    VALUES (new.id, new.name, COALESCE(new.description, ''),
+                            COALESCE((SELECT shop_name FROM shops WHERE id = new.shop_id), ''));
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_food_search_update AFTER UPDATE OF name, description, shop_id ON food_items BEGIN
+                    DELETE FROM food_search WHERE rowid = old.id;
+                    INSERT INTO food_search(rowid, name, description, shop_name)
+                    VALUES (new.id, new.name, COALESCE(new.description, ''),
+                            COALESCE((SELECT shop_name FROM shops WHERE id = new.shop_id), ''));
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_food_search_delete AFTER DELETE ON food_items BEGIN
+                    DELETE FROM food_search WHERE rowid = old.id;
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_shop_search_insert AFTER INSERT ON shops BEGIN
+                    INSERT INTO shop_search(rowid, shop_name) VALUES (new.id, new.shop_name);
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_shop_search_update AFTER UPDATE OF shop_name ON shops BEGIN
+                    UPDATE shop_search SET shop_name = new.shop_name WHERE rowid = new.id;
+                    UPDATE food_search SET shop_name = new.shop_name
+                    WHERE rowid IN (SELECT id FROM food_items WHERE shop_id = new.id);
+                END
+            """);
+            stmt.execute("""
+                CREATE TRIGGER IF NOT EXISTS trg_shop_search_delete AFTER DELETE ON shops BEGIN
+                    DELETE FROM shop_search WHERE rowid = old.id;
+                END
+            """);
+
+            // Backfill from existing rows
+            stmt.execute("DELETE FROM food_search");
+            stmt.execute("""
+                INSERT INTO food_search(rowid, name, description, shop_name)
+                SELECT fi.id, fi.name, COALESCE(fi.description, ''), COALESCE(s.shop_name, '')
+                FROM food_items fi LEFT JOIN shops s ON s.id = fi.shop_id
+            """);
+            stmt.execute("DELETE FROM shop_search");
+            stmt.execute("INSERT INTO shop_search(rowid, shop_name) SELECT id, shop_name FROM shops");
+
+            // Exact shop-name lookups from the search box
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_shops_name_nocase ON shops(shop_name COLLATE NOCASE)");
+        }
+    }
+
+    /**
+     * Version 4: per-shop and per-item rating aggregates maintained by ReviewDao,
+     * backfilled from the existing reviews.
+     */
+    private static void createRatingSummaries(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String[] target : new String[][]{{"shop_rating_summary", "shop_id"}, {"food_rating_summary", "food_item_id"}}) {
+                String table = target[0];
+                String key = target[1];
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS %s (
+                        %s INTEGER PRIMARY KEY,
+                        review_count INTEGER NOT NULL DEFAULT 0,
+                        rating_sum INTEGER NOT NULL DEFAULT 0,
+                        stars_1 INTEGER NOT NULL DEFAULT 0,
+                        stars_2 INTEGER NOT NULL DEFAULT 0,
+                        stars_3 INTEGER NOT NULL DEFAULT 0,
+                        stars_4 INTEGER NOT NULL DEFAULT 0,
+                        stars_5 INTEGER NOT NULL DEFAULT 0
+                    )
+                """.formatted(table, key));
+                stmt.execute("DELETE FROM " + table);
+                stmt.execute("""
+                    INSERT INTO %1$s (%2$s, review_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5)
+                    SELECT %2$s, COUNT(*), SUM(rating),
+                           SUM(rating = 1), SUM(rating = 2), SUM(rating = 3), SUM(rating = 4), SUM(rating = 5)
+                    FROM reviews WHERE %2$s IS NOT NULL GROUP BY %2$s
+                """.formatted(table, key));
+            }
+        }
+    }
+
+    /**
+     * Tables whose row changes are recorded in change_log for RealtimeService to tail.
+     */
+    public static final List<String> CHANGE_LOGGED_TABLES = List.of("users", "shops", "reports", "payments", "food_items");
+
+    /**
+     * Version 5: change_log, appended to by triggers on every insert, update and delete of the
+     * tables in {@link #CHANGE_LOGGED_TABLES}. seq only ever grows (AUTOINCREMENT), so readers
+     * tail it with {@code WHERE seq > ?} on the primary key.
+     */
+    private static void createChangeLog(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS change_log (
+                    seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                    table_name TEXT NOT NULL,
+                    row_id INTEGER NOT NULL,
+                    op TEXT NOT NULL CHECK (op IN ('I', 'U', 'D'))
+                )
+            """);
+            for (String table : CHANGE_LOGGED_TABLES) {
+                stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_%1$s_changelog_insert AFTER INSERT ON %1$s BEGIN
+                        INSERT INTO change_log(table_name, row_id, op) VALUES ('%1$s', new.id, 'I');
+                    END
+                """.formatted(table));
+                stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_%1$s_changelog_update AFTER UPDATE ON %1$s BEGIN
+                        INSERT INTO change_log(table_name, row_id, op) VALUES ('%1$s', new.id, 'U');
+                    END
+                """.formatted(table));
+                stmt.execute("""
+                    CREATE TRIGGER IF NOT EXISTS trg_%1$s_changelog_delete AFTER DELETE ON %1$s BEGIN
+                        INSERT INTO change_log(table_name, row_id, op) VALUES ('%1$s', old.id, 'D');
+                    END
+                """.formatted(table));
+            }
+        }
+    }
+
+    /**
+     * Version 6: cart holds kept by StockReservations, one row per user and item. Without a
+     * rowid the primary key is the table; expires_at is epoch milliseconds.
+     */
+    private static void createStockHolds(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS stock_holds (
+                    user_id INTEGER NOT NULL,
+                    item_id INTEGER NOT NULL,
+                    quantity INTEGER NOT NULL CHECK (quantity > 0),
+                    expires_at INTEGER NOT NULL,
+                    PRIMARY KEY (user_id, item_id)
+                ) WITHOUT ROWID
+            """);
+        }
+    }
+
+    /**
+     * Version 7: every stock check sums the unexpired holds on one item, which the
+     * (user_id, item_id) key cannot serve.
+     */
+    private static void createStockHoldsItemIndex(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_stock_holds_item ON stock_holds(item_id, expires_at)");
+        }
+    }
+
+    /**
+     * Version 8: food_items.updated_at held both CURRENT_TIMESTAMP values (UTC, space) and
+     * Java's local ISO form ('T'), which do not compare as text. Rewrites the ISO ones to the
+     * former, which every writer now uses, and indexes the column for stock reconciliation.
+     */
+    private static void normalizeFoodItemUpdatedAt(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                UPDATE food_items SET updated_at = COALESCE(datetime(updated_at, 'utc'), updated_at)
+                WHERE updated_at LIKE '____-__-__T%'
+            """);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_food_items_updated ON food_items(updated_at)");
+        }
+    }
+
+    private static Set<String> columnNames(Connection conn, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (Statement s = conn.createStatement(); ResultSet rs = s.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                String name = rs.getString("name");
+                if (name != null) columns.add(name.toLowerCase());
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Ensures the 'users' table contains all expected columns.
+     */
+    private static void ensureUsersTableColumns(Connection conn) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (Statement s = conn.createStatement(); ResultSet rs = s.executeQuery("PRAGMA table_info(users)")) {
+            while (rs.next()) {
+                String name = rs.getString("name");
+                if (name != null) columns.add(name.toLowerCase());
+            }
+        }
+
+        try (Statement s = conn.createStatement()) {
+            if (!columns.contains("profile_picture")) {
+                s.execute("ALTER TABLE users ADD COLUMN profile_picture TEXT DEFAULT NULL");
+            }
+            if (!columns.contains("phone_no")) {
+                s.execute("ALTER TABLE users ADD COLUMN phone_no TEXT DEFAULT NULL");
+            }
+            if (!columns.contains("address")) {
+                s.execute("ALTER TABLE users ADD COLUMN address TEXT DEFAULT NULL");
+            }
+            if (!columns.contains("status")) {
+                s.execute("ALTER TABLE users ADD COLUMN status TEXT NOT NULL DEFAULT 'pending'");
+            }
+        }
+    }
+
+    /**
+     * Updates the payments table constraint to allow digital_wallet_* payment methods
+     */
+    private static void updatePaymentsTableConstraint(Connection conn) throws SQLException {
+        // No-op migration: preserve existing payments table to avoid data loss across restarts/logouts.
+        // Legacy databases will continue working; new installs get the correct schema via CREATE TABLE IF NOT EXISTS above.
+    }
+
+    /**
+     * Ensures the 'reports' table contains all expected columns.
+     * Adds missing columns using ALTER TABLE for databases created before these columns existed.
+     */
+    private static void ensureReportsTableColumns(Connection conn) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (Statement s = conn.createStatement(); ResultSet rs = s.executeQuery("PRAGMA table_info(reports)")) {
+            while (rs.next()) {
+                String name = rs.getString("name");
+                if (name != null) columns.add(name.toLowerCase());
+            }
+        }
+
+        try (Statement s = conn.createStatement()) {
+            // Note: When adding NOT NULL columns to existing tables, provide a DEFAULT value.
+            if (!columns.contains("item_id")) {
+                s.execute("ALTER TABLE reports ADD COLUMN item_id INTEGER");
+            }
+            if (!columns.contains("title")) {
+                s.execute("ALTER TABLE reports ADD COLUMN title TEXT DEFAULT ''");
+            }
+            if (!columns.contains("description")) {
+                s.execute("ALTER TABLE reports ADD COLUMN description TEXT DEFAULT ''");
+            }
+            if (!columns.contains("attachments")) {
+                s.execute("ALTER TABLE reports ADD COLUMN attachments TEXT DEFAULT '[]'");
+            }
+            
+            // Check if address and description columns exist in shops table, add if not
+            ResultSet shopColumns = s.executeQuery("PRAGMA table_info(shops)");
+            Set<String> shopColumnNames = new HashSet<>();
+            while (shopColumns.next()) {
+                shopColumnNames.add(shopColumns.getString("name"));
+            }
+            shopColumns.close();
+            
+            if (!shopColumnNames.contains("address")) {
+                s.execute("ALTER TABLE shops ADD COLUMN address TEXT DEFAULT ''");
+            }
+            // Add updated_at to food_items if missing
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE food_items ADD COLUMN updated_at TEXT DEFAULT CURRENT_TIMESTAMP");
+            } catch (SQLException ignored) {
+                // Column already exists
+            }
+            
+            // Create order_requests table if it doesn't exist
+            s.execute("""
+                CREATE TABLE IF NOT EXISTS order_requests (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    customer_id INTEGER NOT NULL,
+                    customer_name TEXT NOT NULL,
+                    shop_id INTEGER NOT NULL,
+                    total_price REAL NOT NULL,
+                    status TEXT NOT NULL DEFAULT 'pending' CHECK(status IN ('pending', 'accepted', 'declined')),
+                    order_time TEXT NOT NULL,
+                    updated_at TEXT NOT NULL,
+                    FOREIGN KEY(shop_id) REFERENCES shops(id)
+                )
+            """);
+            
+            // Create order_items table if it doesn't exist
+            s.execute("""
+                CREATE TABLE IF NOT EXISTS order_items (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    order_id INTEGER NOT NULL,
+                    food_item_id INTEGER NOT NULL,
+                    food_item_name TEXT NOT NULL,
+                    quantity INTEGER NOT NULL,
+                    unit_price REAL NOT NULL,
+                    total_price REAL NOT NULL,
+                    FOREIGN KEY(order_id) REFERENCES order_requests(id) ON DELETE CASCADE
+                )
+            """);
+            if (!columns.contains("status")) {
+                s.execute("ALTER TABLE reports ADD COLUMN status TEXT NOT NULL DEFAULT 'open'");
+            }
+            if (!columns.contains("created_at")) {
+                s.execute("ALTER TABLE reports ADD COLUMN created_at TEXT DEFAULT CURRENT_TIMESTAMP");
+            }
+            if (!columns.contains("updated_at")) {
+                s.execute("ALTER TABLE reports ADD COLUMN updated_at TEXT DEFAULT CURRENT_TIMESTAMP");
+            }
+        }
+    }
+}
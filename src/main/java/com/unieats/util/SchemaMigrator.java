@@ -0,0 +1,92 @@
+package com.unieats.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Applies versioned schema migrations to the SQLite database.
+ *
+ * The applied version is stored in {@code PRAGMA user_version}, so a startup against
+ * an up-to-date database costs a single pragma read. Each pending migration runs in
+ * its own transaction and bumps the version only when it commits.
+ */
+public class SchemaMigrator {
+
+    /**
+     * A single migration step. Implementations must be safe to run on databases created
+     * by older builds that never recorded a version.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    public record Migration(int version, String description, Step step) {}
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).version() == sorted.get(i - 1).version()) {
+                throw new IllegalArgumentException("Duplicate migration version " + sorted.get(i).version());
+            }
+        }
+        this.migrations = List.copyOf(sorted);
+    }
+
+    public int latestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Bring the schema up to {@link #latestVersion()}.
+     * @return number of migrations applied (0 when the schema was already current)
+     */
+    public int migrate(Connection conn) throws SQLException {
+        int current = currentVersion(conn);
+        if (current >= latestVersion()) return 0;
+
+        int applied = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            for (Migration m : migrations) {
+                if (m.version() <= current) continue;
+                conn.setAutoCommit(false);
+                try {
+                    m.step().apply(conn);
+                    try (Statement st = conn.createStatement()) {
+                        // PRAGMA does not accept bound parameters; the version is an int we control
+                        st.execute("PRAGMA user_version = " + m.version());
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Migration " + m.version() + " (" + m.description() + ") failed: " + e.getMessage(), e);
+                }
+                System.out.println("Applied schema migration " + m.version() + ": " + m.description());
+                applied++;
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        if (applied > 0) {
+            try (Statement st = conn.createStatement()) {
+                st.execute("PRAGMA optimize");
+            }
+        }
+        return applied;
+    }
+}
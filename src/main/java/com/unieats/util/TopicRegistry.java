@@ -0,0 +1,137 @@
+package com.unieats.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Topic to subscriber index for the realtime servers.
+ *
+ * Topics are colon-separated paths such as {@code shops}, {@code payments} or
+ * {@code orders:shop:12}. A subscription to a path also matches everything below it, so
+ * {@code orders} receives {@code orders:shop:12}, and {@link #ALL} receives every topic.
+ * Lookups cost one map probe per path segment regardless of the number of connections.
+ *
+ * @param <C> connection type
+ */
+public final class TopicRegistry<C> {
+    public static final String ALL = "*";
+    public static final int MAX_TOPIC_LENGTH = 128;
+
+    private final ConcurrentHashMap<String, Set<C>> subscribersByTopic = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<C, Set<String>> topicsByConnection = new ConcurrentHashMap<>();
+    private final int maxTopicsPerConnection;
+
+    public TopicRegistry(int maxTopicsPerConnection) {
+        this.maxTopicsPerConnection = maxTopicsPerConnection;
+    }
+
+    /**
+     * @return false if the topic is invalid or the connection is at its subscription limit
+     */
+    public boolean subscribe(C connection, String topic) {
+        if (!isValidTopic(topic)) return false;
+        Set<String> topics = topicsByConnection.computeIfAbsent(connection, c -> ConcurrentHashMap.newKeySet());
+        if (!topics.contains(topic) && topics.size() >= maxTopicsPerConnection) return false;
+        topics.add(topic);
+        subscribersByTopic.compute(topic, (t, subscribers) -> {
+            if (subscribers == null) subscribers = ConcurrentHashMap.newKeySet();
+            subscribers.add(connection);
+            return subscribers;
+        });
+        return true;
+    }
+
+    public void unsubscribe(C connection, String topic) {
+        Set<String> topics = topicsByConnection.get(connection);
+        if (topics != null) topics.remove(topic);
+        removeSubscriber(topic, connection);
+    }
+
+    /**
+     * Drop every subscription held by a connection; call when it closes.
+     */
+    public void removeConnection(C connection) {
+        Set<String> topics = topicsByConnection.remove(connection);
+        if (topics == null) return;
+        for (String topic : topics) removeSubscriber(topic, connection);
+    }
+
+    private void removeSubscriber(String topic, C connection) {
+        subscribersByTopic.computeIfPresent(topic, (t, subscribers) -> {
+            subscribers.remove(connection);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Connections subscribed to {@code topic}, to one of its parent paths, or to {@link #ALL}.
+     * The result is a live view when only one level matches and must not be modified.
+     */
+    public Collection<C> subscribers(String topic) {
+        if (topic == null || topic.isEmpty()) return exact(ALL);
+        Collection<C> first = null;
+        Set<C> merged = null;
+        String path = topic;
+        while (true) {
+            Set<C> level = subscribersByTopic.get(path);
+            if (level != null && !level.isEmpty()) {
+                if (first == null) {
+                    first = level;
+                } else {
+                    if (merged == null) merged = new LinkedHashSet<>(first);
+                    merged.addAll(level);
+                }
+            }
+            if (path.equals(ALL)) break;
+            int cut = path.lastIndexOf(':');
+            path = cut > 0 ? path.substring(0, cut) : ALL;
+        }
+        if (merged != null) return merged;
+        return first != null ? Collections.unmodifiableCollection(first) : Collections.emptySet();
+    }
+
+    /**
+     * Union of subscribers for several topics, each connection once.
+     */
+    public Collection<C> subscribers(Collection<String> topics) {
+        if (topics.size() == 1) return subscribers(topics.iterator().next());
+        Set<C> merged = new LinkedHashSet<>();
+        for (String topic : topics) merged.addAll(subscribers(topic));
+        return merged;
+    }
+
+    private Collection<C> exact(String topic) {
+        Set<C> subscribers = subscribersByTopic.get(topic);
+        return subscribers != null ? Collections.unmodifiableCollection(subscribers) : Collections.emptySet();
+    }
+
+    public Set<String> topicsOf(C connection) {
+        Set<String> topics = topicsByConnection.get(connection);
+        return topics != null ? Collections.unmodifiableSet(topics) : Collections.emptySet();
+    }
+
+    public int topicCount() {
+        return subscribersByTopic.size();
+    }
+
+    public int connectionCount() {
+        return topicsByConnection.size();
+    }
+
+    /**
+     * True if a subscription to {@code subscription} receives {@code topic}: the same path,
+     * a path below it, or any topic for {@link #ALL}.
+     */
+    public static boolean covers(String subscription, String topic) {
+        if (ALL.equals(subscription) || subscription.equals(topic)) return true;
+        return topic.length() > subscription.length() && topic.startsWith(subscription)
+                && topic.charAt(subscription.length()) == ':';
+    }
+
+    private static boolean isValidTopic(String topic) {
+        return topic != null && !topic.isEmpty() && topic.length() <= MAX_TOPIC_LENGTH;
+    }
+}
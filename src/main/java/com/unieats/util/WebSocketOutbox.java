@@ -0,0 +1,186 @@
+package com.unieats.util;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.WebSocketImpl;
+import org.java_websocket.framing.CloseFrame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection outbound queues for a WebSocket server, drained by one background thread.
+ *
+ * Broadcasting only enqueues, so no caller waits on a client and the server's client set is
+ * never locked while sending. The drainer hands a connection at most {@code maxInFlight} frames
+ * at a time; a client that stops reading keeps its messages here, where its
+ * {@link OutboundQueue.SlowConsumerPolicy} applies, instead of in an unbounded socket buffer.
+ *
+ * A broadcast is encoded once into an {@link EncodedMessage} whose frames are shared by all
+ * recipients, so fan-out cost per client is a frame copy rather than a string encode.
+ */
+public final class WebSocketOutbox {
+    private static final long RETRY_MILLIS = 10;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private final Map<WebSocket, OutboundQueue<EncodedMessage>> queues = new ConcurrentHashMap<>();
+    private final Set<WebSocket> scheduled = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService drainer;
+    private final int capacity;
+    private final OutboundQueue.SlowConsumerPolicy policy;
+    private final int maxInFlight;
+    private final AtomicLong evicted = new AtomicLong();
+
+    public WebSocketOutbox(String name, int capacity, OutboundQueue.SlowConsumerPolicy policy) {
+        this(name, capacity, policy, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public WebSocketOutbox(String name, int capacity, OutboundQueue.SlowConsumerPolicy policy, int maxInFlight) {
+        this.capacity = capacity;
+        this.policy = policy;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Build an outbox sized from {@code unieats.ws.queueCapacity} (default 256) with the policy
+     * from {@code unieats.ws.<name>.policy}, falling back to {@code defaultPolicy}.
+     */
+    public static WebSocketOutbox fromSystemProperties(String name, OutboundQueue.SlowConsumerPolicy defaultPolicy) {
+        return new WebSocketOutbox(name,
+                Integer.getInteger("unieats.ws.queueCapacity", 256),
+                OutboundQueue.SlowConsumerPolicy.parse(System.getProperty("unieats.ws." + name + ".policy"), defaultPolicy));
+    }
+
+    public void register(WebSocket conn) {
+        queues.putIfAbsent(conn, new OutboundQueue<>(capacity, policy));
+    }
+
+    public void unregister(WebSocket conn) {
+        queues.remove(conn);
+        scheduled.remove(conn);
+    }
+
+    /**
+     * Queue a message for one connection.
+     *
+     * @param key coalescing key (used under {@code COALESCE_BY_KEY}), or null
+     */
+    public void send(WebSocket conn, String key, String message) {
+        send(conn, key, new EncodedMessage(message));
+    }
+
+    private void send(WebSocket conn, String key, EncodedMessage message) {
+        OutboundQueue<EncodedMessage> queue = queues.get(conn);
+        if (queue == null) return;
+        if (!queue.offer(key, message)) {
+            evict(conn);
+            return;
+        }
+        if (scheduled.add(conn)) drainer.execute(() -> drain(conn));
+    }
+
+    /**
+     * Queue one message for several connections; it is encoded once for all of them.
+     */
+    public void broadcast(Collection<WebSocket> targets, String key, String message) {
+        EncodedMessage encoded = new EncodedMessage(message);
+        for (WebSocket conn : targets) send(conn, key, encoded);
+    }
+
+    public void broadcast(String key, String message) {
+        broadcast(queues.keySet(), key, message);
+    }
+
+    private void drain(WebSocket conn) {
+        // Clear the flag first so a concurrent send schedules another pass
+        scheduled.remove(conn);
+        OutboundQueue<EncodedMessage> queue = queues.get(conn);
+        if (queue == null) return;
+        if (!conn.isOpen()) {
+            if (conn.isClosed()) unregister(conn);
+            return;
+        }
+        try {
+            while (hasWindow(conn)) {
+                EncodedMessage message = queue.poll();
+                if (message == null) break;
+                conn.sendFrame(message.framesFor(conn.getDraft()));
+            }
+        } catch (Exception e) {
+            unregister(conn);
+            return;
+        }
+        if (!queue.isEmpty() && scheduled.add(conn)) {
+            drainer.schedule(() -> drain(conn), RETRY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean hasWindow(WebSocket conn) {
+        if (conn instanceof WebSocketImpl impl) return impl.outQueue.size() < maxInFlight;
+        return !conn.hasBufferedData();
+    }
+
+    private void evict(WebSocket conn) {
+        evicted.incrementAndGet();
+        unregister(conn);
+        try {
+            conn.close(CloseFrame.TRY_AGAIN_LATER, "slow consumer");
+        } catch (Exception ignored) {
+        }
+    }
+
+    public int connectionCount() {
+        return queues.size();
+    }
+
+    public void shutdown() {
+        drainer.shutdownNow();
+        queues.clear();
+        scheduled.clear();
+    }
+
+    /**
+     * Per-client queue depth, lag and drop counts, worst lag first.
+     */
+    public List<ClientLag> clientLags() {
+        List<ClientLag> lags = new ArrayList<>(queues.size());
+        for (Map.Entry<WebSocket, OutboundQueue<EncodedMessage>> e : queues.entrySet()) {
+            lags.add(new ClientLag(String.valueOf(e.getKey().getRemoteSocketAddress()), e.getValue().stats()));
+        }
+        lags.sort((a, b) -> Long.compare(b.queue().lagMillis(), a.queue().lagMillis()));
+        return lags;
+    }
+
+    public Stats stats() {
+        int depth = 0;
+        long sent = 0, dropped = 0, coalesced = 0, maxLag = 0;
+        for (OutboundQueue<EncodedMessage> queue : queues.values()) {
+            OutboundQueue.Stats s = queue.stats();
+            depth += s.depth();
+            sent += s.sent();
+            dropped += s.dropped();
+            coalesced += s.coalesced();
+            maxLag = Math.max(maxLag, s.lagMillis());
+        }
+        return new Stats(queues.size(), depth, sent, dropped, coalesced, evicted.get(), maxLag);
+    }
+
+    public record ClientLag(String remoteAddress, OutboundQueue.Stats queue) {}
+
+    /**
+     * Totals over currently connected clients, plus evictions since start.
+     */
+    public record Stats(int connections, int queued, long sent, long dropped, long coalesced, long evicted, long maxLagMillis) {}
+}
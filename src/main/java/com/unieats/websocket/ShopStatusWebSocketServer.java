@@ -2,22 +2,28 @@ package com.unieats.websocket;
 
 import com.google.gson.Gson;
 import com.unieats.models.ShopStatusMessage;
+import com.unieats.realtime.RealtimeGateway;
+import com.unieats.util.OutboundQueue;
+import com.unieats.util.WebSocketOutbox;
 import org.java_websocket.WebSocket;
 import org.java_websocket.handshake.ClientHandshake;
 import org.java_websocket.server.WebSocketServer;
 
 import java.net.InetSocketAddress;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * WebSocket server for broadcasting shop status changes (approval/rejection) in real-time
+ * WebSocket server for broadcasting shop status changes (approval/rejection) in real-time.
+ * Broadcasts are queued per client; a lagging client only keeps the latest status per shop.
+ * Each change is also published on the gateway's shopStatus channel.
  */
 public class ShopStatusWebSocketServer extends WebSocketServer {
     private static final int PORT = 8082;
     private static ShopStatusWebSocketServer instance;
-    private final Set<WebSocket> clients = Collections.synchronizedSet(new HashSet<>());
+    private final Set<WebSocket> clients = ConcurrentHashMap.newKeySet();
+    private final WebSocketOutbox outbox =
+            WebSocketOutbox.fromSystemProperties("shopStatus", OutboundQueue.SlowConsumerPolicy.COALESCE_BY_KEY);
     private final Gson gson = new Gson();
     
     public ShopStatusWebSocketServer(int port) {
@@ -45,6 +51,7 @@ public class ShopStatusWebSocketServer extends WebSocketServer {
     @Override
     public void onOpen(WebSocket conn, ClientHandshake handshake) {
         clients.add(conn);
+        outbox.register(conn);
         System.out.println("Shop Status WebSocket: Client connected from " + conn.getRemoteSocketAddress());
         System.out.println("Shop Status WebSocket: Total clients: " + clients.size());
         // Small delay to ensure client is fully registered
@@ -58,6 +65,7 @@ public class ShopStatusWebSocketServer extends WebSocketServer {
     @Override
     public void onClose(WebSocket conn, int code, String reason, boolean remote) {
         clients.remove(conn);
+        outbox.unregister(conn);
         System.out.println("Shop Status WebSocket: Client disconnected: " + reason);
         System.out.println("Shop Status WebSocket: Total clients: " + clients.size());
     }
@@ -72,6 +80,7 @@ public class ShopStatusWebSocketServer extends WebSocketServer {
         System.err.println("Shop Status WebSocket Error: " + ex.getMessage());
         if (conn != null) {
             clients.remove(conn);
+            outbox.unregister(conn);
         }
     }
     
@@ -97,27 +106,9 @@ public class ShopStatusWebSocketServer extends WebSocketServer {
         System.out.println("  JSON:        " + json);
         System.out.println("  Connected clients (before broadcast): " + clients.size());
         
-        synchronized (clients) {
-            Set<WebSocket> disconnected = new HashSet<>();
-            int sentCount = 0;
-            for (WebSocket client : clients) {
-                try {
-                    if (client.isOpen()) {
-                        client.send(json);
-                        sentCount++;
-                        System.out.println("  ✓ Sent to client: " + client.getRemoteSocketAddress());
-                    } else {
-                        System.out.println("  ✗ Skipped closed client: " + client.getRemoteSocketAddress());
-                        disconnected.add(client);
-                    }
-                } catch (Exception e) {
-                    System.err.println("  ✗ Failed to send to client: " + e.getMessage());
-                    disconnected.add(client);
-                }
-            }
-            clients.removeAll(disconnected);
-            System.out.println("  Successfully sent to " + sentCount + "/" + (sentCount + disconnected.size()) + " clients");
-        }
+        outbox.broadcast("shop:" + shopId, json);
+        RealtimeGateway.getInstance().publish(RealtimeGateway.Channel.SHOP_STATUS, "shop:" + shopId, json);
+        System.out.println("  Queued for " + outbox.connectionCount() + " clients");
         System.out.println("╚════════════════════════════════════════════════════════╝\n");
     }
     
@@ -125,22 +116,22 @@ public class ShopStatusWebSocketServer extends WebSocketServer {
         return clients.size();
     }
 
+    public WebSocketOutbox.Stats getOutboxStats() {
+        return outbox.stats();
+    }
+
     /**
      * Broadcast a raw JSON string to all connected clients.
      * Intended for hub-coordinated generic topic sync.
      */
     public void broadcastRaw(String json) {
-        synchronized (clients) {
-            Set<WebSocket> disconnected = new java.util.HashSet<>();
-            for (WebSocket client : clients) {
-                try {
-                    if (client.isOpen()) client.send(json);
-                    else disconnected.add(client);
-                } catch (Exception e) {
-                    disconnected.add(client);
-                }
-            }
-            clients.removeAll(disconnected);
-        }
+        // Identical envelopes queued for a lagging client collapse into one
+        outbox.broadcast(json, json);
+    }
+
+    @Override
+    public void stop(int timeout, String closeMessage) throws InterruptedException {
+        super.stop(timeout, closeMessage);
+        outbox.shutdown();
     }
 }
@@ -7,17 +7,29 @@ import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * WebSocket client for JavaFX to receive real-time stock updates.
  * Uses Platform.runLater() to safely update JavaFX UI from WebSocket thread.
+ *
+ * Remembers the last update sequence it saw; after {@link #reconnect()} it asks the server
+ * to resume from there, and replayed updates older than one already applied for the same
+ * item are skipped. Batched broadcasts ({@code STOCK_BATCH}) are delivered to listeners as one
+ * update per item.
  */
 public class StockWebSocketClient extends WebSocketClient {
     
     // Listeners that will be notified when stock updates arrive
     private final List<StockUpdateListener> listeners = new ArrayList<>();
     
+    // Resume position and newest sequence applied per item; touched only on the socket thread
+    private long epoch;
+    private long lastSeq = -1;
+    private final Map<Integer, Long> itemSeq = new HashMap<>();
+    
     public StockWebSocketClient(URI serverUri) {
         super(serverUri);
     }
@@ -36,7 +48,7 @@ public class StockWebSocketClient extends WebSocketClient {
             // Parse stock update message
             StockUpdateMessage update = StockUpdateMessage.fromJson(message);
             
-            if (update != null) {
+            if (update != null && isNewer(update)) {
                 // Notify all listeners on JavaFX UI thread (thread-safe)
                 Platform.runLater(() -> {
                     for (StockUpdateListener listener : listeners) {
@@ -44,7 +56,44 @@ public class StockWebSocketClient extends WebSocketClient {
                     }
                 });
             }
-        } else if (message.contains("\"type\":\"PURCHASE_FAILED\"")) {
+        } else if (message.contains("\"type\":\"STOCK_BATCH\"")) {
+            // Latest stock of every item that changed during one server batching window
+            List<StockUpdateMessage> updates = new ArrayList<>();
+            for (StockUpdateMessage update : StockUpdateMessage.fromBatchJson(message)) {
+                if (isNewer(update)) updates.add(update);
+            }
+            if (!updates.isEmpty()) {
+                Platform.runLater(() -> {
+                    for (StockUpdateMessage update : updates) {
+                        for (StockUpdateListener listener : listeners) {
+                            listener.onStockUpdate(update);
+                        }
+                    }
+                });
+            }
+        } else if (message.contains("\"type\":\"PURCHASE_OK\"")) {
+            // Our own purchase, acknowledged ahead of the next batch
+            StockUpdateMessage update = StockUpdateMessage.fromJson(message);
+            if (update != null) {
+                Platform.runLater(() -> {
+                    for (StockUpdateListener listener : listeners) {
+                        listener.onStockUpdate(update);
+                    }
+                });
+            }
+        } else if (message.contains("\"type\":\"PURCHASE_BATCH_OK\"") || message.contains("\"type\":\"STOCK_LEVELS\"")) {
+            // Our own batch purchase, or a bulk stock query reply
+            List<StockUpdateMessage> updates = StockUpdateMessage.fromBatchJson(message);
+            if (!updates.isEmpty()) {
+                Platform.runLater(() -> {
+                    for (StockUpdateMessage update : updates) {
+                        for (StockUpdateListener listener : listeners) {
+                            listener.onStockUpdate(update);
+                        }
+                    }
+                });
+            }
+        } else if (message.contains("\"type\":\"PURCHASE_FAILED\"") || message.contains("\"type\":\"PURCHASE_BATCH_FAILED\"")) {
             // Notify about purchase failure
             Platform.runLater(() -> {
                 for (StockUpdateListener listener : listeners) {
@@ -53,9 +102,47 @@ public class StockWebSocketClient extends WebSocketClient {
             });
         } else if (message.contains("\"type\":\"CONNECTED\"")) {
             System.out.println("Server confirmed connection");
+            onConnected(longField(message, "epoch"), longField(message, "seq"));
+        } else if (message.contains("\"type\":\"SNAPSHOT_REQUIRED\"")) {
+            itemSeq.clear();
+            Platform.runLater(() -> {
+                for (StockUpdateListener listener : listeners) {
+                    listener.onSnapshotRequired();
+                }
+            });
         }
     }
     
+    private boolean isNewer(StockUpdateMessage update) {
+        if (update.getSeq() <= 0) return true; // direct query reply
+        Long applied = itemSeq.get(update.getItemId());
+        if (applied != null && applied >= update.getSeq()) return false;
+        itemSeq.put(update.getItemId(), update.getSeq());
+        lastSeq = Math.max(lastSeq, update.getSeq());
+        return true;
+    }
+    
+    private void onConnected(long serverEpoch, long serverSeq) {
+        if (lastSeq >= 0 && serverSeq >= 0) {
+            send(String.format("{\"type\":\"RESUME\",\"epoch\":%d,\"since\":%d}", epoch, lastSeq));
+        }
+        if (lastSeq < 0 || serverEpoch != epoch) {
+            // First connection, or a restarted server numbering from scratch
+            epoch = serverEpoch;
+            lastSeq = serverSeq;
+            itemSeq.clear();
+        }
+    }
+    
+    private static long longField(String message, String name) {
+        int start = message.indexOf("\"" + name + "\":");
+        if (start < 0) return -1;
+        start += name.length() + 3;
+        int end = start;
+        while (end < message.length() && (Character.isDigit(message.charAt(end)) || message.charAt(end) == '-')) end++;
+        return Long.parseLong(message.substring(start, end));
+    }
+    
     @Override
     public void onClose(int code, String reason, boolean remote) {
         System.out.println("Disconnected from WebSocket server. Reason: " + reason);
@@ -97,6 +184,34 @@ public class StockWebSocketClient extends WebSocketClient {
         System.out.println("Sent purchase request for item " + itemId);
     }
     
+    /**
+     * Send a purchase of several items, bought all together or not at all
+     * @param quantities item id to quantity
+     */
+    public void requestPurchaseBatch(Map<Integer, Integer> quantities) {
+        StringBuilder message = new StringBuilder("{\"type\":\"PURCHASE_BATCH\",\"items\":[");
+        boolean first = true;
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            if (!first) message.append(',');
+            message.append("{\"itemId\":").append(line.getKey()).append(",\"qty\":").append(line.getValue()).append('}');
+            first = false;
+        }
+        send(message.append("]}").toString());
+        System.out.println("Sent batch purchase request for " + quantities.size() + " items");
+    }
+    
+    /**
+     * Query current stock for several items in one request
+     */
+    public void queryStocks(int... itemIds) {
+        StringBuilder message = new StringBuilder("{\"type\":\"GET_STOCK_BATCH\",\"itemIds\":[");
+        for (int i = 0; i < itemIds.length; i++) {
+            if (i > 0) message.append(',');
+            message.append(itemIds[i]);
+        }
+        send(message.append("]}").toString());
+    }
+    
     /**
      * Query current stock for an item
      */
@@ -124,5 +239,12 @@ public class StockWebSocketClient extends WebSocketClient {
          * Called when disconnected from server (on JavaFX UI thread)
          */
         void onDisconnected();
+        
+        /**
+         * Called after a reconnect when missed updates could not be replayed; re-query the
+         * stock being displayed (on JavaFX UI thread)
+         */
+        default void onSnapshotRequired() {
+        }
     }
 }
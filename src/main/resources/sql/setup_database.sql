@@ -39,11 +39,7 @@ INSERT OR IGNORE INTO orders (customer_name, food_name, quantity, total_price, s
 ('Alice Johnson', 'Chicken Wings', 1, 300.00, 'Pending', 1),
 ('Charlie Brown', 'Coca Cola', 4, 200.00, 'Completed', 1);
 
--- Create indexes for better performance
-CREATE INDEX IF NOT EXISTS idx_food_items_seller_id ON food_items(seller_id);
-CREATE INDEX IF NOT EXISTS idx_orders_seller_id ON orders(seller_id);
-CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
-CREATE INDEX IF NOT EXISTS idx_orders_created_at ON orders(created_at);
+-- Indexes are created by the versioned schema migrations (com.unieats.util.SchemaMigrations)
 
 -- Display table information
 SELECT 'Database setup completed successfully!' as message;
@@ -0,0 +1,70 @@
+package com.unieats.dao;
+
+import com.unieats.stock.StockReservations;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CartDaoTest {
+
+    private static final int ITEM_ID = 410;
+    private static final int SHRINKING_ITEM_ID = 411;
+
+    @BeforeAll
+    static void setUpDatabase() throws IOException, SQLException {
+        TestDatabase.init();
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(41, 1, 'Carts', 'approved')");
+            st.execute("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(" + ITEM_ID + ", 41, 'Samosa', 10, 3)");
+            st.execute("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(" + SHRINKING_ITEM_ID + ", 41, 'Pakora', 10, 3)");
+        }
+    }
+
+    @Test
+    void testHoldFollowsTheCartRow() {
+        CartDao dao = new CartDao();
+        StockReservations reservations = StockReservations.getInstance();
+
+        dao.updateQuantity(4101, ITEM_ID, 2);
+        assertEquals(0, reservations.held(ITEM_ID), "No cart row, so nothing is held");
+
+        dao.addToCart(4101, ITEM_ID, 2);
+        assertThrows(RuntimeException.class, () -> dao.addToCart(4102, ITEM_ID, 2));
+        assertEquals(0, dao.getQuantity(4102, ITEM_ID));
+        assertThrows(RuntimeException.class, () -> dao.updateQuantity(4101, ITEM_ID, 2));
+        assertEquals(2, dao.getQuantity(4101, ITEM_ID));
+        assertEquals(2, reservations.held(ITEM_ID), "A refused change keeps the previous hold");
+
+        dao.updateQuantity(4101, ITEM_ID, -2);
+        assertEquals(0, dao.getQuantity(4101, ITEM_ID));
+        assertEquals(0, reservations.held(ITEM_ID));
+    }
+
+    @Test
+    void testLoweringALineSucceedsAfterStockDrops() throws SQLException {
+        CartDao dao = new CartDao();
+        StockReservations reservations = StockReservations.getInstance();
+
+        dao.addToCart(4103, SHRINKING_ITEM_ID, 3);
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("UPDATE food_items SET stock = 1 WHERE id = " + SHRINKING_ITEM_ID);
+        }
+
+        dao.updateQuantity(4103, SHRINKING_ITEM_ID, -1);
+        assertEquals(2, dao.getQuantity(4103, SHRINKING_ITEM_ID));
+        assertEquals(2, reservations.held(SHRINKING_ITEM_ID), "Lowering a line is never checked against stock");
+        assertThrows(RuntimeException.class, () -> dao.updateQuantity(4103, SHRINKING_ITEM_ID, 1));
+        assertEquals(2, dao.getQuantity(4103, SHRINKING_ITEM_ID));
+
+        dao.clearCart(4103);
+        assertEquals(0, reservations.held(SHRINKING_ITEM_ID));
+    }
+}
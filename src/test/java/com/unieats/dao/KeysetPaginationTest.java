@@ -0,0 +1,150 @@
+package com.unieats.dao;
+
+import com.unieats.OrderInfo;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetPaginationTest {
+
+    private static final int USER_ID = 1;
+    private static final int SHOP_ID = 1;
+
+    @BeforeAll
+    static void setUpDatabase() throws IOException, SQLException {
+        TestDatabase.init();
+        try (Connection conn = ConnectionPool.getConnection()) {
+            try (Statement st = conn.createStatement()) {
+                st.execute("INSERT OR IGNORE INTO users(id, email, password, full_name, user_category) VALUES(1, 'a@b.c', 'x', 'Ann', 'student')");
+                st.execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(1, 1, 'Cafe', 'approved')");
+            }
+            // 25 orders sharing a handful of timestamps so ties on created_at are exercised
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO orders(user_id, shop_id, total_price, status, created_at) VALUES(?,?,?,?,?)")) {
+                for (int i = 0; i < 25; i++) {
+                    ps.setInt(1, USER_ID);
+                    ps.setInt(2, SHOP_ID);
+                    ps.setDouble(3, i);
+                    ps.setString(4, i % 5 == 4 ? "pending" : "delivered");
+                    ps.setString(5, "2025-01-0" + (1 + i / 6) + " 12:00:00");
+                    ps.executeUpdate();
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO reviews(user_id, shop_id, rating, comment, created_at) VALUES(?,?,?,?,?)")) {
+                for (int i = 0; i < 7; i++) {
+                    ps.setInt(1, USER_ID);
+                    ps.setInt(2, SHOP_ID);
+                    ps.setInt(3, 1 + i % 5);
+                    ps.setString(4, "r" + i);
+                    ps.setString(5, "2025-02-01 10:00:0" + (i / 3));
+                    ps.executeUpdate();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testOrderHistoryPagesCoverEveryRowOnce() {
+        OrderDao dao = new OrderDao();
+        List<Integer> seen = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            Page<OrderInfo> page = dao.getOrderHistoryPage(USER_ID, token, 4);
+            page.items().forEach(o -> seen.add(o.getId()));
+            token = page.nextToken();
+            pages++;
+        } while (token != null);
+
+        assertEquals(20, seen.size(), "pending orders are not history");
+        assertEquals(5, pages);
+        assertEquals(seen.stream().distinct().count(), seen.size());
+        // Newest first, ties broken by id descending
+        assertEquals(List.of(24, 23, 22, 21), seen.subList(0, 4));
+        assertEquals(20, dao.estimateOrderHistoryCount(USER_ID, 100));
+        assertEquals(8, dao.estimateOrderHistoryCount(USER_ID, 8));
+    }
+
+    @Test
+    void testReviewPagesFollowTokens() {
+        ReviewDao dao = new ReviewDao();
+        Page<ReviewDao.Review> first = dao.pageReviewsForShop(SHOP_ID, null, 5);
+        assertEquals(5, first.items().size());
+        assertTrue(first.hasMore());
+        Page<ReviewDao.Review> second = dao.pageReviewsForShop(SHOP_ID, first.nextToken(), 5);
+        assertFalse(second.hasMore());
+        // Reviews are seeded in ascending time order, so newest first is descending id
+        List<Integer> ids = new ArrayList<>();
+        first.items().forEach(r -> ids.add(r.id()));
+        second.items().forEach(r -> ids.add(r.id()));
+        assertEquals(7, ids.size());
+        assertEquals(ids.stream().sorted(Comparator.reverseOrder()).toList(), ids);
+        assertEquals(first.items(), dao.listReviewsForShop(SHOP_ID, 5));
+    }
+
+    @Test
+    void testStockChangesPageThroughSharedTimestamps() throws SQLException {
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO food_items(id, shop_id, name, price, stock, updated_at) VALUES"
+                    + "(905, 1, 'e', 1, 5, '2099-01-01 00:00:00'), (901, 1, 'a', 1, 1, '2099-01-01 00:00:00'),"
+                    + "(903, 1, 'c', 1, 3, '2099-01-01 00:00:00'), (902, 1, 'b', 1, 2, '2099-01-01 00:00:01'),"
+                    + "(904, 1, 'd', 1, 4, '2099-01-01 00:00:01')");
+        }
+        FoodItemDao dao = new FoodItemDao();
+        List<Integer> seen = new ArrayList<>();
+        String since = "2099-01-01 00:00:00";
+        int afterId = 0;
+        List<FoodItemDao.StockRow> page;
+        do {
+            page = dao.listStockChangedSince(since, afterId, 2);
+            for (FoodItemDao.StockRow row : page) seen.add(row.id());
+            if (!page.isEmpty()) {
+                since = page.get(page.size() - 1).updatedAt();
+                afterId = page.get(page.size() - 1).id();
+            }
+        } while (page.size() == 2);
+        assertEquals(List.of(901, 903, 905, 902, 904), seen, "Rows sharing a timestamp are neither skipped nor repeated");
+    }
+
+    @Test
+    void testInvalidTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderDao().getOrderHistoryPage(USER_ID, "not-a-token", 4));
+    }
+
+    @Test
+    void testPagesAreServedFromIndexesWithoutSorting() throws SQLException {
+        assertPlan("SELECT o.id FROM orders o WHERE o.user_id = 1 AND o.status IN ('delivered') "
+                + "AND (o.created_at, o.id) < ('2025-01-03', 9) ORDER BY o.created_at DESC, o.id DESC LIMIT 5",
+                "idx_orders_user_created");
+        assertPlan("SELECT r.id FROM reviews r WHERE r.shop_id = 1 "
+                + "AND (r.created_at, r.id) < ('2025-02-01', 9) ORDER BY r.created_at DESC, r.id DESC LIMIT 5",
+                "idx_reviews_shop_created");
+        assertPlan("SELECT id, stock, updated_at FROM food_items WHERE (updated_at, id) > ('2099-01-01', 0) "
+                + "ORDER BY updated_at, id LIMIT 5", "idx_food_items_updated");
+    }
+
+    private void assertPlan(String sql, String index) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection conn = ConnectionPool.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) plan.append(rs.getString("detail")).append('\n');
+        }
+        assertTrue(plan.toString().contains(index), "Expected " + index + "\nPlan:\n" + plan);
+        assertFalse(plan.toString().contains("TEMP B-TREE"), "Expected no sort step\nPlan:\n" + plan);
+    }
+}
@@ -0,0 +1,114 @@
+package com.unieats.dao;
+
+import com.unieats.FoodItem;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.SchemaMigrations;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Compares ORDER BY RANDOM() against RandomItemSampler on a 100k item catalog.
+ * Not a unit test; run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.unieats.dao.RandomItemSamplerBenchmark
+ */
+public class RandomItemSamplerBenchmark {
+	private static final int ITEMS = 100_000;
+	private static final int SHOPS = 200;
+	private static final int WARMUP = 20;
+	private static final int ROUNDS = 50;
+
+	public static void main(String[] args) throws Exception {
+		File db = File.createTempFile("unieats-sampler-bench", ".db");
+		db.deleteOnExit();
+		System.setProperty("unieats.db.url", "jdbc:sqlite:" + db.getAbsolutePath());
+
+		seed();
+		for (int k : new int[]{10, 1000}) {
+			benchOrderByRandom(k);
+			benchSampler(k);
+		}
+		ConnectionPool.shutdown();
+	}
+
+	private static void seed() throws Exception {
+		try (Connection conn = ConnectionPool.getConnection()) {
+			SchemaMigrations.migrator().migrate(conn);
+			conn.setAutoCommit(false);
+			try (PreparedStatement shop = conn.prepareStatement("INSERT INTO shops(owner_id, shop_name, status) VALUES(1, ?, ?)")) {
+				for (int s = 1; s <= SHOPS; s++) {
+					shop.setString(1, "Shop " + s);
+					shop.setString(2, s % 10 == 0 ? "pending" : "approved");
+					shop.addBatch();
+				}
+				shop.executeBatch();
+			}
+			try (PreparedStatement item = conn.prepareStatement("INSERT INTO food_items(shop_id, name, price, stock) VALUES(?,?,?,?)")) {
+				for (int i = 1; i <= ITEMS; i++) {
+					item.setInt(1, 1 + i % SHOPS);
+					item.setString(2, "Item " + i);
+					item.setDouble(3, 50 + i % 300);
+					item.setInt(4, i % 100);
+					item.addBatch();
+				}
+				item.executeBatch();
+			}
+			conn.commit();
+			try (Statement st = conn.createStatement()) {
+				st.execute("ANALYZE");
+			}
+		}
+	}
+
+	private static void benchOrderByRandom(int k) throws Exception {
+		String sql = "SELECT fi.* FROM food_items fi JOIN shops s ON fi.shop_id = s.id WHERE s.status = 'approved' ORDER BY RANDOM() LIMIT ?";
+		FoodItemDao dao = new FoodItemDao();
+		long best = Long.MAX_VALUE, total = 0;
+		for (int r = -WARMUP; r < ROUNDS; r++) {
+			long t0 = System.nanoTime();
+			int rows = 0;
+			try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+				ps.setInt(1, k);
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						dao.map(rs);
+						rows++;
+					}
+				}
+			}
+			long t = System.nanoTime() - t0;
+			if (r < 0) continue;
+			if (rows != k) throw new IllegalStateException("expected " + k + " rows, got " + rows);
+			best = Math.min(best, t);
+			total += t;
+		}
+		report("ORDER BY RANDOM()", k, best, total);
+	}
+
+	private static void benchSampler(int k) {
+		RandomItemSampler sampler = new RandomItemSampler(new FoodItemDao());
+		long t0 = System.nanoTime();
+		sampler.sample(1);
+		System.out.printf("  sampler index build (%d ids): %.2f ms%n", sampler.size(), (System.nanoTime() - t0) / 1e6);
+
+		long best = Long.MAX_VALUE, total = 0;
+		for (int r = -WARMUP; r < ROUNDS; r++) {
+			long s = System.nanoTime();
+			List<FoodItem> items = sampler.sample(k);
+			long t = System.nanoTime() - s;
+			if (r < 0) continue;
+			if (items.size() != k) throw new IllegalStateException("expected " + k + " items, got " + items.size());
+			best = Math.min(best, t);
+			total += t;
+		}
+		report("RandomItemSampler", k, best, total);
+	}
+
+	private static void report(String name, int k, long bestNanos, long totalNanos) {
+		System.out.printf("%-20s k=%-5d avg %8.3f ms   best %8.3f ms%n", name, k, totalNanos / 1e6 / ROUNDS, bestNanos / 1e6);
+	}
+}
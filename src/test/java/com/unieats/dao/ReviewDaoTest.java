@@ -0,0 +1,60 @@
+package com.unieats.dao;
+
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewDaoTest {
+
+    private static final int SHOP_ID = 20;
+    private static final int FOOD_ID = 200;
+
+    @BeforeAll
+    static void setUpDatabase() throws IOException, SQLException {
+        TestDatabase.init();
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("INSERT OR IGNORE INTO users(id, email, password, full_name, user_category) VALUES(1, 'a@b.c', 'x', 'Ann', 'student')");
+            st.execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(" + SHOP_ID + ", 1, 'Grill', 'approved')");
+            st.execute("INSERT INTO food_items(id, shop_id, name, price) VALUES(" + FOOD_ID + ", " + SHOP_ID + ", 'Kebab', 90)");
+        }
+    }
+
+    @Test
+    void testSummaryTracksReviewsWithoutScanningThem() {
+        ReviewDao dao = new ReviewDao();
+        assertEquals(0, dao.getRatingSummaryForShop(SHOP_ID).count());
+
+        for (int rating : new int[]{5, 4, 5, 1}) dao.addShopReview(1, SHOP_ID, rating, "ok");
+        dao.addFoodReview(1, FOOD_ID, 3, null);
+
+        ReviewDao.RatingSummary shop = dao.getRatingSummaryForShop(SHOP_ID);
+        assertEquals(4, shop.count());
+        assertEquals(15, shop.sum());
+        assertEquals(3.75, dao.getAverageRatingForShop(SHOP_ID), 1e-9);
+        assertEquals(2, shop.stars(5));
+        assertEquals(0, shop.stars(2));
+        assertEquals(1, shop.stars(1));
+
+        Map<Integer, ReviewDao.RatingSummary> foods = dao.getRatingSummariesForFoods(List.of(FOOD_ID, FOOD_ID + 1));
+        assertEquals(1, foods.size());
+        assertEquals(3.0, foods.get(FOOD_ID).average(), 1e-9);
+    }
+
+    @Test
+    void testInvalidRatingLeavesNoTrace() {
+        ReviewDao dao = new ReviewDao();
+        int before = dao.getRatingSummaryForFood(FOOD_ID).count();
+        assertThrows(IllegalArgumentException.class, () -> dao.addFoodReview(1, FOOD_ID, 6, "nope"));
+        assertEquals(before, dao.getRatingSummaryForFood(FOOD_ID).count());
+    }
+}
@@ -0,0 +1,81 @@
+package com.unieats.network;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdminEventSocketServerTest {
+
+    private AdminEventSocketServer server;
+    private final List<Socket> sockets = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        server = new AdminEventSocketServer(0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Socket s : sockets) s.close();
+        server.stop();
+    }
+
+    @Test
+    void testBroadcastReachesEveryClientOnOneSelectorThread() throws Exception {
+        List<BufferedReader> readers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) readers.add(connect());
+        waitUntil(() -> server.connectionCount() == 200);
+
+        String big = "x".repeat(20_000); // larger than a connection's write buffer
+        server.broadcast("shops");
+        server.broadcast(big);
+        server.broadcast("payments");
+
+        for (BufferedReader reader : readers) {
+            assertEquals("shops", reader.readLine());
+            assertEquals(big, reader.readLine());
+            assertEquals("payments", reader.readLine());
+        }
+        AdminEventSocketServer.Stats stats = server.stats();
+        assertEquals(200 * 3, stats.messagesOut());
+        assertEquals(200L * ("shops\n".length() + big.length() + 1 + "payments\n".length()), stats.bytesOut());
+        assertEquals(1, Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("admin-sock")).count());
+    }
+
+    @Test
+    void testClientCloseIsDetectedFromReadSide() throws Exception {
+        connect();
+        connect();
+        waitUntil(() -> server.connectionCount() == 2);
+
+        sockets.get(0).close();
+        waitUntil(() -> server.connectionCount() == 1);
+        assertEquals(2, server.stats().accepted());
+    }
+
+    private BufferedReader connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", server.getLocalPort());
+        socket.setSoTimeout(10_000);
+        sockets.add(socket);
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,74 @@
+package com.unieats.realtime;
+
+import com.unieats.util.SchemaMigrations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrations.migrator().migrate(conn);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void testTailsRowChangesInCommitOrder() throws SQLException {
+        ChangeFeed feed = new ChangeFeed(ChangeFeed.latestSequence(conn));
+        assertTrue(feed.poll(conn, 100).isEmpty());
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(5, 1, 'Grill', 'pending')");
+            st.execute("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(50, 5, 'Wrap', 4, 10)");
+            // No updated_at change: the old COUNT/MAX(updated_at) poll never saw these
+            st.execute("UPDATE food_items SET stock = stock - 1 WHERE id = 50");
+            st.execute("UPDATE shops SET status = 'approved' WHERE id = 5");
+            st.execute("DELETE FROM food_items WHERE id = 50");
+        }
+
+        List<ChangeEvent> changes = feed.poll(conn, 100);
+        assertEquals(List.of("shops:5:INSERT", "foodItems:50:INSERT", "foodItems:50:UPDATE", "shops:5:UPDATE", "foodItems:50:DELETE"),
+                changes.stream().map(c -> c.topic() + ":" + c.rowId() + ":" + c.op()).toList());
+        for (int i = 1; i < changes.size(); i++) assertTrue(changes.get(i).seq() > changes.get(i - 1).seq());
+        assertTrue(feed.poll(conn, 100).isEmpty(), "each change is delivered once");
+    }
+
+    @Test
+    void testBatchesAndPruneKeepNewest() throws SQLException {
+        ChangeFeed feed = new ChangeFeed(0);
+        try (Statement st = conn.createStatement()) {
+            for (int i = 1; i <= 7; i++) {
+                st.execute("INSERT INTO reports(id, user_id, shop_id, title, description) VALUES(" + i + ", 1, 1, 't', 'd')");
+            }
+        }
+        assertEquals(3, feed.poll(conn, 3).size());
+        assertEquals(3, feed.poll(conn, 3).size());
+        assertEquals(1, feed.poll(conn, 3).size());
+
+        long latest = ChangeFeed.latestSequence(conn);
+        assertEquals(5, ChangeFeed.prune(conn, 2));
+        assertEquals(latest, ChangeFeed.latestSequence(conn));
+        try (Statement st = conn.createStatement()) {
+            st.execute("DELETE FROM reports WHERE id = 1");
+        }
+        List<ChangeEvent> next = feed.poll(conn, 10);
+        assertEquals(1, next.size());
+        assertEquals(latest + 1, next.get(0).seq(), "sequence numbers are not reused after pruning");
+    }
+}
@@ -0,0 +1,102 @@
+package com.unieats.realtime;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeltaApplierTest {
+
+    private static final class Item {
+        final long id;
+        String name;
+        String status;
+
+        Item(long id, String name, String status) {
+            this.id = id;
+            this.name = name;
+            this.status = status;
+        }
+    }
+
+    private final Map<Long, Item> database = new HashMap<>();
+    private final List<Long> lookups = new ArrayList<>();
+    private final ObservableList<Item> items = FXCollections.observableArrayList();
+    private final DeltaApplier<Item> applier = new DeltaApplier<>(items, item -> item.id, id -> {
+        lookups.add(id);
+        Item row = database.get(id);
+        return row == null ? null : new Item(row.id, row.name, row.status);
+    })
+            .field("name", DeltaApplier.string((Item item, String name) -> item.name = name))
+            .field("status", DeltaApplier.string((Item item, String status) -> item.status = status))
+            .ignore("updated_at")
+            .filter(item -> "approved".equals(item.status));
+
+    @Test
+    void testUpdatePatchesTheRowInPlace() {
+        Item grill = new Item(1, "Grill", "approved");
+        items.add(grill);
+        List<ListChangeListener.Change<? extends Item>> events = new ArrayList<>();
+        items.addListener((ListChangeListener<Item>) events::add);
+
+        assertTrue(applier.apply(envelope("{\"id\":1,\"op\":\"update\",\"version\":4,\"fields\":{\"name\":\"Grill House\",\"updated_at\":\"now\"}}")));
+
+        assertSame(grill, items.get(0));
+        assertEquals("Grill House", grill.name);
+        assertEquals(1, events.size(), "one change notification for the patched row");
+        assertTrue(lookups.isEmpty());
+        assertEquals(new DeltaApplier.Stats(1, 0, 0, 0), applier.stats());
+    }
+
+    @Test
+    void testInsertsAndRowsLeavingTheFilter() {
+        items.add(new Item(1, "Grill", "approved"));
+        database.put(2L, new Item(2, "Cafe", "approved"));
+
+        assertTrue(applier.apply(envelope(
+                "{\"id\":2,\"op\":\"insert\",\"version\":5,\"fields\":{\"name\":\"Cafe\",\"status\":\"approved\",\"owner_id\":3}}",
+                "{\"id\":1,\"op\":\"update\",\"version\":6,\"fields\":{\"status\":\"rejected\"}}")));
+
+        assertEquals(List.of(2L), items.stream().map(i -> i.id).toList());
+        assertEquals(List.of(2L), lookups, "only the new row is read");
+
+        assertTrue(applier.apply(envelope("{\"id\":2,\"op\":\"delete\",\"version\":7}")));
+        assertTrue(items.isEmpty());
+    }
+
+    @Test
+    void testStaleDeltasAreIgnored() {
+        items.add(new Item(1, "Grill", "approved"));
+        applier.apply(envelope("{\"id\":1,\"op\":\"update\",\"version\":9,\"fields\":{\"name\":\"New\"}}"));
+        applier.apply(envelope("{\"id\":1,\"op\":\"update\",\"version\":8,\"fields\":{\"name\":\"Old\"}}"));
+        assertEquals("New", items.get(0).name);
+        assertEquals(1, applier.stats().stale());
+    }
+
+    @Test
+    void testScopeSkipsOtherShopsWithoutLookups() {
+        applier.scope("shop_id", 3);
+        database.put(5L, new Item(5, "Wrap", "approved"));
+        applier.apply(envelope("{\"id\":5,\"op\":\"insert\",\"version\":1,\"fields\":{\"shop_id\":4,\"name\":\"Wrap\"}}"));
+        assertTrue(items.isEmpty());
+        assertTrue(lookups.isEmpty());
+    }
+
+    @Test
+    void testEnvelopesWithoutDeltasAskForAReload() {
+        assertFalse(applier.apply("{\"type\":\"topic\",\"topic\":\"shops\"}"));
+        assertFalse(applier.apply("{\"type\":\"topic\",\"topic\":\"shops\",\"seq\":3,\"truncated\":true}"));
+        assertFalse(applier.apply("not json"));
+    }
+
+    private static String envelope(String... changes) {
+        return "{\"type\":\"topic\",\"topic\":\"shops\",\"entity\":\"shops\",\"changes\":[" + String.join(",", changes) + "]}";
+    }
+}
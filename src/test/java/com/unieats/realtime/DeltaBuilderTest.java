@@ -0,0 +1,107 @@
+package com.unieats.realtime;
+
+import com.unieats.util.SchemaMigrations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeltaBuilderTest {
+
+    private Connection conn;
+    private ChangeFeed feed;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrations.migrator().migrate(conn);
+        feed = new ChangeFeed(ChangeFeed.latestSequence(conn));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void testInsertCarriesRowAndUpdateOnlyChangedColumns() throws SQLException {
+        DeltaBuilder builder = new DeltaBuilder(100);
+        execute("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(50, 5, 'Wrap', 4, 10)");
+        List<EntityDelta> inserted = builder.build(conn, "food_items", feed.poll(conn, 100));
+        assertEquals(1, inserted.size());
+        assertEquals(ChangeEvent.Op.INSERT, inserted.get(0).op());
+        assertEquals("Wrap", inserted.get(0).fields().get("name"));
+
+        execute("UPDATE food_items SET stock = 9 WHERE id = 50");
+        List<ChangeEvent> changes = feed.poll(conn, 100);
+        EntityDelta update = builder.build(conn, "food_items", changes).get(0);
+        assertEquals(ChangeEvent.Op.UPDATE, update.op());
+        assertEquals(changes.get(0).seq(), update.version());
+        // shop_id is sent for routing even though it did not change
+        assertEquals(Map.of("stock", 9, "shop_id", 5), update.fields());
+    }
+
+    @Test
+    void testNetsChangesPerRowAndHidesPasswords() throws SQLException {
+        DeltaBuilder builder = new DeltaBuilder(100);
+        execute("INSERT INTO users(id, email, password, full_name, user_category) VALUES(7, 'a@b.c', 'secret', 'Ann', 'student')");
+        execute("UPDATE users SET full_name = 'Anne' WHERE id = 7");
+        execute("INSERT INTO users(id, email, password, full_name, user_category) VALUES(8, 'd@e.f', 'secret', 'Dan', 'student')");
+        execute("DELETE FROM users WHERE id = 8");
+        List<ChangeEvent> changes = feed.poll(conn, 100);
+
+        List<EntityDelta> deltas = builder.build(conn, "users", changes);
+        assertEquals(2, deltas.size());
+        EntityDelta ann = deltas.get(0);
+        assertEquals(ChangeEvent.Op.INSERT, ann.op(), "a row inserted in the batch is still an insert");
+        assertEquals("Anne", ann.fields().get("full_name"));
+        assertFalse(ann.fields().containsKey("password"));
+        assertEquals(ChangeEvent.Op.DELETE, deltas.get(1).op());
+        assertEquals(changes.get(3).seq(), deltas.get(1).version());
+        assertEquals(1, builder.cachedRowCount());
+    }
+
+    @Test
+    void testPublicEnvelopesCarryNoPersonalData() throws SQLException {
+        DeltaBuilder builder = new DeltaBuilder(100);
+        execute("INSERT INTO users(id, email, password, full_name, phone_no, address, user_category) "
+                + "VALUES(9, 'ann@uni.edu', 'secret', 'Ann', '0123', 'Hall 4', 'student')");
+        execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(9, 9, 'Cafe', 'approved')");
+        execute("INSERT INTO reports(user_id, shop_id, title, description) VALUES(9, 9, 'Cold', 'Ann from Hall 4')");
+        execute("INSERT INTO payments(id, order_id, payment_method, amount, transaction_id, payment_details) "
+                + "VALUES(9, 1, 'card', 10, 'TX-42', '4111')");
+        List<ChangeEvent> changes = feed.poll(conn, 100);
+
+        for (String table : List.of("shops", "reports", "payments")) {
+            List<ChangeEvent> forTable = changes.stream().filter(c -> c.table().equals(table)).toList();
+            String json = RealtimeBroadcastHub.envelope(table, builder.build(conn, table, forTable), new java.util.LinkedHashSet<>());
+            for (String pii : List.of("ann@uni.edu", "secret", "0123", "Hall 4", "TX-42", "4111", "email", "user_id",
+                    "transaction_id", "payment_details", "description")) {
+                assertFalse(json.contains(pii), table + " envelope leaks " + pii + ": " + json);
+            }
+        }
+        assertTrue(DeltaBuilder.isAdminOnly("users"), "User rows only go to admin subscribers");
+        EntityDelta user = builder.build(conn, "users", changes.subList(0, 1)).get(0);
+        assertFalse(user.fields().containsKey("password"));
+    }
+
+    @Test
+    void testRejectsTablesWithoutChangeLog() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new DeltaBuilder(10).build(conn, "users; DROP TABLE users", List.of()));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+    }
+}
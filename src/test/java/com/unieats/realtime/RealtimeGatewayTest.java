@@ -0,0 +1,179 @@
+package com.unieats.realtime;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RealtimeGatewayTest {
+
+    @Test
+    void testEnvelopeCarriesKeysAndRawData() {
+        assertEquals("{\"seq\":7,\"keys\":[\"inventory:shops\",\"admin:shops\"],\"data\":{\"type\":\"topic\"}}",
+                RealtimeGateway.envelope(7, List.of("inventory:shops", "admin:shops"), "{\"type\":\"topic\"}"));
+        assertEquals("shopStatus", RealtimeGateway.Channel.SHOP_STATUS.key(null));
+        assertEquals("stock:item:4", RealtimeGateway.Channel.STOCK.key("item:4"));
+    }
+
+    @Test
+    void testClientKeyMatching() {
+        assertTrue(RealtimeGatewayClient.matches("inventory", "inventory:orders:shop:3"));
+        assertTrue(RealtimeGatewayClient.matches("inventory:orders", "inventory:orders"));
+        assertFalse(RealtimeGatewayClient.matches("inventory:orders", "inventory:ordersx"));
+        assertFalse(RealtimeGatewayClient.matches("admin", "inventory:shops"));
+    }
+
+    @Test
+    void testChannelsShareOneSocketAndEachSubscriberGetsAnEventOnce() throws Exception {
+        int port = freePort();
+        CountDownLatch started = new CountDownLatch(1);
+        RealtimeGateway gateway = new RealtimeGateway(port) {
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        gateway.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        RealtimeGatewayClient seller = new RealtimeGatewayClient("ws://localhost:" + port);
+        RealtimeGatewayClient admin = new RealtimeGatewayClient("ws://localhost:" + port);
+        List<String> orders = new CopyOnWriteArrayList<>();
+        List<String> statuses = new CopyOnWriteArrayList<>();
+        List<String> adminEvents = new CopyOnWriteArrayList<>();
+        try {
+            seller.subscribe(RealtimeGateway.Channel.INVENTORY, "orders:shop:3", orders::add);
+            seller.subscribe(RealtimeGateway.Channel.SHOP_STATUS, null, statuses::add);
+            admin.subscribe(RealtimeGateway.Channel.ADMIN, null, adminEvents::add);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (gateway.getKeys().topicCount() < 3 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+            assertEquals(2, gateway.getKeys().connectionCount());
+
+            gateway.publish(List.of("inventory:orders:shop:3", "admin:orders:shop:3"), "{\"type\":\"order_update\",\"shopId\":3}");
+            gateway.publish(RealtimeGateway.Channel.INVENTORY, "orders:shop:4", "{\"shopId\":4}");
+            gateway.publish(RealtimeGateway.Channel.SHOP_STATUS, "shop:3", "{\"shopId\":3,\"status\":\"approved\"}");
+
+            deadline = System.currentTimeMillis() + 5_000;
+            while ((orders.isEmpty() || statuses.isEmpty() || adminEvents.isEmpty()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+
+            assertEquals(List.of("{\"type\":\"order_update\",\"shopId\":3}"), orders);
+            assertEquals(List.of("{\"shopId\":3,\"status\":\"approved\"}"), statuses);
+            assertEquals(List.of("{\"type\":\"order_update\",\"shopId\":3}"), adminEvents);
+        } finally {
+            seller.stop();
+            admin.stop();
+            gateway.stop(1000);
+        }
+    }
+
+    @Test
+    void testReconnectingClientReceivesOnlyTheEventsItMissed() throws Exception {
+        int port = freePort();
+        CountDownLatch started = new CountDownLatch(1);
+        RealtimeGateway gateway = new RealtimeGateway(port) {
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        gateway.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        try {
+            RawClient first = RawClient.open(port);
+            long epoch = first.hello().get("epoch").getAsLong();
+            first.send("{\"type\":\"subscribe\",\"topics\":[\"inventory:orders\"]}");
+            awaitSubscribers(gateway, 1);
+            for (int i = 1; i <= 3; i++) gateway.publish(RealtimeGateway.Channel.INVENTORY, "orders:shop:1", "{\"n\":" + i + "}");
+            long seen = first.next().get("seq").getAsLong();
+            first.next();
+            long lastSeen = first.next().get("seq").getAsLong();
+            assertEquals(seen + 2, lastSeen);
+            first.closeBlocking();
+
+            // Published while nobody is connected, plus one on a topic the client never asked for
+            gateway.publish(RealtimeGateway.Channel.INVENTORY, "orders:shop:2", "{\"n\":4}");
+            gateway.publish(RealtimeGateway.Channel.SHOP_STATUS, "shop:2", "{\"n\":0}");
+            gateway.publish(RealtimeGateway.Channel.INVENTORY, "orders:shop:1", "{\"n\":5}");
+
+            RawClient second = RawClient.open(port);
+            second.hello();
+            second.send("{\"type\":\"subscribe\",\"topics\":[\"inventory:orders\"],\"epoch\":" + epoch + ",\"since\":" + lastSeen + "}");
+            assertEquals("{\"n\":4}", second.next().get("data").toString());
+            assertEquals("{\"n\":5}", second.next().get("data").toString());
+            gateway.publish(RealtimeGateway.Channel.INVENTORY, "orders:shop:1", "{\"n\":6}");
+            assertEquals("{\"n\":6}", second.next().get("data").toString());
+            second.closeBlocking();
+
+            RawClient restarted = RawClient.open(port);
+            restarted.hello();
+            restarted.send("{\"type\":\"subscribe\",\"topics\":[\"inventory:orders\"],\"epoch\":" + (epoch - 1) + ",\"since\":" + lastSeen + "}");
+            JsonObject reply = restarted.next();
+            assertEquals("snapshot_required", reply.get("type").getAsString());
+            assertEquals("inventory:orders", reply.getAsJsonArray("topics").get(0).getAsString());
+            restarted.closeBlocking();
+
+            assertEquals(2, gateway.getReplayStats().replayed());
+            assertEquals(1, gateway.getReplayStats().snapshotsRequired());
+        } finally {
+            gateway.stop(1000);
+        }
+    }
+
+    private static void awaitSubscribers(RealtimeGateway gateway, int connections) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (gateway.getKeys().connectionCount() < connections && System.currentTimeMillis() < deadline) Thread.sleep(10);
+    }
+
+    private static final class RawClient extends WebSocketClient {
+        private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+        private RawClient(int port) {
+            super(URI.create("ws://localhost:" + port));
+        }
+
+        static RawClient open(int port) throws InterruptedException {
+            RawClient client = new RawClient(port);
+            assertTrue(client.connectBlocking(5, TimeUnit.SECONDS));
+            return client;
+        }
+
+        JsonObject hello() throws InterruptedException {
+            JsonObject hello = next();
+            assertEquals("hello", hello.get("type").getAsString());
+            return hello;
+        }
+
+        JsonObject next() throws InterruptedException {
+            String message = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message, "timed out waiting for a frame");
+            return JsonParser.parseString(message).getAsJsonObject();
+        }
+
+        @Override public void onOpen(ServerHandshake handshake) { }
+        @Override public void onMessage(String message) { received.add(message); }
+        @Override public void onClose(int code, String reason, boolean remote) { }
+        @Override public void onError(Exception ex) { }
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.unieats.realtime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefreshCoalescerTest {
+
+    private final ExecutorService ui = Executors.newSingleThreadExecutor();
+    private final RefreshCoalescer coalescer = new RefreshCoalescer(50, 4, ui);
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+        ui.shutdownNow();
+    }
+
+    @Test
+    void testBurstBecomesOneRefreshWithAllEvents() throws Exception {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        RefreshCoalescer.Lane<Integer> lane = coalescer.lane("items", batches::add);
+        for (int i = 1; i <= 3; i++) lane.submit(i);
+
+        awaitExecuted(lane, 1);
+        Thread.sleep(100);
+        assertEquals(List.of(List.of(1, 2, 3)), batches);
+        assertEquals(new RefreshCoalescer.Stats(3, 1), lane.stats());
+        assertEquals(new RefreshCoalescer.Stats(3, 1), coalescer.stats());
+    }
+
+    @Test
+    void testEventsDuringARefreshCauseOneTrailingRefresh() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        List<List<Object>> batches = new CopyOnWriteArrayList<>();
+        RefreshCoalescer.Lane<Object> lane = coalescer.lane("orders", batch -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            batches.add(new ArrayList<>(batch));
+            inFlight.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+        });
+
+        lane.request();
+        assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) lane.submit("e" + i);
+        Thread.sleep(150);
+        assertEquals(1, batches.size(), "no second refresh while one is in flight");
+        release.countDown();
+
+        awaitExecuted(lane, 2);
+        Thread.sleep(100);
+        // Ten events exceed maxEvents, so the trailing refresh is a full reload
+        assertEquals(List.of(List.of(), List.of()), batches);
+        assertEquals(1, maxConcurrent.get());
+        assertEquals(new RefreshCoalescer.Stats(11, 2), lane.stats());
+    }
+
+    @Test
+    void testReloadRequestSupersedesQueuedEvents() throws Exception {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        RefreshCoalescer.Lane<String> lane = coalescer.lane("shops", batches::add);
+        lane.submit("a");
+        lane.request();
+        lane.submit("b");
+        awaitExecuted(lane, 1);
+        assertEquals(List.of(List.of()), batches);
+    }
+
+    private static void awaitExecuted(RefreshCoalescer.Lane<?> lane, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (lane.stats().executed() < count && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertEquals(count, lane.stats().executed());
+    }
+}
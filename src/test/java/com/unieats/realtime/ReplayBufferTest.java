@@ -0,0 +1,53 @@
+package com.unieats.realtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayBufferTest {
+
+    @Test
+    void testSequenceIsSharedAcrossTopicsAndReplayIsOrdered() {
+        ReplayBuffer buffer = new ReplayBuffer(8, 16);
+        buffer.append(List.of("inventory:orders:shop:1"), seq -> "a" + seq);
+        buffer.append(List.of("shopStatus:shop:1"), seq -> "b" + seq);
+        buffer.append(List.of("inventory:orders:shop:2", "admin:orders:shop:2"), seq -> "c" + seq);
+        assertEquals(3, buffer.latestSequence());
+
+        ReplayBuffer.Replay replay = buffer.since(buffer.epoch(), 0, List.of("inventory:orders", "admin"));
+        assertEquals(List.of("a1", "c3"), replay.events().stream().map(ReplayBuffer.Event::frame).toList());
+        assertTrue(replay.snapshotRequired().isEmpty());
+
+        assertTrue(buffer.since(buffer.epoch(), 3, List.of("inventory")).events().isEmpty());
+    }
+
+    @Test
+    void testOverwrittenGapRequiresSnapshotForThatTopicOnly() {
+        ReplayBuffer buffer = new ReplayBuffer(2, 16);
+        for (int i = 0; i < 4; i++) buffer.append(List.of("stock:item:1"), seq -> "s" + seq);
+        buffer.append(List.of("shopStatus"), seq -> "x" + seq);
+
+        ReplayBuffer.Replay replay = buffer.since(buffer.epoch(), 1, List.of("stock", "shopStatus"));
+        assertEquals(List.of("stock"), replay.snapshotRequired());
+        assertEquals(List.of("x5"), replay.events().stream().map(ReplayBuffer.Event::frame).toList());
+
+        // Still within the ring
+        assertTrue(buffer.since(buffer.epoch(), 2, List.of("stock")).snapshotRequired().isEmpty());
+    }
+
+    @Test
+    void testEvictedTopicOrForeignEpochRequiresSnapshot() {
+        ReplayBuffer buffer = new ReplayBuffer(4, 2);
+        buffer.append(List.of("a"), seq -> "1");
+        buffer.append(List.of("b"), seq -> "2");
+        buffer.append(List.of("c"), seq -> "3");
+        assertEquals(2, buffer.topicCount());
+
+        assertEquals(List.of("c"), buffer.since(buffer.epoch(), 0, List.of("c")).snapshotRequired());
+        assertTrue(buffer.since(buffer.epoch(), 1, List.of("c")).snapshotRequired().isEmpty());
+        assertEquals(List.of("c"), buffer.since(buffer.epoch() + 1, 2, List.of("c")).snapshotRequired());
+        assertEquals(List.of("c"), buffer.since(buffer.epoch(), 99, List.of("c")).snapshotRequired());
+    }
+}
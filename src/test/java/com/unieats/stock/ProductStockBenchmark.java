@@ -0,0 +1,150 @@
+package com.unieats.stock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock decrements under contention: the synchronized {@link ProductStock#safeOrder}
+ * (which holds its monitor through a 10 ms processing delay), one lock around every product's
+ * read-modify-write as StockService used to do, and the lock-free {@link ProductStock#tryReserve}.
+ * The CAS engine is measured on one hot product, on distinct products, and on a thread-private
+ * product so padded ProductStock counters can be compared with adjacent unpadded slots.
+ *
+ * Database-backed purchase paths are covered by {@link StockPurchaseBenchmark}. Run for 1 to 32
+ * threads with:
+ *   mvn test-compile
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.unieats.stock.ProductStockBenchmark [benchmark regex]
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductStockBenchmark {
+    private static final int PRODUCTS = 64;
+    private static final int STOCK = 1_000_000_000;
+
+    private ProductStock[] products;
+    private final int[] lockedStock = new int[PRODUCTS];
+    private final ReentrantLock globalLock = new ReentrantLock();
+    private final AtomicIntegerArray adjacent = new AtomicIntegerArray(PRODUCTS);
+
+    @Setup
+    public void setUp() {
+        products = new ProductStock[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            products[i] = new ProductStock("P-" + i, "Product " + i, STOCK);
+            lockedStock[i] = STOCK;
+            adjacent.set(i, STOCK);
+        }
+    }
+
+    /** Each benchmark thread's own product index. */
+    @State(Scope.Thread)
+    public static class OwnProduct {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+        int index;
+
+        @Setup
+        public void setUp() {
+            index = NEXT.getAndIncrement() % PRODUCTS;
+        }
+    }
+
+    private static int randomProduct() {
+        return ThreadLocalRandom.current().nextInt(PRODUCTS);
+    }
+
+    private int globalLockReserve(int index) {
+        globalLock.lock();
+        try {
+            int stock = lockedStock[index];
+            if (stock <= 0) stock = STOCK;
+            lockedStock[index] = stock - 1;
+            return stock - 1;
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    private static int casReserve(ProductStock product) {
+        int remaining = product.tryReserve(1);
+        if (remaining < 0) product.updateStock(STOCK);
+        return remaining;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean safeOrderHot() {
+        return products[0].safeOrder(1);
+    }
+
+    @Benchmark
+    public int globalLockHot() {
+        return globalLockReserve(0);
+    }
+
+    @Benchmark
+    public int globalLockDistinct() {
+        return globalLockReserve(randomProduct());
+    }
+
+    @Benchmark
+    public int casHot() {
+        return casReserve(products[0]);
+    }
+
+    @Benchmark
+    public int casDistinct() {
+        return casReserve(products[randomProduct()]);
+    }
+
+    @Benchmark
+    public int casOwnPadded(OwnProduct own) {
+        return casReserve(products[own.index]);
+    }
+
+    @Benchmark
+    public int casOwnAdjacentSlots(OwnProduct own) {
+        int index = own.index;
+        int stock;
+        do {
+            stock = adjacent.get(index);
+            if (stock <= 0) {
+                adjacent.set(index, STOCK);
+                return -1;
+            }
+        } while (!adjacent.compareAndSet(index, stock, stock - 1));
+        return stock - 1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = args.length > 0 ? args[0] : ProductStockBenchmark.class.getSimpleName();
+        for (int threads : new int[] {1, 2, 4, 8, 16, 32}) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
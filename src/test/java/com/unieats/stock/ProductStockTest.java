@@ -0,0 +1,51 @@
+package com.unieats.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductStockTest {
+
+    @Test
+    void testConcurrentReservationsNeverOversell() throws Exception {
+        ProductStock burger = new ProductStock("BURGER-001", "Deluxe Burger", 10_000);
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> buyers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread buyer = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int quantity = 1 + (int) (Thread.currentThread().getId() % 3);
+                while (burger.tryReserve(quantity) >= 0) sold.addAndGet(quantity);
+            });
+            buyer.start();
+            buyers.add(buyer);
+        }
+        go.countDown();
+        for (Thread buyer : buyers) buyer.join();
+
+        assertEquals(10_000, sold.get() + burger.getStockQuantity());
+        assertTrue(burger.getStockQuantity() < 3, "only a remainder smaller than every order is left");
+    }
+
+    @Test
+    void testReserveAndRelease() {
+        ProductStock burger = new ProductStock("BURGER-001", "Deluxe Burger", 5);
+        assertEquals(2, burger.tryReserve(3));
+        assertEquals(-1, burger.tryReserve(3));
+        assertEquals(2, burger.getStockQuantity());
+        assertEquals(5, burger.release(3));
+        assertTrue(burger.safeOrder(5));
+        assertFalse(burger.safeOrder(1));
+        assertThrows(IllegalArgumentException.class, () -> burger.tryReserve(0));
+    }
+}
@@ -0,0 +1,174 @@
+package com.unieats.stock;
+
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.SchemaMigrations;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Purchases of a few hot items through StockWebSocketServer with 200 watching clients, once
+ * broadcasting every update (window 0, the old behaviour) and once with the default 50 ms
+ * batching window. Reports broadcast frames per second and the time watching clients spend
+ * parsing and applying them, per purchase. Not a unit test; run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.unieats.stock.StockBroadcastBatchingBenchmark
+ */
+public class StockBroadcastBatchingBenchmark {
+    private static final int WATCHERS = Integer.getInteger("clients", 200);
+    private static final int PURCHASES = Integer.getInteger("purchases", 5_000);
+    private static final int HOT_ITEMS = 3;
+
+    public static void main(String[] args) throws Exception {
+        // Measure batching, not slow-consumer drops
+        System.setProperty("unieats.ws.queueCapacity", String.valueOf(PURCHASES * 2));
+        File db = File.createTempFile("unieats-stock-batch-bench", ".db");
+        db.deleteOnExit();
+        System.setProperty("unieats.db.url", "jdbc:sqlite:" + db.getAbsolutePath());
+        try (Connection conn = ConnectionPool.getConnection()) {
+            SchemaMigrations.migrator().migrate(conn);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(1, 1, 'Bench', 'approved')")) {
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(?, 1, ?, 10, 1000000000)")) {
+                for (int id = 1; id <= HOT_ITEMS; id++) {
+                    ps.setInt(1, id);
+                    ps.setString(2, "Hot item " + id);
+                    ps.executeUpdate();
+                }
+            }
+        }
+
+        // Warm up both client parsers so neither run pays for class loading and compilation
+        List<StockUpdateMessage> sample = List.of(new StockUpdateMessage(1, "Hot item 1", 5, "2024-05-14T12:00:00"),
+                new StockUpdateMessage(2, "Hot item 2", 6, "2024-05-14T12:00:00"));
+        for (int i = 0; i < 20_000; i++) {
+            StockUpdateMessage.fromJson(sample.get(0).toJson(i + 1));
+            StockUpdateMessage.fromBatchJson(StockUpdateMessage.toBatchJson(i + 1, sample));
+        }
+
+        run("every update (window 0)", 0);
+        run("batched (window 50 ms)", 50);
+        run("every update (window 0)", 0);
+        run("batched (window 50 ms)", 50);
+    }
+
+    private static void run(String label, long windowMillis) throws Exception {
+        System.setProperty("unieats.stock.batchWindowMs", String.valueOf(windowMillis));
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        CountDownLatch started = new CountDownLatch(1);
+        StockWebSocketServer server = new StockWebSocketServer(port) {
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        server.setReuseAddr(true);
+        server.start();
+        started.await(10, TimeUnit.SECONDS);
+
+        List<Watcher> watchers = new ArrayList<>(WATCHERS);
+        for (int i = 0; i < WATCHERS; i++) {
+            Watcher w = new Watcher(port);
+            if (!w.connectBlocking(10, TimeUnit.SECONDS)) throw new IllegalStateException("client " + i + " failed to connect");
+            watchers.add(w);
+        }
+        Buyer buyer = new Buyer(port);
+        if (!buyer.connectBlocking(10, TimeUnit.SECONDS)) throw new IllegalStateException("buyer failed to connect");
+        Thread.sleep(200);
+        for (Watcher w : watchers) w.reset();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < PURCHASES; i++) {
+            buyer.send("{\"type\":\"PURCHASE\",\"itemId\":" + (1 + i % HOT_ITEMS) + "}");
+        }
+        if (!buyer.acks.await(120, TimeUnit.SECONDS)) throw new IllegalStateException("purchases did not finish");
+        long purchaseNanos = System.nanoTime() - start;
+        // Let the last window flush and the watchers drain
+        Thread.sleep(windowMillis + 500);
+
+        long frames = 0;
+        long clientNanos = 0;
+        for (Watcher w : watchers) {
+            frames += w.frames.get();
+            clientNanos += w.busyNanos.get();
+        }
+        double seconds = purchaseNanos / 1e9;
+        System.out.printf("%-26s %,7.0f purchases/s  %,9.0f frames/s to clients  %,6.1f frames per client  %,8.0f ns client work per purchase%n",
+                label, PURCHASES / seconds, frames / seconds, (double) frames / WATCHERS, (double) clientNanos / PURCHASES);
+        System.out.println("  batcher: " + server.getBatchStats());
+
+        buyer.closeBlocking();
+        for (Watcher w : watchers) w.closeBlocking();
+        server.stop(1000);
+    }
+
+    /** A client displaying stock: parses every broadcast and keeps the latest level per item. */
+    private static final class Watcher extends WebSocketClient {
+        final AtomicLong frames = new AtomicLong();
+        final AtomicLong busyNanos = new AtomicLong();
+        private final Map<Integer, Integer> stock = new HashMap<>();
+
+        Watcher(int port) {
+            super(URI.create("ws://localhost:" + port));
+        }
+
+        void reset() {
+            frames.set(0);
+            busyNanos.set(0);
+        }
+
+        @Override
+        public void onMessage(String message) {
+            long t0 = System.nanoTime();
+            if (message.contains("\"type\":\"STOCK_UPDATE\"")) {
+                StockUpdateMessage update = StockUpdateMessage.fromJson(message);
+                if (update != null) stock.put(update.getItemId(), update.getNewStock());
+                frames.incrementAndGet();
+            } else if (message.contains("\"type\":\"STOCK_BATCH\"")) {
+                for (StockUpdateMessage update : StockUpdateMessage.fromBatchJson(message)) {
+                    stock.put(update.getItemId(), update.getNewStock());
+                }
+                frames.incrementAndGet();
+            }
+            busyNanos.addAndGet(System.nanoTime() - t0);
+        }
+
+        @Override public void onOpen(ServerHandshake handshake) { }
+        @Override public void onClose(int code, String reason, boolean remote) { }
+        @Override public void onError(Exception ex) { }
+    }
+
+    private static final class Buyer extends WebSocketClient {
+        final CountDownLatch acks = new CountDownLatch(PURCHASES);
+
+        Buyer(int port) {
+            super(URI.create("ws://localhost:" + port));
+        }
+
+        @Override
+        public void onMessage(String message) {
+            if (message.contains("\"type\":\"PURCHASE_OK\"") || message.contains("\"type\":\"PURCHASE_FAILED\"")) {
+                acks.countDown();
+            }
+        }
+
+        @Override public void onOpen(ServerHandshake handshake) { }
+        @Override public void onClose(int code, String reason, boolean remote) { }
+        @Override public void onError(Exception ex) { }
+    }
+}
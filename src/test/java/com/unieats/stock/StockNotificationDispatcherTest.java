@@ -0,0 +1,224 @@
+package com.unieats.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockNotificationDispatcherTest {
+
+    @Test
+    void testBurstIsCoalescedToLatestState() throws Exception {
+        Map<String, ProductStock> products = new ConcurrentHashMap<>();
+        StockNotificationDispatcher dispatcher = new StockNotificationDispatcher(1, 16, products::get);
+        ProductStock burger = new ProductStock("BURGER-001", "Deluxe Burger", 1_000);
+        products.put(burger.getProductId(), burger);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        StockUpdateListener listener = product -> {
+            entered.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            seen.add(product.getStockQuantity());
+        };
+
+        burger.tryReserve(1);
+        dispatcher.dispatch("BURGER-001", listener);
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        // The worker is busy with the first call; the rest of the burst shares one pending slot
+        for (int i = 0; i < 500; i++) {
+            burger.tryReserve(1);
+            dispatcher.dispatch("BURGER-001", listener);
+        }
+        assertEquals(1, dispatcher.stats().queueDepth());
+        proceed.countDown();
+        waitFor(() -> dispatcher.stats().delivered() == 2);
+
+        assertEquals(List.of(499, 499), seen, "Both calls read the stock current when they ran");
+        StockNotificationDispatcher.Stats stats = dispatcher.stats();
+        assertEquals(501, stats.submitted());
+        assertEquals(499, stats.coalesced());
+        assertEquals(0, stats.queueDepth());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testEachProductIsDeliveredInOrder() throws Exception {
+        Map<String, ProductStock> products = new ConcurrentHashMap<>();
+        StockNotificationDispatcher dispatcher = new StockNotificationDispatcher(4, 64, products::get);
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        StockUpdateListener listener = product -> seen
+                .computeIfAbsent(product.getProductId(), id -> Collections.synchronizedList(new ArrayList<>()))
+                .add(product.getStockQuantity());
+        for (int p = 0; p < 8; p++) products.put("P" + p, new ProductStock("P" + p, "Product " + p, 10_000));
+
+        List<Thread> sellers = new ArrayList<>();
+        for (ProductStock product : products.values()) {
+            Thread seller = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    product.tryReserve(1);
+                    dispatcher.dispatch(product.getProductId(), listener);
+                }
+            });
+            sellers.add(seller);
+            seller.start();
+        }
+        for (Thread seller : sellers) seller.join();
+        waitFor(() -> dispatcher.stats().queueDepth() == 0);
+        Thread.sleep(50);
+
+        for (ProductStock product : products.values()) {
+            List<Integer> values = seen.get(product.getProductId());
+            for (int i = 1; i < values.size(); i++) {
+                assertTrue(values.get(i) <= values.get(i - 1), product.getProductId() + " went back up at call " + i);
+            }
+            assertEquals(8_000, values.get(values.size() - 1), "The last call sees the final stock");
+        }
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testFullQueueMakesCallerWait() throws Exception {
+        ProductStock fries = new ProductStock("FRIES-001", "Fries", 10);
+        StockNotificationDispatcher dispatcher = new StockNotificationDispatcher(1, 1, id -> fries);
+        CountDownLatch proceed = new CountDownLatch(1);
+        StockUpdateListener slow = product -> {
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        StockUpdateListener second = product -> { };
+        StockUpdateListener third = product -> { };
+
+        dispatcher.dispatch("FRIES-001", slow);
+        waitFor(() -> dispatcher.stats().queueDepth() == 0);
+        dispatcher.dispatch("FRIES-001", second);
+        Thread caller = new Thread(() -> dispatcher.dispatch("FRIES-001", third));
+        caller.start();
+        waitFor(() -> dispatcher.stats().blocked() == 1);
+        assertTrue(caller.isAlive(), "No room in the queue, so the caller waits");
+
+        proceed.countDown();
+        caller.join(5_000);
+        assertFalse(caller.isAlive());
+        waitFor(() -> dispatcher.stats().delivered() == 3);
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testReplacedProductIsDeliveredNotTheOldOne() throws Exception {
+        Map<String, ProductStock> products = new ConcurrentHashMap<>();
+        StockNotificationDispatcher dispatcher = new StockNotificationDispatcher(1, 16, products::get);
+        products.put("TEA-001", new ProductStock("TEA-001", "Tea", 5));
+        List<ProductStock> seen = Collections.synchronizedList(new ArrayList<>());
+        StockUpdateListener listener = seen::add;
+
+        dispatcher.dispatch("TEA-001", listener);
+        waitFor(() -> dispatcher.stats().delivered() == 1);
+        ProductStock restocked = new ProductStock("TEA-001", "Tea", 50);
+        products.put("TEA-001", restocked);
+        dispatcher.dispatch("TEA-001", listener);
+        waitFor(() -> dispatcher.stats().delivered() == 2);
+
+        assertSame(restocked, seen.get(1));
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testWorkersNeverWaitOnEachOthersFullQueues() throws Exception {
+        // "P0" and "P2" hash to worker 0, "P1" and "P3" to worker 1
+        Map<String, ProductStock> products = new ConcurrentHashMap<>();
+        for (int p = 0; p < 4; p++) products.put("P" + p, new ProductStock("P" + p, "Product " + p, 10));
+        StockNotificationDispatcher dispatcher = new StockNotificationDispatcher(2, 1, products::get);
+        CountDownLatch proceed = new CountDownLatch(1);
+        StockUpdateListener filler = product -> { };
+        StockUpdateListener echo = product -> { };
+        // Each worker, once released, notifies a product on the other worker's full queue
+        StockUpdateListener crossing = product -> {
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            dispatcher.dispatch(product.getProductId().equals("P0") ? "P3" : "P2", echo);
+        };
+
+        dispatcher.dispatch("P0", crossing);
+        dispatcher.dispatch("P1", crossing);
+        waitFor(() -> dispatcher.stats().queueDepth() == 0);
+        dispatcher.dispatch("P2", filler);
+        dispatcher.dispatch("P3", filler);
+        proceed.countDown();
+
+        waitFor(() -> dispatcher.stats().delivered() == 6);
+        assertEquals(0, dispatcher.stats().blocked());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testOtherWorkerNeverRunsAProductsListener() throws Exception {
+        // "P0" and "P2" hash to worker 0, "P1" to worker 1
+        Map<String, ProductStock> products = new ConcurrentHashMap<>();
+        for (int p = 0; p < 3; p++) products.put("P" + p, new ProductStock("P" + p, "Product " + p, 10));
+        StockNotificationDispatcher dispatcher = new StockNotificationDispatcher(2, 1, products::get);
+        CountDownLatch proceed = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostAtOnce = new AtomicInteger();
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        StockUpdateListener guarded = product -> {
+            mostAtOnce.accumulateAndGet(running.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread().getName());
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            running.decrementAndGet();
+        };
+        CountDownLatch crossed = new CountDownLatch(1);
+        // Worker 1 notifies P2 while worker 0 is inside P2's listener with a full queue
+        StockUpdateListener crossing = product -> {
+            dispatcher.dispatch("P2", guarded);
+            crossed.countDown();
+        };
+
+        dispatcher.dispatch("P2", guarded);
+        waitFor(() -> calls.get() == 1);
+        dispatcher.dispatch("P0", product -> { });
+        dispatcher.dispatch("P1", crossing);
+        assertTrue(crossed.await(5, TimeUnit.SECONDS), "Worker 1 does not wait on worker 0's full queue");
+        proceed.countDown();
+
+        waitFor(() -> dispatcher.stats().delivered() == 4);
+        assertEquals(1, mostAtOnce.get(), "P2's listener never ran on two threads at once");
+        assertEquals(List.of("stock-notify-0", "stock-notify-0"), threads);
+        assertEquals(0, dispatcher.stats().blocked());
+        dispatcher.shutdown();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Timed out waiting");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.unieats.stock;
+
+import com.unieats.FoodItem;
+import com.unieats.dao.FoodItemDao;
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.SchemaMigrations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Purchase throughput of the old global-lock read-modify-write path against the conditional
+ * decrement in {@link StockService}, on distinct items and on one hot item.
+ *
+ * Run with a thread count per invocation to see scaling, e.g.:
+ *   mvn test-compile
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        org.openjdk.jmh.Main StockPurchaseBenchmark -t 4
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockPurchaseBenchmark {
+    private static final int ITEMS = 10_000;
+    private static final int HOT_ITEM = 1;
+
+    private final ReentrantLock legacyLock = new ReentrantLock();
+    private FoodItemDao foodItemDao;
+    private StockService stockService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        File db = File.createTempFile("unieats-stock-bench", ".db");
+        db.deleteOnExit();
+        System.setProperty("unieats.db.url", "jdbc:sqlite:" + db.getAbsolutePath());
+        try (Connection conn = ConnectionPool.getConnection()) {
+            SchemaMigrations.migrator().migrate(conn);
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(1, 1, 'Bench', 'approved')")) {
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(?, 1, ?, 10, ?)")) {
+                for (int id = 1; id <= ITEMS; id++) {
+                    ps.setInt(1, id);
+                    ps.setString(2, "Item " + id);
+                    ps.setInt(3, 1_000_000_000); // never sells out during a run
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+        foodItemDao = new FoodItemDao();
+        stockService = StockService.getInstance();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ConnectionPool.shutdown();
+    }
+
+    private static int randomItem() {
+        return ThreadLocalRandom.current().nextInt(1, ITEMS + 1);
+    }
+
+    /** The previous implementation: one lock for all items, read the row, write the full row back. */
+    private boolean legacyPurchase(int itemId) {
+        legacyLock.lock();
+        try {
+            FoodItem item = foodItemDao.getById(itemId);
+            if (item == null || item.getStock() <= 0) return false;
+            item.setStock(item.getStock() - 1);
+            foodItemDao.update(item);
+            return true;
+        } finally {
+            legacyLock.unlock();
+        }
+    }
+
+    @Benchmark
+    public boolean globalLockDistinct() {
+        return legacyPurchase(randomItem());
+    }
+
+    @Benchmark
+    public boolean globalLockHot() {
+        return legacyPurchase(HOT_ITEM);
+    }
+
+    @Benchmark
+    public int conditionalDistinct() {
+        return stockService.tryPurchase(randomItem(), 1);
+    }
+
+    @Benchmark
+    public int conditionalHot() {
+        return stockService.tryPurchase(HOT_ITEM, 1);
+    }
+
+    @Benchmark
+    public StockService.PurchaseResult conditionalThreeItems() {
+        int first = ThreadLocalRandom.current().nextInt(1, ITEMS - 1);
+        return stockService.purchaseItems(Map.of(first, 1, first + 1, 2, first + 2, 1));
+    }
+}
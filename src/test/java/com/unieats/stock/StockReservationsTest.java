@@ -0,0 +1,124 @@
+package com.unieats.stock;
+
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
+import com.unieats.util.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockReservationsTest {
+    private static final long TTL = 60_000;
+
+    @BeforeAll
+    static void setUpDatabase() throws IOException, SQLException {
+        TestDatabase.init();
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(40, 1, 'Holds', 'approved')");
+            st.execute("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(400, 40, 'Last burger', 10, 1), (401, 40, 'Fries', 10, 5), (402, 40, 'Wrap', 10, 3)");
+        }
+    }
+
+    @Test
+    void testHoldsNeverExceedStock() throws SQLException {
+        StockReservations reservations = new StockReservations(DatabaseWriter.getInstance(), () -> 1_000_000L, TTL, 1000, false);
+
+        assertTrue(reservations.hold(4001, 400, 1));
+        assertFalse(reservations.hold(4002, 400, 1), "The last burger is already in someone's cart");
+        assertEquals(0, reservations.available(400, 1));
+        assertEquals(1, reservations.available(4001, 400, 1), "The holder still sees their own unit");
+
+        assertTrue(reservations.hold(4001, 401, 3));
+        assertFalse(reservations.hold(4002, 401, 3));
+        assertTrue(reservations.hold(4002, 401, 2));
+        assertTrue(reservations.hold(4001, 401, 2), "Lowering a hold always fits");
+        assertEquals(4, reservations.held(401));
+
+        reservations.releaseAll(4001);
+        assertEquals(0, reservations.held(400));
+        assertTrue(reservations.hold(4002, 400, 1));
+        reservations.releaseAll(4002);
+        drain();
+        assertEquals(0, countRows(), "Released holds are deleted");
+        assertEquals(new StockReservations.Stats(0, 5, 2, 0, 0), reservations.stats());
+    }
+
+    @Test
+    void testHoldsAreSharedThroughTheDatabase() {
+        // Two instances stand in for two app processes on the same database
+        StockReservations first = new StockReservations(DatabaseWriter.getInstance(), () -> 2_000_000L, TTL, 1000, false);
+        StockReservations second = new StockReservations(DatabaseWriter.getInstance(), () -> 2_000_000L, TTL, 1000, false);
+
+        assertTrue(first.hold(4031, 402, 2));
+        assertFalse(second.hold(4032, 402, 2), "The check reads the other process's row");
+        assertEquals(1, second.available(4032, 402, 3), "The refused hold refreshed the item's total");
+        assertTrue(second.hold(4032, 402, 1));
+        assertEquals(2, first.held(402), "Until the next tick");
+        first.refreshHeld();
+        assertEquals(0, first.available(4033, 402, 3));
+
+        second.releaseAll(4032);
+        first.releaseAll(4031);
+        assertEquals(0, first.held(402));
+    }
+
+    @Test
+    void testHoldsExpireOnTheWheel() throws SQLException {
+        AtomicLong now = new AtomicLong(5_000_000L);
+        StockReservations reservations = new StockReservations(DatabaseWriter.getInstance(), now::get, TTL, 1000, false);
+        assertTrue(reservations.hold(4011, 402, 2));
+        now.addAndGet(TTL / 2);
+        // Renewing the hold restarts its timer; the first deadline must not drop it
+        assertTrue(reservations.hold(4011, 402, 2));
+        now.addAndGet(TTL / 2 + 1000);
+        reservations.expireDue();
+        assertEquals(2, reservations.held(402));
+
+        // Longer than one turn of the wheel
+        now.addAndGet(TTL * 20);
+        reservations.expireDue();
+        assertEquals(0, reservations.held(402));
+        assertEquals(1, reservations.stats().expired());
+        drain();
+        assertEquals(0, countRows());
+    }
+
+    @Test
+    void testHoldsSurviveRestart() throws SQLException {
+        long start = System.currentTimeMillis();
+        StockReservations before = new StockReservations(DatabaseWriter.getInstance(), () -> start, TTL, 1000, false);
+        assertTrue(before.hold(4021, 401, 1));
+        drain();
+
+        StockReservations after = new StockReservations(DatabaseWriter.getInstance(), () -> start + 1000, TTL, 1000, false);
+        after.load();
+        assertEquals(1, after.held(401));
+        assertEquals(1, after.available(4021, 401, 1));
+
+        StockReservations tooLate = new StockReservations(DatabaseWriter.getInstance(), () -> start + TTL, TTL, 1000, false);
+        tooLate.load();
+        assertEquals(0, tooLate.held(401), "Holds that expired while the app was down are not restored");
+        drain();
+        assertEquals(0, countRows());
+    }
+
+    private static void drain() throws SQLException {
+        // The writer runs commands in order, so this returns after every queued hold change
+        DatabaseWriter.getInstance().execute(conn -> null);
+    }
+
+    private static int countRows() throws SQLException {
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM stock_holds WHERE user_id BETWEEN 4000 AND 4099")) {
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.unieats.stock;
+
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.DatabaseWriter;
+import com.unieats.util.TestDatabase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockServiceTest {
+
+    @BeforeAll
+    static void setUpDatabase() throws IOException, SQLException {
+        TestDatabase.init();
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(30, 1, 'Stock', 'approved')");
+            st.execute("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(300, 30, 'Hot', 10, 50), (301, 30, 'A', 10, 5), (302, 30, 'B', 10, 1), (303, 30, 'Held', 10, 2)");
+        }
+    }
+
+    @Test
+    void testConcurrentBuyersNeverOversell() throws InterruptedException {
+        StockService service = StockService.getInstance();
+        AtomicInteger sold = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10; i++) {
+                    if (service.purchaseItem(300)) sold.incrementAndGet();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(50, sold.get());
+        assertEquals(0, service.getStock(300));
+        assertEquals(-1, service.tryPurchase(300, 1));
+        assertEquals(-1, service.tryPurchase(999_999, 1));
+    }
+
+    @Test
+    void testMultiItemPurchaseIsAllOrNothing() {
+        StockService service = StockService.getInstance();
+        StockService.PurchaseResult failed = service.purchaseItems(Map.of(301, 2, 302, 2));
+        assertFalse(failed.success());
+        assertEquals(302, failed.failedItemId());
+        assertFalse(failed.error(), "Sold out is not a database error");
+        assertEquals(5, service.getStock(301), "The line that fit must be rolled back too");
+
+        StockService.PurchaseResult ok = service.purchaseItems(Map.of(301, 2, 302, 1));
+        assertTrue(ok.success());
+        assertEquals(Map.of(301, 3, 302, 0), ok.newStock());
+    }
+
+    @Test
+    void testHeldUnitsAreNotForSale() {
+        StockService service = StockService.getInstance();
+        StockReservations reservations = new StockReservations(DatabaseWriter.getInstance(), System::currentTimeMillis, 60_000, 1000, false);
+        assertTrue(reservations.hold(3001, 303, 2));
+
+        assertEquals(-1, service.tryPurchase(303, 1), "Both units are in someone's cart");
+        assertFalse(service.purchaseItems(Map.of(303, 1)).success());
+        assertEquals(2, service.getStock(303));
+
+        reservations.hold(3001, 303, 1);
+        assertEquals(1, service.tryPurchase(303, 1));
+        reservations.releaseAll(3001);
+    }
+}
@@ -0,0 +1,78 @@
+package com.unieats.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockUpdateBatcherTest {
+
+    @Test
+    void testWindowKeepsLatestStockPerItem() throws Exception {
+        List<List<StockUpdateMessage>> batches = new CopyOnWriteArrayList<>();
+        StockUpdateBatcher batcher = new StockUpdateBatcher(50, batches::add);
+        try {
+            for (int stock = 10; stock > 0; stock--) batcher.offer(update(1, stock));
+            batcher.offer(update(2, 7));
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (batches.isEmpty() && System.currentTimeMillis() < deadline) Thread.sleep(10);
+
+            assertEquals(1, batches.size());
+            assertEquals(List.of("1=1", "2=7"), batches.get(0).stream().map(u -> u.getItemId() + "=" + u.getNewStock()).toList());
+            assertEquals(new StockUpdateBatcher.Stats(11, 1, 2), batcher.stats());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void testZeroWindowPassesEachUpdateThrough() {
+        List<List<StockUpdateMessage>> batches = new CopyOnWriteArrayList<>();
+        StockUpdateBatcher batcher = new StockUpdateBatcher(0, batches::add);
+        batcher.offer(update(1, 5));
+        batcher.offer(update(1, 4));
+        assertEquals(2, batches.size());
+        assertEquals(4, batches.get(1).get(0).getNewStock());
+    }
+
+    @Test
+    void testGroupStaysInOneBatchWithZeroWindow() {
+        List<List<StockUpdateMessage>> batches = new CopyOnWriteArrayList<>();
+        StockUpdateBatcher batcher = new StockUpdateBatcher(0, batches::add);
+        batcher.offerAll(List.of(update(1, 5), update(2, 3)));
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals(new StockUpdateBatcher.Stats(2, 1, 2), batcher.stats());
+    }
+
+    @Test
+    void testShutdownFlushesPendingUpdates() {
+        List<List<StockUpdateMessage>> batches = new CopyOnWriteArrayList<>();
+        StockUpdateBatcher batcher = new StockUpdateBatcher(60_000, batches::add);
+        batcher.offer(update(3, 9));
+        batcher.shutdown();
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void testBatchFrameRoundTrips() {
+        String json = StockUpdateMessage.toBatchJson(42, List.of(update(1, 3), update(2, 0)));
+        assertTrue(json.startsWith("{\"type\":\"STOCK_BATCH\",\"seq\":42,"));
+        List<StockUpdateMessage> parsed = StockUpdateMessage.fromBatchJson(json);
+        assertEquals(2, parsed.size());
+        assertEquals("Item \"2\"", parsed.get(1).getItemName());
+        assertEquals(0, parsed.get(1).getNewStock());
+        assertEquals(42, parsed.get(0).getSeq());
+
+        StockUpdateMessage ack = StockUpdateMessage.fromJson(update(1, 3).toAckJson());
+        assertEquals(3, ack.getNewStock());
+        assertEquals(0, ack.getSeq());
+    }
+
+    private static StockUpdateMessage update(int itemId, int stock) {
+        return new StockUpdateMessage(itemId, "Item \"" + itemId + "\"", stock, "2024-05-14T12:00:00");
+    }
+}
@@ -0,0 +1,125 @@
+package com.unieats.stock;
+
+import com.unieats.util.ConnectionPool;
+import com.unieats.util.TestDatabase;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockWebSocketServerTest {
+    private static StockWebSocketServer server;
+    private static int port;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        TestDatabase.init();
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(31, 1, 'Batch', 'approved')");
+            st.execute("INSERT INTO food_items(id, shop_id, name, price, stock) VALUES(310, 31, 'Rice', 10, 10), (311, 31, 'Curry', 10, 4), (312, 31, 'Lassi', 10, 1)");
+        }
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        CountDownLatch started = new CountDownLatch(1);
+        server = new StockWebSocketServer(port) {
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        server.setReuseAddr(true);
+        server.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    @AfterAll
+    static void stopServer() throws InterruptedException {
+        server.stop(1000);
+    }
+
+    @Test
+    void testPurchaseBatchIsAllOrNothingWithOneBroadcast() throws Exception {
+        Client buyer = Client.connect(port);
+        Client watcher = Client.connect(port);
+
+        buyer.send("{\"type\":\"PURCHASE_BATCH\",\"items\":[{\"itemId\":311,\"qty\":2},{\"itemId\":312,\"qty\":2}]}");
+        String failed = buyer.next("PURCHASE_BATCH_FAILED");
+        assertTrue(failed.contains("\"itemId\":312"), failed);
+        assertEquals(4, StockService.getInstance().getStock(311), "The line that fit is rolled back");
+
+        buyer.send("{\"type\":\"PURCHASE_BATCH\",\"items\":[{\"itemId\":310,\"qty\":1},{\"itemId\":311,\"qty\":2},{\"itemId\":310,\"qty\":2}]}");
+        List<StockUpdateMessage> ack = StockUpdateMessage.fromBatchJson(buyer.next("PURCHASE_BATCH_OK"));
+        assertEquals(2, ack.size());
+        assertEquals(310, ack.get(0).getItemId());
+        assertEquals(7, ack.get(0).getNewStock(), "Repeated lines are summed");
+        assertEquals("Curry", ack.get(1).getItemName());
+        assertEquals(2, ack.get(1).getNewStock());
+
+        // Both items reach other clients in one frame
+        List<StockUpdateMessage> broadcast = StockUpdateMessage.fromBatchJson(watcher.next("STOCK_BATCH"));
+        assertEquals(Map.of(310, 7, 311, 2), Map.of(broadcast.get(0).getItemId(), broadcast.get(0).getNewStock(),
+                broadcast.get(1).getItemId(), broadcast.get(1).getNewStock()));
+        assertTrue(broadcast.get(0).getSeq() > 0);
+
+        buyer.send("{\"type\":\"PURCHASE_BATCH\",\"items\":[{\"itemId\":310,\"qty\":0}]}");
+        assertTrue(buyer.next("ERROR").contains("Invalid purchase batch"));
+        buyer.closeBlocking();
+        watcher.closeBlocking();
+    }
+
+    @Test
+    void testStockBatchQuery() throws Exception {
+        Client client = Client.connect(port);
+        client.send("{\"type\":\"GET_STOCK_BATCH\",\"itemIds\":[312,999999]}");
+        List<StockUpdateMessage> levels = StockUpdateMessage.fromBatchJson(client.next("STOCK_LEVELS"));
+        assertEquals(1, levels.size(), "Unknown items are left out");
+        assertEquals(312, levels.get(0).getItemId());
+        assertEquals("Lassi", levels.get(0).getItemName());
+        assertEquals(1, levels.get(0).getNewStock());
+        client.closeBlocking();
+    }
+
+    private static final class Client extends WebSocketClient {
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+
+        private Client(int port) {
+            super(URI.create("ws://localhost:" + port));
+        }
+
+        static Client connect(int port) throws InterruptedException {
+            Client client = new Client(port);
+            assertTrue(client.connectBlocking(10, TimeUnit.SECONDS));
+            return client;
+        }
+
+        /** Next frame of the given type, skipping others. */
+        String next(String type) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (true) {
+                String frame = frames.poll(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (frame == null) fail("No " + type + " frame");
+                if (frame.contains("\"type\":\"" + type + "\"")) return frame;
+            }
+        }
+
+        @Override public void onMessage(String message) { frames.add(message); }
+        @Override public void onOpen(ServerHandshake handshake) { }
+        @Override public void onClose(int code, String reason, boolean remote) { }
+        @Override public void onError(Exception ex) { }
+    }
+}
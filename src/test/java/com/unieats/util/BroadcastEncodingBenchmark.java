@@ -0,0 +1,70 @@
+package com.unieats.util;
+
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.framing.Framedata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of broadcasting one message to N connections: what {@code WebSocket.send(String)} does
+ * per client (UTF-8 encode, build frames, serialize) against {@link EncodedMessage}'s shared
+ * frames (serialize only). Each connection gets its own draft instance, as on a real server.
+ * Time per op is CPU per broadcast; add {@code -prof gc} for bytes allocated per broadcast:
+ *   mvn test-compile
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        org.openjdk.jmh.Main BroadcastEncodingBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BroadcastEncodingBenchmark {
+    private static final String MESSAGE =
+            "{\"type\":\"STOCK_UPDATE\",\"itemId\":4711,\"itemName\":\"Chicken Biryani (large)\",\"newStock\":17,\"timestamp\":\"2024-05-14T12:31:07.412\"}";
+
+    @Param({"100", "1000", "10000"})
+    public int clients;
+
+    private Draft[] drafts;
+
+    @Setup
+    public void setUp() {
+        Draft prototype = new Draft_6455();
+        drafts = new Draft[clients];
+        for (int i = 0; i < clients; i++) drafts[i] = prototype.copyInstance();
+    }
+
+    @Benchmark
+    public void encodePerClient(Blackhole bh) {
+        for (Draft draft : drafts) {
+            for (Framedata frame : draft.createFrames(MESSAGE, false)) {
+                bh.consume(draft.createBinaryFrame(frame));
+            }
+        }
+    }
+
+    @Benchmark
+    public void encodeOnce(Blackhole bh) {
+        EncodedMessage message = new EncodedMessage(MESSAGE);
+        for (Draft draft : drafts) {
+            for (Framedata frame : message.framesFor(draft)) {
+                bh.consume(draft.createBinaryFrame(frame));
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.unieats.util;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares per-call autocommit writes against the group-committing DatabaseWriter
+ * with many threads awarding reward points concurrently.
+ * Not a unit test; run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.unieats.util.DatabaseWriterBenchmark
+ */
+public class DatabaseWriterBenchmark {
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 500;
+    private static final String AWARD = """
+        INSERT INTO reward_points (user_id, shop_id, points) VALUES (?, 1, 1)
+        ON CONFLICT(user_id, shop_id) DO UPDATE SET points = points + 1
+    """;
+
+    interface Write {
+        void run(int userId) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File db = File.createTempFile("unieats-writer-bench", ".db");
+        db.deleteOnExit();
+        System.setProperty("unieats.db.url", "jdbc:sqlite:" + db.getAbsolutePath());
+        try (Connection conn = ConnectionPool.getConnection()) {
+            SchemaMigrations.migrator().migrate(conn);
+        }
+
+        Write perCall = userId -> {
+            try (Connection conn = ConnectionPool.getConnection(); PreparedStatement ps = conn.prepareStatement(AWARD)) {
+                ps.setInt(1, userId);
+                ps.executeUpdate();
+            }
+        };
+        DatabaseWriter eager = new DatabaseWriter(64, 0);
+        DatabaseWriter lingering = new DatabaseWriter(64, 500);
+
+        for (int round = 0; round < 2; round++) {
+            boolean warmup = round == 0;
+            run("per-call commit", perCall, warmup);
+            run("writer 0us", queued(eager), warmup);
+            run("writer 500us", queued(lingering), warmup);
+        }
+        System.out.println("  writer 0us   " + eager.stats());
+        System.out.println("  writer 500us " + lingering.stats());
+        eager.shutdown();
+        lingering.shutdown();
+        ConnectionPool.shutdown();
+    }
+
+    private static Write queued(DatabaseWriter writer) {
+        return userId -> writer.execute(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(AWARD)) {
+                ps.setInt(1, userId);
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    private static void run(String name, Write write, boolean warmup) throws InterruptedException {
+        long[] latencies = new long[THREADS * OPS_PER_THREAD];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        int userId = ThreadLocalRandom.current().nextInt(1, 2_000);
+                        long t0 = System.nanoTime();
+                        try {
+                            write.run(userId);
+                        } catch (SQLException e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[next.getAndIncrement()] = System.nanoTime() - t0;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - t0;
+        if (warmup) return;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-16s %8.0f writes/s   p50 %7.3f ms   p99 %7.3f ms   max %8.3f ms   errors %d%n",
+                name, latencies.length / (elapsed / 1e9),
+                latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99)] / 1e6,
+                latencies[latencies.length - 1] / 1e6, errors.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.unieats.util;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseWriterTest {
+
+    private static DatabaseWriter writer;
+
+    @BeforeAll
+    static void setUp() throws IOException, SQLException {
+        TestDatabase.init();
+        try (Connection conn = ConnectionPool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS writer_test(id INTEGER PRIMARY KEY, v INTEGER NOT NULL)");
+        }
+        writer = new DatabaseWriter(16, 50_000);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    void testQueuedCommandsShareCommitsAndFailAlone() throws Exception {
+        // Park the writer so the next commands pile up behind it
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> blocker = writer.submit(conn -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        long batchesBefore = writer.stats().batches();
+
+        List<CompletableFuture<Integer>> inserts = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            int id = 1000 + i;
+            inserts.add(writer.submit(conn -> insert(conn, id)));
+        }
+        CompletableFuture<Integer> duplicate = writer.submit(conn -> insert(conn, 1001));
+        release.countDown();
+
+        blocker.get();
+        for (CompletableFuture<Integer> f : inserts) assertEquals(1, f.get());
+        ExecutionException e = assertThrows(ExecutionException.class, duplicate::get);
+        assertInstanceOf(SQLException.class, e.getCause());
+
+        assertEquals(10, count("SELECT COUNT(*) FROM writer_test WHERE id > 1000 AND id <= 1010"));
+        // The blocker's batch may already have taken a few; the rest commit together
+        assertTrue(writer.stats().batches() - batchesBefore <= 2, "Expected group commit, got " + writer.stats());
+        assertTrue(writer.stats().failedCommands() >= 1);
+    }
+
+    @Test
+    void testExecuteUnwrapsErrorsAndRunsNestedCallsInline() throws SQLException {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> writer.execute(conn -> { throw new IllegalStateException("boom"); }));
+        assertEquals("boom", e.getMessage());
+
+        int total = writer.execute(conn -> insert(conn, 2001) + writer.execute(inner -> insert(inner, 2002)));
+        assertEquals(2, total);
+        assertEquals(2, count("SELECT COUNT(*) FROM writer_test WHERE id IN (2001, 2002)"));
+    }
+
+    private static int insert(Connection conn, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO writer_test(id, v) VALUES(?, ?)")) {
+            ps.setInt(1, id);
+            ps.setInt(2, id * 2);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static int count(String sql) throws SQLException {
+        try (Connection conn = ConnectionPool.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.getInt(1);
+        }
+    }
+}
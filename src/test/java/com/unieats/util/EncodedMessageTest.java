@@ -0,0 +1,31 @@
+package com.unieats.util;
+
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.framing.Framedata;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EncodedMessageTest {
+
+    @Test
+    void testSharedFramesSerializeLikePerClientSend() {
+        String text = "{\"type\":\"topic\",\"topic\":\"shops\",\"name\":\"Café Ünï\"}";
+        Draft prototype = new Draft_6455();
+        EncodedMessage message = new EncodedMessage(text);
+
+        List<Framedata> first = message.framesFor(prototype.copyInstance());
+        assertSame(first, message.framesFor(prototype.copyInstance()), "equal drafts share frames");
+
+        for (int client = 0; client < 3; client++) {
+            Draft draft = prototype.copyInstance();
+            ByteBuffer expected = draft.createBinaryFrame(draft.createFrames(text, false).get(0));
+            ByteBuffer shared = draft.createBinaryFrame(message.framesFor(draft).get(0));
+            assertEquals(expected, shared, "frame bytes for client " + client);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.unieats.util;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HubPublisherTest {
+
+    @Test
+    void testPublishNeverBlocksAndDropsOldestWhenHubIsDown() throws Exception {
+        HubPublisher publisher = new HubPublisher(URI.create("ws://localhost:" + freePort()), 4, 8);
+        try {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < 100; i++) publisher.publish("{\"n\":" + i + "}");
+            assertTrue(System.nanoTime() - t0 < TimeUnit.MILLISECONDS.toNanos(500), "publish blocked");
+
+            HubPublisher.Stats stats = publisher.stats();
+            assertEquals(100, stats.published());
+            assertEquals(0, stats.sent());
+            assertFalse(stats.connected());
+            // At most the queue plus one in-flight batch survive
+            assertTrue(stats.dropped() >= 100 - 4 - 8, "Expected drops, got " + stats);
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void testMessagesReachHubInOrderOverOneConnection() throws Exception {
+        int port = freePort();
+        CountDownLatch started = new CountDownLatch(1);
+        InventoryWebSocketServer hub = new InventoryWebSocketServer(port) {
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        hub.setReuseAddr(true);
+        hub.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        HubPublisher publisher = new HubPublisher(URI.create("ws://localhost:" + port), 1024, 64);
+        List<String> received = new CopyOnWriteArrayList<>();
+        WebSocketClient listener = new WebSocketClient(URI.create("ws://localhost:" + port)) {
+            @Override public void onOpen(ServerHandshake handshake) { send("{\"type\":\"subscribe\",\"topics\":[\"*\"]}"); }
+            @Override public void onMessage(String message) { received.add(message); }
+            @Override public void onClose(int code, String reason, boolean remote) { }
+            @Override public void onError(Exception ex) { }
+        };
+        try {
+            assertTrue(listener.connectBlocking(5, TimeUnit.SECONDS));
+            long subscribed = System.currentTimeMillis() + 5_000;
+            while (hub.getTopics().connectionCount() == 0 && System.currentTimeMillis() < subscribed) Thread.sleep(10);
+            for (int i = 0; i < 200; i++) publisher.publish("{\"n\":" + i + "}");
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (received.size() < 200 && System.currentTimeMillis() < deadline) Thread.sleep(20);
+
+            assertEquals(200, received.size());
+            for (int i = 0; i < 200; i++) assertEquals("{\"n\":" + i + "}", received.get(i));
+            HubPublisher.Stats stats = publisher.stats();
+            assertEquals(200, stats.sent());
+            assertEquals(0, stats.dropped());
+            assertEquals(1, stats.connects());
+            assertTrue(stats.connected());
+        } finally {
+            publisher.shutdown();
+            listener.closeBlocking();
+            hub.stop(1000);
+        }
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
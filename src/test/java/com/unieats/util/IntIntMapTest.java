@@ -0,0 +1,67 @@
+package com.unieats.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntIntMapTest {
+
+    @Test
+    void testMatchesHashMapThroughResizes() {
+        IntIntMap map = new IntIntMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // Mostly sequential ids like rowids, plus negatives and collisions
+            int key = i % 3 == 0 ? random.nextInt() : i / 2;
+            int value = random.nextInt();
+            assertEquals(expected.containsKey(key) ? expected.get(key) : -7, map.put(key, value, -7));
+            expected.put(key, value);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey(), -1));
+        }
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(expected.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(), keys);
+    }
+
+    @Test
+    void testRemoveKeepsProbeRunsReachable() {
+        IntIntMap map = new IntIntMap(8);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed != null ? removed : -1, map.remove(key, -1));
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 2_000; key++) {
+            assertEquals(expected.getOrDefault(key, -1), map.get(key, -1), "key " + key);
+        }
+    }
+
+    @Test
+    void testMissingAndClear() {
+        IntIntMap map = new IntIntMap();
+        assertEquals(-1, map.get(5, -1));
+        assertFalse(map.containsKey(0));
+        map.put(0, 0);
+        assertTrue(map.containsKey(0), "Key 0 with value 0 is still present");
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(Integer.MIN_VALUE, map.get(0, Integer.MIN_VALUE));
+    }
+}
@@ -0,0 +1,90 @@
+package com.unieats.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboundQueueTest {
+
+    @Test
+    void testDropOldestKeepsNewestMessages() {
+        OutboundQueue<String> queue = new OutboundQueue<>(3, OutboundQueue.SlowConsumerPolicy.DROP_OLDEST);
+        for (int i = 1; i <= 5; i++) assertTrue(queue.offer("same", "m" + i));
+
+        assertEquals(List.of("m3", "m4", "m5"), drain(queue));
+        OutboundQueue.Stats stats = queue.stats();
+        assertEquals(2, stats.dropped());
+        assertEquals(0, stats.coalesced());
+        assertEquals(3, stats.sent());
+    }
+
+    @Test
+    void testCoalesceMovesLatestMessageToTail() {
+        OutboundQueue<String> queue = new OutboundQueue<>(3, OutboundQueue.SlowConsumerPolicy.COALESCE_BY_KEY);
+        queue.offer("item:1", "1=9");
+        queue.offer("item:2", "2=5");
+        queue.offer("item:1", "1=8");
+        queue.offer(null, "hello");
+        queue.offer("item:1", "1=7");
+
+        assertEquals(List.of("2=5", "hello", "1=7"), drain(queue));
+        assertEquals(2, queue.stats().coalesced());
+
+        // Once sent, a key starts a fresh entry
+        queue.offer("item:1", "1=6");
+        assertEquals(List.of("1=6"), drain(queue));
+
+        // Still bounded when keys are all distinct
+        for (int i = 0; i < 10; i++) queue.offer("item:" + i, "v" + i);
+        assertEquals(List.of("v7", "v8", "v9"), drain(queue));
+        assertEquals(7, queue.stats().dropped());
+    }
+
+    @Test
+    void testCoalesceKeepsSequencedFramesInOrder() {
+        OutboundQueue<Integer> queue = new OutboundQueue<>(8, OutboundQueue.SlowConsumerPolicy.COALESCE_BY_KEY);
+        queue.offer("A", 5);
+        queue.offer("B", 6);
+        queue.offer("C", 7);
+        queue.offer("A", 8);
+        queue.offer("B", 9);
+
+        // A client dropping seq <= last seen must not lose anything
+        List<Integer> out = new ArrayList<>();
+        Integer m;
+        while ((m = queue.poll()) != null) out.add(m);
+        assertEquals(List.of(7, 8, 9), out);
+        assertEquals(2, queue.stats().coalesced());
+
+        // A long run of superseded frames leaves only the latest per key, still in order
+        for (int i = 0; i < 1_000; i++) queue.offer(i % 2 == 0 ? "A" : "B", i);
+        assertEquals(2, queue.size());
+        assertEquals(998, queue.poll());
+        assertEquals(999, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void testDisconnectPolicyRefusesWhenFullAndReportsLag() throws InterruptedException {
+        OutboundQueue<String> queue = new OutboundQueue<>(2, OutboundQueue.SlowConsumerPolicy.DISCONNECT);
+        assertTrue(queue.offer(null, "a"));
+        assertTrue(queue.offer(null, "b"));
+        Thread.sleep(20);
+        assertFalse(queue.offer(null, "c"));
+        assertTrue(queue.lagMillis() >= 20);
+        assertEquals(1, queue.stats().dropped());
+
+        drain(queue);
+        assertEquals(0, queue.lagMillis());
+    }
+
+    private static List<String> drain(OutboundQueue<String> queue) {
+        List<String> out = new ArrayList<>();
+        String m;
+        while ((m = queue.poll()) != null) out.add(m);
+        return out;
+    }
+}
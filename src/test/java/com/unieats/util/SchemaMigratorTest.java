@@ -0,0 +1,147 @@
+package com.unieats.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaMigratorTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void testMigrateRecordsVersionAndSkipsWhenCurrent() throws SQLException {
+        SchemaMigrator migrator = SchemaMigrations.migrator();
+        assertEquals(0, SchemaMigrator.currentVersion(conn));
+
+        int applied = migrator.migrate(conn);
+        assertEquals(SchemaMigrations.all().size(), applied);
+        assertEquals(migrator.latestVersion(), SchemaMigrator.currentVersion(conn));
+
+        assertEquals(0, migrator.migrate(conn), "Second run should be a no-op");
+    }
+
+    @Test
+    void testFailedMigrationRollsBackAndKeepsVersion() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(java.util.List.of(
+            new SchemaMigrator.Migration(1, "ok", c -> {
+                try (Statement st = c.createStatement()) { st.execute("CREATE TABLE a(id INTEGER)"); }
+            }),
+            new SchemaMigrator.Migration(2, "broken", c -> {
+                try (Statement st = c.createStatement()) {
+                    st.execute("CREATE TABLE b(id INTEGER)");
+                    st.execute("SELECT * FROM does_not_exist");
+                }
+            })
+        ));
+        assertThrows(SQLException.class, () -> migrator.migrate(conn));
+        assertEquals(1, SchemaMigrator.currentVersion(conn));
+        assertTrue(conn.getAutoCommit());
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE name='b'")) {
+            assertEquals(0, rs.getInt(1), "Table from failed migration should be rolled back");
+        }
+    }
+
+    @Test
+    void testHotPathQueriesUseIndexes() throws SQLException {
+        SchemaMigrations.migrator().migrate(conn);
+
+        assertUsesIndex("SELECT * FROM food_items WHERE shop_id=1 ORDER BY updated_at DESC", "idx_food_items_shop_updated");
+        assertUsesIndex("SELECT quantity FROM cart WHERE user_id=1 AND item_id=2", "idx_cart_user_item");
+        assertUsesIndex("SELECT 1 FROM wishlist WHERE user_id = 1 AND item_id = 2 LIMIT 1", "idx_wishlist_user_item");
+        assertUsesIndex("SELECT * FROM orders o WHERE o.user_id = 1 ORDER BY o.created_at DESC", "idx_orders_user_created");
+        assertUsesIndex("SELECT * FROM order_items WHERE order_id = 1", "idx_order_items_order");
+        assertUsesIndex("SELECT * FROM payments WHERE order_id = 1", "idx_payments_order");
+        assertUsesIndex("SELECT AVG(rating) FROM reviews WHERE shop_id = 1", "idx_reviews_shop_created");
+        assertUsesIndex("SELECT * FROM reviews r WHERE r.food_item_id = 1 ORDER BY r.created_at DESC LIMIT 50", "idx_reviews_food_created");
+        assertUsesIndex("SELECT * FROM order_requests WHERE shop_id = 1 AND status = 'pending' ORDER BY order_time DESC", "idx_order_requests_shop_status");
+        assertUsesIndex("SELECT status FROM shops WHERE owner_id = 1", "idx_shops_owner");
+        assertUsesIndex("SELECT * FROM shops WHERE status='approved' ORDER BY created_at DESC", "idx_shops_status_created");
+        assertUsesIndex("SELECT COALESCE(SUM(points),0) FROM reward_points WHERE user_id=1", "sqlite_autoindex_reward_points_1");
+    }
+
+    @Test
+    void testSearchIndexFollowsCatalogChanges() throws SQLException {
+        SchemaMigrations.migrator().migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO shops(id, owner_id, shop_name, status) VALUES(1, 1, 'Cafe Olé', 'approved')");
+            st.execute("INSERT INTO food_items(id, shop_id, name, description, price) VALUES(10, 1, 'Chicken Burger', 'grilled, spicy', 120)");
+            st.execute("INSERT INTO food_items(id, shop_id, name, price) VALUES(11, 1, 'Lemonade', 40)");
+        }
+        assertEquals("10", search("food_search", "\"burg\"*"));
+        assertEquals("10", search("food_search", "\"spic\"*"));
+        assertEquals("10,11", search("food_search", "\"ole\"*"), "Diacritics are folded and shop names are indexed");
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("UPDATE shops SET shop_name = 'Juice Bar' WHERE id = 1");
+            st.execute("UPDATE food_items SET name = 'Beef Burger' WHERE id = 10");
+            st.execute("DELETE FROM food_items WHERE id = 11");
+        }
+        assertEquals("", search("food_search", "\"ole\"*"));
+        assertEquals("10", search("food_search", "\"juice\"* \"beef\"*"));
+        assertEquals("", search("food_search", "\"chicken\"*"));
+        assertEquals("1", search("shop_search", "\"jui\"*"));
+
+        assertUsesIndex("SELECT * FROM shops WHERE shop_name = 'x' COLLATE NOCASE AND status = 'approved'", "idx_shops_name_nocase");
+    }
+
+    @Test
+    void testRatingSummariesAreBackfilled() throws SQLException {
+        SchemaMigrator upToSearch = new SchemaMigrator(SchemaMigrations.all().subList(0, 3));
+        upToSearch.migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO reviews(user_id, shop_id, rating) VALUES(1, 7, 5), (2, 7, 3), (3, 7, 5)");
+            st.execute("INSERT INTO reviews(user_id, food_item_id, rating) VALUES(1, 9, 2)");
+        }
+        SchemaMigrations.migrator().migrate(conn);
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT review_count, rating_sum, stars_3, stars_5 FROM shop_rating_summary WHERE shop_id = 7")) {
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt(1));
+            assertEquals(13, rs.getInt(2));
+            assertEquals(1, rs.getInt(3));
+            assertEquals(2, rs.getInt(4));
+        }
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT review_count, stars_2 FROM food_rating_summary WHERE food_item_id = 9")) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+            assertEquals(1, rs.getInt(2));
+        }
+    }
+
+    private String search(String table, String match) throws SQLException {
+        StringBuilder ids = new StringBuilder();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT rowid FROM " + table + " WHERE " + table + " MATCH '" + match + "' ORDER BY rowid")) {
+            while (rs.next()) ids.append(ids.length() > 0 ? "," : "").append(rs.getInt(1));
+        }
+        return ids.toString();
+    }
+
+    private void assertUsesIndex(String sql, String index) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) plan.append(rs.getString("detail")).append('\n');
+        }
+        assertTrue(plan.toString().contains("INDEX " + index), "Expected " + index + " for: " + sql + "\nPlan:\n" + plan);
+    }
+}
@@ -0,0 +1,28 @@
+package com.unieats.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Points the connection pool at a migrated temp database shared by the pooled tests in this JVM.
+ * Tests seed their own rows under distinct ids.
+ */
+public final class TestDatabase {
+    private static boolean initialized;
+
+    private TestDatabase() {
+    }
+
+    public static synchronized void init() throws IOException, SQLException {
+        if (initialized) return;
+        File db = File.createTempFile("unieats-dao-test", ".db");
+        db.deleteOnExit();
+        System.setProperty("unieats.db.url", "jdbc:sqlite:" + db.getAbsolutePath());
+        try (Connection conn = ConnectionPool.getConnection()) {
+            SchemaMigrations.migrator().migrate(conn);
+        }
+        initialized = true;
+    }
+}
@@ -0,0 +1,102 @@
+package com.unieats.util;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out through InventoryWebSocketServer with 2,000 connected clients, comparing the old
+ * everyone-gets-everything delivery (all clients on "*") with per-shop topic subscriptions.
+ * Not a unit test; run with:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.unieats.util.TopicFanoutBenchmark
+ */
+public class TopicFanoutBenchmark {
+    private static final int CLIENTS = Integer.getInteger("clients", 2_000);
+    private static final int SHOPS = 100;
+    private static final int MESSAGES = 2_000;
+
+    private static final AtomicLong received = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        // Measure routing, not slow-consumer drops: let every client queue hold a full run
+        System.setProperty("unieats.ws.queueCapacity", String.valueOf(MESSAGES));
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        CountDownLatch started = new CountDownLatch(1);
+        InventoryWebSocketServer hub = new InventoryWebSocketServer(port) {
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        hub.setReuseAddr(true);
+        hub.start();
+        started.await(10, TimeUnit.SECONDS);
+
+        List<WebSocketClient> clients = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            WebSocketClient c = new WebSocketClient(URI.create("ws://localhost:" + port)) {
+                @Override public void onOpen(ServerHandshake handshake) { }
+                @Override public void onMessage(String message) { received.incrementAndGet(); }
+                @Override public void onClose(int code, String reason, boolean remote) { }
+                @Override public void onError(Exception ex) { }
+            };
+            if (!c.connectBlocking(10, TimeUnit.SECONDS)) throw new IllegalStateException("client " + i + " failed to connect");
+            clients.add(c);
+        }
+        System.out.println(CLIENTS + " clients connected");
+
+        subscribeAll(hub, clients, i -> "{\"type\":\"subscribe\",\"topics\":[\"*\"]}");
+        run(hub, "broadcast to all", CLIENTS, true);
+        run(hub, "broadcast to all", CLIENTS, false);
+
+        subscribeAll(hub, clients, i -> "{\"type\":\"unsubscribe\",\"topics\":[\"*\"]}");
+        subscribeAll(hub, clients, i -> "{\"type\":\"subscribe\",\"topics\":[\"foodItems:shop:" + (i % SHOPS) + "\"]}");
+        run(hub, "topic per shop", CLIENTS / SHOPS, true);
+        run(hub, "topic per shop", CLIENTS / SHOPS, false);
+
+        for (WebSocketClient c : clients) c.close();
+        hub.stop(1000);
+    }
+
+    interface Frame {
+        String forClient(int index);
+    }
+
+    private static void subscribeAll(InventoryWebSocketServer hub, List<WebSocketClient> clients, Frame frame) throws InterruptedException {
+        for (int i = 0; i < clients.size(); i++) clients.get(i).send(frame.forClient(i));
+        // Subscriptions are processed asynchronously; wait until the index settles
+        int previous = -1;
+        while (true) {
+            Thread.sleep(200);
+            int now = hub.getTopics().topicCount() * 1_000_000 + hub.getTopics().connectionCount();
+            if (now == previous) return;
+            previous = now;
+        }
+    }
+
+    private static void run(InventoryWebSocketServer hub, String name, int perMessage, boolean warmup) throws InterruptedException {
+        received.set(0);
+        long expected = (long) MESSAGES * perMessage;
+        long t0 = System.nanoTime();
+        for (int m = 0; m < MESSAGES; m++) {
+            hub.broadcastJson("{\"type\":\"inventory_update\",\"topic\":\"foodItems:shop:" + (m % SHOPS) + "\",\"shopId\":" + (m % SHOPS) + ",\"itemId\":" + m + "}");
+        }
+        long publishNanos = System.nanoTime() - t0;
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (received.get() < expected && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        long elapsed = System.nanoTime() - t0;
+        if (warmup) return;
+        System.out.printf("%-18s %7d deliveries   publish %7.1f ms (%6.1f us/msg)   all delivered %8.1f ms   %8.0f msgs/s%n",
+                name, received.get(), publishNanos / 1e6, publishNanos / 1e3 / MESSAGES, elapsed / 1e6, MESSAGES / (elapsed / 1e9));
+    }
+}
@@ -0,0 +1,48 @@
+package com.unieats.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopicRegistryTest {
+
+    @Test
+    void testDeliversToExactParentAndWildcardSubscribers() {
+        TopicRegistry<String> registry = new TopicRegistry<>(8);
+        registry.subscribe("seller3", "orders:shop:3");
+        registry.subscribe("seller4", "orders:shop:4");
+        registry.subscribe("allOrders", "orders");
+        registry.subscribe("monitor", TopicRegistry.ALL);
+        registry.subscribe("admin", "shops");
+
+        assertEquals(Set.of("seller3", "allOrders", "monitor"), Set.copyOf(registry.subscribers("orders:shop:3")));
+        assertEquals(Set.of("admin", "monitor"), Set.copyOf(registry.subscribers("shops")));
+        assertEquals(Set.of("monitor"), Set.copyOf(registry.subscribers("payments")));
+        // A prefix that is not a whole segment does not match
+        assertEquals(Set.of("monitor"), Set.copyOf(registry.subscribers("ordersArchive")));
+
+        // Several topics on one message reach each subscriber once
+        assertEquals(3, registry.subscribers(List.of("orders:shop:3", "orders:user:9")).size());
+    }
+
+    @Test
+    void testUnsubscribeAndCloseRemoveEmptyTopics() {
+        TopicRegistry<String> registry = new TopicRegistry<>(2);
+        assertTrue(registry.subscribe("a", "shops"));
+        assertTrue(registry.subscribe("a", "payments"));
+        assertFalse(registry.subscribe("a", "users"), "limit of two topics");
+        assertTrue(registry.subscribe("a", "shops"), "re-subscribing does not count against the limit");
+        assertFalse(registry.subscribe("b", ""));
+
+        registry.unsubscribe("a", "shops");
+        assertTrue(registry.subscribers("shops").isEmpty());
+        assertEquals(Set.of("payments"), registry.topicsOf("a"));
+
+        registry.removeConnection("a");
+        assertEquals(0, registry.topicCount());
+        assertEquals(0, registry.connectionCount());
+    }
+}